@@ -0,0 +1,62 @@
+package core;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Per-request comparison of the two builds of an A/B run, see {@link AbTest}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AbReport {
+
+    private String simulation;
+    private String profile;
+    private String baseUrlA;
+    private String baseUrlB;
+    private double confidence;
+    private List<RequestComparison> requests;
+
+    public enum Verdict {
+        B_FASTER,
+        B_SLOWER,
+        // the confidence interval of the delta contains zero
+        NO_DIFFERENCE
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RequestComparison {
+        private String name;
+        private long requestsA;
+        private long requestsB;
+        private double errorRateA;
+        private double errorRateB;
+        private List<PercentileDelta> percentiles;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PercentileDelta {
+        private double percentile;
+        private double msA;
+        private double msB;
+        // B - A, negative when B is faster
+        private double deltaMs;
+        private double deltaPercent;
+        // confidence interval of the delta
+        private double ciLowMs;
+        private double ciHighMs;
+        private Verdict verdict;
+    }
+}
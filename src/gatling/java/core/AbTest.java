@@ -0,0 +1,208 @@
+package core;
+
+import io.gatling.http.client.Request;
+import io.gatling.http.client.uri.Uri;
+import io.gatling.javaapi.core.Session;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import ru.gordeev.core.config.AppConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A/B mode: one run of a simulation against two builds of the service, {@code performance.ab.base.url.a} and
+ * {@code performance.ab.base.url.b}.
+ * <p>
+ * The HTTP protocol gets both as base URLs, so Gatling hands them to virtual users in turn as they start: both builds
+ * get the same injection profile at the same moments. Every user is counted on the build Gatling gave it
+ * ({@link #target}), and the n-th user of A and the n-th user of B share one seeded data stream ({@link #dataStream}),
+ * so both builds also receive the same payloads. Responses are told apart by the URL they were sent to.
+ * <p>
+ * {@link #compare} puts the percentiles of every request name side by side. The confidence interval of a
+ * percentile comes from the order statistics around it: with n samples, the rank of the q-quantile is off by
+ * z * sqrt(n * q * (1 - q)) at most, at the configured confidence. The interval of the B - A delta combines the
+ * intervals of both builds. A delta whose interval excludes zero is a measured difference, not noise.
+ */
+@Slf4j
+public class AbTest {
+
+    private static final double[] PERCENTILES = {50.0, 95.0, 99.0};
+    // where Gatling keeps the base URL it picked for the user
+    private static final String BASE_URL_ATTRIBUTE = "gatling.http.cache.baseUrl";
+
+    private final String baseUrlA;
+    private final String baseUrlB;
+    private final Uri baseA;
+    private final Uri baseB;
+    private final double confidence;
+    private final RequestMetrics metricsA = new RequestMetrics();
+    private final RequestMetrics metricsB = new RequestMetrics();
+    private final Map<String, AtomicLong> usersByTarget = new ConcurrentHashMap<>();
+    // data stream of every user that asked for one; a user that leaves before the end step keeps its entry
+    private final Map<Long, Long> streams = new ConcurrentHashMap<>();
+
+    public AbTest(String baseUrlA, String baseUrlB, double confidence) {
+        this.baseUrlA = baseUrlA;
+        this.baseUrlB = baseUrlB;
+        this.baseA = Uri.create(baseUrlA);
+        this.baseB = Uri.create(baseUrlB);
+        this.confidence = confidence;
+    }
+
+    /**
+     * @return the A/B test of both configured base URLs, null unless both are set
+     */
+    public static AbTest fromConfig(AppConfig config) {
+        String a = config.performanceAbBaseUrlA();
+        String b = config.performanceAbBaseUrlB();
+        if (a == null || a.isBlank() || b == null || b.isBlank()) {
+            return null;
+        }
+        return new AbTest(a, b, config.performanceAbConfidence());
+    }
+
+    public List<String> baseUrls() {
+        return List.of(baseUrlA, baseUrlB);
+    }
+
+    /**
+     * @return the base URL Gatling gave the user
+     */
+    public static String target(Session session) {
+        return session.getString(BASE_URL_ATTRIBUTE);
+    }
+
+    /**
+     * @return the data stream of the user: its rank among the users of its build that asked for a stream,
+     * so the n-th user of A and the n-th user of B share one
+     */
+    public long dataStream(Session session) {
+        return streams.computeIfAbsent(session.userId(), userId ->
+                usersByTarget.computeIfAbsent(target(session), target -> new AtomicLong()).incrementAndGet());
+    }
+
+    /**
+     * Forgets the data stream of a user that reached the end of its scenario.
+     */
+    public void userFinished(long userId) {
+        streams.remove(userId);
+    }
+
+    /**
+     * Records a request into the build it was sent to.
+     */
+    public void record(Request request, long startMillis, long endMillis, boolean ok, long responseBytes) {
+        record(request.getUri(), request.getName(), startMillis, endMillis, ok, responseBytes);
+    }
+
+    void record(Uri uri, String name, long startMillis, long endMillis, boolean ok, long responseBytes) {
+        RequestMetrics metrics = uri.isSameBase(baseB) ? metricsB : uri.isSameBase(baseA) ? metricsA : null;
+        if (metrics == null) {
+            log.warn("Response from {} matches neither A nor B, not compared", uri.getBaseUrl());
+            return;
+        }
+        metrics.record(name, startMillis, endMillis, ok, responseBytes);
+    }
+
+    public AbReport compare(String simulation, String profile) {
+        double z = zScore(confidence);
+        List<AbReport.RequestComparison> comparisons = new ArrayList<>();
+        TreeSet<String> names = new TreeSet<>(metricsA.byName().keySet());
+        names.retainAll(metricsB.byName().keySet());
+        for (String name : names) {
+            RequestStats a = metricsA.byName().get(name);
+            RequestStats b = metricsB.byName().get(name);
+            Histogram latencyA = a.cumulative();
+            Histogram latencyB = b.cumulative();
+            List<AbReport.PercentileDelta> deltas = new ArrayList<>();
+            for (double percentile : PERCENTILES) {
+                deltas.add(delta(percentile, latencyA, latencyB, z));
+            }
+            comparisons.add(AbReport.RequestComparison.builder()
+                    .name(name)
+                    .requestsA(a.requests())
+                    .requestsB(b.requests())
+                    .errorRateA(a.errorRate())
+                    .errorRateB(b.errorRate())
+                    .percentiles(deltas)
+                    .build());
+        }
+        Set<String> unmatched = new TreeSet<>(metricsA.byName().keySet());
+        unmatched.addAll(metricsB.byName().keySet());
+        unmatched.removeAll(names);
+        if (!unmatched.isEmpty()) {
+            log.warn("Sent to one build only, not compared: {}", unmatched);
+        }
+        return AbReport.builder()
+                .simulation(simulation)
+                .profile(profile)
+                .baseUrlA(baseUrlA)
+                .baseUrlB(baseUrlB)
+                .confidence(confidence)
+                .requests(comparisons)
+                .build();
+    }
+
+    private static AbReport.PercentileDelta delta(double percentile, Histogram a, Histogram b, double z) {
+        double[] rangeA = range(a, percentile, z);
+        double[] rangeB = range(b, percentile, z);
+        double aMs = a.getValueAtPercentile(percentile) / 1000.0;
+        double bMs = b.getValueAtPercentile(percentile) / 1000.0;
+        double delta = bMs - aMs;
+        // B low against A high bounds the delta from below, B high against A low from above
+        double low = delta - Math.hypot(bMs - rangeB[0], rangeA[1] - aMs);
+        double high = delta + Math.hypot(rangeB[1] - bMs, aMs - rangeA[0]);
+        AbReport.Verdict verdict = high < 0 ? AbReport.Verdict.B_FASTER
+                : low > 0 ? AbReport.Verdict.B_SLOWER : AbReport.Verdict.NO_DIFFERENCE;
+        return AbReport.PercentileDelta.builder()
+                .percentile(percentile)
+                .msA(round(aMs))
+                .msB(round(bMs))
+                .deltaMs(round(delta))
+                .deltaPercent(aMs == 0 ? 0 : round(delta / aMs * 100))
+                .ciLowMs(round(low))
+                .ciHighMs(round(high))
+                .verdict(verdict)
+                .build();
+    }
+
+    /**
+     * @return the latencies in ms at the lowest and highest rank the percentile can have at the given z
+     */
+    private static double[] range(Histogram histogram, double percentile, double z) {
+        double q = percentile / 100;
+        double spread = z * Math.sqrt(q * (1 - q) / Math.max(histogram.getTotalCount(), 1));
+        return new double[]{
+                histogram.getValueAtPercentile(Math.max(0, q - spread) * 100) / 1000.0,
+                histogram.getValueAtPercentile(Math.min(1, q + spread) * 100) / 1000.0
+        };
+    }
+
+    /**
+     * @return z of the two-sided interval at the given confidence, by bisection of the normal CDF
+     */
+    static double zScore(double confidence) {
+        double target = 1 - (1 - confidence) / 2;
+        double low = 0;
+        double high = 10;
+        for (int i = 0; i < 60; i++) {
+            double mid = (low + high) / 2;
+            if (RegressionGate.normalCdf(mid) < target) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return (low + high) / 2;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -1,19 +1,42 @@
 package core;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gatling.commons.validation.Validation;
+import io.gatling.http.client.Request;
+import io.gatling.http.request.builder.HttpRequestBuilder;
+import io.gatling.http.response.Response;
 import io.gatling.javaapi.core.Assertion;
+import io.gatling.javaapi.core.ChainBuilder;
 import io.gatling.javaapi.core.PopulationBuilder;
 import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Session;
 import io.gatling.javaapi.core.Simulation;
 import io.gatling.javaapi.http.HttpProtocolBuilder;
+import io.gatling.javaapi.http.HttpRequestActionBuilder;
 import io.restassured.builder.RequestSpecBuilder;
 import io.restassured.http.ContentType;
 import lombok.extern.slf4j.Slf4j;
 import org.aeonbits.owner.ConfigFactory;
+import scala.Function1;
 import ru.gordeev.core.config.AppConfig;
+import ru.gordeev.core.data.DataRandom;
+import ru.gordeev.core.latency.CoordinatedOmissionRecorder;
 import ru.gordeev.todo.api.TodoApiService;
+import ru.gordeev.todo.stub.EmbeddedTodoServer;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
 
 import static io.gatling.javaapi.core.CoreDsl.*;
 import static io.gatling.javaapi.http.HttpDsl.http;
@@ -26,27 +49,73 @@ import static io.netty.handler.codec.http.HttpHeaders.Values.APPLICATION_JSON;
  */
 @Slf4j
 public abstract class BaseGatlingSimulation extends Simulation {
+    private static final DateTimeFormatter RUN_ID = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final String DATA_STREAM = "dataStream";
+
     protected final AppConfig config = ConfigFactory.create(AppConfig.class);
-    protected final TodoApiService todoApiService;
+    // one per target, see baseUrls()
+    protected final List<TodoApiService> todoApiServices;
     protected final ObjectMapper objectMapper = new ObjectMapper();
+    protected final RequestMetrics metrics = new RequestMetrics();
+    protected final CoordinatedOmissionRecorder latencies = new CoordinatedOmissionRecorder();
+    // the request each virtual user is waiting on, see tracked()
+    private final Map<Long, InFlight> inFlight = new ConcurrentHashMap<>();
+    protected final LiveMonitor liveMonitor = new LiveMonitor(metrics, inFlight::size, LiveMonitor.Settings.fromConfig(config));
+    private final AbTest abTest = AbTest.fromConfig(config);
+    private final AtomicInteger schedules = new AtomicInteger();
+    private LoadProfile loadProfile;
+    private HdrIntervalLog intervalLog;
+    private ServerMonitor serverMonitor;
+    private SoakMonitor soakMonitor;
+    // declared by thresholdAssertions()
+    private List<Threshold> thresholds = List.of();
+    private final EmbeddedTodoServer stubServer;
 
-    protected final HttpProtocolBuilder httpProtocol = http
-            .baseUrl(config.baseUri() + ":" + config.basePort())
-            .acceptHeader(APPLICATION_JSON)
-            .contentTypeHeader(APPLICATION_JSON)
-            .userAgentHeader("Gatling Performance Test")
-            .shareConnections();
+    protected final HttpProtocolBuilder httpProtocol = buildHttpProtocol(getLoadProfile());
 
     public BaseGatlingSimulation() {
-        var requestSpec = new RequestSpecBuilder()
-                .setContentType(ContentType.JSON)
-                .setBaseUri(config.baseUri())
-                .setPort(config.basePort())
-                .build();
-        this.todoApiService = new TodoApiService(requestSpec, config);
+        // started before subclass constructors so that seeding against the target works
+        this.stubServer = config.stubEnabled() ? EmbeddedTodoServer.startFromConfig(config) : null;
+        this.todoApiServices = baseUrls().stream()
+                .map(baseUrl -> new TodoApiService(new RequestSpecBuilder()
+                        .setContentType(ContentType.JSON)
+                        .setBaseUri(baseUrl)
+                        .build(), config))
+                .toList();
+    }
+
+    /**
+     * @return the base URLs under test: both builds in A/B mode, otherwise {@code base.uri} and {@code base.port}
+     */
+    protected List<String> baseUrls() {
+        return abTest != null ? abTest.baseUrls() : List.of(config.baseUri() + ":" + config.basePort());
+    }
+
+    /**
+     * @return the base URL the user sends its requests to, one of {@link #baseUrls()}
+     */
+    protected String baseUrl(Session session) {
+        return abTest != null ? AbTest.target(session) : baseUrls().get(0);
     }
 
 
+    /**
+     * Builds the HTTP protocol for the profile's {@link LoadProfile.ConnectionModel}.
+     * In A/B mode, the protocol gets both builds as base URLs.
+     */
+    private HttpProtocolBuilder buildHttpProtocol(LoadProfile profile) {
+        HttpProtocolBuilder protocol = http.baseUrls(baseUrls())
+                .acceptHeader(APPLICATION_JSON)
+                .contentTypeHeader(APPLICATION_JSON)
+                .userAgentHeader("Gatling Performance Test");
+        return switch (profile.getConnectionModel()) {
+            case SHARED_POOL -> protocol.shareConnections();
+            // Gatling's default: a connection pool per virtual user
+            case PER_USER -> protocol;
+            case PER_REQUEST -> protocol.connectionHeader("close");
+        };
+    }
+
     /**
      * Concrete simulations must implement this method to define the user scenario.
      * @return The ScenarioBuilder that defines the sequence of actions.
@@ -54,10 +123,195 @@ public abstract class BaseGatlingSimulation extends Simulation {
     protected abstract ScenarioBuilder defineScenario();
 
     /**
-     * Concrete simulations must implement this method to provide the load profile.
+     * Provides the load profile, resolved once per simulation by {@link LoadProfiles}
+     * from the profile selected with {@code performance.profile}.
      * @return The LoadProfile configuration for this simulation.
      */
-    protected abstract LoadProfile getLoadProfile();
+    protected LoadProfile getLoadProfile() {
+        if (loadProfile == null) {
+            loadProfile = LoadProfiles.resolve(config);
+        }
+        return loadProfile;
+    }
+
+    /**
+     * Records the request's latency, status and response size into {@link #metrics}.
+     * A response with a status below 400 counts as OK.
+     */
+    protected ChainBuilder measured(HttpRequestActionBuilder request) {
+        return measured(request, status -> status < 400);
+    }
+
+    /**
+     * Same as {@link #measured(HttpRequestActionBuilder)} for requests whose expected status
+     * is not a success, e.g. invalid payloads that must be rejected with 400.
+     */
+    protected ChainBuilder measured(HttpRequestActionBuilder request, IntPredicate isOk) {
+        return tracked(request.transformResponse((response, session) -> {
+            record(session, response, isOk.test(response.status().code()));
+            return response;
+        }));
+    }
+
+    /**
+     * Sends a request whose response is recorded with {@link #record(Session, Response, boolean)}. A request that
+     * gets no response at all (connection failure, timeout) never reaches {@code transformResponse}, so it is
+     * recorded here as failed, from the time it was sent until the user moves on.
+     */
+    protected ChainBuilder tracked(HttpRequestActionBuilder request) {
+        return tracked(request, null);
+    }
+
+    /**
+     * @param slotKey session attribute holding the intended start of a {@link #scheduled} request, or null
+     */
+    private ChainBuilder tracked(HttpRequestActionBuilder request, String slotKey) {
+        // a request that fails to connect is never built into a Request, so its name comes from the builder
+        Function1<io.gatling.core.session.Session, Validation<String>> requestName =
+                ((HttpRequestBuilder) request.asScala()).commonAttributes().requestName();
+        return exec(session -> {
+            long now = System.currentTimeMillis();
+            // still set when an earlier request of the user failed and the recording exec was skipped
+            recordTransportFailure(session.userId(), now);
+            String name = requestName.apply(session.asScala()).toOption().getOrElse(() -> "unnamed request");
+            inFlight.put(session.userId(), new InFlight(name, now, slotKey != null ? session.getLong(slotKey) : null));
+            return session;
+        })
+                .exec(live(request))
+                .exec(session -> {
+                    recordTransportFailure(session.userId(), System.currentTimeMillis());
+                    return session;
+                });
+    }
+
+    /**
+     * Records the response into {@link #metrics} and, in A/B mode, into the build it came from.
+     */
+    protected void record(Session session, Response response, boolean ok) {
+        inFlight.remove(session.userId());
+        metrics.record(response.request().getName(), response.startTimestamp(), response.endTimestamp(), ok,
+                response.body().length());
+        if (abTest != null) {
+            abTest.record(response.request(), response.startTimestamp(), response.endTimestamp(), ok,
+                    response.body().length());
+        }
+    }
+
+    private void recordTransportFailure(long userId, long endMillis) {
+        InFlight request = inFlight.remove(userId);
+        if (request == null) {
+            return;
+        }
+        metrics.record(request.name, request.startMillis, endMillis, false, 0);
+        if (request.intendedStartMillis != null) {
+            latencies.recordMillis(request.name, request.intendedStartMillis, request.startMillis, endMillis, false);
+        }
+        if (abTest != null && request.sent != null) {
+            abTest.record(request.sent, request.startMillis, endMillis, false, 0);
+        }
+    }
+
+    /**
+     * Sends the request on a fixed-rate schedule per virtual user, e.g. inside a {@code during} loop: each
+     * execution waits for its slot, one interval after the previous slot rather than after the previous
+     * response. Besides {@link #metrics}, the latency from the slot goes to {@link #latencies}, so a stalled
+     * response also shows in the response time of the requests queued behind it. Requests that get no response
+     * are recorded there as failed too.
+     */
+    protected ChainBuilder scheduled(HttpRequestActionBuilder request, Duration interval) {
+        return scheduled(request, interval, status -> status < 400);
+    }
+
+    protected ChainBuilder scheduled(HttpRequestActionBuilder request, Duration interval, IntPredicate isOk) {
+        String slotKey = "intendedStart" + schedules.incrementAndGet();
+        long intervalMillis = interval.toMillis();
+        return exec(session -> session.set(slotKey, session.contains(slotKey)
+                        ? session.getLong(slotKey) + intervalMillis
+                        : System.currentTimeMillis()))
+                .pause(session -> Duration.ofMillis(Math.max(0, session.getLong(slotKey) - System.currentTimeMillis())))
+                .exec(tracked(request.transformResponse((response, session) -> {
+                    boolean ok = isOk.test(response.status().code());
+                    record(session, response, ok);
+                    latencies.recordMillis(response.request().getName(), session.getLong(slotKey),
+                            response.startTimestamp(), response.endTimestamp(), ok);
+                    return response;
+                }), slotKey));
+    }
+
+    /**
+     * Reports the virtual user of every request sent to {@link #liveMonitor}, which counts recently seen users as
+     * active, and remembers where the request went for a transport failure in A/B mode.
+     */
+    private HttpRequestActionBuilder live(HttpRequestActionBuilder request) {
+        return request.sign((httpRequest, session) -> {
+            Request sent = beforeSend(httpRequest, session);
+            InFlight pending = inFlight.get(session.userId());
+            if (pending != null) {
+                pending.sent = sent;
+            }
+            liveMonitor.userSeen(session.userId());
+            return sent;
+        });
+    }
+
+    /**
+     * Changes a built request right before it is sent, for what the request DSL cannot express, such as headers
+     * whose names come from the session. Applies to every request sent with {@link #tracked}.
+     */
+    protected Request beforeSend(Request request, Session session) {
+        return request;
+    }
+
+    private static final class InFlight {
+        private final String name;
+        private final long startMillis;
+        // slot of a scheduled request, null for others
+        private final Long intendedStartMillis;
+        // set once the request is built, which a failed connection never gets to
+        private volatile Request sent;
+
+        private InFlight(String name, long startMillis, Long intendedStartMillis) {
+            this.name = name;
+            this.startMillis = startMillis;
+            this.intendedStartMillis = intendedStartMillis;
+        }
+    }
+
+    /**
+     * Seed for {@code DataRandom.withStream} of the user: its id, or in A/B mode the stream it shares with the user
+     * of the same rank on the other build, so both builds receive the same generated data.
+     */
+    protected long dataStream(Session session) {
+        return abTest != null ? abTest.dataStream(session) : session.userId();
+    }
+
+    /**
+     * Runs the action on the data stream of the user, see {@link #dataStream}. The stream is kept in the session,
+     * so the next call of the same user continues it instead of drawing the same values again.
+     */
+    protected Session withDataStream(Session session, Function<Session, Session> action) {
+        DataRandom.Stream stream = session.contains(DATA_STREAM)
+                ? session.get(DATA_STREAM)
+                : DataRandom.stream(dataStream(session));
+        return DataRandom.withStream(stream, () -> action.apply(session)).set(DATA_STREAM, stream);
+    }
+
+    /**
+     * Stops the load generator once {@link #liveMonitor} has an abort reason or a soak found drift. Appended to
+     * every scenario by {@link #buildPopulation}; scenarios whose users loop for the whole run should also call
+     * it in the loop.
+     */
+    protected ChainBuilder abortOnBreach() {
+        return stopLoadGeneratorIf(session -> "Threshold breached: " + stopReason(), session -> stopReason() != null);
+    }
+
+    private String stopReason() {
+        String reason = liveMonitor.abortReason();
+        if (reason == null && soakMonitor != null) {
+            reason = soakMonitor.stopReason();
+        }
+        return reason;
+    }
 
     /**
      * Optional hook for performing cleanup tasks after the simulation completes.
@@ -69,22 +323,141 @@ public abstract class BaseGatlingSimulation extends Simulation {
         LoadProfile profile = getLoadProfile();
         log.info("============================================================");
         log.info("Starting performance test: {}", profile.getName());
-        log.info("Target: {}:{}", config.baseUri(), config.basePort());
+        if (abTest != null) {
+            log.info("A/B targets: {} and {}", config.performanceAbBaseUrlA(), config.performanceAbBaseUrlB());
+        } else {
+            log.info("Target: {}:{}", config.baseUri(), config.basePort());
+        }
         log.info("Load Pattern: {}", profile.getPattern());
+        log.info("Connections: {}", profile.getConnectionModel());
         log.info("============================================================");
+
+        if (profile.getPattern() == LoadProfile.Pattern.CAPACITY_SEARCH) {
+            metrics.recordFrom(System.currentTimeMillis() + profile.getCapacityStepWarmupSeconds() * 1000L);
+        }
+        startIntervalLog();
+        ServerMonitor.fromConfig(config, metrics, liveMonitor).ifPresent(monitor -> {
+            serverMonitor = monitor;
+            serverMonitor.start();
+        });
+        if (profile.getPattern() == LoadProfile.Pattern.SOAK) {
+            startSoakMonitor(profile);
+        }
+        try {
+            liveMonitor.start(profile);
+        } catch (IOException e) {
+            log.error("Failed to serve live stats on port {}", config.performanceLivePort(), e);
+        }
+    }
+
+    private void startIntervalLog() {
+        Path runDir = HdrIntervalLog.runsDir(config, getClass().getName(), config.performanceProfile())
+                .resolve(LocalDateTime.now().format(RUN_ID));
+        intervalLog = new HdrIntervalLog(metrics, runDir);
+        try {
+            intervalLog.start(config.performanceHdrIntervalSeconds());
+        } catch (IOException e) {
+            log.error("Failed to create HDR interval log directory {}", runDir, e);
+            intervalLog = null;
+        }
+    }
+
+    private void startSoakMonitor(LoadProfile profile) {
+        soakMonitor = new SoakMonitor(metrics, profile, serverMonitor != null ? serverMonitor.sampler() : null);
+        soakMonitor.start();
+    }
+
+    private ServerTimeline writeServerTimeline() {
+        ServerTimeline timeline = serverMonitor.stop(getClass().getName(), config.performanceProfile());
+        Path report = Path.of(config.performanceReportsDir(), "server-%s-%s.json"
+                .formatted(HdrIntervalLog.simpleName(getClass().getName()), LocalDateTime.now().format(RUN_ID)));
+        try {
+            Files.createDirectories(report.getParent());
+            objectMapper.writeValue(report.toFile(), timeline);
+        } catch (IOException e) {
+            log.error("Failed to write server timeline to {}", report, e);
+        }
+        log.info("Server peaks: CPU {}%, RSS {} MB, {} threads, {} fds, GC {}% (timeline: {})",
+                timeline.peak(ServerTimeline.Point::getCpuPercent), timeline.peak(ServerTimeline.Point::getRssMb),
+                timeline.peak(ServerTimeline.Point::getThreads), timeline.peak(ServerTimeline.Point::getOpenFds),
+                timeline.peak(ServerTimeline.Point::getGcPercent), report);
+        return timeline;
+    }
+
+    private void writeSoakReport() {
+        SoakReport report = soakMonitor.stop(getClass().getName());
+        String reportProperty = System.getProperty(SoakRun.REPORT_PROPERTY);
+        Path file = reportProperty != null ? Path.of(reportProperty) : Path.of(config.performanceReportsDir(),
+                "soak-%s-%s.json".formatted(HdrIntervalLog.simpleName(getClass().getName()), LocalDateTime.now().format(RUN_ID)));
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+        } catch (IOException e) {
+            log.error("Failed to write soak report to {}", file, e);
+        }
+        if (report.isPassed()) {
+            log.info("Soak passed, slopes per hour {} (report: {})", report.getSlopes(), file);
+        } else {
+            log.error("Soak drift: {} (report: {})", report.getViolations(), file);
+        }
+    }
+
+    private void writeAbReport() {
+        AbReport report = abTest.compare(getClass().getName(), config.performanceProfile());
+        for (AbReport.RequestComparison request : report.getRequests()) {
+            for (AbReport.PercentileDelta delta : request.getPercentiles()) {
+                log.info("A/B {} p{}: A {} ms, B {} ms, delta {} ms ({}%), CI [{}, {}] -> {}", request.getName(),
+                        Math.round(delta.getPercentile()), delta.getMsA(), delta.getMsB(), delta.getDeltaMs(),
+                        delta.getDeltaPercent(), delta.getCiLowMs(), delta.getCiHighMs(), delta.getVerdict());
+            }
+        }
+        Path file = Path.of(config.performanceReportsDir(), "ab-%s-%s.json"
+                .formatted(HdrIntervalLog.simpleName(getClass().getName()), LocalDateTime.now().format(RUN_ID)));
+        try {
+            Files.createDirectories(file.getParent());
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+            log.info("A/B comparison written to {}", file);
+        } catch (IOException e) {
+            log.error("Failed to write A/B comparison to {}", file, e);
+        }
+    }
+
+    private void writeCorrectedLatencies() {
+        latencies.summarize().forEach(latency -> log.info("{}: service p99 {} ms, response p99 {} ms from schedule",
+                latency.getName(), latency.getServiceP99Ms(), latency.getResponseP99Ms()));
+        Path report = Path.of(config.performanceReportsDir(), "latency-%s-%s.json"
+                .formatted(HdrIntervalLog.simpleName(getClass().getName()), LocalDateTime.now().format(RUN_ID)));
+        try {
+            Files.createDirectories(report.getParent());
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(report.toFile(), latencies.summarize());
+            log.info("Corrected latencies written to {}", report);
+        } catch (IOException e) {
+            log.error("Failed to write corrected latencies to {}", report, e);
+        }
     }
 
     /**
      * Constructs a Gatling PopulationBuilder based on the specified load profile pattern.
      * This method translates the high-level LoadProfile into a concrete Gatling injection strategy.
+     * CONCURRENT_USERS and STAIRCASE use the closed model: a new user starts as soon as one finishes.
+     * Every user ends by reporting to {@link #liveMonitor} and checking {@link #abortOnBreach()}.
      */
     protected PopulationBuilder buildPopulation(ScenarioBuilder scenario, LoadProfile profile) {
-        final Duration warmupDuration = Duration.ofSeconds(5);
-
+        scenario = scenario
+                .exec(session -> {
+                    metrics.recordIteration(System.currentTimeMillis());
+                    liveMonitor.userFinished(session.userId());
+                    if (abTest != null) {
+                        abTest.userFinished(session.userId());
+                    }
+                    return session;
+                })
+                .exec(abortOnBreach());
         switch (profile.getPattern()) {
             case CONSTANT_LOAD:
                 return scenario.injectOpen(
-                        rampUsers(profile.getWarmupRequests()).during(warmupDuration),
+                        rampUsers(profile.getWarmupRequests())
+                                .during(Duration.ofSeconds(profile.getWarmupDurationSeconds())),
                         constantUsersPerSec(profile.getTargetRps())
                                 .during(Duration.ofSeconds(profile.getTestDurationSeconds()))
                 );
@@ -120,6 +493,46 @@ public abstract class BaseGatlingSimulation extends Simulation {
                                 .during(Duration.ofSeconds(profile.getTestDurationSeconds()))
                 );
 
+            case CAPACITY_SEARCH:
+                CapacityStepResult.requireMeasuredStep(profile);
+                double stepRps = capacityStepRps(profile);
+                Duration stepWarmup = Duration.ofSeconds(profile.getCapacityStepWarmupSeconds());
+                return scenario.injectOpen(
+                        rampUsersPerSec(1).to(stepRps).during(stepWarmup),
+                        constantUsersPerSec(stepRps).during(
+                                Duration.ofSeconds(profile.getCapacityStepDurationSeconds()).minus(stepWarmup))
+                );
+
+            case CONCURRENT_USERS:
+                int concurrentHoldSecs = profile.getTestDurationSeconds() - profile.getRampUpDurationSeconds();
+                if (concurrentHoldSecs < 0) {
+                    log.warn("Ramp-up duration is longer than the total test duration. The test will only ramp up.");
+                    concurrentHoldSecs = 0;
+                }
+                return scenario.injectClosed(
+                        rampConcurrentUsers(0).to(profile.getUsers())
+                                .during(Duration.ofSeconds(profile.getRampUpDurationSeconds())),
+                        constantConcurrentUsers(profile.getUsers())
+                                .during(Duration.ofSeconds(concurrentHoldSecs))
+                );
+
+            case STAIRCASE:
+                return scenario.injectClosed(
+                        incrementConcurrentUsers(profile.getStaircaseStepUsers())
+                                .times(profile.getStaircaseSteps())
+                                .eachLevelLasting(Duration.ofSeconds(profile.getStaircaseHoldSeconds()))
+                                .separatedByRampsLasting(Duration.ofSeconds(profile.getStaircaseRampSeconds()))
+                                .startingFrom(profile.getStaircaseStartUsers())
+                );
+
+            case SOAK:
+                return scenario.injectOpen(
+                        rampUsersPerSec(1).to(profile.getTargetRps())
+                                .during(Duration.ofSeconds(profile.getRampUpDurationSeconds())),
+                        constantUsersPerSec(profile.getTargetRps())
+                                .during(Duration.ofSeconds(profile.getTestDurationSeconds()))
+                );
+
             default:
                 throw new IllegalArgumentException("Unsupported load pattern: " + profile.getPattern());
         }
@@ -130,23 +543,107 @@ public abstract class BaseGatlingSimulation extends Simulation {
      * defined in the load profile.
      */
     protected Assertion[] buildAssertions(LoadProfile profile) {
-        return new Assertion[]{
-                global().responseTime().max().lt(profile.getMaxResponseTimeMs()),
-                global().responseTime().percentile(95.0).lt(profile.getP95ResponseTimeMs()),
-                global().responseTime().percentile(99.0).lt(profile.getP99ResponseTimeMs()),
-                global().failedRequests().percent().lt(profile.getMaxErrorRate() * 100)
-        };
+        return thresholdAssertions(Threshold.standard(profile));
+    }
+
+    /**
+     * Declares the thresholds the run is judged on and returns them as Gatling assertions. One injector
+     * of a distributed run gets no assertions and passes the thresholds on in its {@link InjectorResult},
+     * as the orchestrator checks them on the merged results.
+     */
+    protected Assertion[] thresholdAssertions(List<Threshold> thresholds) {
+        this.thresholds = List.copyOf(thresholds);
+        if (System.getProperty(InjectorOrchestrator.INJECTOR_REPORT_PROPERTY) != null) {
+            return new Assertion[0];
+        }
+        return thresholds.stream().map(Threshold::toAssertion).toArray(Assertion[]::new);
+    }
+
+    /**
+     * Rate of the current capacity search step, as set by {@link CapacitySearch}.
+     * A standalone run executes a single step at the floor rate.
+     */
+    private static double capacityStepRps(LoadProfile profile) {
+        String stepRps = System.getProperty(CapacitySearch.STEP_RPS_PROPERTY);
+        if (stepRps == null) {
+            log.warn("No {} set, running a single step at the floor rate. Use ./gradlew capacitySearch for the full search.",
+                    CapacitySearch.STEP_RPS_PROPERTY);
+            return profile.getCapacityFloorRps();
+        }
+        return Double.parseDouble(stepRps);
+    }
+
+    private void writeCapacityStepResult(LoadProfile profile, ServerTimeline serverTimeline) {
+        CapacityStepResult result = CapacityStepResult.evaluate(profile, capacityStepRps(profile), metrics);
+        if (serverTimeline != null) {
+            result.setServerPeakCpuPercent(serverTimeline.peak(ServerTimeline.Point::getCpuPercent));
+            result.setServerPeakGcPercent(serverTimeline.peak(ServerTimeline.Point::getGcPercent));
+            result.setServerPeakOpenFds(serverTimeline.peak(ServerTimeline.Point::getOpenFds));
+        }
+        log.info("Capacity step at {} RPS: {} {}", result.getTargetRps(),
+                result.isPassed() ? "PASSED" : "FAILED", result.getViolations());
+
+        String report = System.getProperty(CapacitySearch.STEP_REPORT_PROPERTY);
+        if (report != null) {
+            try {
+                objectMapper.writeValue(Path.of(report).toFile(), result);
+            } catch (IOException e) {
+                log.error("Failed to write capacity step result to {}", report, e);
+            }
+        }
+    }
+
+    private void writeInjectorResult(String report) {
+        int injector = config.performanceInjectorIndex();
+        try {
+            Path file = Path.of(report);
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            objectMapper.writeValue(file.toFile(), InjectorResult.of(injector, metrics, thresholds));
+        } catch (IOException e) {
+            log.error("Failed to write injector result to {}", report, e);
+        }
     }
 
     @Override
     public final void after() {
         log.info("============================================================");
+        long end = System.currentTimeMillis();
+        // users stopped while waiting on a response that never came
+        new ArrayList<>(inFlight.keySet()).forEach(userId -> recordTransportFailure(userId, end));
+        liveMonitor.stop();
+        if (stopReason() != null) {
+            log.error("Run stopped early: {}", stopReason());
+        }
+        if (intervalLog != null) {
+            intervalLog.stop();
+        }
+        ServerTimeline serverTimeline = serverMonitor != null ? writeServerTimeline() : null;
+        LoadProfile profile = getLoadProfile();
+        if (profile.getPattern() == LoadProfile.Pattern.CAPACITY_SEARCH) {
+            writeCapacityStepResult(profile, serverTimeline);
+        }
+        if (soakMonitor != null) {
+            writeSoakReport();
+        }
+        if (abTest != null) {
+            writeAbReport();
+        }
+        if (!latencies.isEmpty()) {
+            writeCorrectedLatencies();
+        }
+        String injectorReport = System.getProperty(InjectorOrchestrator.INJECTOR_REPORT_PROPERTY);
+        if (injectorReport != null) {
+            writeInjectorResult(injectorReport);
+        }
         log.info("Performance test completed. Running after-simulation hooks.");
         try {
             afterSimulation();
         } catch (Exception e) {
             log.error("After-simulation hook failed!", e);
         }
+        if (stubServer != null) {
+            stubServer.stop();
+        }
         log.info("Check the Gatling report for detailed results.");
         log.info("============================================================");
     }
@@ -0,0 +1,170 @@
+package core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aeonbits.owner.ConfigFactory;
+import ru.gordeev.core.config.AppConfig;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the maximum RPS a simulation sustains within the SLO thresholds of the
+ * {@link LoadProfile.Pattern#CAPACITY_SEARCH} profile
+ * ({@code performance.profile} if it selects one, the {@code capacity} profile otherwise).
+ * <p>
+ * Gatling injection profiles are fixed before a run starts, so every step is a separate,
+ * short constant-rate run in a child JVM. The child evaluates its step against the p95/p99/
+ * error-rate thresholds and writes a {@link CapacityStepResult}; the search then verifies the
+ * floor and ceiling and binary-searches between them until the resolution is reached.
+ * The steps and the resulting latency curve are written as a JSON artifact.
+ * <p>
+ * Usage: {@code ./gradlew capacitySearch -Psimulation=simulations.CreateTodoSimulation}
+ */
+@Slf4j
+public final class CapacitySearch {
+
+    public static final String STEP_RPS_PROPERTY = "performance.capacity.step.rps";
+    public static final String STEP_REPORT_PROPERTY = "performance.capacity.step.report";
+
+    private static final String DEFAULT_PROFILE = "capacity";
+    private static final DateTimeFormatter RUN_ID = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final String simulation;
+    private final String profileName;
+    private final LoadProfile profile;
+    private final Path workDir;
+    private final List<CapacityStepResult> steps = new ArrayList<>();
+
+    private CapacitySearch(String simulation, String profileName, LoadProfile profile, Path workDir) {
+        this.simulation = simulation;
+        this.profileName = profileName;
+        this.profile = profile;
+        this.workDir = workDir;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: CapacitySearch <simulation class> <output directory>");
+        }
+        String simulation = args[0];
+        Path workDir = Path.of(args[1], simulation + "-" + LocalDateTime.now().format(RUN_ID));
+        Files.createDirectories(workDir);
+
+        // the selected profile if it is a capacity search one, the built-in "capacity" profile otherwise
+        AppConfig config = ConfigFactory.create(AppConfig.class);
+        String profileName = config.performanceProfile();
+        LoadProfile profile = LoadProfiles.resolve(config, profileName);
+        if (profile.getPattern() != LoadProfile.Pattern.CAPACITY_SEARCH) {
+            profileName = DEFAULT_PROFILE;
+            profile = LoadProfiles.resolve(config, profileName);
+        }
+        CapacityStepResult.requireMeasuredStep(profile);
+
+        CapacitySearch search = new CapacitySearch(simulation, profileName, profile, workDir);
+        Report report = search.run();
+
+        Path artifact = workDir.resolve("capacity-search.json");
+        search.objectMapper.writeValue(artifact.toFile(), report);
+        log.info("Max sustainable RPS for {}: {} (report: {})", simulation, report.getMaxSustainableRps(), artifact);
+    }
+
+    private Report run() throws IOException, InterruptedException {
+        double floor = profile.getCapacityFloorRps();
+        double ceiling = profile.getCapacityCeilingRps();
+        double maxSustainable = 0;
+
+        if (!runStep(floor).isPassed()) {
+            log.warn("Floor of {} RPS already violates the thresholds", floor);
+        } else if (runStep(ceiling).isPassed()) {
+            log.warn("Ceiling of {} RPS is still sustainable; raise capacityCeilingRps", ceiling);
+            maxSustainable = ceiling;
+        } else {
+            double low = floor;
+            double high = ceiling;
+            while (high - low > profile.getCapacityResolutionRps() && steps.size() < profile.getCapacityMaxSteps()) {
+                double middle = Math.floor((low + high) / 2);
+                if (runStep(middle).isPassed()) {
+                    low = middle;
+                } else {
+                    high = middle;
+                }
+            }
+            maxSustainable = low;
+        }
+
+        List<CapacityStepResult> curve = new ArrayList<>(steps);
+        curve.sort(Comparator.comparingDouble(CapacityStepResult::getTargetRps));
+        return Report.builder()
+                .simulation(simulation)
+                .profile(profile.getName())
+                .p95ThresholdMs(profile.getP95ResponseTimeMs())
+                .p99ThresholdMs(profile.getP99ResponseTimeMs())
+                .maxErrorRate(profile.getMaxErrorRate())
+                .floorRps(floor)
+                .ceilingRps(ceiling)
+                .maxSustainableRps(maxSustainable)
+                .steps(steps)
+                .latencyCurve(curve)
+                .build();
+    }
+
+    private CapacityStepResult runStep(double rps) throws IOException, InterruptedException {
+        int index = steps.size() + 1;
+        Path stepReport = workDir.resolve("step-%02d-%.0f-rps.json".formatted(index, rps));
+        log.info("Capacity step {}: {} RPS for {} s", index, rps, profile.getCapacityStepDurationSeconds());
+
+        int exitCode = GatlingLauncher.run(simulation, Map.of(
+                "performance.profile", profileName,
+                STEP_RPS_PROPERTY, String.valueOf(rps),
+                STEP_REPORT_PROPERTY, stepReport.toString()
+        ), workDir.resolve("gatling"), false);
+
+        if (!Files.exists(stepReport)) {
+            throw new IllegalStateException(
+                    "Capacity step at %s RPS produced no result (exit code %d)".formatted(rps, exitCode));
+        }
+        CapacityStepResult result = objectMapper.readValue(stepReport.toFile(), CapacityStepResult.class);
+        log.info("Capacity step {}: {} RPS -> {} (p95 {} ms, p99 {} ms, errors {}%) {}", index, rps,
+                result.isPassed() ? "PASSED" : "FAILED", result.getP95Ms(), result.getP99Ms(),
+                result.getErrorRate() * 100, result.getViolations());
+        if (result.getServerPeakCpuPercent() != null) {
+            log.info("Capacity step {}: server peaked at CPU {}%, GC {}%, {} fds", index,
+                    result.getServerPeakCpuPercent(), result.getServerPeakGcPercent(), result.getServerPeakOpenFds());
+        }
+        steps.add(result);
+        return result;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Report {
+        private String simulation;
+        private String profile;
+        private int p95ThresholdMs;
+        private int p99ThresholdMs;
+        private double maxErrorRate;
+        private double floorRps;
+        private double ceilingRps;
+        private double maxSustainableRps;
+        // in execution order
+        private List<CapacityStepResult> steps;
+        // the same steps, ordered by target RPS
+        private List<CapacityStepResult> latencyCurve;
+    }
+}
@@ -0,0 +1,99 @@
+package core;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a single constant-rate step of a capacity search,
+ * evaluated against the SLO thresholds of the load profile.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CapacityStepResult {
+
+    // a step that cannot even reach this share of its target rate is saturated
+    private static final double MIN_ACHIEVED_RATIO = 0.9;
+
+    // user arrival rate of the step
+    private double targetRps;
+    // completed scenario iterations per second, comparable to targetRps
+    private double achievedRps;
+    // HTTP requests per second, a multiple of achievedRps for scenarios of several requests
+    private double requestRps;
+    private long iterations;
+    private long requests;
+    private double errorRate;
+    private double meanMs;
+    private double p50Ms;
+    private double p75Ms;
+    private double p95Ms;
+    private double p99Ms;
+    private double maxMs;
+    private boolean passed;
+    private List<String> violations;
+    // peaks of the sampled server process during the step, null when none was sampled
+    private Double serverPeakCpuPercent;
+    private Double serverPeakGcPercent;
+    private Double serverPeakOpenFds;
+
+    /**
+     * Builds the step result from the metrics recorded during the step.
+     */
+    public static CapacityStepResult evaluate(LoadProfile profile, double targetRps, RequestMetrics metrics) {
+        Histogram latency = metrics.cumulative();
+        CapacityStepResult result = CapacityStepResult.builder()
+                .targetRps(targetRps)
+                .achievedRps(metrics.iterationThroughput())
+                .requestRps(metrics.throughput())
+                .iterations(metrics.iterations())
+                .requests(metrics.requests())
+                .errorRate(metrics.errorRate())
+                .meanMs(latency.getMean() / 1000.0)
+                .p50Ms(latency.getValueAtPercentile(50.0) / 1000.0)
+                .p75Ms(latency.getValueAtPercentile(75.0) / 1000.0)
+                .p95Ms(latency.getValueAtPercentile(95.0) / 1000.0)
+                .p99Ms(latency.getValueAtPercentile(99.0) / 1000.0)
+                .maxMs(latency.getMaxValue() / 1000.0)
+                .build();
+
+        List<String> violations = new ArrayList<>();
+        if (result.requests == 0) {
+            violations.add("no requests recorded");
+        }
+        if (result.p95Ms >= profile.getP95ResponseTimeMs()) {
+            violations.add("p95 %.1f ms >= %d ms".formatted(result.p95Ms, profile.getP95ResponseTimeMs()));
+        }
+        if (result.p99Ms >= profile.getP99ResponseTimeMs()) {
+            violations.add("p99 %.1f ms >= %d ms".formatted(result.p99Ms, profile.getP99ResponseTimeMs()));
+        }
+        if (result.errorRate >= profile.getMaxErrorRate()) {
+            violations.add("error rate %.2f%% >= %.2f%%".formatted(result.errorRate * 100, profile.getMaxErrorRate() * 100));
+        }
+        if (result.achievedRps < targetRps * MIN_ACHIEVED_RATIO) {
+            violations.add("completed %.1f iterations/s of %.1f target".formatted(result.achievedRps, targetRps));
+        }
+        result.setViolations(violations);
+        result.setPassed(violations.isEmpty());
+        return result;
+    }
+
+    /**
+     * @throws IllegalArgumentException when the warm-up leaves nothing of the step to measure
+     */
+    public static void requireMeasuredStep(LoadProfile profile) {
+        if (profile.getCapacityStepWarmupSeconds() < 0
+                || profile.getCapacityStepWarmupSeconds() >= profile.getCapacityStepDurationSeconds()) {
+            throw new IllegalArgumentException(
+                    "capacityStepWarmupSeconds must be at least 0 and less than capacityStepDurationSeconds (%d), was %d"
+                            .formatted(profile.getCapacityStepDurationSeconds(), profile.getCapacityStepWarmupSeconds()));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package core;
+
+import io.gatling.shared.cli.GatlingCliOptions;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Starts Gatling simulations in child JVMs that share the current classpath.
+ * Framework system properties of the current JVM are forwarded to the child.
+ */
+@Slf4j
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class GatlingLauncher {
+
+    // Same defaults the Gatling Gradle plugin applies to gatlingRun
+    private static final List<String> JVM_ARGS = List.of(
+            "-server", "-Xmx1G", "-XX:+UseG1GC", "-XX:+ParallelRefProcEnabled",
+            "-XX:MaxInlineLevel=20", "-XX:MaxTrivialSize=12",
+            "--add-opens=java.base/java.lang=ALL-UNNAMED"
+    );
+
+    private static final Set<String> FORWARDED_PREFIXES = Set.of(
+            "base.", "websocket.", "admin.", "performance.", "data.", "ids.", "stub."
+    );
+
+    /**
+     * Starts the simulation without waiting for it to finish.
+     *
+     * @param properties    system properties for the child, on top of the forwarded ones
+     * @param resultsFolder Gatling results folder of the child
+     * @param reports       whether the child generates its HTML report
+     */
+    public static Process start(String simulation, Map<String, String> properties,
+                                Path resultsFolder, boolean reports) throws IOException {
+        Map<String, String> childProperties = new LinkedHashMap<>();
+        System.getProperties().forEach((key, value) -> {
+            String name = key.toString();
+            if (FORWARDED_PREFIXES.stream().anyMatch(name::startsWith)) {
+                childProperties.put(name, value.toString());
+            }
+        });
+        childProperties.putAll(properties);
+
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(JVM_ARGS);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        childProperties.forEach((key, value) -> command.add("-D" + key + "=" + value));
+        command.add("io.gatling.app.Gatling");
+        command.add(GatlingCliOptions.Simulation.longOption());
+        command.add(simulation);
+        command.add(GatlingCliOptions.ResultsFolder.longOption());
+        command.add(resultsFolder.toAbsolutePath().toString());
+        if (!reports) {
+            command.add(GatlingCliOptions.NoReports.longOption());
+        }
+
+        log.debug("Launching {} with {}", simulation, childProperties);
+        return new ProcessBuilder(command).inheritIO().start();
+    }
+
+    /**
+     * Runs the simulation to completion.
+     *
+     * @return the exit code of the child JVM
+     */
+    public static int run(String simulation, Map<String, String> properties,
+                          Path resultsFolder, boolean reports) throws IOException, InterruptedException {
+        return start(simulation, properties, resultsFolder, reports).waitFor();
+    }
+}
@@ -0,0 +1,127 @@
+package core;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import ru.gordeev.core.config.AppConfig;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the latencies of {@link RequestMetrics} as HdrHistogram interval logs, one {@code .hlog}
+ * file per request name, so runs can be compared interval by interval (see {@link RegressionGate})
+ * or plotted with HdrHistogram's log tools. Values are in microseconds.
+ */
+@Slf4j
+public class HdrIntervalLog {
+
+    public static final String EXTENSION = ".hlog";
+
+    private final RequestMetrics metrics;
+    private final Path runDir;
+    private final Map<String, Writer> writers = new HashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hdr-interval-log");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private long startMillis;
+    private long lastSampleMillis;
+
+    private record Writer(PrintStream out, HistogramLogWriter log) {
+    }
+
+    public HdrIntervalLog(RequestMetrics metrics, Path runDir) {
+        this.metrics = metrics;
+        this.runDir = runDir;
+    }
+
+    /**
+     * @return the directory holding one subdirectory per run of the simulation with the profile
+     */
+    public static Path runsDir(AppConfig config, String simulation, String profile) {
+        return Path.of(config.performanceHdrDir(), simpleName(simulation), profile);
+    }
+
+    /**
+     * @return the class name without package, as used in log and baseline directories
+     */
+    public static String simpleName(String simulation) {
+        return simulation.substring(simulation.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * Maps a request name to a file name; names that differ only in special characters share a file.
+     */
+    public static String fileName(String requestName) {
+        return requestName.replaceAll("[^A-Za-z0-9._-]+", "_") + EXTENSION;
+    }
+
+    public void start(int intervalSeconds) throws IOException {
+        Files.createDirectories(runDir);
+        startMillis = System.currentTimeMillis();
+        lastSampleMillis = startMillis;
+        scheduler.scheduleAtFixedRate(this::sampleSafely, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        log.info("Writing HDR interval logs to {}", runDir);
+    }
+
+    /**
+     * Writes the last interval and closes the logs.
+     */
+    public void stop() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sampleSafely();
+        synchronized (this) {
+            writers.values().forEach(writer -> writer.out().close());
+            writers.clear();
+        }
+    }
+
+    private void sampleSafely() {
+        try {
+            sample();
+        } catch (Exception e) {
+            log.warn("Failed to write HDR interval: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void sample() throws FileNotFoundException {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, RequestStats> entry : metrics.byName().entrySet()) {
+            Histogram interval = entry.getValue().sampleInterval();
+            writer(entry.getKey()).log().outputIntervalHistogram(
+                    (lastSampleMillis - startMillis) / 1000.0, (now - startMillis) / 1000.0, interval, 1000.0);
+        }
+        lastSampleMillis = now;
+    }
+
+    private Writer writer(String requestName) throws FileNotFoundException {
+        Writer writer = writers.get(requestName);
+        if (writer == null) {
+            PrintStream out = new PrintStream(runDir.resolve(fileName(requestName)).toFile());
+            HistogramLogWriter logWriter = new HistogramLogWriter(out);
+            logWriter.outputComment("Request: " + requestName);
+            logWriter.outputLogFormatVersion();
+            logWriter.outputStartTime(startMillis);
+            logWriter.setBaseTime(startMillis);
+            logWriter.outputLegend();
+            writer = new Writer(out, logWriter);
+            writers.put(requestName, writer);
+        }
+        return writer;
+    }
+}
@@ -0,0 +1,331 @@
+package core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.aeonbits.owner.ConfigFactory;
+import ru.gordeev.core.config.AppConfig;
+import ru.gordeev.core.data.DataRandom;
+import ru.gordeev.core.data.IdAllocators;
+import ru.gordeev.todo.stub.EmbeddedTodoServer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Runs one simulation in {@code performance.injectors} local injector JVMs at once, for loads a single
+ * Gatling JVM cannot generate, and judges the run on the merged results.
+ * <p>
+ * Every injector runs the selected {@link LoadProfile} scaled down to its share: rates are divided evenly
+ * and user counts are split with the remainder going to the first injectors, passed as
+ * {@code performance.<field>} overrides. Each injector gets its own {@code ids.node.id} (consecutive from
+ * the configured or process-derived one) so generated ids stay disjoint. With {@code data.seed} all injectors
+ * keep the seed and get their index instead: each draws its own data, and its seeded stream ids carry the
+ * index in their seed bits, which keeps them disjoint as well. The injectors skip their own Gatling threshold assertions and write an
+ * {@link InjectorResult} instead, carrying the {@link Threshold}s the simulation declared. The orchestrator
+ * merges their histograms and error counts and checks those thresholds on the merged data. The report is
+ * written to {@code performance.reports.dir} and the process exits with 1 when a threshold is violated or
+ * an injector exits with a non-zero code.
+ * <p>
+ * With {@code stub.enabled} the orchestrator starts a single embedded server that all injectors share.
+ * <p>
+ * Usage: {@code ./gradlew distributedRun -Psimulation=simulations.CreateTodoSimulation -Dperformance.injectors=4}
+ */
+@Slf4j
+public final class InjectorOrchestrator {
+
+    public static final String INJECTOR_INDEX_PROPERTY = "performance.injector.index";
+    public static final String INJECTOR_REPORT_PROPERTY = "performance.injector.report";
+
+    private static final DateTimeFormatter RUN_ID = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final AppConfig config;
+    private final String simulation;
+    private final LoadProfile profile;
+    private final int injectors;
+    private final Path workDir;
+
+    private InjectorOrchestrator(AppConfig config, String simulation, LoadProfile profile, int injectors, Path workDir) {
+        this.config = config;
+        this.simulation = simulation;
+        this.profile = profile;
+        this.injectors = injectors;
+        this.workDir = workDir;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: InjectorOrchestrator <simulation class> <output directory>");
+        }
+        String simulation = args[0];
+        AppConfig config = ConfigFactory.create(AppConfig.class);
+        LoadProfile profile = LoadProfiles.resolve(config);
+        if (profile.getPattern() == LoadProfile.Pattern.CAPACITY_SEARCH) {
+            throw new IllegalArgumentException("Capacity search runs its own steps, use ./gradlew capacitySearch");
+        }
+        int injectors = config.performanceInjectors();
+        if (injectors < 1 || injectors > 1 << config.idsNodeBits()) {
+            throw new IllegalArgumentException("performance.injectors must be between 1 and %d (2^ids.node.bits), was %d"
+                    .formatted(1 << config.idsNodeBits(), injectors));
+        }
+        if (config.dataSeed() != null && injectors > DataRandom.SEEDED_INJECTORS) {
+            throw new IllegalArgumentException("With data.seed, performance.injectors must be at most %d, was %d"
+                    .formatted(DataRandom.SEEDED_INJECTORS, injectors));
+        }
+        String runId = HdrIntervalLog.simpleName(simulation) + "-" + LocalDateTime.now().format(RUN_ID);
+        Path workDir = Path.of(args[1], runId);
+        Files.createDirectories(workDir);
+
+        InjectorOrchestrator orchestrator = new InjectorOrchestrator(config, simulation, profile, injectors, workDir);
+        Report report;
+        EmbeddedTodoServer stubServer = config.stubEnabled() ? EmbeddedTodoServer.startFromConfig(config) : null;
+        try {
+            report = orchestrator.run();
+        } finally {
+            if (stubServer != null) {
+                stubServer.stop();
+            }
+        }
+
+        Path artifact = Path.of(config.performanceReportsDir(), "distributed-" + runId + ".json");
+        Files.createDirectories(artifact.getParent());
+        orchestrator.objectMapper.writeValue(artifact.toFile(), report);
+        if (!report.isPassed()) {
+            log.error("{} with {} injectors FAILED {} (report: {})", simulation, injectors, report.getViolations(), artifact);
+            System.exit(1);
+        }
+        log.info("{} with {} injectors PASSED: {} requests at {} RPS, p95 {} ms, p99 {} ms (report: {})", simulation,
+                injectors, report.getRequests(), report.getAchievedRps(), report.getP95Ms(), report.getP99Ms(), artifact);
+    }
+
+    private Report run() throws IOException, InterruptedException {
+        long firstNodeId = config.idsNodeId() != null
+                ? config.idsNodeId()
+                : IdAllocators.defaultNodeId(config.idsNodeBits());
+        log.info("Starting {} injectors of {} with profile {}", injectors, simulation, profile.getName());
+
+        List<Process> processes = new ArrayList<>();
+        List<Long> nodeIds = new ArrayList<>();
+        for (int index = 0; index < injectors; index++) {
+            long nodeId = (firstNodeId + index) & ((1L << config.idsNodeBits()) - 1);
+            nodeIds.add(nodeId);
+            processes.add(GatlingLauncher.start(simulation, injectorProperties(index, nodeId),
+                    injectorDir(index).resolve("gatling"), false));
+        }
+
+        List<InjectorRun> runs = new ArrayList<>();
+        List<InjectorResult> results = new ArrayList<>();
+        List<String> violations = new ArrayList<>();
+        for (int index = 0; index < injectors; index++) {
+            int exitCode = processes.get(index).waitFor();
+            Path resultFile = injectorDir(index).resolve("result.json");
+            InjectorRun.InjectorRunBuilder run = InjectorRun.builder()
+                    .injector(index)
+                    .nodeId(nodeIds.get(index))
+                    .exitCode(exitCode);
+            if (exitCode != 0) {
+                violations.add("injector %d exited with code %d".formatted(index, exitCode));
+            }
+            if (Files.exists(resultFile)) {
+                InjectorResult result = objectMapper.readValue(resultFile.toFile(), InjectorResult.class);
+                results.add(result);
+                long requests = result.getRequests().values().stream().mapToLong(InjectorResult.Request::getRequests).sum();
+                long errors = result.getRequests().values().stream().mapToLong(InjectorResult.Request::getErrors).sum();
+                run.requests(requests).errorRate(requests == 0 ? 0 : (double) errors / requests);
+            } else {
+                violations.add("injector %d produced no result".formatted(index));
+            }
+            runs.add(run.build());
+        }
+        return merge(runs, results, violations);
+    }
+
+    private Path injectorDir(int index) {
+        return workDir.resolve("injector-" + index);
+    }
+
+    private Map<String, String> injectorProperties(int index, long nodeId) {
+        Map<String, String> properties = new LinkedHashMap<>(share(profile, injectors, index));
+        properties.put(INJECTOR_INDEX_PROPERTY, String.valueOf(index));
+        properties.put(INJECTOR_REPORT_PROPERTY, injectorDir(index).resolve("result.json").toString());
+        properties.put("ids.node.id", String.valueOf(nodeId));
+        properties.put("performance.hdr.dir", injectorDir(index).resolve("hdr").toString());
+        // the orchestrator's embedded server is shared, injectors must not bind the same ports
+        properties.put("stub.enabled", "false");
+        if (config.performanceLivePort() > 0) {
+            properties.put("performance.live.port", String.valueOf(config.performanceLivePort() + index));
+        }
+        if (config.dataSeed() != null) {
+            // the seed of every injector is derived from the shared one and the index, see DataRandom
+            properties.put("data.seed", String.valueOf(config.dataSeed()));
+        }
+        return properties;
+    }
+
+    /**
+     * @return the {@code performance.<field>} overrides scaling the profile down to one injector's share
+     */
+    static Map<String, String> share(LoadProfile profile, int injectors, int index) {
+        Map<String, String> overrides = new LinkedHashMap<>();
+        overrides.put(override("targetRps"), String.valueOf(profile.getTargetRps() / injectors));
+        if (profile.getSpikeRps() != null) {
+            overrides.put(override("spikeRps"), String.valueOf(profile.getSpikeRps() / injectors));
+        }
+        overrides.put(override("warmupRequests"), String.valueOf(split(profile.getWarmupRequests(), injectors, index)));
+        overrides.put(override("users"), String.valueOf(split(profile.getUsers(), injectors, index)));
+        overrides.put(override("staircaseStartUsers"), String.valueOf(split(profile.getStaircaseStartUsers(), injectors, index)));
+        overrides.put(override("staircaseStepUsers"), String.valueOf(split(profile.getStaircaseStepUsers(), injectors, index)));
+        return overrides;
+    }
+
+    private static String override(String field) {
+        return LoadProfiles.OVERRIDE_PREFIX + field;
+    }
+
+    // the remainder goes to the first injectors, so the shares add up to the total
+    private static int split(int total, int parts, int index) {
+        return total / parts + (index < total % parts ? 1 : 0);
+    }
+
+    private Report merge(List<InjectorRun> runs, List<InjectorResult> results, List<String> violations) {
+        Map<String, Histogram> latencies = new TreeMap<>();
+        Map<String, long[]> counters = new TreeMap<>();
+        long firstStart = Long.MAX_VALUE;
+        long lastEnd = Long.MIN_VALUE;
+        for (InjectorResult result : results) {
+            firstStart = Math.min(firstStart, result.getFirstStartMillis());
+            lastEnd = Math.max(lastEnd, result.getLastEndMillis());
+            result.getRequests().forEach((name, request) -> {
+                latencies.computeIfAbsent(name, key -> new Histogram(3)).add(request.latency());
+                long[] counter = counters.computeIfAbsent(name, key -> new long[3]);
+                counter[0] += request.getRequests();
+                counter[1] += request.getErrors();
+                counter[2] += request.getResponseBytes();
+            });
+        }
+
+        Histogram total = new Histogram(3);
+        Map<String, LatencySummary> requests = new LinkedHashMap<>();
+        long requestCount = 0;
+        long errorCount = 0;
+        for (Map.Entry<String, Histogram> entry : latencies.entrySet()) {
+            long[] counter = counters.get(entry.getKey());
+            total.add(entry.getValue());
+            requestCount += counter[0];
+            errorCount += counter[1];
+            requests.put(entry.getKey(), summary(entry.getValue(), counter[0], counter[1], counter[2]));
+        }
+        double window = lastEnd > firstStart ? (lastEnd - firstStart) / 1000.0 : 0;
+        LatencySummary global = summary(total, requestCount, errorCount, 0);
+
+        // the thresholds the simulation declared, on the merged data
+        if (requestCount == 0) {
+            violations.add("no requests recorded");
+        } else {
+            for (Threshold threshold : thresholds(results)) {
+                String violation = threshold.check(threshold.getRequest() == null
+                        ? global : requests.get(threshold.getRequest()));
+                if (violation != null) {
+                    violations.add(violation);
+                }
+            }
+        }
+
+        return Report.builder()
+                .simulation(simulation)
+                .profile(profile.getName())
+                .injectors(injectors)
+                .targetRps(profile.getTargetRps())
+                .achievedRps(window == 0 ? 0 : requestCount / window)
+                .requests(requestCount)
+                .errorRate(global.getErrorRate())
+                .meanMs(global.getMeanMs())
+                .p50Ms(global.getP50Ms())
+                .p95Ms(global.getP95Ms())
+                .p99Ms(global.getP99Ms())
+                .maxMs(global.getMaxMs())
+                .passed(violations.isEmpty())
+                .violations(violations)
+                .byRequest(requests)
+                .injectorRuns(runs)
+                .workDir(workDir.toString())
+                .build();
+    }
+
+    /**
+     * @return the thresholds the injectors declared, or the load profile's for results written without them
+     */
+    private List<Threshold> thresholds(List<InjectorResult> results) {
+        return results.stream()
+                .map(InjectorResult::getThresholds)
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElseGet(() -> Threshold.standard(profile));
+    }
+
+    private static LatencySummary summary(Histogram latency, long requests, long errors, long responseBytes) {
+        return LatencySummary.builder()
+                .requests(requests)
+                .errorRate(requests == 0 ? 0 : (double) errors / requests)
+                .meanMs(latency.getMean() / 1000.0)
+                .p50Ms(latency.getValueAtPercentile(50.0) / 1000.0)
+                .p95Ms(latency.getValueAtPercentile(95.0) / 1000.0)
+                .p99Ms(latency.getValueAtPercentile(99.0) / 1000.0)
+                .maxMs(latency.getMaxValue() / 1000.0)
+                .meanResponseBytes(requests == 0 ? 0 : (double) responseBytes / requests)
+                .build();
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Report {
+        private String simulation;
+        private String profile;
+        private int injectors;
+        // of the whole run, before the split
+        private double targetRps;
+        private double achievedRps;
+        private long requests;
+        private double errorRate;
+        private double meanMs;
+        private double p50Ms;
+        private double p95Ms;
+        private double p99Ms;
+        private double maxMs;
+        private boolean passed;
+        private List<String> violations;
+        private Map<String, LatencySummary> byRequest;
+        private List<InjectorRun> injectorRuns;
+        // Gatling results and HDR interval logs of the single injectors
+        private String workDir;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class InjectorRun {
+        private int injector;
+        private long nodeId;
+        private int exitCode;
+        private long requests;
+        private double errorRate;
+    }
+}
@@ -0,0 +1,79 @@
+package core;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.HdrHistogram.Histogram;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.DataFormatException;
+
+/**
+ * Raw {@link RequestMetrics} of one injector of an {@link InjectorOrchestrator} run: counters and the
+ * compressed latency histogram of every request name, so the orchestrator can merge injectors exactly
+ * instead of averaging their percentiles. It also carries the {@link Threshold}s the simulation declared,
+ * which the orchestrator checks on the merged data.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InjectorResult {
+
+    private int injector;
+    private long firstStartMillis;
+    private long lastEndMillis;
+    private Map<String, Request> requests;
+    private List<Threshold> thresholds;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Request {
+        private long requests;
+        private long errors;
+        private long responseBytes;
+        // HdrHistogram compressed encoding in Base64, values in microseconds
+        private String histogram;
+
+        @JsonIgnore
+        public Histogram latency() {
+            try {
+                return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(Base64.getDecoder().decode(histogram)), 0);
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("Corrupt latency histogram in injector result", e);
+            }
+        }
+    }
+
+    public static InjectorResult of(int injector, RequestMetrics metrics, List<Threshold> thresholds) {
+        Map<String, Request> requests = new TreeMap<>();
+        metrics.byName().forEach((name, stats) -> requests.put(name, Request.builder()
+                .requests(stats.requests())
+                .errors(stats.errors())
+                .responseBytes(stats.responseBytes())
+                .histogram(encode(stats.cumulative()))
+                .build()));
+        return InjectorResult.builder()
+                .injector(injector)
+                .firstStartMillis(metrics.firstStartMillis())
+                .lastEndMillis(metrics.lastEndMillis())
+                .requests(requests)
+                .thresholds(thresholds)
+                .build();
+    }
+
+    private static String encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+}
@@ -0,0 +1,88 @@
+package core;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.management.MBeanServerConnection;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads heap usage and GC time of a JVM that exposes a remote JMX connector, for {@link ProcessSampler}.
+ * A failed read drops the connection; the next read reconnects.
+ */
+@Slf4j
+class JmxSampler implements AutoCloseable {
+
+    private final JMXServiceURL url;
+    private JMXConnector connector;
+    private MemoryMXBean memory;
+    private List<GarbageCollectorMXBean> collectors;
+    private long lastGcMillis = -1;
+    private long lastSampleNanos;
+
+    /**
+     * @param url e.g. {@code service:jmx:rmi:///jndi/rmi://localhost:9010/jmxrmi}
+     */
+    JmxSampler(String url) throws IOException {
+        this.url = new JMXServiceURL(url);
+    }
+
+    /**
+     * Adds heap usage and the share of the time since the previous read spent in GC to the sample.
+     */
+    void fill(ProcessSample sample) {
+        try {
+            connect();
+            long now = System.nanoTime();
+            long gcMillis = 0;
+            for (GarbageCollectorMXBean collector : collectors) {
+                gcMillis += Math.max(0, collector.getCollectionTime());
+            }
+            sample.setHeapUsedBytes(memory.getHeapMemoryUsage().getUsed());
+            sample.setGcPercent(lastGcMillis < 0 ? 0
+                    : (gcMillis - lastGcMillis) / ((now - lastSampleNanos) / 1e6) * 100);
+            lastGcMillis = gcMillis;
+            lastSampleNanos = now;
+        } catch (Exception e) {
+            log.warn("Failed to read JMX of {}: {}", url, e.getMessage());
+            close();
+        }
+    }
+
+    private void connect() throws IOException, MalformedObjectNameException {
+        if (connector != null) {
+            return;
+        }
+        connector = JMXConnectorFactory.connect(url);
+        MBeanServerConnection connection = connector.getMBeanServerConnection();
+        memory = ManagementFactory.newPlatformMXBeanProxy(connection, ManagementFactory.MEMORY_MXBEAN_NAME, MemoryMXBean.class);
+        collectors = new ArrayList<>();
+        for (ObjectName name : connection.queryNames(
+                new ObjectName(ManagementFactory.GARBAGE_COLLECTOR_MXBEAN_DOMAIN_TYPE + ",*"), null)) {
+            collectors.add(ManagementFactory.newPlatformMXBeanProxy(
+                    connection, name.getCanonicalName(), GarbageCollectorMXBean.class));
+        }
+        lastGcMillis = -1;
+    }
+
+    @Override
+    public void close() {
+        if (connector != null) {
+            try {
+                connector.close();
+            } catch (IOException e) {
+                log.debug("Failed to close JMX connection to {}", url, e);
+            }
+        }
+        connector = null;
+    }
+}
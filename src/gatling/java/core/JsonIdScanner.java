@@ -0,0 +1,131 @@
+package core;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import io.gatling.javaapi.core.CheckBuilder;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+
+import java.io.IOException;
+
+import static io.gatling.javaapi.core.CoreDsl.bodyBytes;
+
+/**
+ * Finds an entity by id in a JSON array response without building a document tree.
+ * <p>
+ * The body is read with a streaming tokenizer that stops at the first element whose
+ * {@code id} matches; the other fields and nested values are skipped, not materialized.
+ * On large lists this costs the injector a fraction of a JSONPath filter such as
+ * {@code $[?(@.id == 42)]}, which parses the whole body and evaluates the filter on every element.
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class JsonIdScanner {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final SerializedString ID_FIELD = new SerializedString("id");
+
+    /**
+     * @return the array index of the first element with the given id, or {@code -(element count) - 1}
+     * when no element has it
+     */
+    public static long indexOf(byte[] json, long id) {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array, got " + parser.currentToken());
+            }
+            long index = 0;
+            for (JsonToken element = parser.nextToken(); element != JsonToken.END_ARRAY; element = parser.nextToken()) {
+                if (element == JsonToken.START_OBJECT) {
+                    if (hasId(parser, id)) {
+                        return index;
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+                index++;
+            }
+            return -index - 1;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed JSON response: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Checks that the list response contains the entity whose id is stored in the session under {@code idKey}.
+     */
+    public static CheckBuilder.Final idPresent(String idKey) {
+        return bodyBytes()
+                .transformWithSession((body, session) -> indexOf(body, session.getLong(idKey)))
+                .validate("id present", (index, session) -> {
+                    if (index < 0) {
+                        throw new IllegalStateException("Id %d not found in %d elements"
+                                .formatted(session.getLong(idKey), -index - 1));
+                    }
+                    return index;
+                })
+                .name("id present");
+    }
+
+    /**
+     * Checks one page of a paginated list response: the entity is either on this page, or the page is
+     * full and the entity may be on a following one. The page at {@code lastOffset} is the last one read,
+     * so there a full page without the entity fails too. The offset of the page is read from the session
+     * under {@code offsetKey}, the scan result is saved under {@code saveAs}, see {@link #onNextPage(long, int)}.
+     */
+    public static CheckBuilder.Final idPresentOrFullPage(String idKey, int pageSize, String offsetKey, int lastOffset,
+                                                         String saveAs) {
+        return bodyBytes()
+                .transformWithSession((body, session) -> indexOf(body, session.getLong(idKey)))
+                .validate("id present or full page", (index, session) -> checkPage(index, session.getLong(idKey),
+                        pageSize, session.getInt(offsetKey), lastOffset))
+                .name("id present")
+                .saveAs(saveAs);
+    }
+
+    /**
+     * @return the scan result of the page at {@code offset}, see {@link #indexOf(byte[], long)}
+     * @throws IllegalStateException when the id is neither on the page nor possibly on a following one
+     */
+    public static long checkPage(long scanResult, long id, int pageSize, int offset, int lastOffset) {
+        if (scanResult >= 0) {
+            return scanResult;
+        }
+        if (!onNextPage(scanResult, pageSize)) {
+            throw new IllegalStateException("Id %d not found in the last page".formatted(id));
+        }
+        if (offset >= lastOffset) {
+            throw new IllegalStateException("Id %d not found in the first %d elements".formatted(id, lastOffset + pageSize));
+        }
+        return scanResult;
+    }
+
+    /**
+     * @return whether a page scanned with the given result may be followed by the page containing the id
+     */
+    public static boolean onNextPage(long scanResult, int pageSize) {
+        return scanResult < 0 && -scanResult - 1 >= pageSize;
+    }
+
+    // Reads the object up to its matching id, or to its end
+    private static boolean hasId(JsonParser parser, long id) throws IOException {
+        while (true) {
+            boolean idField = parser.nextFieldName(ID_FIELD);
+            if (parser.currentToken() != JsonToken.FIELD_NAME) {
+                return false;
+            }
+            JsonToken value = parser.nextToken();
+            if (idField && value == JsonToken.VALUE_NUMBER_INT && isLong(parser) && parser.getLongValue() == id) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+    }
+
+    // Ids beyond the long range, e.g. u64 ids of other clients, never match and must not be read as a long
+    private static boolean isLong(JsonParser parser) throws IOException {
+        JsonParser.NumberType type = parser.getNumberType();
+        return type == JsonParser.NumberType.INT || type == JsonParser.NumberType.LONG;
+    }
+}
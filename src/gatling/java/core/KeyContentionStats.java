@@ -0,0 +1,65 @@
+package core;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-key request statistics of a hot-key run, indexed by key rank (0 is the most popular key).
+ * <p>
+ * Every key gets request and conflict counters. Latency histograms are kept for the
+ * {@code trackedKeys} most popular keys one by one and for all other keys together,
+ * so memory stays flat for large key sets.
+ */
+public class KeyContentionStats {
+
+    private final AtomicLongArray requests;
+    private final AtomicLongArray conflicts;
+    private final RequestStats[] tracked;
+    private final RequestStats others = new RequestStats();
+
+    public KeyContentionStats(int keyCount, int trackedKeys) {
+        this.requests = new AtomicLongArray(keyCount);
+        this.conflicts = new AtomicLongArray(keyCount);
+        this.tracked = new RequestStats[Math.min(trackedKeys, keyCount)];
+        for (int i = 0; i < tracked.length; i++) {
+            tracked[i] = new RequestStats();
+        }
+    }
+
+    /**
+     * @param conflict whether the request lost a race on the key, e.g. a 404 after a concurrent delete
+     */
+    public void record(int rank, long latencyMicros, boolean ok, boolean conflict, long responseBytes) {
+        requests.incrementAndGet(rank);
+        if (conflict) {
+            conflicts.incrementAndGet(rank);
+        }
+        (rank < tracked.length ? tracked[rank] : others).record(latencyMicros, ok, responseBytes);
+    }
+
+    public int keyCount() {
+        return requests.length();
+    }
+
+    public int trackedKeys() {
+        return tracked.length;
+    }
+
+    public long requests(int rank) {
+        return requests.get(rank);
+    }
+
+    public long conflicts(int rank) {
+        return conflicts.get(rank);
+    }
+
+    public RequestStats tracked(int rank) {
+        return tracked[rank];
+    }
+
+    /**
+     * @return latencies of every key that is not tracked one by one
+     */
+    public RequestStats others() {
+        return others;
+    }
+}
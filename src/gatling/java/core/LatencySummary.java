@@ -0,0 +1,41 @@
+package core;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latency percentiles, error rate and response size of one {@link RequestStats}, in milliseconds and bytes.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LatencySummary {
+
+    private long requests;
+    private double errorRate;
+    private double meanMs;
+    private double p50Ms;
+    private double p95Ms;
+    private double p99Ms;
+    private double maxMs;
+    private double meanResponseBytes;
+
+    public static LatencySummary of(RequestStats stats) {
+        Histogram latency = stats.cumulative();
+        long requests = stats.requests();
+        return LatencySummary.builder()
+                .requests(requests)
+                .errorRate(stats.errorRate())
+                .meanMs(latency.getMean() / 1000.0)
+                .p50Ms(latency.getValueAtPercentile(50.0) / 1000.0)
+                .p95Ms(latency.getValueAtPercentile(95.0) / 1000.0)
+                .p99Ms(latency.getValueAtPercentile(99.0) / 1000.0)
+                .maxMs(latency.getMaxValue() / 1000.0)
+                .meanResponseBytes(requests == 0 ? 0 : (double) stats.responseBytes() / requests)
+                .build();
+    }
+}
@@ -0,0 +1,318 @@
+package core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import ru.gordeev.core.config.AppConfig;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Live view of a running simulation: once a second it drains the live recorders of {@link RequestMetrics}
+ * into rolling windows and publishes a {@link LiveSnapshot}, logged as a console ticker and served as JSON
+ * on {@code http://localhost:<performance.live.port>/}.
+ * <p>
+ * Virtual users only touch wait-free recorders and counters; the windows belong to the monitor thread.
+ * With {@code performance.live.abort} a breach of the profile's p95, p99 or error-rate threshold that lasts
+ * {@code performance.live.abort.after.seconds} sets an abort reason, which {@link BaseGatlingSimulation}
+ * turns into a stop of the load generator.
+ */
+@Slf4j
+public class LiveMonitor {
+
+    @Data
+    @Builder
+    public static class Settings {
+        // 0 turns the console ticker off
+        @Builder.Default
+        private int tickerSeconds = 5;
+        // 0 serves no endpoint
+        @Builder.Default
+        private int port = 0;
+        @Builder.Default
+        private int windowSeconds = 10;
+        @Builder.Default
+        private boolean abort = false;
+        @Builder.Default
+        private int abortAfterSeconds = 10;
+
+        public static Settings fromConfig(AppConfig config) {
+            return Settings.builder()
+                    .tickerSeconds(config.performanceLiveTickerSeconds())
+                    .port(config.performanceLivePort())
+                    .windowSeconds(Math.max(1, config.performanceLiveWindowSeconds()))
+                    .abort(config.performanceLiveAbort())
+                    .abortAfterSeconds(Math.max(1, config.performanceLiveAbortAfterSeconds()))
+                    .build();
+        }
+    }
+
+    // windows with fewer requests give percentiles too noisy to abort on
+    private static final int MIN_WINDOW_REQUESTS = 20;
+
+    private final RequestMetrics metrics;
+    private final LongSupplier inFlight;
+    private final Settings settings;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // last request of every user seen within the window, by user id
+    private final Map<Long, Long> lastSeenMillis = new ConcurrentHashMap<>();
+    // owned by the monitor thread
+    private final Map<String, Window> windows = new HashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "live-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private LoadProfile profile;
+    private HttpServer server;
+    private long startMillis;
+    private long lastTickMillis;
+    private long ticks;
+    private int breachedSeconds;
+    private volatile LiveSnapshot snapshot;
+    private volatile String abortReason;
+
+    /**
+     * @param inFlight number of requests sent and not yet answered
+     */
+    public LiveMonitor(RequestMetrics metrics, LongSupplier inFlight, Settings settings) {
+        this.metrics = metrics;
+        this.inFlight = inFlight;
+        this.settings = settings;
+    }
+
+    /**
+     * Starts ticking and, with a port configured, serving snapshots.
+     *
+     * @param profile thresholds for the abort check
+     */
+    public void start(LoadProfile profile) throws IOException {
+        this.profile = profile;
+        startMillis = System.currentTimeMillis();
+        lastTickMillis = startMillis;
+        scheduler.scheduleAtFixedRate(this::tickSafely, 1, 1, TimeUnit.SECONDS);
+        if (settings.getPort() > 0) {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), settings.getPort()), 0);
+            server.createContext("/", this::serve);
+            server.start();
+            log.info("Live stats on http://localhost:{}/", settings.getPort());
+        }
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Notes a request of the given virtual user.
+     */
+    public void userSeen(long userId) {
+        lastSeenMillis.put(userId, System.currentTimeMillis());
+    }
+
+    /**
+     * Notes a user that reached the end of its scenario. Users that leave early, such as by
+     * {@code exitHereIfFailed}, or run in scenarios without the end step age out of the window instead.
+     */
+    public void userFinished(long userId) {
+        lastSeenMillis.remove(userId);
+    }
+
+    /**
+     * @return users that sent a request within the rolling window and have not finished since
+     */
+    public long activeUsers() {
+        return lastSeenMillis.size();
+    }
+
+    /**
+     * @return why the run should stop, or null while the thresholds hold or the abort is off
+     */
+    public String abortReason() {
+        return abortReason;
+    }
+
+    /**
+     * @return the latest snapshot, null before the first tick
+     */
+    public LiveSnapshot snapshot() {
+        return snapshot;
+    }
+
+    private void tickSafely() {
+        try {
+            tick();
+        } catch (Exception e) {
+            log.warn("Failed to update live stats: {}", e.getMessage());
+        }
+    }
+
+    private void tick() {
+        long now = System.currentTimeMillis();
+        double tickSeconds = Math.max(now - lastTickMillis, 1) / 1000.0;
+        lastTickMillis = now;
+        long idleSince = now - settings.getWindowSeconds() * 1000L;
+        lastSeenMillis.values().removeIf(seen -> seen < idleSince);
+
+        Histogram windowTotal = new Histogram(3);
+        long lastRequests = 0;
+        long windowErrors = 0;
+        double busyMicros = 0;
+        Map<String, LiveSnapshot.Request> requests = new TreeMap<>();
+        for (Map.Entry<String, RequestStats> entry : metrics.byName().entrySet()) {
+            Window window = windows.computeIfAbsent(entry.getKey(), key -> new Window(settings.getWindowSeconds()));
+            window.add(entry.getValue().sampleLive(), entry.getValue().errors());
+            Histogram rolling = window.rolling();
+            Histogram last = window.last();
+            windowTotal.add(rolling);
+            lastRequests += last.getTotalCount();
+            windowErrors += window.errors();
+            busyMicros += last.getMean() * last.getTotalCount();
+            requests.put(entry.getKey(), LiveSnapshot.Request.builder()
+                    .rps(last.getTotalCount() / tickSeconds)
+                    .completedConcurrency(last.getMean() * last.getTotalCount() / (tickSeconds * 1_000_000))
+                    .windowRequests(rolling.getTotalCount())
+                    .errorRate(errorRate(window.errors(), rolling.getTotalCount()))
+                    .p95Ms(rolling.getValueAtPercentile(95.0) / 1000.0)
+                    .p99Ms(rolling.getValueAtPercentile(99.0) / 1000.0)
+                    .build());
+        }
+
+        LiveSnapshot current = LiveSnapshot.builder()
+                .elapsedSeconds((now - startMillis) / 1000)
+                .rps(lastRequests / tickSeconds)
+                .activeUsers(activeUsers())
+                .inFlight(inFlight.getAsLong())
+                .completedConcurrency(busyMicros / (tickSeconds * 1_000_000))
+                .windowRequests(windowTotal.getTotalCount())
+                .errorRate(errorRate(windowErrors, windowTotal.getTotalCount()))
+                .p95Ms(windowTotal.getValueAtPercentile(95.0) / 1000.0)
+                .p99Ms(windowTotal.getValueAtPercentile(99.0) / 1000.0)
+                .requests(requests)
+                .build();
+        checkAbort(current);
+        current.setAbortReason(abortReason);
+        snapshot = current;
+
+        ticks++;
+        if (settings.getTickerSeconds() > 0 && ticks % settings.getTickerSeconds() == 0) {
+            logTicker(current);
+        }
+    }
+
+    private void checkAbort(LiveSnapshot current) {
+        if (!settings.isAbort() || abortReason != null) {
+            return;
+        }
+        List<String> breaches = new ArrayList<>();
+        if (current.getWindowRequests() >= MIN_WINDOW_REQUESTS) {
+            if (current.getP95Ms() >= profile.getP95ResponseTimeMs()) {
+                breaches.add("p95 %.1f ms >= %d ms".formatted(current.getP95Ms(), profile.getP95ResponseTimeMs()));
+            }
+            if (current.getP99Ms() >= profile.getP99ResponseTimeMs()) {
+                breaches.add("p99 %.1f ms >= %d ms".formatted(current.getP99Ms(), profile.getP99ResponseTimeMs()));
+            }
+            if (current.getErrorRate() >= profile.getMaxErrorRate()) {
+                breaches.add("error rate %.2f%% >= %.2f%%".formatted(current.getErrorRate() * 100, profile.getMaxErrorRate() * 100));
+            }
+        }
+        breachedSeconds = breaches.isEmpty() ? 0 : breachedSeconds + 1;
+        if (breachedSeconds >= settings.getAbortAfterSeconds()) {
+            abortReason = "%s for %d s".formatted(String.join(", ", breaches), breachedSeconds);
+            log.error("Stopping the run at {} s: {}", current.getElapsedSeconds(), abortReason);
+        }
+    }
+
+    private static void logTicker(LiveSnapshot current) {
+        log.info("[live {}s] {} rps, {} users, {} in flight, {}% errors, p95 {} ms, p99 {} ms",
+                current.getElapsedSeconds(), round(current.getRps()), current.getActiveUsers(),
+                current.getInFlight(), round(current.getErrorRate() * 100),
+                round(current.getP95Ms()), round(current.getP99Ms()));
+        current.getRequests().forEach((name, request) -> log.info("[live {}s]   {}: {} rps, {}% errors, p95 {} ms, p99 {} ms",
+                current.getElapsedSeconds(), name, round(request.getRps()), round(request.getErrorRate() * 100),
+                round(request.getP95Ms()), round(request.getP99Ms())));
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] body = objectMapper.writeValueAsBytes(snapshot != null ? snapshot : LiveSnapshot.builder().build());
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private static double errorRate(long errors, long requests) {
+        return requests == 0 ? 0 : (double) errors / requests;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    /**
+     * Per-second latency histograms and error counts of the last {@code size} seconds of one request name.
+     */
+    private static final class Window {
+        private final Histogram[] slots;
+        private final long[] slotErrors;
+        private int next;
+        private int filled;
+        private long lastErrorTotal;
+
+        Window(int size) {
+            slots = new Histogram[size];
+            slotErrors = new long[size];
+        }
+
+        void add(Histogram interval, long errorTotal) {
+            slots[next] = interval;
+            slotErrors[next] = errorTotal - lastErrorTotal;
+            lastErrorTotal = errorTotal;
+            next = (next + 1) % slots.length;
+            filled = Math.min(filled + 1, slots.length);
+        }
+
+        Histogram last() {
+            return slots[(next - 1 + slots.length) % slots.length];
+        }
+
+        Histogram rolling() {
+            Histogram rolling = new Histogram(3);
+            for (int i = 0; i < filled; i++) {
+                rolling.add(slots[i]);
+            }
+            return rolling;
+        }
+
+        long errors() {
+            long errors = 0;
+            for (int i = 0; i < filled; i++) {
+                errors += slotErrors[i];
+            }
+            return errors;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Entities known to exist on the server, shared by the virtual users of an injector.
+ * <p>
+ * A user takes an entity out of the pool while it works on it and puts it back afterwards,
+ * so no two users update or delete the same entity at the same time and deletes never
+ * race with updates. Every operation is O(1): removal swaps the last entry into the hole.
+ */
+public class LivePool<T> {
+
+    private Object[] items = new Object[1024];
+    private int size;
+
+    public synchronized void put(T item) {
+        if (size == items.length) {
+            items = Arrays.copyOf(items, size * 2);
+        }
+        items[size++] = item;
+    }
+
+    /**
+     * Removes a random entity from the pool.
+     *
+     * @return the entity, or {@code null} if the pool is empty
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized T take(Random random) {
+        if (size == 0) {
+            return null;
+        }
+        int index = random.nextInt(size);
+        T item = (T) items[index];
+        items[index] = items[--size];
+        items[size] = null;
+        return item;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Removes and returns every entity in the pool.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized List<T> drain() {
+        List<T> drained = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            drained.add((T) items[i]);
+            items[i] = null;
+        }
+        size = 0;
+        return drained;
+    }
+}
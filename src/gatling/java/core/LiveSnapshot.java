@@ -0,0 +1,48 @@
+package core;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * State of a running simulation as seen by {@link LiveMonitor}: rates of the last second, requests in flight
+ * at the tick, error rate and percentiles over the rolling window. Latencies in milliseconds.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LiveSnapshot {
+
+    private long elapsedSeconds;
+    private double rps;
+    // users that sent a request within the rolling window and have not finished since
+    private long activeUsers;
+    // requests sent and not yet answered at the tick
+    private long inFlight;
+    // mean concurrency of the requests completed in the last second (Little's law), misses requests still waiting
+    private double completedConcurrency;
+    private long windowRequests;
+    private double errorRate;
+    private double p95Ms;
+    private double p99Ms;
+    // set once a threshold stayed breached long enough to stop the run
+    private String abortReason;
+    private Map<String, Request> requests;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Request {
+        private double rps;
+        private double completedConcurrency;
+        private long windowRequests;
+        private double errorRate;
+        private double p95Ms;
+        private double p99Ms;
+    }
+}
@@ -2,20 +2,37 @@ package core;
 
 import lombok.Builder;
 import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
 
 /**
  * Configurable load profile for performance tests.
- * Defines how load is applied during the test.
+ * Defines how load is applied during the test. Profiles are resolved by {@link LoadProfiles}.
  */
 @Data
 @Builder
+@Jacksonized
 public class LoadProfile {
 
     public enum Pattern {
         CONSTANT_LOAD,
         RAMP_UP,
         SPIKE,
-        STRESS
+        STRESS,
+        CAPACITY_SEARCH,
+        // closed workload models: the number of concurrent users is fixed, not the arrival rate
+        CONCURRENT_USERS,
+        STAIRCASE,
+        // hours of constant load, checked for latency and resource drift
+        SOAK
+    }
+
+    public enum ConnectionModel {
+        // one pool for all users, like a gateway or proxy in front of the service
+        SHARED_POOL,
+        // every user keeps its own connections alive, like independent clients
+        PER_USER,
+        // every request opens a connection and closes it after the response
+        PER_REQUEST
     }
 
     @Builder.Default
@@ -24,6 +41,7 @@ public class LoadProfile {
     @Builder.Default
     private Pattern pattern = Pattern.CONSTANT_LOAD;
 
+    // concurrent users for the CONCURRENT_USERS pattern
     @Builder.Default
     private int users = 10;
 
@@ -39,10 +57,67 @@ public class LoadProfile {
     @Builder.Default
     private int warmupRequests = 50;
 
+    // CONSTANT_LOAD injects the warm-up requests over this duration
+    @Builder.Default
+    private int warmupDurationSeconds = 5;
+
     // for SPIKE pattern
     private Double spikeRps;
     private Integer spikeDurationSeconds;
 
+    // for CAPACITY_SEARCH pattern
+    @Builder.Default
+    private double capacityFloorRps = 10.0;
+
+    @Builder.Default
+    private double capacityCeilingRps = 1000.0;
+
+    // search stops once ceiling and floor are closer than this
+    @Builder.Default
+    private double capacityResolutionRps = 10.0;
+
+    @Builder.Default
+    private int capacityStepDurationSeconds = 30;
+
+    // excluded from step statistics
+    @Builder.Default
+    private int capacityStepWarmupSeconds = 5;
+
+    @Builder.Default
+    private int capacityMaxSteps = 12;
+
+    // for STAIRCASE pattern
+    @Builder.Default
+    private int staircaseStartUsers = 0;
+
+    @Builder.Default
+    private int staircaseSteps = 5;
+
+    // concurrent users added on every step
+    @Builder.Default
+    private int staircaseStepUsers = 10;
+
+    @Builder.Default
+    private int staircaseHoldSeconds = 30;
+
+    @Builder.Default
+    private int staircaseRampSeconds = 10;
+
+    // for SOAK pattern: windows compared against the first one
+    @Builder.Default
+    private int soakCheckpointSeconds = 600;
+
+    // allowed growth of the windowed p50/p99 per hour, relative to the first window
+    @Builder.Default
+    private double soakMaxLatencySlope = 0.1;
+
+    // allowed growth of the server's CPU, RSS and open file descriptors per hour, relative to the first window
+    @Builder.Default
+    private double soakMaxResourceSlope = 0.1;
+
+    @Builder.Default
+    private ConnectionModel connectionModel = ConnectionModel.SHARED_POOL;
+
     // for checks
     @Builder.Default
     private double maxErrorRate = 0.01; // 1%
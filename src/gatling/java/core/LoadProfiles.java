@@ -0,0 +1,126 @@
+package core;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ru.gordeev.core.config.AppConfig;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resolves {@link LoadProfile}s by name, so a run can be tuned without a recompile.
+ * <p>
+ * Profiles are read from {@value #PROFILES_RESOURCE} on the classpath. Profiles of the
+ * {@code performance.profiles.file} JSON file are merged over them field by field, so the file
+ * only needs the fields it changes and may add new profiles. Any field of the resolved profile
+ * can then be overridden with a {@code performance.<field>} key from {@link AppConfig}
+ * (system property, environment or config.properties), e.g. {@code -Dperformance.targetRps=50}.
+ * The legacy {@code performance.target.rps}, {@code performance.test.duration.seconds} and
+ * {@code performance.warmup.duration.seconds} keys are honored as well.
+ */
+@Slf4j
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class LoadProfiles {
+
+    public static final String PROFILES_RESOURCE = "performance-profiles.json";
+    public static final String OVERRIDE_PREFIX = "performance.";
+
+    private static final ObjectMapper OBJECT_MAPPER = JsonMapper.builder()
+            .enable(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS)
+            .build();
+    private static final List<String> FIELDS = profileFields();
+
+    /**
+     * Resolves the profile selected by {@code performance.profile}.
+     */
+    public static LoadProfile resolve(AppConfig config) {
+        return resolve(config, config.performanceProfile());
+    }
+
+    public static LoadProfile resolve(AppConfig config, String name) {
+        ObjectNode profiles = load(config);
+        JsonNode profile = profiles.get(name.toLowerCase());
+        if (!(profile instanceof ObjectNode)) {
+            List<String> available = new ArrayList<>();
+            profiles.fieldNames().forEachRemaining(available::add);
+            throw new IllegalArgumentException("Unknown load profile '%s', available: %s".formatted(name, available));
+        }
+
+        ObjectNode resolved = profile.deepCopy();
+        applyOverrides(resolved, config);
+        try {
+            return OBJECT_MAPPER.treeToValue(resolved, LoadProfile.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid load profile '%s': %s".formatted(name, e.getOriginalMessage()), e);
+        }
+    }
+
+    private static ObjectNode load(AppConfig config) {
+        ObjectNode profiles;
+        try (InputStream in = LoadProfiles.class.getClassLoader().getResourceAsStream(PROFILES_RESOURCE)) {
+            profiles = in != null ? (ObjectNode) OBJECT_MAPPER.readTree(in) : OBJECT_MAPPER.createObjectNode();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + PROFILES_RESOURCE, e);
+        }
+
+        String file = config.performanceProfilesFile();
+        if (file != null && !file.isBlank()) {
+            try {
+                JsonNode overrides = OBJECT_MAPPER.readTree(Path.of(file).toFile());
+                overrides.properties().forEach(entry -> {
+                    JsonNode base = profiles.get(entry.getKey());
+                    if (base instanceof ObjectNode baseProfile && entry.getValue() instanceof ObjectNode override) {
+                        baseProfile.setAll(override);
+                    } else {
+                        profiles.set(entry.getKey(), entry.getValue());
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read load profiles from " + file, e);
+            }
+        }
+        return profiles;
+    }
+
+    private static void applyOverrides(ObjectNode profile, AppConfig config) {
+        if (config.performanceTargetRps() != null) {
+            profile.put("targetRps", config.performanceTargetRps());
+        }
+        if (config.performanceTestDuration() != null) {
+            profile.put("testDurationSeconds", config.performanceTestDuration());
+        }
+        if (config.performanceWarmupDuration() != null) {
+            profile.put("warmupDurationSeconds", config.performanceWarmupDuration());
+        }
+        for (String field : FIELDS) {
+            String value = config.getProperty(OVERRIDE_PREFIX + field);
+            if (value != null) {
+                log.info("Load profile override: {}={}", field, value);
+                profile.put(field, value);
+            }
+        }
+    }
+
+    private static List<String> profileFields() {
+        List<String> fields = new ArrayList<>();
+        for (Field field : LoadProfile.class.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                fields.add(field.getName());
+            }
+        }
+        return fields;
+    }
+}
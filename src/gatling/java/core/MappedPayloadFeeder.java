@@ -0,0 +1,157 @@
+package core;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gatling feeder over a payload file written by {@link PayloadFileGenerator}.
+ * <p>
+ * The file is memory-mapped read-only, so payloads are served straight from the page
+ * cache: feeding a record costs one index lookup and one copy into the {@code byte[]}
+ * handed to the virtual user, with no JSON serialisation on the injector.
+ * Each record is fed at most once unless the feeder is circular.
+ * <p>
+ * Feeds {@code todoId} (long) and {@code todoPayload} (byte[]), to be sent with
+ * {@code ByteArrayBody("#{todoPayload}")}.
+ *
+ * <pre>
+ * File layout (big-endian):
+ *   header  magic(8) version(4) maxRecordLength(4) count(8) indexOffset(8)
+ *   data    count JSON records, back to back
+ *   index   count entries of offset(8) id(8); a record ends where the next one starts
+ * </pre>
+ */
+@Slf4j
+public class MappedPayloadFeeder implements Iterator<Map<String, Object>>, AutoCloseable {
+
+    static final long MAGIC = 0x544F444F50415931L; // "TODOPAY1"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int INDEX_ENTRY_SIZE = 16;
+
+    private static final int SEGMENT_BITS = 30;
+
+    private final FileChannel channel;
+    private final long count;
+    private final long indexOffset;
+    private final boolean circular;
+    private final int segmentBits;
+    private final long segmentMask;
+    private final MappedByteBuffer[] segments;
+    private final AtomicLong cursor = new AtomicLong();
+
+    private MappedPayloadFeeder(Path file, boolean circular, int segmentBits) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.circular = circular;
+        this.segmentBits = segmentBits;
+        this.segmentMask = (1L << segmentBits) - 1;
+
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+        header.order(ByteOrder.BIG_ENDIAN);
+        if (header.getLong(0) != MAGIC || header.getInt(8) != VERSION) {
+            throw new IllegalArgumentException("Not a payload file (or unsupported version): " + file);
+        }
+        int maxRecordLength = header.getInt(12);
+        this.count = header.getLong(16);
+        this.indexOffset = header.getLong(24);
+
+        // Segments overlap by the longest record, so no record or index entry straddles two mappings
+        long size = channel.size();
+        int overlap = Math.max(maxRecordLength, INDEX_ENTRY_SIZE);
+        int segmentCount = (int) ((size + segmentMask) >>> segmentBits);
+        this.segments = new MappedByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            long start = (long) i << segmentBits;
+            long length = Math.min(segmentMask + 1 + overlap, size - start);
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        }
+        log.info("Mapped {} payloads ({} MB) from {}", count, size >> 20, file);
+    }
+
+    /**
+     * Opens a feeder that fails once every record has been fed.
+     */
+    public static MappedPayloadFeeder open(Path file) {
+        return open(file, false);
+    }
+
+    /**
+     * Opens a feeder. A circular feeder starts over after the last record,
+     * so ids repeat and the server must have been cleaned in between.
+     */
+    public static MappedPayloadFeeder open(Path file, boolean circular) {
+        return open(file, circular, SEGMENT_BITS);
+    }
+
+    // Smaller segments let tests cover records that straddle a segment boundary
+    static MappedPayloadFeeder open(Path file, boolean circular, int segmentBits) {
+        try {
+            return new MappedPayloadFeeder(file, circular, segmentBits);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map payload file " + file, e);
+        }
+    }
+
+    public long size() {
+        return count;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return circular ? count > 0 : cursor.get() < count;
+    }
+
+    @Override
+    public Map<String, Object> next() {
+        long position = cursor.getAndIncrement();
+        if (circular) {
+            position %= count;
+        } else if (position >= count) {
+            throw new NoSuchElementException("All %d payloads have been fed".formatted(count));
+        }
+        return Map.of(
+                "todoId", id(position),
+                "todoPayload", payload(position)
+        );
+    }
+
+    /**
+     * @return the id of the record at the given position
+     */
+    public long id(long position) {
+        return readLong(indexOffset + position * INDEX_ENTRY_SIZE + Long.BYTES);
+    }
+
+    /**
+     * @return a copy of the serialised record at the given position
+     */
+    public byte[] payload(long position) {
+        long entry = indexOffset + position * INDEX_ENTRY_SIZE;
+        long start = readLong(entry);
+        long end = position + 1 < count ? readLong(entry + INDEX_ENTRY_SIZE) : indexOffset;
+
+        byte[] bytes = new byte[(int) (end - start)];
+        segments[(int) (start >>> segmentBits)].get((int) (start & segmentMask), bytes);
+        return bytes;
+    }
+
+    private long readLong(long offset) {
+        return segments[(int) (offset >>> segmentBits)].getLong((int) (offset & segmentMask));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
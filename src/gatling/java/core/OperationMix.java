@@ -0,0 +1,103 @@
+package core;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Weighted choice of an operation, parsed from {@code operation:weight} pairs such as
+ * {@code list:70,create:10,delete:5}. Weights are relative and need not add up to 100;
+ * operations that are not listed or have a zero weight are never picked.
+ */
+public class OperationMix<E extends Enum<E>> {
+
+    private final Map<E, Double> weights;
+    private final E[] operations;
+    private final double[] cumulativeWeights;
+
+    private OperationMix(Class<E> type, Map<E, Double> weights) {
+        this.weights = Collections.unmodifiableMap(weights);
+        this.operations = weights.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .map(Map.Entry::getKey)
+                .toArray(size -> Arrays.copyOf(type.getEnumConstants(), size));
+        double total = weights.values().stream().mapToDouble(Double::doubleValue).sum();
+        this.cumulativeWeights = new double[operations.length];
+        double sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += weights.get(operations[i]) / total;
+            cumulativeWeights[i] = sum;
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException for a malformed or repeated entry, an unknown operation,
+     *                                  a negative or non-finite weight, or a mix without a positive weight
+     */
+    public static <E extends Enum<E>> OperationMix<E> parse(String mix, Class<E> type) {
+        Map<E, Double> weights = new EnumMap<>(type);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry '%s', expected <operation>:<weight>".formatted(entry));
+            }
+            E operation = operation(parts[0].trim(), type, entry);
+            double weight = weight(parts[1].trim(), entry);
+            if (weights.put(operation, weight) != null) {
+                throw new IllegalArgumentException("Operation %s is listed twice in mix '%s'".formatted(operation, mix));
+            }
+        }
+        if (weights.values().stream().noneMatch(weight -> weight > 0)) {
+            throw new IllegalArgumentException("Operation mix '%s' has no positive weight".formatted(mix));
+        }
+        return new OperationMix<>(type, weights);
+    }
+
+    private static <E extends Enum<E>> E operation(String name, Class<E> type, String entry) {
+        try {
+            return Enum.valueOf(type, name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown operation in mix entry '%s', expected one of %s".formatted(
+                    entry, Arrays.stream(type.getEnumConstants())
+                            .map(constant -> constant.name().toLowerCase(Locale.ROOT))
+                            .collect(Collectors.joining(", "))));
+        }
+    }
+
+    private static double weight(String value, String entry) {
+        double weight;
+        try {
+            weight = Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid weight in mix entry '%s'".formatted(entry));
+        }
+        if (!Double.isFinite(weight) || weight < 0) {
+            throw new IllegalArgumentException("Weight in mix entry '%s' must be a non-negative number".formatted(entry));
+        }
+        return weight;
+    }
+
+    /**
+     * @return the weights as listed, including zero weights
+     */
+    public Map<E, Double> weights() {
+        return weights;
+    }
+
+    /**
+     * Draws an operation with probability proportional to its weight.
+     */
+    public E pick(Random random) {
+        double draw = random.nextDouble();
+        for (int i = 0; i < cumulativeWeights.length - 1; i++) {
+            if (draw < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+}
@@ -0,0 +1,141 @@
+package core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import ru.gordeev.core.data.DataRandom;
+import ru.gordeev.core.data.IdAllocators;
+import ru.gordeev.core.data.ModelBuilder;
+import ru.gordeev.todo.model.Todo;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * Writes pre-serialised {@link Todo} payloads into an indexed binary file
+ * for {@link MappedPayloadFeeder}.
+ * <p>
+ * Every record gets a unique id from {@link IdAllocators}; text lengths follow a
+ * log-normal distribution (median ~{@value #MEDIAN_TEXT_LENGTH} chars, long tail capped at
+ * {@value #MAX_TEXT_LENGTH}) and roughly a third of the todos are completed.
+ * With {@code data.seed} set, record {@code i} is generated on data stream {@code i},
+ * so the same seed always produces the same file.
+ * <p>
+ * Usage: {@code ./gradlew generatePayloads -Ppayloads.count=10000000 -Ppayloads.file=build/payloads/todos.bin}
+ */
+@Slf4j
+public final class PayloadFileGenerator {
+
+    private static final int MEDIAN_TEXT_LENGTH = 40;
+    private static final double TEXT_LENGTH_SIGMA = 0.9;
+    private static final int MAX_TEXT_LENGTH = 4096;
+    private static final double COMPLETED_RATIO = 0.3;
+
+    private static final String[] WORDS = (
+            "buy milk call mom finish report review pull request book flight pay rent clean kitchen "
+                    + "water plants walk dog fix bug deploy service update docs plan sprint renew passport "
+                    + "schedule dentist order groceries backup laptop reply email prepare slides"
+    ).split(" ");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final StringBuilder text = new StringBuilder(MAX_TEXT_LENGTH);
+
+    private PayloadFileGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: PayloadFileGenerator <count> <output file>");
+        }
+        long count = Long.parseLong(args[0]);
+        Path output = Path.of(args[1]);
+        new PayloadFileGenerator().generate(count, output);
+    }
+
+    /**
+     * Writes {@code count} payloads to {@code output}, replacing any existing file.
+     */
+    public void generate(long count, Path output) throws IOException {
+        Path parent = output.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path index = Files.createTempFile(parent, "payload-index", ".tmp");
+        long started = System.nanoTime();
+        int maxRecordLength = 0;
+        long dataEnd = MappedPayloadFeeder.HEADER_SIZE;
+
+        try (DataOutputStream data = new DataOutputStream(new BufferedOutputStream(
+                     Files.newOutputStream(output), 1 << 20));
+             DataOutputStream entries = new DataOutputStream(new BufferedOutputStream(
+                     Files.newOutputStream(index), 1 << 20))) {
+
+            data.write(new byte[MappedPayloadFeeder.HEADER_SIZE]);
+            for (long i = 0; i < count; i++) {
+                Todo todo = DataRandom.withStream(i, this::nextTodo);
+                byte[] record = objectMapper.writeValueAsBytes(todo);
+
+                entries.writeLong(dataEnd);
+                entries.writeLong(todo.getId());
+                data.write(record);
+                dataEnd += record.length;
+                maxRecordLength = Math.max(maxRecordLength, record.length);
+
+                if ((i + 1) % 1_000_000 == 0) {
+                    log.info("Generated {} / {} payloads", i + 1, count);
+                }
+            }
+        }
+
+        try (OutputStream out = Files.newOutputStream(output, StandardOpenOption.APPEND)) {
+            Files.copy(index, out);
+        } finally {
+            Files.delete(index);
+        }
+        writeHeader(output, maxRecordLength, count, dataEnd);
+
+        log.info("Wrote {} payloads ({} MB) to {} in {} s", count, Files.size(output) >> 20, output,
+                (System.nanoTime() - started) / 1_000_000_000.0);
+    }
+
+    private Todo nextTodo() {
+        Random random = DataRandom.random();
+        int length = (int) Math.min(MAX_TEXT_LENGTH,
+                Math.max(1, Math.round(MEDIAN_TEXT_LENGTH * Math.exp(TEXT_LENGTH_SIGMA * random.nextGaussian()))));
+
+        text.setLength(0);
+        text.append(ModelBuilder.uniqueText("Todo"));
+        int uniqueLength = text.length();
+        while (text.length() < length) {
+            text.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        text.setLength(Math.max(length, uniqueLength));
+
+        return Todo.builder()
+                .id(IdAllocators.nextId())
+                .text(text.toString())
+                .completed(random.nextDouble() < COMPLETED_RATIO)
+                .build();
+    }
+
+    private static void writeHeader(Path output, int maxRecordLength, long count, long indexOffset)
+            throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(MappedPayloadFeeder.HEADER_SIZE)
+                .putLong(MappedPayloadFeeder.MAGIC)
+                .putInt(MappedPayloadFeeder.VERSION)
+                .putInt(maxRecordLength)
+                .putLong(count)
+                .putLong(indexOffset)
+                .flip();
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.WRITE)) {
+            channel.write(header, 0);
+        }
+    }
+}
@@ -2,29 +2,22 @@ package core;
 
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
-
-import java.util.concurrent.ThreadLocalRandom;
-import java.util.concurrent.atomic.AtomicLong;
+import ru.gordeev.core.data.DataRandom;
+import ru.gordeev.core.data.IdAllocators;
 
 /**
  * A thread-safe, high-performance generator for creating unique long IDs
- * suitable for performance tests with multiple virtual users. Each thread (virtual user)
- * gets its own independent sequence of IDs to prevent collisions.
+ * suitable for performance tests with multiple virtual users.
+ * <p>
+ * IDs come from the shared {@link IdAllocators} allocator: Snowflake IDs with a per-JVM
+ * node id, or blocks leased from {@code ids.lease.file} when several injectors run on
+ * one host. When {@code data.seed} is configured, IDs are taken from the active
+ * {@link DataRandom} stream instead, so they are identical between runs with the same seed.
  */
 @AllArgsConstructor(access = AccessLevel.PRIVATE)
 public final class PerformanceIdGenerator {
 
-    private static final long TIME_MULTIPLIER = 1_000_000L;
-
-    private static final ThreadLocal<AtomicLong> THREAD_LOCAL_GENERATOR =
-            ThreadLocal.withInitial(() -> {
-                long base = System.currentTimeMillis() * TIME_MULTIPLIER;
-                long offset = ThreadLocalRandom.current().nextLong(TIME_MULTIPLIER);
-                return new AtomicLong(base + offset);
-            });
-
-
     public static long nextId() {
-        return THREAD_LOCAL_GENERATOR.get().incrementAndGet();
+        return IdAllocators.nextId();
     }
 }
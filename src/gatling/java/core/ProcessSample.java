@@ -0,0 +1,27 @@
+package core;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resource usage of a local process at one point in time, as read by {@link ProcessSampler}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessSample {
+
+    private long epochMillis;
+    // of one core since the previous sample, so a busy process on 4 cores shows up to 400
+    private double cpuPercent;
+    private long rssBytes;
+    private int threads;
+    private int openFds;
+    // over JMX, null when the process exposes none
+    private Long heapUsedBytes;
+    // share of the time since the previous sample spent in GC
+    private Double gcPercent;
+}
@@ -0,0 +1,192 @@
+package core;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.stream.Stream;
+
+/**
+ * Samples CPU, resident memory, threads and open file descriptors of a process on the same host
+ * from {@code /proc/<pid>}, plus heap and GC time over JMX when the process exposes it, and keeps the samples.
+ * Linux only; elsewhere {@link #find(String)} finds nothing. {@link ServerMonitor} decides when to sample.
+ */
+@Slf4j
+public class ProcessSampler implements AutoCloseable {
+
+    // USER_HZ of /proc/<pid>/stat times, 100 on all mainstream Linux architectures
+    private static final double CLOCK_TICKS_PER_SECOND = 100;
+    private static final Path PROC = Path.of("/proc");
+    private static final String PROCESS_PROPERTY = "performance.server.process=";
+
+    private final long pid;
+    private final Path proc;
+    private final List<ProcessSample> samples = new ArrayList<>();
+    private JmxSampler jmx;
+    private long lastCpuTicks = -1;
+    private long lastSampleNanos;
+
+    public ProcessSampler(long pid) {
+        this(pid, PROC);
+    }
+
+    /**
+     * @param proc the directory to read {@code <pid>/stat}, {@code <pid>/status} and {@code <pid>/fd} from
+     */
+    ProcessSampler(long pid, Path proc) {
+        this.pid = pid;
+        this.proc = proc;
+    }
+
+    /**
+     * Finds the process to sample.
+     *
+     * @param process a pid, or a substring of the command line of exactly one process
+     */
+    public static OptionalLong find(String process) {
+        if (process == null || process.isBlank() || !Files.isDirectory(PROC)) {
+            return OptionalLong.empty();
+        }
+        if (process.chars().allMatch(Character::isDigit)) {
+            return OptionalLong.of(Long.parseLong(process));
+        }
+        List<Long> matches;
+        // ProcessHandle.Info#commandLine() is cut at 4 KB, which a Java classpath easily exceeds
+        try (Stream<Path> processes = Files.list(PROC)) {
+            // injectors and launchers match their own -Dperformance.server.process=<process>
+            matches = processes
+                    .filter(dir -> dir.getFileName().toString().chars().allMatch(Character::isDigit))
+                    .filter(dir -> {
+                        String command = commandLine(dir);
+                        return command.contains(process) && !command.contains(PROCESS_PROPERTY);
+                    })
+                    .map(dir -> Long.parseLong(dir.getFileName().toString()))
+                    .toList();
+        } catch (IOException e) {
+            log.warn("Failed to list processes: {}", e.getMessage());
+            return OptionalLong.empty();
+        }
+        if (matches.size() != 1) {
+            log.warn("Expected one process matching '{}', found {}; not sampling", process, matches.size());
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(matches.get(0));
+    }
+
+    /**
+     * Also reads heap and GC time from the JMX connector at the given URL.
+     */
+    public ProcessSampler withJmx(String url) {
+        try {
+            jmx = new JmxSampler(url);
+        } catch (IOException e) {
+            log.warn("Invalid JMX URL '{}', sampling /proc only: {}", url, e.getMessage());
+        }
+        return this;
+    }
+
+    public long pid() {
+        return pid;
+    }
+
+    /**
+     * Takes and keeps a sample.
+     *
+     * @return the sample, empty when the process is gone or could not be read
+     */
+    public Optional<ProcessSample> sample() {
+        try {
+            Optional<ProcessSample> sample = read();
+            sample.ifPresent(this::add);
+            return sample;
+        } catch (Exception e) {
+            log.warn("Failed to sample process {}: {}", pid, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @return the samples so far, oldest first
+     */
+    public synchronized List<ProcessSample> samples() {
+        return new ArrayList<>(samples);
+    }
+
+    /**
+     * @return the samples taken in the given wall-clock window, oldest first
+     */
+    public synchronized List<ProcessSample> samples(long fromMillis, long toMillis) {
+        return samples.stream()
+                .filter(sample -> sample.getEpochMillis() >= fromMillis && sample.getEpochMillis() < toMillis)
+                .toList();
+    }
+
+    private synchronized void add(ProcessSample sample) {
+        samples.add(sample);
+    }
+
+    private synchronized Optional<ProcessSample> read() throws IOException {
+        Path dir = proc.resolve(String.valueOf(pid));
+        if (!Files.isDirectory(dir)) {
+            return Optional.empty();
+        }
+        long now = System.nanoTime();
+        long cpuTicks = cpuTicks(Files.readString(dir.resolve("stat")));
+        double cpuPercent = lastCpuTicks < 0 ? 0
+                : (cpuTicks - lastCpuTicks) / CLOCK_TICKS_PER_SECOND / ((now - lastSampleNanos) / 1e9) * 100;
+        lastCpuTicks = cpuTicks;
+        lastSampleNanos = now;
+
+        long rssBytes = 0;
+        int threads = 0;
+        for (String line : Files.readAllLines(dir.resolve("status"))) {
+            if (line.startsWith("VmRSS:")) {
+                rssBytes = Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+            } else if (line.startsWith("Threads:")) {
+                threads = Integer.parseInt(line.replaceAll("\\D", ""));
+            }
+        }
+        int openFds;
+        try (Stream<Path> fds = Files.list(dir.resolve("fd"))) {
+            openFds = (int) fds.count();
+        }
+        ProcessSample sample = ProcessSample.builder()
+                .epochMillis(System.currentTimeMillis())
+                .cpuPercent(cpuPercent)
+                .rssBytes(rssBytes)
+                .threads(threads)
+                .openFds(openFds)
+                .build();
+        if (jmx != null) {
+            jmx.fill(sample);
+        }
+        return Optional.of(sample);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (jmx != null) {
+            jmx.close();
+        }
+    }
+
+    private static String commandLine(Path dir) {
+        try {
+            return Files.readString(dir.resolve("cmdline")).replace('\0', ' ');
+        } catch (IOException e) {
+            // exited, or not ours to read
+            return "";
+        }
+    }
+
+    // utime + stime, fields 14 and 15; the command name in field 2 may contain spaces and parentheses
+    static long cpuTicks(String stat) {
+        String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+        return Long.parseLong(fields[11]) + Long.parseLong(fields[12]);
+    }
+}
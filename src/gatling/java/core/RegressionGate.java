@@ -0,0 +1,316 @@
+package core;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.EncodableHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogReader;
+import org.aeonbits.owner.ConfigFactory;
+import ru.gordeev.core.config.AppConfig;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Compares the latest {@link HdrIntervalLog} run of a simulation and profile against a stored baseline.
+ * <p>
+ * For every request name of the baseline and every percentile of {@code performance.regression.percentiles}
+ * the percentile of the whole run is compared with the baseline one. It is a regression when it grew by more
+ * than {@code performance.regression.tolerance} and the growth is significant: a one-sided Mann-Whitney U test
+ * over the per-interval percentiles of both runs must reject "not slower" at {@code performance.regression.alpha}.
+ * With too few intervals for the test the relative growth alone decides. A diff report is written to
+ * {@code performance.reports.dir} and the process exits with 1 on a regression, failing the Gradle task.
+ * <p>
+ * With {@code --update-baseline} the latest run replaces the baseline instead.
+ */
+@Slf4j
+public final class RegressionGate {
+
+    public static final String UPDATE_BASELINE = "--update-baseline";
+
+    // intervals with fewer requests give percentiles too noisy to compare
+    private static final int MIN_INTERVAL_REQUESTS = 20;
+    private static final int MIN_INTERVALS = 5;
+    private static final DateTimeFormatter RUN_ID = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final AppConfig config;
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private RegressionGate(AppConfig config) {
+        this.config = config;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: RegressionGate <simulation class> <profile> [" + UPDATE_BASELINE + "]");
+        }
+        String simulation = HdrIntervalLog.simpleName(args[0]);
+        String profile = args[1];
+        RegressionGate gate = new RegressionGate(ConfigFactory.create(AppConfig.class));
+
+        Path latestRun = gate.latestRun(simulation, profile);
+        Path baseline = Path.of(gate.config.performanceBaselineDir(), simulation, profile);
+        if (args.length > 2 && UPDATE_BASELINE.equals(args[2])) {
+            gate.updateBaseline(latestRun, baseline);
+            return;
+        }
+        if (!Files.isDirectory(baseline)) {
+            log.warn("No baseline for {} with profile {} in {}; run updatePerformanceBaseline to create one",
+                    simulation, profile, baseline);
+            return;
+        }
+
+        Report report = gate.compare(simulation, profile, baseline, latestRun);
+        Path file = Path.of(gate.config.performanceReportsDir(),
+                "regression-%s-%s-%s.json".formatted(simulation, profile, LocalDateTime.now().format(RUN_ID)));
+        Files.createDirectories(file.getParent());
+        gate.objectMapper.writeValue(file.toFile(), report);
+
+        if (!report.isPassed()) {
+            log.error("Latency regression of {} against the baseline, see {}", simulation, file);
+            System.exit(1);
+        }
+        log.info("No latency regression of {} against the baseline (report: {})", simulation, file);
+    }
+
+    private Path latestRun(String simulation, String profile) throws IOException {
+        Path runs = HdrIntervalLog.runsDir(config, simulation, profile);
+        if (!Files.isDirectory(runs)) {
+            throw new IllegalStateException("No interval logs of %s with profile %s in %s".formatted(simulation, profile, runs));
+        }
+        try (Stream<Path> dirs = Files.list(runs)) {
+            return dirs.filter(Files::isDirectory)
+                    .max(Comparator.comparing(Path::getFileName))
+                    .orElseThrow(() -> new IllegalStateException("No runs in " + runs));
+        }
+    }
+
+    private void updateBaseline(Path run, Path baseline) throws IOException {
+        Files.createDirectories(baseline);
+        try (Stream<Path> old = Files.list(baseline)) {
+            for (Path file : old.filter(RegressionGate::isIntervalLog).toList()) {
+                Files.delete(file);
+            }
+        }
+        try (Stream<Path> logs = Files.list(run)) {
+            for (Path file : logs.filter(RegressionGate::isIntervalLog).toList()) {
+                Files.copy(file, baseline.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        log.info("Baseline {} updated from {}", baseline, run);
+    }
+
+    private static boolean isIntervalLog(Path file) {
+        return file.getFileName().toString().endsWith(HdrIntervalLog.EXTENSION);
+    }
+
+    private Report compare(String simulation, String profile, Path baseline, Path run) throws IOException {
+        List<RequestDiff> requests = new ArrayList<>();
+        try (Stream<Path> logs = Files.list(baseline)) {
+            for (Path baselineLog : logs.filter(RegressionGate::isIntervalLog).sorted().toList()) {
+                Path runLog = run.resolve(baselineLog.getFileName());
+                requests.add(Files.exists(runLog)
+                        ? compareRequest(baselineLog, runLog)
+                        : RequestDiff.builder().log(baselineLog.getFileName().toString()).missing(true).build());
+            }
+        }
+        for (RequestDiff request : requests) {
+            if (request.isMissing()) {
+                log.warn("{} is in the baseline but was not run", request.getLog());
+            }
+        }
+        return Report.builder()
+                .simulation(simulation)
+                .profile(profile)
+                .baseline(baseline.toString())
+                .run(run.toString())
+                .tolerance(config.performanceRegressionTolerance())
+                .alpha(config.performanceRegressionAlpha())
+                .passed(requests.stream().noneMatch(RequestDiff::isRegression))
+                .requests(requests)
+                .build();
+    }
+
+    private RequestDiff compareRequest(Path baselineLog, Path runLog) throws IOException {
+        List<Histogram> baselineIntervals = readIntervals(baselineLog);
+        List<Histogram> runIntervals = readIntervals(runLog);
+        Histogram baselineTotal = merge(baselineIntervals);
+        Histogram runTotal = merge(runIntervals);
+
+        List<PercentileDiff> percentiles = new ArrayList<>();
+        for (double percentile : config.performanceRegressionPercentiles()) {
+            double baselineMs = baselineTotal.getValueAtPercentile(percentile) / 1000.0;
+            double runMs = runTotal.getValueAtPercentile(percentile) / 1000.0;
+            double growth = baselineMs == 0 ? 0 : (runMs - baselineMs) / baselineMs;
+            double[] baselineValues = intervalPercentiles(baselineIntervals, percentile);
+            double[] runValues = intervalPercentiles(runIntervals, percentile);
+            Double pValue = baselineValues.length < MIN_INTERVALS || runValues.length < MIN_INTERVALS
+                    ? null : pValueGreater(baselineValues, runValues);
+            boolean regression = growth > config.performanceRegressionTolerance()
+                    && (pValue == null || pValue < config.performanceRegressionAlpha());
+            if (regression) {
+                log.error("{} p{}: {} ms -> {} ms (+{}%, p-value {})", runLog.getFileName(), percentile,
+                        baselineMs, runMs, Math.round(growth * 100), pValue);
+            }
+            percentiles.add(PercentileDiff.builder()
+                    .percentile(percentile)
+                    .baselineMs(baselineMs)
+                    .runMs(runMs)
+                    .growth(growth)
+                    .pValue(pValue)
+                    .regression(regression)
+                    .build());
+        }
+        return RequestDiff.builder()
+                .log(runLog.getFileName().toString())
+                .baselineRequests(baselineTotal.getTotalCount())
+                .runRequests(runTotal.getTotalCount())
+                .regression(percentiles.stream().anyMatch(PercentileDiff::isRegression))
+                .percentiles(percentiles)
+                .build();
+    }
+
+    static List<Histogram> readIntervals(Path file) throws IOException {
+        List<Histogram> intervals = new ArrayList<>();
+        HistogramLogReader reader = new HistogramLogReader(file.toFile());
+        try {
+            EncodableHistogram interval;
+            while ((interval = reader.nextIntervalHistogram()) != null) {
+                if (interval instanceof Histogram histogram) {
+                    intervals.add(histogram);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return intervals;
+    }
+
+    private static Histogram merge(List<Histogram> intervals) {
+        Histogram total = new Histogram(3);
+        intervals.forEach(total::add);
+        return total;
+    }
+
+    private static double[] intervalPercentiles(List<Histogram> intervals, double percentile) {
+        return intervals.stream()
+                .filter(interval -> interval.getTotalCount() >= MIN_INTERVAL_REQUESTS)
+                .mapToDouble(interval -> interval.getValueAtPercentile(percentile))
+                .toArray();
+    }
+
+    /**
+     * One-sided Mann-Whitney U test with normal approximation, tie and continuity correction.
+     *
+     * @return the p-value of "values of {@code run} are not greater than those of {@code baseline}"
+     */
+    static double pValueGreater(double[] baseline, double[] run) {
+        int n1 = baseline.length;
+        int n2 = run.length;
+        int n = n1 + n2;
+        double[][] ranked = new double[n][];
+        for (int i = 0; i < n1; i++) {
+            ranked[i] = new double[]{baseline[i], 0};
+        }
+        for (int i = 0; i < n2; i++) {
+            ranked[n1 + i] = new double[]{run[i], 1};
+        }
+        Arrays.sort(ranked, Comparator.comparingDouble(value -> value[0]));
+
+        double runRankSum = 0;
+        double tieCorrection = 0;
+        for (int i = 0; i < n; ) {
+            int j = i;
+            while (j < n && ranked[j][0] == ranked[i][0]) {
+                j++;
+            }
+            double averageRank = (i + 1 + j) / 2.0;
+            for (int k = i; k < j; k++) {
+                if (ranked[k][1] == 1) {
+                    runRankSum += averageRank;
+                }
+            }
+            double ties = j - i;
+            tieCorrection += ties * ties * ties - ties;
+            i = j;
+        }
+
+        double u = runRankSum - n2 * (n2 + 1) / 2.0;
+        double mean = n1 * (double) n2 / 2;
+        double variance = n1 * (double) n2 / 12 * ((n + 1) - tieCorrection / (n * (double) (n - 1)));
+        if (variance <= 0) {
+            return u > mean ? 0 : 1;
+        }
+        double z = (u - mean - 0.5) / Math.sqrt(variance);
+        return 1 - normalCdf(z);
+    }
+
+    // Abramowitz and Stegun 7.1.26, absolute error below 1.5e-7
+    static double normalCdf(double z) {
+        double x = Math.abs(z) / Math.sqrt(2);
+        double t = 1 / (1 + 0.3275911 * x);
+        double erf = 1 - t * (0.254829592 + t * (-0.284496736 + t * (1.421413741
+                + t * (-1.453152027 + t * 1.061405429)))) * Math.exp(-x * x);
+        return z >= 0 ? (1 + erf) / 2 : (1 - erf) / 2;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Report {
+        private String simulation;
+        private String profile;
+        private String baseline;
+        private String run;
+        private double tolerance;
+        private double alpha;
+        private boolean passed;
+        private List<RequestDiff> requests;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RequestDiff {
+        private String log;
+        // in the baseline but not in the run; reported, not failed
+        private boolean missing;
+        private long baselineRequests;
+        private long runRequests;
+        private boolean regression;
+        private List<PercentileDiff> percentiles;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PercentileDiff {
+        private double percentile;
+        private double baselineMs;
+        private double runMs;
+        // relative change of the run against the baseline, 0.25 is 25% slower
+        private double growth;
+        // null when there were too few intervals for the significance test
+        @JsonProperty("pValue")
+        private Double pValue;
+        private boolean regression;
+    }
+}
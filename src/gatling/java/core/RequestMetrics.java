@@ -0,0 +1,122 @@
+package core;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-injector request metrics, keyed by Gatling request name.
+ * Complements the Gatling report with numbers the framework can act on during
+ * and right after a run (capacity search steps, regression gates, live stats).
+ */
+public class RequestMetrics {
+
+    private final Map<String, RequestStats> byName = new ConcurrentHashMap<>();
+    private final AtomicLong firstStartMillis = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong lastEndMillis = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicLong iterations = new AtomicLong();
+    private final AtomicLong firstIterationEndMillis = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong lastIterationEndMillis = new AtomicLong(Long.MIN_VALUE);
+    private volatile long recordFromMillis = Long.MIN_VALUE;
+
+    /**
+     * Ignores requests started and iterations ended before the given time, e.g. to exclude a warm-up.
+     */
+    public void recordFrom(long epochMillis) {
+        this.recordFromMillis = epochMillis;
+    }
+
+    public void record(String name, long startMillis, long endMillis, boolean ok, long responseBytes) {
+        if (startMillis < recordFromMillis) {
+            return;
+        }
+        firstStartMillis.accumulateAndGet(startMillis, Math::min);
+        lastEndMillis.accumulateAndGet(endMillis, Math::max);
+        byName.computeIfAbsent(name, key -> new RequestStats())
+                .record(startMillis, endMillis, ok, responseBytes);
+    }
+
+    /**
+     * Records a virtual user that reached the end of its scenario.
+     */
+    public void recordIteration(long endMillis) {
+        if (endMillis < recordFromMillis) {
+            return;
+        }
+        iterations.incrementAndGet();
+        firstIterationEndMillis.accumulateAndGet(endMillis, Math::min);
+        lastIterationEndMillis.accumulateAndGet(endMillis, Math::max);
+    }
+
+    public Map<String, RequestStats> byName() {
+        return Collections.unmodifiableMap(byName);
+    }
+
+    public long requests() {
+        return byName.values().stream().mapToLong(RequestStats::requests).sum();
+    }
+
+    public long errors() {
+        return byName.values().stream().mapToLong(RequestStats::errors).sum();
+    }
+
+    public double errorRate() {
+        long total = requests();
+        return total == 0 ? 0 : (double) errors() / total;
+    }
+
+    /**
+     * @return all recorded latencies across request names, in microseconds
+     */
+    public Histogram cumulative() {
+        Histogram total = new Histogram(3);
+        byName.values().forEach(stats -> total.add(stats.cumulative()));
+        return total;
+    }
+
+    /**
+     * @return start of the first recorded request, {@code Long.MAX_VALUE} before any request
+     */
+    public long firstStartMillis() {
+        return firstStartMillis.get();
+    }
+
+    /**
+     * @return end of the last recorded response, {@code Long.MIN_VALUE} before any request
+     */
+    public long lastEndMillis() {
+        return lastEndMillis.get();
+    }
+
+    /**
+     * @return seconds between the first recorded request start and the last response
+     */
+    public double windowSeconds() {
+        long window = lastEndMillis.get() - firstStartMillis.get();
+        return window <= 0 ? 0 : window / 1000.0;
+    }
+
+    /**
+     * @return requests per second over {@link #windowSeconds()}
+     */
+    public double throughput() {
+        double window = windowSeconds();
+        return window == 0 ? 0 : requests() / window;
+    }
+
+    public long iterations() {
+        return iterations.get();
+    }
+
+    /**
+     * @return completed scenario iterations per second, the rate to compare with a user arrival rate
+     */
+    public double iterationThroughput() {
+        long window = lastIterationEndMillis.get() - firstIterationEndMillis.get();
+        // n ends span n - 1 intervals
+        return window <= 0 ? 0 : (iterations.get() - 1) * 1000.0 / window;
+    }
+}
@@ -0,0 +1,124 @@
+package core;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and counters of a single request name.
+ * <p>
+ * Writers record into a wait-free HdrHistogram {@link Recorder}; readers drain it
+ * into interval and cumulative histograms, so recording never blocks virtual users.
+ * Latencies are kept in microseconds.
+ */
+public class RequestStats {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Recorder recorder = new Recorder(MAX_LATENCY_MICROS, SIGNIFICANT_DIGITS);
+    // drained separately by LiveMonitor, so live stats do not take intervals from the HDR log
+    private final Recorder liveRecorder = new Recorder(MAX_LATENCY_MICROS, SIGNIFICANT_DIGITS);
+    private final Histogram cumulative = new Histogram(MAX_LATENCY_MICROS, SIGNIFICANT_DIGITS);
+    // latencies not yet returned by sampleInterval, so reading the cumulative histogram loses no interval
+    private Histogram pendingInterval = new Histogram(MAX_LATENCY_MICROS, SIGNIFICANT_DIGITS);
+    private Histogram returnedInterval = new Histogram(MAX_LATENCY_MICROS, SIGNIFICANT_DIGITS);
+    private Histogram recycled;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder responseBytes = new LongAdder();
+    private final AtomicLong firstStartMillis = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong lastEndMillis = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * Records a request together with its wall-clock window, for {@link #throughput()}.
+     */
+    public void record(long startMillis, long endMillis, boolean ok, long bytes) {
+        firstStartMillis.accumulateAndGet(startMillis, Math::min);
+        lastEndMillis.accumulateAndGet(endMillis, Math::max);
+        record(TimeUnit.MILLISECONDS.toMicros(endMillis - startMillis), ok, bytes);
+    }
+
+    public void record(long latencyMicros, boolean ok, long bytes) {
+        long value = Math.min(Math.max(latencyMicros, 0), MAX_LATENCY_MICROS);
+        recorder.recordValue(value);
+        liveRecorder.recordValue(value);
+        requests.increment();
+        responseBytes.add(bytes);
+        if (!ok) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Returns the latencies recorded since the previous call.
+     * The returned histogram is only valid until the next call.
+     */
+    public synchronized Histogram sampleInterval() {
+        drainRecorder();
+        Histogram interval = pendingInterval;
+        pendingInterval = returnedInterval;
+        pendingInterval.reset();
+        returnedInterval = interval;
+        return interval;
+    }
+
+    /**
+     * Returns the latencies recorded since the previous call for live monitoring.
+     * Independent of {@link #sampleInterval()}.
+     */
+    public Histogram sampleLive() {
+        return liveRecorder.getIntervalHistogram();
+    }
+
+    /**
+     * @return a copy of every latency recorded so far
+     */
+    public synchronized Histogram cumulative() {
+        drainRecorder();
+        return cumulative.copy();
+    }
+
+    private void drainRecorder() {
+        recycled = recorder.getIntervalHistogram(recycled);
+        cumulative.add(recycled);
+        pendingInterval.add(recycled);
+    }
+
+    public long requests() {
+        return requests.sum();
+    }
+
+    public long errors() {
+        return errors.sum();
+    }
+
+    public long responseBytes() {
+        return responseBytes.sum();
+    }
+
+    public double errorRate() {
+        long total = requests();
+        return total == 0 ? 0 : (double) errors() / total;
+    }
+
+    /**
+     * @return seconds between the first request start and the last response recorded with timestamps
+     */
+    public double windowSeconds() {
+        long window = lastEndMillis.get() - firstStartMillis.get();
+        return window <= 0 ? 0 : window / 1000.0;
+    }
+
+    /**
+     * @return requests per second over {@link #windowSeconds()}
+     */
+    public double throughput() {
+        double window = windowSeconds();
+        return window == 0 ? 0 : requests() / window;
+    }
+}
@@ -0,0 +1,150 @@
+package core;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import ru.gordeev.core.config.AppConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples the server process alongside the load. Every interval adds one {@link ServerTimeline.Point}. The point
+ * pairs the active users, rate, error rate and p99 of the requests completed in the interval with the CPU, RSS,
+ * threads and file descriptors of the server, and its heap and GC time when JMX is exposed. A latency spike then
+ * sits in the same row as the saturation that caused it.
+ */
+@Slf4j
+public class ServerMonitor {
+
+    private final RequestMetrics metrics;
+    private final LiveMonitor liveMonitor;
+    private final ProcessSampler sampler;
+    private final int intervalSeconds;
+    private final List<ServerTimeline.Point> points = new ArrayList<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "server-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private long startMillis;
+    private Histogram lastLatency;
+    private long lastRequests;
+    private long lastErrors;
+    private long lastMillis;
+
+    public ServerMonitor(RequestMetrics metrics, LiveMonitor liveMonitor, ProcessSampler sampler, int intervalSeconds) {
+        this.metrics = metrics;
+        this.liveMonitor = liveMonitor;
+        this.sampler = sampler;
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    /**
+     * @return a monitor of the {@code performance.server.process}, empty when none is set or found
+     */
+    public static Optional<ServerMonitor> fromConfig(AppConfig config, RequestMetrics metrics, LiveMonitor liveMonitor) {
+        OptionalLong pid = ProcessSampler.find(config.performanceServerProcess());
+        if (pid.isEmpty()) {
+            return Optional.empty();
+        }
+        ProcessSampler sampler = new ProcessSampler(pid.getAsLong());
+        String jmxUrl = config.performanceServerJmxUrl();
+        if (jmxUrl != null && !jmxUrl.isBlank()) {
+            sampler.withJmx(jmxUrl);
+        }
+        return Optional.of(new ServerMonitor(metrics, liveMonitor, sampler, config.performanceServerSampleSeconds()));
+    }
+
+    public ProcessSampler sampler() {
+        return sampler;
+    }
+
+    public synchronized void start() {
+        // the first sample only sets the baselines of the CPU and GC rates
+        sampler.sample();
+        startMillis = System.currentTimeMillis();
+        lastMillis = startMillis;
+        lastLatency = metrics.cumulative();
+        lastRequests = metrics.requests();
+        lastErrors = metrics.errors();
+        scheduler.scheduleAtFixedRate(this::tickSafely, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        log.info("Sampling server process {} every {} s", sampler.pid(), intervalSeconds);
+    }
+
+    /**
+     * Stops sampling and closes the last interval.
+     */
+    public ServerTimeline stop(String simulation, String profile) {
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (System.currentTimeMillis() - lastMillis >= TimeUnit.SECONDS.toMillis(intervalSeconds) / 2) {
+                tick();
+            }
+            sampler.close();
+            return ServerTimeline.builder()
+                    .simulation(simulation)
+                    .profile(profile)
+                    .serverPid(sampler.pid())
+                    .intervalSeconds(intervalSeconds)
+                    .startEpochMillis(startMillis)
+                    .points(new ArrayList<>(points))
+                    .build();
+        }
+    }
+
+    private void tickSafely() {
+        try {
+            tick();
+        } catch (Exception e) {
+            log.warn("Server sample failed: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void tick() {
+        long now = System.currentTimeMillis();
+        Histogram cumulative = metrics.cumulative();
+        Histogram window = cumulative.copy();
+        window.subtract(lastLatency);
+        long requests = metrics.requests() - lastRequests;
+        long errors = metrics.errors() - lastErrors;
+        double seconds = Math.max(now - lastMillis, 1) / 1000.0;
+
+        ServerTimeline.Point point = ServerTimeline.Point.builder()
+                .second((now - startMillis) / 1000)
+                .activeUsers(liveMonitor.activeUsers())
+                .rps(round(requests / seconds))
+                .errorRate(requests == 0 ? 0 : (double) errors / requests)
+                .p99Ms(round(window.getValueAtPercentile(99.0) / 1000.0))
+                .build();
+        sampler.sample().ifPresent(sample -> {
+            point.setCpuPercent(round(sample.getCpuPercent()));
+            point.setRssMb(round(sample.getRssBytes() / 1048576.0));
+            point.setThreads(sample.getThreads());
+            point.setOpenFds(sample.getOpenFds());
+            if (sample.getHeapUsedBytes() != null) {
+                point.setHeapMb(round(sample.getHeapUsedBytes() / 1048576.0));
+                point.setGcPercent(round(sample.getGcPercent()));
+            }
+        });
+        points.add(point);
+
+        lastMillis = now;
+        lastLatency = cumulative;
+        lastRequests += requests;
+        lastErrors += errors;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,64 @@
+package core;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.OptionalDouble;
+import java.util.function.Function;
+
+/**
+ * Load and server resources of a run side by side, one {@link Point} per sample interval, see {@link ServerMonitor}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ServerTimeline {
+
+    private String simulation;
+    private String profile;
+    private long serverPid;
+    private int intervalSeconds;
+    // start of the injection; the seconds of the points count from here
+    private long startEpochMillis;
+    private List<Point> points;
+
+    /**
+     * @return the highest value of the metric over all points, null if no point has it
+     */
+    public Double peak(Function<Point, ? extends Number> metric) {
+        OptionalDouble peak = points.stream()
+                .map(metric)
+                .filter(Objects::nonNull)
+                .mapToDouble(Number::doubleValue)
+                .max();
+        return peak.isPresent() ? peak.getAsDouble() : null;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Point {
+        private long second;
+        // the load over the interval ending here
+        private long activeUsers;
+        private double rps;
+        private double errorRate;
+        private double p99Ms;
+        // the server at this point, null when it could not be read
+        private Double cpuPercent;
+        private Double rssMb;
+        private Integer threads;
+        private Integer openFds;
+        // over JMX only
+        private Double heapMb;
+        private Double gcPercent;
+    }
+}
@@ -0,0 +1,254 @@
+package core;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Watches a {@link LoadProfile.Pattern#SOAK} run for slow degradation.
+ * <p>
+ * After the ramp-up, every {@code soakCheckpointSeconds} closes a window: p50, p99, throughput and error rate of
+ * the requests in it, plus the mean CPU, RSS and open file descriptors of the server process when a
+ * {@link ProcessSampler} is given. Every value is also expressed relative to the first window. From the third
+ * window on, a least-squares line through the relative values gives the growth per hour; p50 or p99 growing
+ * faster than {@code soakMaxLatencySlope}, or a resource faster than {@code soakMaxResourceSlope}, is drift.
+ * Drift found during the run sets a stop reason, so a leaking server does not have to be soaked for hours more.
+ */
+@Slf4j
+public class SoakMonitor {
+
+    private static final int MIN_CHECKPOINTS = 3;
+    private static final double SECONDS_PER_HOUR = 3600;
+
+    private final RequestMetrics metrics;
+    private final LoadProfile profile;
+    private final ProcessSampler sampler;
+    private final List<SoakReport.Checkpoint> checkpoints = new ArrayList<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "soak-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private long startMillis;
+    private long windowStartMillis;
+    private Histogram windowStartLatency;
+    private long windowStartRequests;
+    private long windowStartErrors;
+    private volatile String stopReason;
+
+    /**
+     * @param sampler sampler of the server process, or null to check latencies only
+     */
+    public SoakMonitor(RequestMetrics metrics, LoadProfile profile, ProcessSampler sampler) {
+        this.metrics = metrics;
+        this.profile = profile;
+        this.sampler = sampler;
+    }
+
+    public void start() {
+        startMillis = System.currentTimeMillis();
+        long rampUpMillis = TimeUnit.SECONDS.toMillis(profile.getRampUpDurationSeconds());
+        long checkpointMillis = TimeUnit.SECONDS.toMillis(profile.getSoakCheckpointSeconds());
+        scheduler.schedule(() -> runSafely(this::openWindow), rampUpMillis, TimeUnit.MILLISECONDS);
+        scheduler.scheduleAtFixedRate(() -> runSafely(this::checkpoint),
+                rampUpMillis + checkpointMillis, checkpointMillis, TimeUnit.MILLISECONDS);
+        log.info("Soak checkpoints every {} s after the {} s ramp-up", profile.getSoakCheckpointSeconds(),
+                profile.getRampUpDurationSeconds());
+    }
+
+    /**
+     * @return why the run should stop early, or null while no drift was found
+     */
+    public String stopReason() {
+        return stopReason;
+    }
+
+    /**
+     * Stops the checkpoints, closes the last window if it covers at least half a checkpoint and
+     * evaluates the drift over all windows. With too few checkpoints for a slope the report is
+     * inconclusive and fails.
+     */
+    public SoakReport stop(String simulation) {
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (windowStartLatency != null && System.currentTimeMillis() - windowStartMillis
+                    >= TimeUnit.SECONDS.toMillis(profile.getSoakCheckpointSeconds()) / 2) {
+                checkpoint();
+            }
+            Map<String, Double> slopes = slopes(checkpoints);
+            List<String> violations = violations(slopes, profile);
+            boolean inconclusive = checkpoints.size() < MIN_CHECKPOINTS;
+            if (inconclusive) {
+                // no slopes means no drift found, which must not pass as no drift
+                violations.add("only %d checkpoints, at least %d are needed to detect drift"
+                        .formatted(checkpoints.size(), MIN_CHECKPOINTS));
+                log.warn("Soak inconclusive: {}", violations.get(violations.size() - 1));
+            }
+            return SoakReport.builder()
+                    .simulation(simulation)
+                    .profile(profile.getName())
+                    .checkpointSeconds(profile.getSoakCheckpointSeconds())
+                    .maxLatencySlope(profile.getSoakMaxLatencySlope())
+                    .maxResourceSlope(profile.getSoakMaxResourceSlope())
+                    .serverPid(sampler != null ? sampler.pid() : null)
+                    .checkpoints(new ArrayList<>(checkpoints))
+                    .slopes(slopes)
+                    .passed(violations.isEmpty())
+                    .inconclusive(inconclusive)
+                    .stoppedEarly(stopReason != null)
+                    .violations(violations)
+                    .build();
+        }
+    }
+
+    private void runSafely(Runnable task) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            log.warn("Soak checkpoint failed: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void openWindow() {
+        windowStartMillis = System.currentTimeMillis();
+        windowStartLatency = metrics.cumulative();
+        windowStartRequests = metrics.requests();
+        windowStartErrors = metrics.errors();
+    }
+
+    private synchronized void checkpoint() {
+        if (windowStartLatency == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Histogram cumulative = metrics.cumulative();
+        Histogram window = cumulative.copy();
+        window.subtract(windowStartLatency);
+        long requests = metrics.requests() - windowStartRequests;
+        long errors = metrics.errors() - windowStartErrors;
+        double seconds = Math.max(now - windowStartMillis, 1) / 1000.0;
+
+        SoakReport.Checkpoint checkpoint = SoakReport.Checkpoint.builder()
+                .index(checkpoints.size() + 1)
+                .endSeconds((now - startMillis) / 1000)
+                .requests(requests)
+                .rps(requests / seconds)
+                .errorRate(requests == 0 ? 0 : (double) errors / requests)
+                .p50Ms(window.getValueAtPercentile(50.0) / 1000.0)
+                .p99Ms(window.getValueAtPercentile(99.0) / 1000.0)
+                .build();
+        if (sampler != null) {
+            List<ProcessSample> samples = sampler.samples(windowStartMillis, now);
+            if (!samples.isEmpty()) {
+                checkpoint.setCpuPercent(samples.stream().mapToDouble(ProcessSample::getCpuPercent).average().orElse(0));
+                checkpoint.setRssMb(samples.stream().mapToDouble(sample -> sample.getRssBytes() / 1048576.0).average().orElse(0));
+                checkpoint.setOpenFds(samples.stream().mapToDouble(ProcessSample::getOpenFds).average().orElse(0));
+            }
+        }
+        SoakReport.Checkpoint first = checkpoints.isEmpty() ? checkpoint : checkpoints.get(0);
+        checkpoint.setRpsRatio(ratio(checkpoint.getRps(), first.getRps()));
+        checkpoint.setP50Ratio(ratio(checkpoint.getP50Ms(), first.getP50Ms()));
+        checkpoint.setP99Ratio(ratio(checkpoint.getP99Ms(), first.getP99Ms()));
+        checkpoints.add(checkpoint);
+
+        windowStartMillis = now;
+        windowStartLatency = cumulative;
+        windowStartRequests += requests;
+        windowStartErrors += errors;
+
+        log.info("Soak checkpoint {} at {} s: {} rps ({}x), p50 {} ms ({}x), p99 {} ms ({}x){}", checkpoint.getIndex(),
+                checkpoint.getEndSeconds(), round(checkpoint.getRps()), round(checkpoint.getRpsRatio()),
+                round(checkpoint.getP50Ms()), round(checkpoint.getP50Ratio()),
+                round(checkpoint.getP99Ms()), round(checkpoint.getP99Ratio()),
+                checkpoint.getRssMb() == null ? "" : ", server CPU %s%%, RSS %s MB, %s fds".formatted(
+                        round(checkpoint.getCpuPercent()), round(checkpoint.getRssMb()), round(checkpoint.getOpenFds())));
+
+        List<String> violations = violations(slopes(checkpoints), profile);
+        if (!violations.isEmpty() && stopReason == null) {
+            stopReason = "soak drift: " + String.join(", ", violations);
+            log.error("Stopping the soak at checkpoint {}: {}", checkpoint.getIndex(), violations);
+        }
+    }
+
+    /**
+     * @return growth per hour of every metric relative to its first checkpoint, empty with too few checkpoints
+     */
+    static Map<String, Double> slopes(List<SoakReport.Checkpoint> checkpoints) {
+        Map<String, Double> slopes = new LinkedHashMap<>();
+        if (checkpoints.size() < MIN_CHECKPOINTS) {
+            return slopes;
+        }
+        slopes.put("p50", slope(checkpoints, SoakReport.Checkpoint::getP50Ms));
+        slopes.put("p99", slope(checkpoints, SoakReport.Checkpoint::getP99Ms));
+        slopes.put("rps", slope(checkpoints, SoakReport.Checkpoint::getRps));
+        if (checkpoints.stream().allMatch(checkpoint -> checkpoint.getRssMb() != null)) {
+            slopes.put("cpu", slope(checkpoints, SoakReport.Checkpoint::getCpuPercent));
+            slopes.put("rss", slope(checkpoints, SoakReport.Checkpoint::getRssMb));
+            slopes.put("fds", slope(checkpoints, SoakReport.Checkpoint::getOpenFds));
+        }
+        return slopes;
+    }
+
+    static List<String> violations(Map<String, Double> slopes, LoadProfile profile) {
+        List<String> violations = new ArrayList<>();
+        slopes.forEach((metric, slope) -> {
+            double max = switch (metric) {
+                case "p50", "p99" -> profile.getSoakMaxLatencySlope();
+                case "cpu", "rss", "fds" -> profile.getSoakMaxResourceSlope();
+                // throughput is reported, not judged: at a constant arrival rate it only drops with errors
+                default -> Double.NaN;
+            };
+            if (slope > max) {
+                violations.add("%s grows %.1f%%/h > %.1f%%/h".formatted(metric, slope * 100, max * 100));
+            }
+        });
+        return violations;
+    }
+
+    /**
+     * @return least-squares slope of the metric relative to its first value, per hour; 0 if the first value is 0
+     */
+    private static double slope(List<SoakReport.Checkpoint> checkpoints,
+                                ToDoubleFunction<SoakReport.Checkpoint> metric) {
+        double first = metric.applyAsDouble(checkpoints.get(0));
+        if (first == 0) {
+            return 0;
+        }
+        int n = checkpoints.size();
+        double meanX = 0;
+        double meanY = 0;
+        for (SoakReport.Checkpoint checkpoint : checkpoints) {
+            meanX += checkpoint.getEndSeconds() / SECONDS_PER_HOUR / n;
+            meanY += metric.applyAsDouble(checkpoint) / first / n;
+        }
+        double covariance = 0;
+        double variance = 0;
+        for (SoakReport.Checkpoint checkpoint : checkpoints) {
+            double dx = checkpoint.getEndSeconds() / SECONDS_PER_HOUR - meanX;
+            covariance += dx * (metric.applyAsDouble(checkpoint) / first - meanY);
+            variance += dx * dx;
+        }
+        return variance == 0 ? 0 : covariance / variance;
+    }
+
+    private static double ratio(double value, double first) {
+        return first == 0 ? 0 : value / first;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,59 @@
+package core;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checkpoints and drift verdict of a {@link LoadProfile.Pattern#SOAK} run, see {@link SoakMonitor}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SoakReport {
+
+    private String simulation;
+    private String profile;
+    private int checkpointSeconds;
+    private double maxLatencySlope;
+    private double maxResourceSlope;
+    // null when no server process was sampled
+    private Long serverPid;
+    private List<Checkpoint> checkpoints;
+    // least-squares growth per hour relative to the first checkpoint, by metric
+    private Map<String, Double> slopes;
+    private boolean passed;
+    // too few checkpoints to judge the drift, which fails the run as well
+    private boolean inconclusive;
+    // stopped before the end of the profile because the drift was already beyond the slopes
+    private boolean stoppedEarly;
+    private List<String> violations;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Checkpoint {
+        private int index;
+        // end of the window, seconds since the start of the run
+        private long endSeconds;
+        private long requests;
+        private double rps;
+        private double errorRate;
+        private double p50Ms;
+        private double p99Ms;
+        // the same values relative to the first checkpoint
+        private double rpsRatio;
+        private double p50Ratio;
+        private double p99Ratio;
+        // means of the server samples in the window, null without a sampled process
+        private Double cpuPercent;
+        private Double rssMb;
+        private Double openFds;
+    }
+}
@@ -0,0 +1,72 @@
+package core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.aeonbits.owner.ConfigFactory;
+import ru.gordeev.core.config.AppConfig;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+
+/**
+ * Runs a simulation with a {@link LoadProfile.Pattern#SOAK} profile ({@code performance.profile} if it selects
+ * one, the {@code soak} profile otherwise) in a child JVM and fails when the {@link SoakReport} finds drift.
+ * <p>
+ * Gatling decides its exit code from assertions fixed before the run, so the drift verdict, which is only known
+ * at the end, is judged here the way {@link CapacitySearch} judges its steps: the child writes the report and
+ * this process exits with 1 on drift, with too few checkpoints to judge the drift, or when no report was written.
+ * <p>
+ * Usage: {@code ./gradlew soakTest -Psimulation=simulations.CreateTodoSimulation -Dperformance.server.process=todo}
+ */
+@Slf4j
+public final class SoakRun {
+
+    public static final String REPORT_PROPERTY = "performance.soak.report";
+
+    private static final String DEFAULT_PROFILE = "soak";
+    private static final DateTimeFormatter RUN_ID = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private SoakRun() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: SoakRun <simulation class> <output directory>");
+        }
+        String simulation = args[0];
+        Path workDir = Path.of(args[1], HdrIntervalLog.simpleName(simulation) + "-" + LocalDateTime.now().format(RUN_ID));
+        Files.createDirectories(workDir);
+
+        AppConfig config = ConfigFactory.create(AppConfig.class);
+        String profileName = config.performanceProfile();
+        if (LoadProfiles.resolve(config, profileName).getPattern() != LoadProfile.Pattern.SOAK) {
+            profileName = DEFAULT_PROFILE;
+        }
+
+        Path report = workDir.resolve("soak-report.json");
+        int exitCode = GatlingLauncher.run(simulation, Map.of(
+                "performance.profile", profileName,
+                REPORT_PROPERTY, report.toString()
+        ), workDir.resolve("gatling"), true);
+
+        if (!Files.exists(report)) {
+            log.error("Soak run of {} produced no report (exit code {})", simulation, exitCode);
+            System.exit(1);
+        }
+        SoakReport result = new ObjectMapper().readValue(report.toFile(), SoakReport.class);
+        if (!result.isPassed()) {
+            log.error("Soak of {} {}: {} (report: {})", simulation, result.isInconclusive() ? "was INCONCLUSIVE"
+                    : result.isStoppedEarly() ? "FAILED early" : "FAILED", result.getViolations(), report);
+            System.exit(1);
+        }
+        if (exitCode != 0) {
+            log.error("Soak of {} FAILED its Gatling assertions (exit code {})", simulation, exitCode);
+            System.exit(1);
+        }
+        log.info("Soak of {} PASSED over {} checkpoints, slopes per hour {} (report: {})", simulation,
+                result.getCheckpoints().size(), result.getSlopes(), report);
+    }
+}
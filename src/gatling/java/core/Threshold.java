@@ -0,0 +1,82 @@
+package core;
+
+import io.gatling.javaapi.core.Assertion;
+import io.gatling.javaapi.core.CoreDsl;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One pass/fail limit of a simulation, on all requests or on a single request name. A simulation declares
+ * its limits once with {@link BaseGatlingSimulation#thresholdAssertions}: a standalone run checks them as Gatling
+ * assertions, a distributed run hands them to the {@link InjectorOrchestrator} in its {@link InjectorResult}
+ * so they are checked on the merged data. A limit is violated when the value reaches it, as with Gatling's
+ * {@code lt}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Threshold {
+
+    public enum Metric { MAX_MS, P95_MS, P99_MS, ERROR_RATE }
+
+    // null for all requests
+    private String request;
+    private Metric metric;
+    // milliseconds, or a fraction for ERROR_RATE
+    private double limit;
+
+    public static Threshold global(Metric metric, double limit) {
+        return new Threshold(null, metric, limit);
+    }
+
+    public static Threshold request(String request, Metric metric, double limit) {
+        return new Threshold(request, metric, limit);
+    }
+
+    /**
+     * @return the latency and error rate limits of the load profile, on all requests
+     */
+    public static List<Threshold> standard(LoadProfile profile) {
+        return List.of(
+                global(Metric.MAX_MS, profile.getMaxResponseTimeMs()),
+                global(Metric.P95_MS, profile.getP95ResponseTimeMs()),
+                global(Metric.P99_MS, profile.getP99ResponseTimeMs()),
+                global(Metric.ERROR_RATE, profile.getMaxErrorRate()));
+    }
+
+    public Assertion toAssertion() {
+        Assertion.WithPath path = request == null ? CoreDsl.global() : CoreDsl.details(request);
+        return switch (metric) {
+            case MAX_MS -> path.responseTime().max().lt((int) limit);
+            case P95_MS -> path.responseTime().percentile(95.0).lt((int) limit);
+            case P99_MS -> path.responseTime().percentile(99.0).lt((int) limit);
+            case ERROR_RATE -> path.failedRequests().percent().lt(limit * 100);
+        };
+    }
+
+    /**
+     * @return the violation found in the summary of the threshold's requests, or null when it holds
+     */
+    public String check(LatencySummary summary) {
+        String scope = request == null ? "" : " of " + request;
+        if (summary == null || summary.getRequests() == 0) {
+            return "no requests recorded" + scope;
+        }
+        return switch (metric) {
+            case MAX_MS -> latency("max", summary.getMaxMs(), scope);
+            case P95_MS -> latency("p95", summary.getP95Ms(), scope);
+            case P99_MS -> latency("p99", summary.getP99Ms(), scope);
+            case ERROR_RATE -> summary.getErrorRate() < limit ? null
+                    : "error rate%s %.2f%% >= %.2f%%".formatted(scope, summary.getErrorRate() * 100, limit * 100);
+        };
+    }
+
+    private String latency(String name, double valueMs, String scope) {
+        return valueMs < limit ? null : "%s%s %.1f ms >= %.0f ms".formatted(name, scope, valueMs, limit);
+    }
+}
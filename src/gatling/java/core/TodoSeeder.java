@@ -0,0 +1,287 @@
+package core;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import lombok.extern.slf4j.Slf4j;
+import ru.gordeev.core.config.AppConfig;
+import ru.gordeev.core.data.ModelBuilder;
+import ru.gordeev.core.helpers.AuthTools;
+import ru.gordeev.todo.model.Todo;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static io.gatling.javaapi.core.CoreDsl.pause;
+import static io.gatling.javaapi.core.CoreDsl.scenario;
+
+/**
+ * Seeds the servers under test with todos before injection starts and removes them afterwards.
+ * <p>
+ * Todos are built in parallel a chunk at a time by {@link ModelBuilder#parallelBuildList(int)}
+ * and posted asynchronously with at most {@code performance.seed.concurrency} todos in flight,
+ * which is orders of magnitude faster than creating them one by one through the REST Assured services.
+ * Only the seeding thread waits for a free slot; fork/join workers just build.
+ * Every todo is posted to every base URL, so in A/B mode both builds get the same data set.
+ * The data set only grows: seeding to a larger size posts the missing todos only.
+ */
+@Slf4j
+public class TodoSeeder {
+
+    private static final int BUILD_CHUNK = 4096;
+    private static final Duration SEED_POLL_INTERVAL = Duration.ofMillis(100);
+    private static final String SEEDING = "seeding";
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ModelBuilder<Todo> builder;
+    private final List<Target> targets;
+    private final String authHeader;
+    private final int concurrency;
+    private final ExecutorService seedExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "todo-seeder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private long seeded;
+
+    /**
+     * @param baseUrls the servers to seed, such as {@code BaseGatlingSimulation#baseUrls()}
+     */
+    public TodoSeeder(AppConfig config, ModelBuilder<Todo> builder, List<String> baseUrls) {
+        this.builder = builder;
+        this.targets = baseUrls.stream().map(baseUrl -> new Target(baseUrl)).toList();
+        this.authHeader = AuthTools.encodeBasicAuth(config.adminUsername(), config.adminPassword());
+        this.concurrency = config.performanceSeedConcurrency();
+    }
+
+    /**
+     * Posts todos until the data set seeded by this seeder has the given size.
+     *
+     * @return the number of todos that failed to be created
+     */
+    public long seedTo(long size) {
+        return seedTo(size, todo -> {});
+    }
+
+    /**
+     * Same as {@link #seedTo(long)}; {@code created} is called concurrently with every todo all servers accepted.
+     */
+    public long seedTo(long size, Consumer<? super Todo> created) {
+        if (size <= seeded) {
+            return 0;
+        }
+        long started = System.nanoTime();
+        long failed = runBounded(sink -> {
+            for (long from = seeded; from < size; from += BUILD_CHUNK) {
+                builder.parallelBuildList((int) Math.min(BUILD_CHUNK, size - from))
+                        .forEach(todo -> sink.submit(() -> create(todo, created)));
+            }
+        });
+        log.info("Seeded {} todos in {} ms ({} failed)", size - seeded, (System.nanoTime() - started) / 1_000_000, failed);
+        seeded = size;
+        return failed;
+    }
+
+    /**
+     * A single-user scenario that seeds up to the given size and fails if any todo was not created.
+     * The seeding runs on a thread of the seeder while the user polls it with pauses, so no Gatling
+     * thread blocks; it still loads the server, so it should not run alongside measured load.
+     */
+    public ScenarioBuilder seedScenario(long size, Consumer<? super Todo> created) {
+        return scenario("Seed %d todos".formatted(size))
+                .exec(session -> session.set(SEEDING, CompletableFuture
+                        .supplyAsync(() -> seedTo(size, created), seedExecutor)
+                        .handle((failed, error) -> {
+                            if (error != null) {
+                                log.error("Seeding {} todos failed", size, error);
+                            }
+                            return error == null && failed == 0;
+                        })))
+                .asLongAs(session -> !session.<CompletableFuture<Boolean>>get(SEEDING).isDone())
+                .on(pause(SEED_POLL_INTERVAL))
+                .exec(session -> session.<CompletableFuture<Boolean>>get(SEEDING).join()
+                        ? session.remove(SEEDING) : session.remove(SEEDING).markAsFailed());
+    }
+
+    /**
+     * Deletes every todo this seeder created, from the servers that accepted it.
+     */
+    public void deleteSeeded() {
+        long started = System.nanoTime();
+        long deleted = 0;
+        long failed = 0;
+        for (Target target : targets) {
+            long[] todoIds = target.takeIds();
+            deleted += todoIds.length;
+            failed += runBounded(sink -> Arrays.stream(todoIds).forEach(id -> sink.submit(() -> delete(target, id))));
+        }
+        log.info("Deleted {} seeded todos in {} ms ({} failed)", deleted, (System.nanoTime() - started) / 1_000_000,
+                failed);
+        seeded = 0;
+    }
+
+    /**
+     * Deletes the given todos from every server.
+     *
+     * @return the number of deletes that failed, e.g. because the todo was already gone
+     */
+    public long delete(long[] todoIds) {
+        return delete(targets, todoIds);
+    }
+
+    /**
+     * Deletes the given todos from the server at the given base URL only.
+     *
+     * @return the number of deletes that failed, e.g. because the todo was already gone
+     */
+    public long delete(String baseUrl, long[] todoIds) {
+        return delete(targets.stream().filter(target -> target.baseUrl().equals(baseUrl)).toList(), todoIds);
+    }
+
+    private long delete(List<Target> from, long[] todoIds) {
+        long started = System.nanoTime();
+        long failed = runBounded(sink -> Arrays.stream(todoIds).forEach(id -> from.forEach(
+                target -> sink.submit(() -> delete(target, id)))));
+        log.info("Deleted {} todos in {} ms ({} failed)", todoIds.length, (System.nanoTime() - started) / 1_000_000, failed);
+        return failed;
+    }
+
+    private CompletableFuture<Boolean> create(Todo todo, Consumer<? super Todo> created) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(todo);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize object to JSON string", e);
+        }
+        List<CompletableFuture<Boolean>> posts = targets.stream()
+                .map(target -> post(target, todo.getId(), body))
+                .toList();
+        return CompletableFuture.allOf(posts.toArray(CompletableFuture[]::new))
+                .thenApply(done -> {
+                    if (!posts.stream().allMatch(CompletableFuture::join)) {
+                        return false;
+                    }
+                    created.accept(todo);
+                    return true;
+                });
+    }
+
+    private CompletableFuture<Boolean> post(Target target, long id, byte[] body) {
+        HttpRequest request = HttpRequest.newBuilder(target.todosUri())
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        return send(request)
+                .thenApply(response -> {
+                    if (response.statusCode() != 201) {
+                        return false;
+                    }
+                    target.addId(id);
+                    return true;
+                });
+    }
+
+    private CompletableFuture<Boolean> delete(Target target, long id) {
+        HttpRequest request = HttpRequest.newBuilder(target.todosUri().resolve("/todos/" + id))
+                .header("Authorization", authHeader)
+                .DELETE()
+                .build();
+        return send(request)
+                .thenApply(response -> response.statusCode() == 204);
+    }
+
+    /**
+     * Sends the request, once more if it failed with an I/O error: the server may close a pooled keep-alive
+     * connection just as it is reused, and the client only retries GETs on its own.
+     */
+    private CompletableFuture<HttpResponse<Void>> send(HttpRequest request) {
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .exceptionallyCompose(error -> error instanceof IOException || error.getCause() instanceof IOException
+                        ? client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                        : CompletableFuture.failedFuture(error));
+    }
+
+    /**
+     * Runs the submitted requests with at most {@link #concurrency} in flight and waits for all of them.
+     *
+     * @return the number of failed requests
+     */
+    private long runBounded(Consumer<BoundedSink> producer) {
+        BoundedSink sink = new BoundedSink(new Semaphore(concurrency), new LongAdder());
+        producer.accept(sink);
+        sink.permits.acquireUninterruptibly(concurrency);
+        sink.permits.release(concurrency);
+        return sink.failures.sum();
+    }
+
+    /**
+     * One server and the ids of the todos it accepted.
+     */
+    private static final class Target {
+        private final String baseUrl;
+        private final URI todosUri;
+        private long[] ids = new long[1024];
+        private int idCount;
+
+        Target(String baseUrl) {
+            this.baseUrl = baseUrl;
+            this.todosUri = URI.create(baseUrl + "/todos");
+        }
+
+        String baseUrl() {
+            return baseUrl;
+        }
+
+        URI todosUri() {
+            return todosUri;
+        }
+
+        synchronized void addId(long id) {
+            if (idCount == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+            ids[idCount++] = id;
+        }
+
+        synchronized long[] takeIds() {
+            long[] taken = Arrays.copyOf(ids, idCount);
+            idCount = 0;
+            return taken;
+        }
+    }
+
+    private record BoundedSink(Semaphore permits, LongAdder failures) {
+
+        void submit(Supplier<CompletableFuture<Boolean>> request) {
+            permits.acquireUninterruptibly();
+            CompletableFuture<Boolean> future;
+            try {
+                future = request.get();
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+            future.whenComplete((ok, error) -> {
+                if (error != null || !ok) {
+                    failures.increment();
+                }
+                permits.release();
+            });
+        }
+    }
+}
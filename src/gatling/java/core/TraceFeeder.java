@@ -0,0 +1,152 @@
+package core;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.gordeev.core.data.TraceRecord;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Gatling feeder that streams a {@link TraceRecord} trace from disk, one line per record,
+ * so a trace never has to fit in memory; only the id mapping grows with it.
+ * <p>
+ * Every record becomes the session attributes {@code method}, {@code path}, {@code body},
+ * {@code headers} (the recorded headers by name), {@code requestName} and {@code offsetMillis} (time since the
+ * first record). Numeric ids in
+ * path segments and in {@code "id"} body fields are remapped to fresh ids, consistently across
+ * the trace, so a replay does not collide with the recorded data or with other replays.
+ * <p>
+ * When the trace is exhausted the feeder keeps returning {@code replayEnd = true} instead of
+ * running dry, which would stop the whole simulation.
+ */
+@Slf4j
+public class TraceFeeder implements Iterator<Map<String, Object>>, Closeable {
+
+    private static final Pattern PATH_ID = Pattern.compile("(?<=/)\\d+(?=[/?]|$)");
+    private static final Pattern BODY_ID = Pattern.compile("(\"id\"\\s*:\\s*)(\\d+)");
+    private static final Map<String, Object> END = Map.of("replayEnd", true);
+
+    private final Path bodiesDir;
+    private final BufferedReader reader;
+    private final Map<Long, Long> idMapping = new ConcurrentHashMap<>();
+    private long firstTimestamp = Long.MIN_VALUE;
+    private long records;
+    private boolean exhausted;
+
+    public TraceFeeder(Path traceFile) {
+        Path absolute = traceFile.toAbsolutePath();
+        this.bodiesDir = absolute.resolveSibling(absolute.getFileName() + TraceRecord.BODIES_SUFFIX);
+        try {
+            this.reader = Files.newBufferedReader(absolute, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open request trace " + absolute, e);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return true;
+    }
+
+    @Override
+    public synchronized Map<String, Object> next() {
+        TraceRecord record = exhausted ? null : readRecord();
+        if (record == null) {
+            return END;
+        }
+        if (firstTimestamp == Long.MIN_VALUE) {
+            firstTimestamp = record.timestampMillis();
+        }
+        records++;
+        String path = remapPath(record.path());
+        return Map.of(
+                "replayEnd", false,
+                "method", record.method(),
+                "path", path,
+                "body", record.hasBody() ? remapBody(readBody(record.bodyRef())) : "",
+                "headers", record.headers(),
+                "requestName", record.method() + " " + PATH_ID.matcher(path.split("\\?", 2)[0]).replaceAll("{id}"),
+                "offsetMillis", record.timestampMillis() - firstTimestamp
+        );
+    }
+
+    private TraceRecord readRecord() {
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                TraceRecord record = TraceRecord.parse(line);
+                if (record != null) {
+                    return record;
+                }
+            }
+            exhausted = true;
+            log.info("Request trace exhausted after {} records", records);
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read request trace", e);
+        }
+    }
+
+    private String readBody(String bodyRef) {
+        try {
+            return Files.readString(bodiesDir.resolve(bodyRef), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read trace body " + bodyRef, e);
+        }
+    }
+
+    private String remapPath(String path) {
+        return PATH_ID.matcher(path).replaceAll(match -> remap(match.group()));
+    }
+
+    private String remapBody(String body) {
+        Matcher matcher = BODY_ID.matcher(body);
+        return matcher.replaceAll(match -> Matcher.quoteReplacement(match.group(1)) + remap(match.group(2)));
+    }
+
+    // Numbers beyond the long range are no valid ids and are replayed unchanged
+    private String remap(String originalId) {
+        long id;
+        try {
+            id = Long.parseLong(originalId);
+        } catch (NumberFormatException e) {
+            return originalId;
+        }
+        return Long.toString(idMapping.computeIfAbsent(id, key -> PerformanceIdGenerator.nextId()));
+    }
+
+    /**
+     * @return records fed so far
+     */
+    public synchronized long records() {
+        return records;
+    }
+
+    /**
+     * @return the fresh ids the trace's ids were remapped to
+     */
+    public Collection<Long> remappedIds() {
+        return Collections.unmodifiableCollection(idMapping.values());
+    }
+
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            log.warn("Failed to close request trace: {}", e.getMessage());
+        }
+    }
+}
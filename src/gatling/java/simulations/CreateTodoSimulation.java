@@ -2,14 +2,19 @@ package simulations;
 
 import core.BaseGatlingSimulation;
 import core.LoadProfile;
+import core.MappedPayloadFeeder;
 import core.PerformanceIdGenerator;
-import core.PerformanceProfiles;
+import io.gatling.javaapi.core.ChainBuilder;
 import io.gatling.javaapi.core.ScenarioBuilder;
-import io.gatling.javaapi.http.HttpRequestActionBuilder;
+import ru.gordeev.core.data.DataRandom;
 import ru.gordeev.core.data.TestDataRegistry;
+import ru.gordeev.todo.api.TodoApiService;
 import ru.gordeev.todo.data.TodoTestData;
 import ru.gordeev.todo.model.Todo;
 
+import java.nio.file.Path;
+
+import static io.gatling.javaapi.core.CoreDsl.ByteArrayBody;
 import static io.gatling.javaapi.core.CoreDsl.StringBody;
 import static io.gatling.javaapi.core.CoreDsl.scenario;
 import static io.gatling.javaapi.http.HttpDsl.http;
@@ -38,41 +43,52 @@ public class CreateTodoSimulation extends BaseGatlingSimulation {
         }
     }
 
-    public LoadProfile getLoadProfile() {
-        String profileName = System.getProperty("performance.profile", "stress");
-        return switch (profileName.toLowerCase()) {
-            case "smoke" -> PerformanceProfiles.smoke();
-            case "normal" -> PerformanceProfiles.normal();
-            case "spike" -> PerformanceProfiles.spike();
-            default -> PerformanceProfiles.stress();
-        };
-    }
-
     /**
      * Defines a simple scenario where each virtual user executes a single
      * POST /todos request. This allows for precise measurement of the
      * create operation's performance.
      */
     public ScenarioBuilder defineScenario() {
+        String payloadFile = config.performancePayloadFile();
+        if (payloadFile != null && !payloadFile.isBlank()) {
+            return definePreGeneratedScenario(MappedPayloadFeeder.open(Path.of(payloadFile)));
+        }
+
         TestDataRegistry testData = new TestDataRegistry();
         TodoTestData.register(testData);
 
-        HttpRequestActionBuilder createTodoRequest = http("POST /todos")
+        ChainBuilder createTodoRequest = measured(http("POST /todos")
                 .post("/todos")
-                .body(StringBody(session -> {
+                .body(StringBody(session -> DataRandom.withStream(dataStream(session), () -> {
                     Todo todo = testData.valid(Todo.class);
                     todo.setId(PerformanceIdGenerator.nextId());
                     return serializeTodo(todo);
-                }))
+                })))
+                .asJson()
+                .check(status().is(201)));
+
+        return scenario("Create Todo Endpoint Performance")
+                .exec(createTodoRequest);
+    }
+
+    /**
+     * Same scenario, but every request body is fed from a memory-mapped payload file,
+     * so the injector spends no CPU on generating or serializing todos.
+     */
+    private ScenarioBuilder definePreGeneratedScenario(MappedPayloadFeeder feeder) {
+        ChainBuilder createTodoRequest = measured(http("POST /todos")
+                .post("/todos")
+                .body(ByteArrayBody("#{todoPayload}"))
                 .asJson()
-                .check(status().is(201));
+                .check(status().is(201)));
 
         return scenario("Create Todo Endpoint Performance")
+                .feed(feeder)
                 .exec(createTodoRequest);
     }
 
     @Override
     protected void afterSimulation() {
-        todoApiService.deleteAllTodos();
+        todoApiServices.forEach(TodoApiService::deleteAllTodos);
     }
 }
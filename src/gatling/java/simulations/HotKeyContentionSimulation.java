@@ -0,0 +1,275 @@
+package simulations;
+
+import core.BaseGatlingSimulation;
+import core.KeyContentionStats;
+import core.LatencySummary;
+import core.LoadProfile;
+import core.TodoSeeder;
+import io.gatling.javaapi.core.ChainBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.http.HttpRequestActionBuilder;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ru.gordeev.core.data.DataRandom;
+import ru.gordeev.core.data.KeySampler;
+import ru.gordeev.core.data.KeySamplers;
+import ru.gordeev.core.data.ModelBuilder;
+import ru.gordeev.core.data.TestDataRegistry;
+import ru.gordeev.core.helpers.AuthTools;
+import ru.gordeev.todo.data.TodoTestData;
+import ru.gordeev.todo.model.Todo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.http;
+import static io.gatling.javaapi.http.HttpDsl.status;
+
+/**
+ * Measures hot-row behavior: many users updating and deleting the same few todos.
+ * <p>
+ * {@code performance.hotkey.keys} todos are preloaded, then every virtual user picks one of them
+ * with the {@link KeySampler} of {@code performance.hotkey.distribution} (Zipfian by default) and
+ * sends a PUT, or with {@code performance.hotkey.delete.ratio} a DELETE followed by a re-create of the
+ * same todo. A 404 means the request lost a race with a concurrent delete; it is counted as a
+ * conflict, not as an error. Per-key request share, conflict rate and latency, and the latency skew
+ * between the hottest and all other keys, are written to {@code performance.reports.dir}.
+ */
+@Slf4j
+public class HotKeyContentionSimulation extends BaseGatlingSimulation {
+
+    private static final DateTimeFormatter RUN_ID = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final int NO_CONFLICT = -1;
+
+    private final int keyCount = config.performanceHotkeyKeys();
+    private final KeySampler sampler = KeySamplers.fromConfig(config, keyCount);
+    private final double deleteRatio = config.performanceHotkeyDeleteRatio();
+    private final KeyContentionStats keyStats = new KeyContentionStats(keyCount, config.performanceHotkeyReportKeys());
+    // key rank -> preloaded todo, filled by the seeding phase
+    private final AtomicReferenceArray<Todo> keys = new AtomicReferenceArray<>(keyCount);
+    private final AtomicInteger loadedKeys = new AtomicInteger();
+    private final TodoSeeder seeder = createSeeder();
+    private final String authHeader = AuthTools.encodeBasicAuth(
+            config.adminUsername(),
+            config.adminPassword()
+    );
+
+    public HotKeyContentionSimulation() {
+        LoadProfile profile = getLoadProfile();
+        setUp(
+                seeder.seedScenario(keyCount, this::addKey)
+                        // every request would pick a key that is not there
+                        .exec(stopLoadGeneratorIf(session -> "None of the %d hot keys could be seeded".formatted(keyCount),
+                                session -> loadedKeys.get() == 0))
+                        .injectOpen(atOnceUsers(1))
+                        .andThen(buildPopulation(defineScenario(), profile))
+        ).protocols(httpProtocol).assertions(buildAssertions(profile));
+    }
+
+    private TodoSeeder createSeeder() {
+        TestDataRegistry registry = new TestDataRegistry();
+        TodoTestData.register(registry);
+        return new TodoSeeder(config, registry.getBuilderFor(Todo.class), baseUrls());
+    }
+
+    private void addKey(Todo todo) {
+        keys.set(loadedKeys.getAndIncrement(), todo);
+    }
+
+    // Ranks of keys that failed to load fold onto the loaded ones
+    private Todo keyAt(int rank) {
+        int loaded = loadedKeys.get();
+        return keys.get(rank < loaded ? rank : rank % loaded);
+    }
+
+    private String serializeTodo(Todo todo) {
+        try {
+            return objectMapper.writeValueAsString(todo);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to serialize object to JSON string", e);
+        }
+    }
+
+    @Override
+    protected ScenarioBuilder defineScenario() {
+        ChainBuilder updateRequest = keyed(http("Update hot key")
+                .put("/todos/#{todoId}")
+                .body(StringBody("#{todoJson}"))
+                .asJson()
+                .check(status().in(200, 404)), 404);
+
+        ChainBuilder deleteRequest = keyed(http("Delete hot key")
+                .delete("/todos/#{todoId}")
+                .header("Authorization", authHeader)
+                .check(status().in(204, 404).saveAs("deleteStatus")), 404);
+
+        ChainBuilder recreateRequest = keyed(http("Recreate hot key")
+                .post("/todos")
+                .body(StringBody("#{todoJson}"))
+                .asJson()
+                .check(status().is(201)), NO_CONFLICT);
+
+        return scenario("Hot Key Contention")
+                .exec(session -> DataRandom.withStream(dataStream(session), () -> {
+                    int rank = sampler.sample(DataRandom.random());
+                    Todo key = keyAt(rank);
+                    Todo changed = new Todo(key.getId(), ModelBuilder.uniqueText("HotKey"), key.getCompleted());
+                    return session
+                            .set("keyRank", rank)
+                            .set("todoId", key.getId())
+                            .set("todoJson", serializeTodo(changed))
+                            .set("shouldDelete", DataRandom.random().nextDouble() < deleteRatio)
+                            // the status check only saves on 204 or 404
+                            .set("deleteStatus", 0);
+                }))
+                .doIfOrElse("#{shouldDelete}").then(
+                        exec(deleteRequest)
+                                .doIf(session -> session.getInt("deleteStatus") == 204).then(exec(recreateRequest))
+                ).orElse(
+                        exec(updateRequest)
+                );
+    }
+
+    /**
+     * Records the request both into {@link #metrics} and into the statistics of its key.
+     * The conflict status counts as OK: it is an expected outcome of contention, not a failure.
+     */
+    private ChainBuilder keyed(HttpRequestActionBuilder request, int conflictStatus) {
+        return tracked(request.transformResponse((response, session) -> {
+            int status = response.status().code();
+            boolean conflict = status == conflictStatus;
+            boolean ok = status < 400 || conflict;
+            long bytes = response.body().length();
+            record(session, response, ok);
+            keyStats.record(session.getInt("keyRank"),
+                    TimeUnit.MILLISECONDS.toMicros(response.endTimestamp() - response.startTimestamp()),
+                    ok, conflict, bytes);
+            return response;
+        }));
+    }
+
+    @Override
+    protected void afterSimulation() {
+        try {
+            writeContentionReport();
+        } finally {
+            seeder.deleteSeeded();
+        }
+    }
+
+    private void writeContentionReport() {
+        long totalRequests = 0;
+        long totalConflicts = 0;
+        for (int rank = 0; rank < keyCount; rank++) {
+            totalRequests += keyStats.requests(rank);
+            totalConflicts += keyStats.conflicts(rank);
+        }
+
+        List<KeyResult> hotKeys = new ArrayList<>();
+        long hotRequests = 0;
+        long hotConflicts = 0;
+        for (int rank = 0; rank < keyStats.trackedKeys(); rank++) {
+            long requests = keyStats.requests(rank);
+            long conflicts = keyStats.conflicts(rank);
+            hotRequests += requests;
+            hotConflicts += conflicts;
+            Todo key = rank < loadedKeys.get() ? keys.get(rank) : null;
+            hotKeys.add(KeyResult.builder()
+                    .rank(rank)
+                    .todoId(key != null ? key.getId() : null)
+                    .requests(requests)
+                    .requestShare(share(requests, totalRequests))
+                    .conflicts(conflicts)
+                    .conflictRate(share(conflicts, requests))
+                    .latency(LatencySummary.of(keyStats.tracked(rank)))
+                    .build());
+        }
+
+        LatencySummary others = LatencySummary.of(keyStats.others());
+        LatencySummary hottest = hotKeys.isEmpty() ? null : hotKeys.get(0).getLatency();
+        ContentionReport report = ContentionReport.builder()
+                .profile(getLoadProfile().getName())
+                .distribution(config.performanceHotkeyDistribution())
+                .keys(keyCount)
+                .loadedKeys(loadedKeys.get())
+                .deleteRatio(deleteRatio)
+                .requests(totalRequests)
+                .conflicts(totalConflicts)
+                .conflictRate(share(totalConflicts, totalRequests))
+                .hotKeysRequestShare(share(hotRequests, totalRequests))
+                .p99SkewHottestToOthers(hottest != null && others.getP99Ms() > 0
+                        ? hottest.getP99Ms() / others.getP99Ms() : 0)
+                .hotKeys(hotKeys)
+                .otherKeys(KeyResult.builder()
+                        .requests(totalRequests - hotRequests)
+                        .requestShare(share(totalRequests - hotRequests, totalRequests))
+                        .conflicts(totalConflicts - hotConflicts)
+                        .conflictRate(share(totalConflicts - hotConflicts, totalRequests - hotRequests))
+                        .latency(others)
+                        .build())
+                .build();
+
+        Path file = Path.of(config.performanceReportsDir(),
+                "hot-key-%s.json".formatted(LocalDateTime.now().format(RUN_ID)));
+        try {
+            Files.createDirectories(file.getParent());
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+            log.info("Hot key contention: {} requests, {}% conflicts, top {} keys took {}% (report: {})",
+                    totalRequests, report.getConflictRate() * 100, hotKeys.size(),
+                    report.getHotKeysRequestShare() * 100, file);
+        } catch (IOException e) {
+            log.error("Failed to write hot key report to {}", file, e);
+        }
+    }
+
+    private static double share(long part, long total) {
+        return total == 0 ? 0 : (double) part / total;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ContentionReport {
+        private String profile;
+        private String distribution;
+        private int keys;
+        private int loadedKeys;
+        private double deleteRatio;
+        private long requests;
+        private long conflicts;
+        private double conflictRate;
+        // share of all requests that went to the keys reported one by one
+        private double hotKeysRequestShare;
+        // p99 of the most popular key divided by the p99 of all untracked keys
+        private double p99SkewHottestToOthers;
+        private List<KeyResult> hotKeys;
+        private KeyResult otherKeys;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class KeyResult {
+        private Integer rank;
+        private Long todoId;
+        private long requests;
+        private double requestShare;
+        private long conflicts;
+        private double conflictRate;
+        private LatencySummary latency;
+    }
+}
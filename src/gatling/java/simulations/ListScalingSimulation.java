@@ -0,0 +1,180 @@
+package simulations;
+
+import core.BaseGatlingSimulation;
+import core.LatencySummary;
+import core.LoadProfile;
+import core.RequestStats;
+import core.Threshold;
+import core.TodoSeeder;
+import io.gatling.javaapi.core.ChainBuilder;
+import io.gatling.javaapi.core.PopulationBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ru.gordeev.core.data.DataRandom;
+import ru.gordeev.core.data.TestDataRegistry;
+import ru.gordeev.todo.data.TodoTestData;
+import ru.gordeev.todo.model.Todo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.gatling.javaapi.core.CoreDsl.atOnceUsers;
+import static io.gatling.javaapi.core.CoreDsl.scenario;
+import static io.gatling.javaapi.http.HttpDsl.http;
+import static io.gatling.javaapi.http.HttpDsl.status;
+
+/**
+ * Measures how GET /todos scales with the size of the store.
+ * <p>
+ * For every size of {@code performance.list.dataset.sizes} the server is first seeded up to that
+ * size by {@link TodoSeeder}, then paginated reads ({@code limit}/{@code offset}) and unpaginated
+ * reads are each driven with the selected load profile. Phases run one after another, so every
+ * request name carries the dataset size it was measured at. Latency and response size per
+ * dataset size are written as one scaling curve to {@code performance.reports.dir}.
+ * <p>
+ * Unpaginated latency is expected to grow with the data set, so only the error rate is asserted.
+ */
+@Slf4j
+public class ListScalingSimulation extends BaseGatlingSimulation {
+
+    private static final DateTimeFormatter RUN_ID = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final int[] datasetSizes = config.performanceListDatasetSizes();
+    private final int pageSize = config.performanceListPageSize();
+    private final TodoSeeder seeder = createSeeder();
+
+    public ListScalingSimulation() {
+        LoadProfile profile = getLoadProfile();
+        setUp(buildPhases(profile))
+                .protocols(httpProtocol)
+                .assertions(thresholdAssertions(List.of(
+                        Threshold.global(Threshold.Metric.ERROR_RATE, profile.getMaxErrorRate()))));
+    }
+
+    private TodoSeeder createSeeder() {
+        TestDataRegistry testData = new TestDataRegistry();
+        TodoTestData.register(testData);
+        return new TodoSeeder(config, testData.getBuilderFor(Todo.class), baseUrls());
+    }
+
+    /**
+     * Chains seed, paginated and unpaginated phases for every dataset size, smallest first.
+     */
+    private PopulationBuilder buildPhases(LoadProfile profile) {
+        PopulationBuilder next = null;
+        for (int i = datasetSizes.length - 1; i >= 0; i--) {
+            int size = datasetSizes[i];
+            PopulationBuilder fullList = buildPopulation(readScenario(size, false), profile);
+            if (next != null) {
+                fullList = fullList.andThen(next);
+            }
+            next = seeder.seedScenario(size, todo -> {}).injectOpen(atOnceUsers(1))
+                    .andThen(buildPopulation(readScenario(size, true), profile)
+                            .andThen(fullList));
+        }
+        return next;
+    }
+
+    /**
+     * Unpaginated reads at the smallest dataset size; the full run chains the phases of {@link #buildPhases}.
+     */
+    @Override
+    protected ScenarioBuilder defineScenario() {
+        return readScenario(datasetSizes[0], false);
+    }
+
+    private ScenarioBuilder readScenario(int size, boolean paginated) {
+        if (!paginated) {
+            ChainBuilder listRequest = measured(http(fullListRequestName(size))
+                    .get("/todos")
+                    .check(status().is(200)));
+            return scenario("Full list reads (%d todos)".formatted(size))
+                    .exec(listRequest);
+        }
+
+        int maxOffset = Math.max(0, size - pageSize);
+        ChainBuilder pageRequest = measured(http(pageRequestName(size))
+                .get("/todos")
+                .queryParam("limit", pageSize)
+                .queryParam("offset", "#{offset}")
+                .check(status().is(200)));
+        return scenario("Paginated reads (%d todos)".formatted(size))
+                .exec(session -> session.set("offset", DataRandom.withStream(dataStream(session),
+                        () -> DataRandom.random().nextInt(maxOffset + 1))))
+                .exec(pageRequest);
+    }
+
+    private static String fullListRequestName(int size) {
+        return "GET /todos (%d todos)".formatted(size);
+    }
+
+    private String pageRequestName(int size) {
+        return "GET /todos?limit=%d (%d todos)".formatted(pageSize, size);
+    }
+
+    @Override
+    protected void afterSimulation() {
+        try {
+            writeScalingCurve();
+        } finally {
+            seeder.deleteSeeded();
+        }
+    }
+
+    private void writeScalingCurve() {
+        List<ScalingPoint> points = new ArrayList<>();
+        for (int size : datasetSizes) {
+            RequestStats fullList = metrics.byName().get(fullListRequestName(size));
+            RequestStats page = metrics.byName().get(pageRequestName(size));
+            points.add(ScalingPoint.builder()
+                    .datasetSize(size)
+                    .fullList(fullList != null ? LatencySummary.of(fullList) : null)
+                    .page(page != null ? LatencySummary.of(page) : null)
+                    .build());
+        }
+        ScalingCurve curve = ScalingCurve.builder()
+                .profile(getLoadProfile().getName())
+                .pageSize(pageSize)
+                .points(points)
+                .build();
+
+        Path report = Path.of(config.performanceReportsDir(),
+                "list-scaling-%s.json".formatted(LocalDateTime.now().format(RUN_ID)));
+        try {
+            Files.createDirectories(report.getParent());
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(report.toFile(), curve);
+            log.info("List scaling curve written to {}", report);
+        } catch (IOException e) {
+            log.error("Failed to write list scaling curve to {}", report, e);
+        }
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ScalingCurve {
+        private String profile;
+        private int pageSize;
+        private List<ScalingPoint> points;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ScalingPoint {
+        private int datasetSize;
+        private LatencySummary fullList;
+        private LatencySummary page;
+    }
+}
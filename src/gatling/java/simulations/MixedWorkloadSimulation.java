@@ -0,0 +1,301 @@
+package simulations;
+
+import core.BaseGatlingSimulation;
+import core.LatencySummary;
+import core.LivePool;
+import core.LoadProfile;
+import core.OperationMix;
+import core.PerformanceIdGenerator;
+import core.RequestStats;
+import core.TodoSeeder;
+import io.gatling.javaapi.core.ChainBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Session;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ru.gordeev.core.data.DataRandom;
+import ru.gordeev.core.data.ModelBuilder;
+import ru.gordeev.core.data.TestDataRegistry;
+import ru.gordeev.core.helpers.AuthTools;
+import ru.gordeev.todo.data.TodoTestData;
+import ru.gordeev.todo.model.Todo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.http;
+import static io.gatling.javaapi.http.HttpDsl.status;
+
+/**
+ * Simulates production-like traffic: mostly reads with a trickle of writes.
+ * <p>
+ * Every virtual user performs one operation drawn from the weights of {@code performance.mix},
+ * e.g. {@code list:70,create:10,update:8,toggle:5,delete:5,invalid:2}. Updates, toggles and deletes
+ * target real todos from an in-injector {@link LivePool} of the user's server, which is seeded with
+ * {@code performance.mix.initial.todos} todos before injection starts and fed by creates. In A/B mode
+ * each build has its own pool, so a user only works on todos that exist on the build it sends to.
+ * When the pool is empty they fall back to a create. Per-operation throughput and latency
+ * are written to {@code performance.reports.dir}.
+ */
+@Slf4j
+public class MixedWorkloadSimulation extends BaseGatlingSimulation {
+
+    private static final DateTimeFormatter RUN_ID = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static final List<Supplier<Map<String, Object>>> INVALID_PAYLOADS = List.of(
+            TodoTestData.Invalid::missingText,
+            TodoTestData.Invalid::nullText,
+            TodoTestData.Invalid::invalidIdType,
+            TodoTestData.Invalid::invalidTextType,
+            TodoTestData.Invalid::idOverflow,
+            TodoTestData.Invalid::invalidCompletedType
+    );
+
+    @Getter
+    public enum Operation {
+        LIST("List todos"),
+        CREATE("Create todo"),
+        UPDATE("Update todo"),
+        TOGGLE("Toggle todo"),
+        DELETE("Delete todo"),
+        INVALID("Invalid payload");
+
+        private final String requestName;
+
+        Operation(String requestName) {
+            this.requestName = requestName;
+        }
+    }
+
+    private final OperationMix<Operation> mix = OperationMix.parse(config.performanceMix(), Operation.class);
+    private final int pageSize = config.performanceListPageSize();
+    // by base URL, see baseUrls()
+    private final Map<String, LivePool<Todo>> pools = createPools();
+    // todos of failed requests; they may still exist, so they are cleaned up too
+    private final Map<String, LivePool<Todo>> dropped = createPools();
+    private final ModelBuilder<Todo> todoBuilder = createTodoBuilder();
+    private final TodoSeeder seeder = new TodoSeeder(config, todoBuilder, baseUrls());
+    private final String authHeader = AuthTools.encodeBasicAuth(
+            config.adminUsername(),
+            config.adminPassword()
+    );
+
+    public MixedWorkloadSimulation() {
+        LoadProfile profile = getLoadProfile();
+        setUp(
+                seeder.seedScenario(config.performanceMixInitialTodos(),
+                                todo -> pools.values().forEach(pool -> pool.put(todo)))
+                        .injectOpen(atOnceUsers(1))
+                        .andThen(buildPopulation(defineScenario(), profile))
+        ).protocols(httpProtocol).assertions(buildAssertions(profile));
+    }
+
+    private Map<String, LivePool<Todo>> createPools() {
+        Map<String, LivePool<Todo>> byBaseUrl = new LinkedHashMap<>();
+        baseUrls().forEach(baseUrl -> byBaseUrl.put(baseUrl, new LivePool<>()));
+        return byBaseUrl;
+    }
+
+    private static ModelBuilder<Todo> createTodoBuilder() {
+        TestDataRegistry registry = new TestDataRegistry();
+        TodoTestData.register(registry);
+        return registry.getBuilderFor(Todo.class);
+    }
+
+    private String serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to serialize object to JSON string", e);
+        }
+    }
+
+    /**
+     * Each virtual user draws one operation from the mix; the choice comes from its data stream,
+     * so seeded runs produce the same operation sequence.
+     */
+    @Override
+    protected ScenarioBuilder defineScenario() {
+        return scenario("Mixed Workload")
+                .exec(session -> withDataStream(session,
+                        s -> s.set("operation", mix.pick(DataRandom.random()).name())))
+                .doSwitch("#{operation}").on(
+                        onCase(Operation.LIST.name()).then(list()),
+                        onCase(Operation.CREATE.name()).then(create()),
+                        onCase(Operation.UPDATE.name()).then(withPooledTodo(modify(Operation.UPDATE, this::update))),
+                        onCase(Operation.TOGGLE.name()).then(withPooledTodo(modify(Operation.TOGGLE, this::toggle))),
+                        onCase(Operation.DELETE.name()).then(withPooledTodo(delete())),
+                        onCase(Operation.INVALID.name()).then(invalid())
+                );
+    }
+
+    private ChainBuilder list() {
+        return exec(session -> withDataStream(session,
+                s -> s.set("offset", DataRandom.random().nextInt(Math.max(1, pools.get(baseUrl(s)).size())))))
+                .exec(measured(http(Operation.LIST.getRequestName())
+                        .get("/todos")
+                        .queryParam("limit", pageSize)
+                        .queryParam("offset", "#{offset}")
+                        .check(status().is(200))));
+    }
+
+    private ChainBuilder create() {
+        return exec(session -> withDataStream(session, s -> {
+                    Todo todo = todoBuilder.build();
+                    todo.setId(PerformanceIdGenerator.nextId());
+                    return s.set("todo", todo).set("todoJson", serialize(todo));
+                }))
+                .exec(measured(http(Operation.CREATE.getRequestName())
+                        .post("/todos")
+                        .body(StringBody("#{todoJson}"))
+                        .asJson()
+                        .check(status().is(201))))
+                .exec(this::returnToPool);
+    }
+
+    /**
+     * Takes a todo out of the pool for the operation; an empty pool turns the operation into a create.
+     */
+    private ChainBuilder withPooledTodo(ChainBuilder operation) {
+        return exec(session -> withDataStream(session, s -> {
+            Todo todo = pools.get(baseUrl(s)).take(DataRandom.random());
+            return todo == null ? s : s.set("todo", todo).set("todoId", todo.getId());
+        }))
+                .doIfOrElse(session -> session.contains("todo")).then(operation)
+                .orElse(create());
+    }
+
+    // Puts the changed todo back into the pool on success
+    private ChainBuilder modify(Operation operation, Function<Todo, Todo> change) {
+        return exec(session -> withDataStream(session, s -> {
+            Todo changed = change.apply(s.get("todo"));
+            return s.set("todo", changed).set("todoJson", serialize(changed));
+        }))
+                .exec(measured(http(operation.getRequestName())
+                        .put("/todos/#{todoId}")
+                        .body(StringBody("#{todoJson}"))
+                        .asJson()
+                        .check(status().is(200))))
+                .exec(this::returnToPool);
+    }
+
+    // A deleted todo does not go back into the pool; one that failed to delete may still exist
+    private ChainBuilder delete() {
+        return exec(measured(http(Operation.DELETE.getRequestName())
+                .delete("/todos/#{todoId}")
+                .header("Authorization", authHeader)
+                .check(status().is(204))))
+                .doIf(Session::isFailed).then(exec(session -> {
+                    dropped.get(baseUrl(session)).put(session.get("todo"));
+                    return session;
+                }));
+    }
+
+    private ChainBuilder invalid() {
+        return exec(session -> withDataStream(session, s -> s.set("invalidJson",
+                serialize(INVALID_PAYLOADS.get(DataRandom.random().nextInt(INVALID_PAYLOADS.size())).get()))))
+                .exec(measured(http(Operation.INVALID.getRequestName())
+                        .post("/todos")
+                        .body(StringBody("#{invalidJson}"))
+                        .asJson()
+                        .check(status().is(400)), status -> status == 400));
+    }
+
+    private Todo update(Todo todo) {
+        return new Todo(todo.getId(), ModelBuilder.uniqueText("Todo"), todo.getCompleted());
+    }
+
+    private Todo toggle(Todo todo) {
+        return new Todo(todo.getId(), todo.getText(), !Boolean.TRUE.equals(todo.getCompleted()));
+    }
+
+    // A todo of a failed request is dropped from the pool
+    private Session returnToPool(Session session) {
+        (session.isFailed() ? dropped : pools).get(baseUrl(session)).put(session.get("todo"));
+        return session;
+    }
+
+    @Override
+    protected void afterSimulation() {
+        try {
+            writeOperationReport();
+        } finally {
+            pools.forEach((baseUrl, pool) -> {
+                List<Todo> leftovers = pool.drain();
+                leftovers.addAll(dropped.get(baseUrl).drain());
+                seeder.delete(baseUrl, leftovers.stream().mapToLong(Todo::getId).toArray());
+            });
+        }
+    }
+
+    private void writeOperationReport() {
+        double windowSeconds = metrics.windowSeconds();
+        List<OperationResult> results = new ArrayList<>();
+        mix.weights().forEach((operation, weight) -> {
+            RequestStats stats = metrics.byName().get(operation.getRequestName());
+            if (stats == null) {
+                return;
+            }
+            results.add(OperationResult.builder()
+                    .operation(operation)
+                    .weight(weight)
+                    .throughputRps(windowSeconds == 0 ? 0 : stats.requests() / windowSeconds)
+                    .latency(LatencySummary.of(stats))
+                    .build());
+        });
+        MixReport report = MixReport.builder()
+                .profile(getLoadProfile().getName())
+                .mix(config.performanceMix())
+                .throughputRps(metrics.throughput())
+                .liveTodos(pools.values().stream().mapToInt(LivePool::size).sum())
+                .operations(results)
+                .build();
+
+        Path file = Path.of(config.performanceReportsDir(),
+                "mixed-workload-%s.json".formatted(LocalDateTime.now().format(RUN_ID)));
+        try {
+            Files.createDirectories(file.getParent());
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+            log.info("Mixed workload report written to {}", file);
+        } catch (IOException e) {
+            log.error("Failed to write mixed workload report to {}", file, e);
+        }
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MixReport {
+        private String profile;
+        private String mix;
+        private double throughputRps;
+        private int liveTodos;
+        private List<OperationResult> operations;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OperationResult {
+        private Operation operation;
+        private double weight;
+        private double throughputRps;
+        private LatencySummary latency;
+    }
+}
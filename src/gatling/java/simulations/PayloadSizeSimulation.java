@@ -0,0 +1,293 @@
+package simulations;
+
+import core.BaseGatlingSimulation;
+import core.LatencySummary;
+import core.LoadProfile;
+import core.PerformanceIdGenerator;
+import core.RequestStats;
+import core.Threshold;
+import io.gatling.javaapi.core.ChainBuilder;
+import io.gatling.javaapi.core.PopulationBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.http.HttpRequestActionBuilder;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ru.gordeev.core.data.DataRandom;
+import ru.gordeev.core.helpers.AuthTools;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.gatling.javaapi.core.CoreDsl.StringBody;
+import static io.gatling.javaapi.core.CoreDsl.scenario;
+import static io.gatling.javaapi.http.HttpDsl.http;
+import static io.gatling.javaapi.http.HttpDsl.status;
+
+/**
+ * Measures how POST and PUT latency depend on the size of the request body.
+ * <p>
+ * For every size of {@code performance.payload.sizes} (todo text length in bytes) each virtual user
+ * creates a todo, replaces it with a PUT of the same size and deletes it, so the store does not grow
+ * with megabyte todos. Bodies are built once per size before injection; a request only splices its id
+ * in, so payload generation does not show up in the measured latency. Sizes run one after another
+ * with the selected load profile.
+ * <p>
+ * Throughput, latency percentiles, bytes per second and response status counts per size are written
+ * to {@code performance.reports.dir}, together with the first size that breaks the profile's p95 or
+ * error rate limits (degraded) and the first size answered with a 4xx (rejected). Larger sizes are
+ * expected to fail, so only the smallest size is asserted.
+ */
+@Slf4j
+public class PayloadSizeSimulation extends BaseGatlingSimulation {
+
+    private static final DateTimeFormatter RUN_ID = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final int MAX_ID_DIGITS = Long.toString(Long.MAX_VALUE).length();
+    private static final String ID_EXPRESSION = "#{todoId}";
+    private static final String TEXT_ALPHABET = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 ";
+
+    private final int[] sizes = config.performancePayloadSizes();
+    private final List<Payload> payloads = buildPayloads(sizes);
+    // request name -> status code -> responses
+    private final Map<String, Map<Integer, LongAdder>> statusCounts = new ConcurrentHashMap<>();
+    private final String authHeader = AuthTools.encodeBasicAuth(
+            config.adminUsername(),
+            config.adminPassword()
+    );
+
+    public PayloadSizeSimulation() {
+        LoadProfile profile = getLoadProfile();
+        setUp(buildPhases(profile))
+                .protocols(httpProtocol)
+                .assertions(thresholdAssertions(List.of(Threshold.request(
+                        createRequestName(sizes[0]), Threshold.Metric.ERROR_RATE, profile.getMaxErrorRate()))));
+    }
+
+    /**
+     * A todo body template: {@code {"id":#{todoId},"text":"...","completed":false}}. Gatling compiles it once
+     * into static parts with cached bytes around the id; a request writes those shared parts as they are
+     * and only encodes the id.
+     */
+    private record Payload(int textBytes, String body) {
+
+        // body size with the longest possible id
+        int bodyBytes() {
+            return body.length() - ID_EXPRESSION.length() + MAX_ID_DIGITS;
+        }
+    }
+
+    private static List<Payload> buildPayloads(int[] sizes) {
+        List<Payload> payloads = new ArrayList<>();
+        for (int size : sizes) {
+            String text = DataRandom.withStream(size, () -> randomText(DataRandom.random(), size));
+            payloads.add(new Payload(size,
+                    "{\"id\":" + ID_EXPRESSION + ",\"text\":\"" + text + "\",\"completed\":false}"));
+        }
+        return payloads;
+    }
+
+    // ASCII only, so the text length is its size in bytes and needs no JSON escaping; no '#', so no Gatling EL
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(TEXT_ALPHABET.charAt(random.nextInt(TEXT_ALPHABET.length())));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Chains one phase per payload size, smallest first.
+     */
+    private PopulationBuilder buildPhases(LoadProfile profile) {
+        PopulationBuilder next = null;
+        for (int i = payloads.size() - 1; i >= 0; i--) {
+            PopulationBuilder phase = buildPopulation(sizeScenario(payloads.get(i)), profile);
+            next = next == null ? phase : phase.andThen(next);
+        }
+        return next;
+    }
+
+    /**
+     * Create, replace and delete cycle at the smallest size; the full run chains the phases of {@link #buildPhases}.
+     */
+    @Override
+    protected ScenarioBuilder defineScenario() {
+        return sizeScenario(payloads.get(0));
+    }
+
+    private ScenarioBuilder sizeScenario(Payload payload) {
+        ChainBuilder createRequest = counted(http(createRequestName(payload.textBytes()))
+                .post("/todos")
+                .body(StringBody(payload.body()))
+                .asJson()
+                .check(status().is(201)));
+
+        ChainBuilder updateRequest = counted(http(updateRequestName(payload.textBytes()))
+                .put("/todos/#{todoId}")
+                .body(StringBody(payload.body()))
+                .asJson()
+                .check(status().is(200)));
+
+        return scenario("Payload size %d B".formatted(payload.textBytes()))
+                .exec(session -> session.set("todoId", PerformanceIdGenerator.nextId()))
+                .exec(createRequest)
+                .exitHereIfFailed()
+                .exec(updateRequest)
+                .exec(http("Delete payload todo")
+                        .delete("/todos/#{todoId}")
+                        .header("Authorization", authHeader)
+                        .check(status().is(204)));
+    }
+
+    private static String createRequestName(int textBytes) {
+        return "POST /todos (%d B)".formatted(textBytes);
+    }
+
+    private static String updateRequestName(int textBytes) {
+        return "PUT /todos/{id} (%d B)".formatted(textBytes);
+    }
+
+    /**
+     * Records the request into {@link #metrics} like {@link #measured(HttpRequestActionBuilder)} and counts
+     * its response status, to tell rejections from server errors.
+     */
+    private ChainBuilder counted(HttpRequestActionBuilder request) {
+        return tracked(request.transformResponse((response, session) -> {
+            String name = response.request().getName();
+            int status = response.status().code();
+            record(session, response, status < 400);
+            statusCounts.computeIfAbsent(name, key -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(status, key -> new LongAdder())
+                    .increment();
+            return response;
+        }));
+    }
+
+    @Override
+    protected void afterSimulation() {
+        LoadProfile profile = getLoadProfile();
+        List<SizeResult> results = new ArrayList<>();
+        Integer degradedFrom = null;
+        Integer rejectedFrom = null;
+        for (Payload payload : payloads) {
+            SizeResult result = SizeResult.builder()
+                    .textBytes(payload.textBytes())
+                    .requestBytes(payload.bodyBytes())
+                    .create(operationResult(createRequestName(payload.textBytes()), payload, profile))
+                    .update(operationResult(updateRequestName(payload.textBytes()), payload, profile))
+                    .build();
+            results.add(result);
+            if (degradedFrom == null && (isDegraded(result.getCreate()) || isDegraded(result.getUpdate()))) {
+                degradedFrom = payload.textBytes();
+            }
+            if (rejectedFrom == null && (isRejected(result.getCreate()) || isRejected(result.getUpdate()))) {
+                rejectedFrom = payload.textBytes();
+            }
+        }
+        writeSweep(PayloadSweep.builder()
+                .profile(profile.getName())
+                .p95LimitMs(profile.getP95ResponseTimeMs())
+                .maxErrorRate(profile.getMaxErrorRate())
+                .degradedFromTextBytes(degradedFrom)
+                .rejectedFromTextBytes(rejectedFrom)
+                .sizes(results)
+                .build());
+    }
+
+    private OperationResult operationResult(String requestName, Payload payload, LoadProfile profile) {
+        RequestStats stats = metrics.byName().get(requestName);
+        if (stats == null) {
+            return null;
+        }
+        LatencySummary latency = LatencySummary.of(stats);
+        Map<Integer, Long> statuses = new TreeMap<>();
+        statusCounts.getOrDefault(requestName, Map.of())
+                .forEach((status, count) -> statuses.put(status, count.sum()));
+        double throughput = stats.throughput();
+        return OperationResult.builder()
+                .throughputRps(throughput)
+                .requestBytesPerSecond(throughput * payload.bodyBytes())
+                .responseBytesPerSecond(stats.windowSeconds() == 0 ? 0 : stats.responseBytes() / stats.windowSeconds())
+                .latency(latency)
+                .statusCounts(statuses)
+                .degraded(latency.getP95Ms() > profile.getP95ResponseTimeMs()
+                        || latency.getErrorRate() > profile.getMaxErrorRate())
+                .rejected(statuses.keySet().stream().anyMatch(status -> status >= 400 && status < 500))
+                .build();
+    }
+
+    private static boolean isDegraded(OperationResult result) {
+        return result == null || result.isDegraded();
+    }
+
+    private static boolean isRejected(OperationResult result) {
+        return result != null && result.isRejected();
+    }
+
+    private void writeSweep(PayloadSweep sweep) {
+        Path file = Path.of(config.performanceReportsDir(),
+                "payload-size-%s.json".formatted(LocalDateTime.now().format(RUN_ID)));
+        try {
+            Files.createDirectories(file.getParent());
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), sweep);
+            log.info("Payload size sweep written to {} (degraded from text bytes: {}, rejected from: {})", file,
+                    Objects.toString(sweep.getDegradedFromTextBytes(), "none"),
+                    Objects.toString(sweep.getRejectedFromTextBytes(), "none"));
+        } catch (IOException e) {
+            log.error("Failed to write payload size sweep to {}", file, e);
+        }
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PayloadSweep {
+        private String profile;
+        private int p95LimitMs;
+        private double maxErrorRate;
+        // first text size whose create or update broke the p95 or error rate limit, null if none did
+        private Integer degradedFromTextBytes;
+        // first text size answered with a 4xx, e.g. 413 Payload Too Large, null if none was
+        private Integer rejectedFromTextBytes;
+        private List<SizeResult> sizes;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SizeResult {
+        private int textBytes;
+        private int requestBytes;
+        private OperationResult create;
+        private OperationResult update;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OperationResult {
+        private double throughputRps;
+        private double requestBytesPerSecond;
+        private double responseBytesPerSecond;
+        private LatencySummary latency;
+        private Map<Integer, Long> statusCounts;
+        private boolean degraded;
+        private boolean rejected;
+    }
+}
@@ -1,11 +1,11 @@
 package simulations;
 
 import core.BaseGatlingSimulation;
-import core.LoadProfile;
+import core.JsonIdScanner;
 import core.PerformanceIdGenerator;
-import core.PerformanceProfiles;
+import io.gatling.javaapi.core.ChainBuilder;
 import io.gatling.javaapi.core.ScenarioBuilder;
-import io.gatling.javaapi.http.HttpRequestActionBuilder;
+import ru.gordeev.core.data.DataRandom;
 import ru.gordeev.core.data.TestDataRegistry;
 import ru.gordeev.core.helpers.AuthTools;
 import ru.gordeev.todo.data.TodoTestData;
@@ -23,6 +23,13 @@ import static io.gatling.javaapi.http.HttpDsl.status;
  * verifying its existence, optionally updating it, and finally deleting it.
  */
 public class TodoUserJourneySimulation extends BaseGatlingSimulation {
+    // Drawn from the data stream rather than randomSwitch, so seeded runs take the same branches
+    private static final double UPDATE_RATIO = 0.7;
+
+    private final double verifyRatio = config.performanceJourneyVerifyRatio();
+    private final int verifyPageSize = config.performanceJourneyVerifyPageSize();
+    private final int verifyMaxPages = config.performanceJourneyVerifyMaxPages();
+    private final Duration verifyPageInterval = Duration.ofMillis(config.performanceJourneyVerifyPageIntervalMillis());
     private final TestDataRegistry testData = createTestDataRegistry();
     private final String authHeader = AuthTools.encodeBasicAuth(
             config.adminUsername(),
@@ -50,25 +57,60 @@ public class TodoUserJourneySimulation extends BaseGatlingSimulation {
         }
     }
 
+    /**
+     * Checks that the created todo is listed. The id is found with {@link JsonIdScanner}, which stops
+     * at the first match instead of evaluating a JSONPath filter over the whole list.
+     * With {@code performance.journey.verify.page.size} set, the list is read page by page
+     * until the page holding the todo, so no single response grows with the store. A page that fails,
+     * or the last page without the todo, ends the scan, and so does {@code performance.journey.verify.max.pages}:
+     * its last page fails the verification when the todo was not found in any of them.
+     * Pages are {@link #scheduled} every {@code performance.journey.verify.page.interval.millis}, so their
+     * latency from the schedule is reported besides the service time.
+     */
+    private ChainBuilder defineVerifyCreation() {
+        if (verifyPageSize <= 0) {
+            return exec(measured(http("2. Verify Todo Creation")
+                    .get("/todos")
+                    .check(status().is(200))
+                    .check(JsonIdScanner.idPresent("todoId"))));
+        }
+
+        ChainBuilder verifyPageRequest = scheduled(http("2. Verify Todo Creation")
+                .get("/todos")
+                .queryParam("limit", verifyPageSize)
+                .queryParam("offset", "#{verifyOffset}")
+                .check(status().is(200))
+                .check(JsonIdScanner.idPresentOrFullPage("todoId", verifyPageSize, "verifyOffset",
+                        (verifyMaxPages - 1) * verifyPageSize, "verifyScan")), verifyPageInterval);
+
+        int maxOffset = verifyMaxPages * verifyPageSize;
+        return exec(session -> session.set("verifyOffset", 0).set("verifyScan", -verifyPageSize - 1L))
+                .asLongAs(session -> JsonIdScanner.onNextPage(session.getLong("verifyScan"), verifyPageSize)
+                        && session.getInt("verifyOffset") < maxOffset).on(
+                        // the check only saves its result when it passes, a failed page must not leave the last one
+                        exec(session -> session.set("verifyScan", 0L))
+                                .exec(verifyPageRequest)
+                                .exec(session -> session.set("verifyOffset", session.getInt("verifyOffset") + verifyPageSize))
+                );
+    }
+
     /**
      * Defines a realistic user workflow that simulates the complete lifecycle of a Todo item.
-     * The scenario includes think time (pauses) and decision-making (randomSwitch)
+     * The scenario includes think time (pauses) and decision-making (70% of users update,
+     * {@code performance.journey.verify.ratio} of users verify the creation)
      * to mimic real user behavior more closely.
      */
     @Override
     protected ScenarioBuilder defineScenario() {
-        HttpRequestActionBuilder createTodoRequest = http("1. Create Todo")
+        ChainBuilder createTodoRequest = measured(http("1. Create Todo")
                 .post("/todos")
                 .body(StringBody("#{todoJsonPayload}"))
                 .asJson()
-                .check(status().is(201));
+                .check(status().is(201)));
 
-        HttpRequestActionBuilder verifyCreationRequest = http("2. Verify Todo Creation")
-                .get("/todos")
-                .check(status().is(200))
-                .check(jsonPath("$[?(@.id == #{todoId})].id").exists());
+        ChainBuilder verifyCreation = defineVerifyCreation();
 
-        HttpRequestActionBuilder updateTodoRequest = http("3. Update Todo")
+        ChainBuilder updateTodoRequest = measured(http("3. Update Todo")
                 .put("/todos/#{todoId}")
                 .body(StringBody(session -> {
                     long id = session.getLong("todoId");
@@ -77,41 +119,30 @@ public class TodoUserJourneySimulation extends BaseGatlingSimulation {
                     return serializeTodo(updated);
                 }))
                 .asJson()
-                .check(status().is(200));
+                .check(status().is(200)));
 
-        HttpRequestActionBuilder deleteTodoRequest = http("4. Delete Todo")
+        ChainBuilder deleteTodoRequest = measured(http("4. Delete Todo")
                 .delete("/todos/#{todoId}")
                 .header("Authorization", authHeader)
-                .check(status().is(204));
+                .check(status().is(204)));
 
         return scenario("Todo User Journey")
-                .exec(session -> {
+                .exec(session -> DataRandom.withStream(dataStream(session), () -> {
                     Todo todo = testData.valid(Todo.class);
                     todo.setId(PerformanceIdGenerator.nextId());
                     return session
                             .set("todoId", todo.getId())
                             .set("todoText", todo.getText())
-                            .set("todoJsonPayload", serializeTodo(todo));
-                })
+                            .set("todoJsonPayload", serializeTodo(todo))
+                            .set("shouldVerify", DataRandom.random().nextDouble() < verifyRatio)
+                            .set("shouldUpdate", DataRandom.random().nextDouble() < UPDATE_RATIO);
+                }))
                 .exec(createTodoRequest)
                 .pause(Duration.ofMillis(500), Duration.ofSeconds(1))
-                .exec(verifyCreationRequest)
+                .doIf("#{shouldVerify}").then(verifyCreation)
                 .pause(Duration.ofSeconds(1), Duration.ofSeconds(3))
-                .randomSwitch().on(
-                        percent(70.0).then(exec(updateTodoRequest))
-                )
+                .doIf("#{shouldUpdate}").then(exec(updateTodoRequest))
                 .pause(Duration.ofSeconds(1), Duration.ofSeconds(2))
                 .exec(deleteTodoRequest);
     }
-
-    @Override
-    protected LoadProfile getLoadProfile() {
-        String profileName = System.getProperty("performance.profile", config.performanceProfile());
-        return switch (profileName.toLowerCase()) {
-            case "smoke" -> PerformanceProfiles.smoke();
-            case "stress" -> PerformanceProfiles.stress();
-            case "spike" -> PerformanceProfiles.spike();
-            default -> PerformanceProfiles.normal();
-        };
-    }
 }
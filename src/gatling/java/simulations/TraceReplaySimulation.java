@@ -0,0 +1,203 @@
+package simulations;
+
+import core.BaseGatlingSimulation;
+import core.LatencySummary;
+import core.LoadProfile;
+import core.RequestStats;
+import core.Threshold;
+import core.TodoSeeder;
+import core.TraceFeeder;
+import io.gatling.http.client.Request;
+import io.gatling.javaapi.core.ChainBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Session;
+import io.gatling.javaapi.http.HttpRequestActionBuilder;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ru.gordeev.core.data.TestDataRegistry;
+import ru.gordeev.core.data.TraceRecord;
+import ru.gordeev.core.helpers.AuthTools;
+import ru.gordeev.todo.data.TodoTestData;
+import ru.gordeev.todo.model.Todo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.http;
+import static io.gatling.javaapi.http.HttpDsl.status;
+
+/**
+ * Replays a recorded request trace ({@code performance.replay.trace}) against the target.
+ * <p>
+ * The trace is streamed by {@link TraceFeeder}, with ids remapped to fresh ones. Each of the
+ * {@code performance.replay.users} virtual users takes the next record, waits until its recorded
+ * time divided by {@code performance.replay.speed} has come and sends it, so requests keep their
+ * original spacing as long as enough users are free. Requests are sent with the recorded headers. A redacted
+ * Authorization header is replaced by the admin credentials of the config, other redacted headers are dropped,
+ * and a request recorded without credentials is sent without them. How late requests were sent against the
+ * schedule is reported as the schedule lag; a growing lag means more replay users are needed.
+ * <p>
+ * Traces can be recorded from the functional suite with {@code -Dtrace.record.file=...}, or
+ * converted from access logs into the {@link ru.gordeev.core.data.TraceRecord} format.
+ * The load profile only sets the error rate limit. Todos with remapped ids are deleted afterwards.
+ */
+@Slf4j
+public class TraceReplaySimulation extends BaseGatlingSimulation {
+
+    private static final DateTimeFormatter RUN_ID = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final String tracePath = requireTrace(config.performanceReplayTrace());
+    private final double speed = config.performanceReplaySpeed();
+    private final TraceFeeder feeder = new TraceFeeder(Path.of(tracePath));
+    private final AtomicLong replayStartMillis = new AtomicLong();
+    private final RequestStats scheduleLag = new RequestStats();
+    private final TodoSeeder seeder = createSeeder();
+    private final String authHeader = AuthTools.encodeBasicAuth(config.adminUsername(), config.adminPassword());
+
+    public TraceReplaySimulation() {
+        LoadProfile profile = getLoadProfile();
+        setUp(defineScenario().injectOpen(atOnceUsers(config.performanceReplayUsers())))
+                .protocols(httpProtocol)
+                .assertions(thresholdAssertions(List.of(
+                        Threshold.global(Threshold.Metric.ERROR_RATE, profile.getMaxErrorRate()))));
+    }
+
+    private static String requireTrace(String trace) {
+        if (trace == null || trace.isBlank()) {
+            throw new IllegalArgumentException("No request trace to replay, set performance.replay.trace");
+        }
+        return trace;
+    }
+
+    private TodoSeeder createSeeder() {
+        TestDataRegistry registry = new TestDataRegistry();
+        TodoTestData.register(registry);
+        return new TodoSeeder(config, registry.getBuilderFor(Todo.class), baseUrls());
+    }
+
+    @Override
+    protected ScenarioBuilder defineScenario() {
+        return scenario("Trace Replay")
+                .exec(session -> session.set("replayEnd", false))
+                .asLongAs(session -> !session.getBoolean("replayEnd")).on(
+                        feed(feeder)
+                                .exec(abortOnBreach())
+                                .doIf(session -> !session.getBoolean("replayEnd")).then(
+                                        exec(this::schedule)
+                                                .pause(session -> Duration.ofMillis(session.getLong("delayMillis")))
+                                                .doSwitchOrElse("#{method}").on(
+                                                        onCase("GET").then(exec(replayed(http("#{requestName}").get("#{path}")))),
+                                                        onCase("DELETE").then(exec(replayed(http("#{requestName}").delete("#{path}")))),
+                                                        onCase("POST").then(exec(replayed(withBody(http("#{requestName}").post("#{path}"))))),
+                                                        onCase("PUT").then(exec(replayed(withBody(http("#{requestName}").put("#{path}"))))),
+                                                        onCase("PATCH").then(exec(replayed(withBody(http("#{requestName}").patch("#{path}")))))
+                                                ).orElse(exec(session -> {
+                                                    log.warn("Skipping trace record with unsupported method {}", session.getString("method"));
+                                                    return session;
+                                                }))
+                                )
+                );
+    }
+
+    /**
+     * Sets {@code delayMillis} until the record is due and records how late it already is.
+     */
+    private Session schedule(Session session) {
+        long now = System.currentTimeMillis();
+        replayStartMillis.compareAndSet(0, now);
+        if (speed <= 0) {
+            return session.set("delayMillis", 0L);
+        }
+        long due = replayStartMillis.get() + (long) (session.getLong("offsetMillis") / speed);
+        scheduleLag.record(TimeUnit.MILLISECONDS.toMicros(Math.max(0, now - due)), true, 0);
+        return session.set("delayMillis", Math.max(0, due - now));
+    }
+
+    private HttpRequestActionBuilder withBody(HttpRequestActionBuilder request) {
+        return request.body(StringBody("#{body}")).asJson();
+    }
+
+    // Recorded traffic contains expected 4xx responses, so only server errors fail a replayed request
+    private ChainBuilder replayed(HttpRequestActionBuilder request) {
+        return measured(request.check(status().lt(500)), status -> status < 500);
+    }
+
+    // the recorded headers win over those the request was built with, redacted credentials come from the config
+    @Override
+    protected Request beforeSend(Request request, Session session) {
+        Map<String, String> headers = session.getMap("headers");
+        headers.forEach((name, value) -> {
+            if (!TraceRecord.REDACTED.equals(value)) {
+                request.getHeaders().set(name, value);
+            } else if (HttpHeaderNames.AUTHORIZATION.contentEqualsIgnoreCase(name)) {
+                request.getHeaders().set(name, authHeader);
+            }
+        });
+        return request;
+    }
+
+    @Override
+    protected void afterSimulation() {
+        try {
+            writeReplayReport();
+        } finally {
+            feeder.close();
+            seeder.delete(feeder.remappedIds().stream().mapToLong(Long::longValue).toArray());
+        }
+    }
+
+    private void writeReplayReport() {
+        Map<String, LatencySummary> requests = new TreeMap<>();
+        metrics.byName().forEach((name, stats) -> requests.put(name, LatencySummary.of(stats)));
+        ReplayReport report = ReplayReport.builder()
+                .trace(tracePath)
+                .speed(speed)
+                .users(config.performanceReplayUsers())
+                .records(feeder.records())
+                .remappedIds(feeder.remappedIds().size())
+                .throughputRps(metrics.throughput())
+                .scheduleLag(speed > 0 ? LatencySummary.of(scheduleLag) : null)
+                .requests(requests)
+                .build();
+
+        Path file = Path.of(config.performanceReportsDir(),
+                "trace-replay-%s.json".formatted(LocalDateTime.now().format(RUN_ID)));
+        try {
+            Files.createDirectories(file.getParent());
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+            log.info("Replayed {} trace records, report written to {}", report.getRecords(), file);
+        } catch (IOException e) {
+            log.error("Failed to write trace replay report to {}", file, e);
+        }
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ReplayReport {
+        private String trace;
+        private double speed;
+        private int users;
+        private long records;
+        private int remappedIds;
+        private double throughputRps;
+        // how late records were sent against the scaled recorded timing
+        private LatencySummary scheduleLag;
+        private Map<String, LatencySummary> requests;
+    }
+}
@@ -0,0 +1,94 @@
+package benchmarks;
+
+import com.github.javafaker.Faker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.gordeev.core.data.ModelBuilder;
+import ru.gordeev.core.data.PayloadBuilder;
+import ru.gordeev.core.data.TestDataRegistry;
+import ru.gordeev.todo.data.TodoTestData;
+import ru.gordeev.todo.model.Todo;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test data generation done once per virtual user or test: texts, valid todos and payload maps. The contended
+ * variants run on as many threads as there are cores, next to the shared-state generators they replaced.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DataGenerationBenchmark {
+
+    private static final Faker SHARED_FAKER = new Faker();
+
+    private TestDataRegistry registry;
+    private Todo todo;
+
+    @Setup
+    public void setUp() {
+        registry = new TestDataRegistry();
+        TodoTestData.register(registry);
+        todo = registry.valid(Todo.class);
+    }
+
+    @Benchmark
+    public String uniqueText() {
+        return ModelBuilder.uniqueText("Todo");
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String uniqueTextContended() {
+        return ModelBuilder.uniqueText("Todo");
+    }
+
+    // the UUID and clock based text used before UniqueTextGenerator
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String legacyUniqueTextContended() {
+        return String.format("%s_%s_%d", "Todo", UUID.randomUUID().toString().substring(0, 8), System.currentTimeMillis());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public long randomLongContended() {
+        return ModelBuilder.randomLong(1L, Long.MAX_VALUE);
+    }
+
+    // one Faker for all threads, as before the per-thread DataRandom
+    @Benchmark
+    @Threads(Threads.MAX)
+    public long sharedFakerRandomLongContended() {
+        return SHARED_FAKER.number().numberBetween(1L, Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public Todo validTodo() {
+        return registry.valid(Todo.class);
+    }
+
+    @Benchmark
+    public Map<String, Object> payloadFromTodo() {
+        return PayloadBuilder.from(todo).build();
+    }
+
+    @Benchmark
+    public Map<String, Object> invalidPayload() {
+        return TodoTestData.Invalid.invalidCompletedType();
+    }
+}
@@ -0,0 +1,37 @@
+package benchmarks;
+
+import core.PerformanceIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Id allocation, alone and contended by as many threads as there are cores, the way Gatling
+ * virtual users call it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdGenerationBenchmark {
+
+    @Benchmark
+    @Threads(1)
+    public long nextIdSingleThread() {
+        return PerformanceIdGenerator.nextId();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public long nextIdContended() {
+        return PerformanceIdGenerator.nextId();
+    }
+}
@@ -0,0 +1,117 @@
+package benchmarks;
+
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import org.aeonbits.owner.ConfigFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.gordeev.core.api.BaseApiService;
+import ru.gordeev.core.config.AppConfig;
+import ru.gordeev.core.latency.CoordinatedOmissionRecorder;
+import ru.gordeev.todo.model.Todo;
+import ru.gordeev.todo.stub.EmbeddedTodoServer;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-side cost of a {@link BaseApiService} call: building the REST Assured request through the service's
+ * {@code request()}, and a full round trip against {@link EmbeddedTodoServer} on loopback, where the server does
+ * almost nothing. The {@code recorded} variants go through a service with {@link BaseApiService#recordLatencies},
+ * so they include the {@code LatencyRecordingFilter}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestConstructionBenchmark {
+
+    private static final String MISSING_TODO_PATH = "/todos/0";
+    private static final String AUTH_HEADER = "Basic YWRtaW46YWRtaW4=";
+
+    private EmbeddedTodoServer server;
+    private TodoClient client;
+    private TodoClient recordingClient;
+    private Todo todo;
+
+    static class TodoClient extends BaseApiService {
+        TodoClient(RequestSpecification spec, AppConfig config) {
+            super(spec, config);
+        }
+
+        Response list() {
+            return get("/todos", Map.of("limit", 1));
+        }
+
+        Response update(Todo todo) {
+            return put(MISSING_TODO_PATH, todo);
+        }
+
+        RequestSpecification authorizedUpdate(Todo todo) {
+            return request().header("Authorization", AUTH_HEADER).body(todo);
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        server = new EmbeddedTodoServer(EmbeddedTodoServer.Settings.builder().port(0).webSocketPort(0).build());
+        server.start();
+        RequestSpecification spec = new RequestSpecBuilder()
+                .setContentType(ContentType.JSON)
+                .setBaseUri("http://localhost")
+                .setPort(server.port())
+                .build();
+        AppConfig config = ConfigFactory.create(AppConfig.class);
+        client = new TodoClient(spec, config);
+        recordingClient = new TodoClient(spec, config);
+        recordingClient.recordLatencies(new CoordinatedOmissionRecorder());
+        todo = Todo.builder().id(0L).text("Todo_3f9a2c1b_1718000000000").completed(false).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Benchmark
+    public RequestSpecification buildRequest() {
+        return client.authorizedUpdate(todo);
+    }
+
+    @Benchmark
+    public RequestSpecification buildRecordedRequest() {
+        return recordingClient.authorizedUpdate(todo);
+    }
+
+    @Benchmark
+    public int listRoundTrip() {
+        return client.list().statusCode();
+    }
+
+    /**
+     * PUT of a missing id: serializes the body and gets 404 without growing the server's store.
+     */
+    @Benchmark
+    public int updateRoundTrip() {
+        return client.update(todo).statusCode();
+    }
+
+    @Benchmark
+    public int recordedUpdateRoundTrip() {
+        return recordingClient.update(todo).statusCode();
+    }
+}
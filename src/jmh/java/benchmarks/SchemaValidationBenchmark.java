@@ -0,0 +1,70 @@
+package benchmarks;
+
+import org.hamcrest.Matcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.module.jsv.JsonSchemaValidator.matchesJsonSchemaInClasspath;
+
+/**
+ * JSON schema validation of responses. {@code BaseCrudService} creates the matcher on every call,
+ * so the per-call variant includes loading the schema; the reused one shows the validation alone.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SchemaValidationBenchmark {
+
+    private static final String TODO_SCHEMA = "schemas/todo-schema.json";
+    private static final String LIST_SCHEMA = "schemas/todo-list-schema.json";
+
+    private String todoJson;
+    private String listJson;
+    private Matcher<?> todoMatcher;
+    private Matcher<?> listMatcher;
+
+    @Setup
+    public void setUp() {
+        todoJson = "{\"id\":1234567890123,\"text\":\"Todo_3f9a2c1b_1718000000000\",\"completed\":false}";
+        StringBuilder list = new StringBuilder("[");
+        for (int i = 0; i < 100; i++) {
+            list.append(i == 0 ? "" : ",").append(todoJson.replace("1234567890123", Long.toString(1234567890123L + i)));
+        }
+        listJson = list.append(']').toString();
+        todoMatcher = matchesJsonSchemaInClasspath(TODO_SCHEMA);
+        listMatcher = matchesJsonSchemaInClasspath(LIST_SCHEMA);
+    }
+
+    @Benchmark
+    public boolean validateTodoPerCall() {
+        return matchesJsonSchemaInClasspath(TODO_SCHEMA).matches(todoJson);
+    }
+
+    @Benchmark
+    public boolean validateTodoReused() {
+        return todoMatcher.matches(todoJson);
+    }
+
+    @Benchmark
+    public boolean validateListOf100PerCall() {
+        return matchesJsonSchemaInClasspath(LIST_SCHEMA).matches(listJson);
+    }
+
+    @Benchmark
+    public boolean validateListOf100Reused() {
+        return listMatcher.matches(listJson);
+    }
+}
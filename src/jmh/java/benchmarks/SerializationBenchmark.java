@@ -0,0 +1,71 @@
+package benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.gordeev.todo.model.Todo;
+import ru.gordeev.todo.model.TodoNotification;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson (de)serialization of the request body and the WebSocket notification with a shared mapper.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Todo todo;
+    private TodoNotification notification;
+    private byte[] todoJson;
+    private String notificationJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        todo = Todo.builder().id(1234567890123L).text("Todo_3f9a2c1b_1718000000000").completed(false).build();
+        notification = TodoNotification.builder()
+                .type(TodoNotification.NotificationType.NEW_TODO)
+                .data(TodoNotification.TodoData.builder()
+                        .id(todo.getId())
+                        .text(todo.getText())
+                        .completed(todo.getCompleted())
+                        .build())
+                .build();
+        todoJson = objectMapper.writeValueAsBytes(todo);
+        notificationJson = objectMapper.writeValueAsString(notification);
+    }
+
+    @Benchmark
+    public byte[] serializeTodo() throws IOException {
+        return objectMapper.writeValueAsBytes(todo);
+    }
+
+    @Benchmark
+    public Todo deserializeTodo() throws IOException {
+        return objectMapper.readValue(todoJson, Todo.class);
+    }
+
+    @Benchmark
+    public String serializeNotification() throws IOException {
+        return objectMapper.writeValueAsString(notification);
+    }
+
+    @Benchmark
+    public TodoNotification deserializeNotification() throws IOException {
+        return objectMapper.readValue(notificationJson, TodoNotification.class);
+    }
+}
@@ -4,6 +4,8 @@ import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
 import lombok.extern.slf4j.Slf4j;
 import ru.gordeev.core.config.AppConfig;
+import ru.gordeev.core.helpers.LatencyRecordingFilter;
+import ru.gordeev.core.latency.CoordinatedOmissionRecorder;
 
 import java.util.Map;
 
@@ -17,18 +19,36 @@ public abstract class BaseApiService {
 
     protected final RequestSpecification spec;
     protected final AppConfig config;
+    private volatile LatencyRecordingFilter latencyFilter;
 
     protected BaseApiService(RequestSpecification spec, AppConfig config) {
         this.spec = spec;
         this.config = config;
     }
 
+    /**
+     * Records the latency of every request sent by this service, from the
+     * {@link ru.gordeev.core.latency.IntendedStart} bound by the caller when there is one.
+     */
+    public void recordLatencies(CoordinatedOmissionRecorder recorder) {
+        this.latencyFilter = new LatencyRecordingFilter(recorder);
+    }
+
+    /**
+     * Starts a request from the service's specification.
+     */
+    protected RequestSpecification request() {
+        RequestSpecification request = given(spec);
+        LatencyRecordingFilter filter = latencyFilter;
+        return filter != null ? request.filter(filter) : request;
+    }
+
     /**
      * GET request.
      */
     protected Response get(String path) {
         log.debug("GET {}", path);
-        return given(spec).get(path);
+        return request().get(path);
     }
 
     /**
@@ -36,7 +56,7 @@ public abstract class BaseApiService {
      */
     protected Response get(String path, Map<String, ?> queryParams) {
         log.debug("GET {} with params: {}", path, queryParams);
-        return given(spec)
+        return request()
                 .queryParams(queryParams)
                 .get(path);
     }
@@ -46,7 +66,7 @@ public abstract class BaseApiService {
      */
     protected Response post(String path, Object body) {
         log.debug("POST {}", path);
-        return given(spec)
+        return request()
                 .body(body)
                 .post(path);
     }
@@ -56,7 +76,7 @@ public abstract class BaseApiService {
      */
     protected Response put(String path, Object body) {
         log.debug("PUT {}", path);
-        return given(spec)
+        return request()
                 .body(body)
                 .put(path);
     }
@@ -66,7 +86,7 @@ public abstract class BaseApiService {
      */
     protected Response delete(String path) {
         log.debug("DELETE {}", path);
-        return given(spec).delete(path);
+        return request().delete(path);
     }
 
     /**
@@ -74,7 +94,7 @@ public abstract class BaseApiService {
      */
     protected Response delete(String path, Map<String, String> headers) {
         log.debug("DELETE {} with headers: {}", path, headers);
-        return given(spec)
+        return request()
                 .headers(headers)
                 .delete(path);
     }
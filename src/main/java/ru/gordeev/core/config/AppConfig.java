@@ -1,5 +1,6 @@
 package ru.gordeev.core.config;
 
+import org.aeonbits.owner.Accessible;
 import org.aeonbits.owner.Config;
 
 /**
@@ -12,7 +13,7 @@ import org.aeonbits.owner.Config;
         "system:env",
         "classpath:config.properties"
 })
-public interface AppConfig extends Config {
+public interface AppConfig extends Config, Accessible {
 
     @Key("base.uri")
     @DefaultValue("http://localhost")
@@ -48,15 +49,423 @@ public interface AppConfig extends Config {
     @DefaultValue("smoke")
     String performanceProfile();
 
+    /**
+     * JSON file with load profiles merged over the built-in ones (see {@code performance-profiles.json}).
+     */
+    @Key("performance.profiles.file")
+    String performanceProfilesFile();
+
+    /**
+     * Overrides the test duration of the selected profile when set.
+     */
     @Key("performance.test.duration.seconds")
-    @DefaultValue("60")
-    int performanceTestDuration();
+    Integer performanceTestDuration();
 
+    /**
+     * Overrides the warm-up duration of the selected profile when set.
+     */
     @Key("performance.warmup.duration.seconds")
-    @DefaultValue("10")
-    int performanceWarmupDuration();
+    Integer performanceWarmupDuration();
 
+    /**
+     * Overrides the target RPS of the selected profile when set.
+     */
     @Key("performance.target.rps")
+    Double performanceTargetRps();
+
+    /**
+     * Pre-generated payload file (see {@code ./gradlew generatePayloads}). When set,
+     * simulations feed payloads from it instead of generating them on the fly.
+     */
+    @Key("performance.payload.file")
+    String performancePayloadFile();
+
+    /**
+     * Directory for the JSON artifacts of performance runs (scaling curves, sweeps).
+     */
+    @Key("performance.reports.dir")
+    @DefaultValue("build/reports/performance")
+    String performanceReportsDir();
+
+    /**
+     * Concurrent requests used to seed or clean up the server before and after load.
+     */
+    @Key("performance.seed.concurrency")
+    @DefaultValue("64")
+    int performanceSeedConcurrency();
+
+    /**
+     * Dataset sizes the list scaling simulation measures, in ascending order.
+     */
+    @Key("performance.list.dataset.sizes")
+    @DefaultValue("1000,10000,100000,1000000")
+    int[] performanceListDatasetSizes();
+
+    @Key("performance.list.page.size")
+    @DefaultValue("50")
+    int performanceListPageSize();
+
+    /**
+     * Operation weights of the mixed workload simulation as {@code operation:weight} pairs.
+     * Operations: list, create, update, toggle, delete, invalid.
+     */
+    @Key("performance.mix")
+    @DefaultValue("list:70,create:10,update:8,toggle:5,delete:5,invalid:2")
+    String performanceMix();
+
+    /**
+     * Todos seeded before the mixed workload starts, so updates and deletes have targets from the start.
+     */
+    @Key("performance.mix.initial.todos")
+    @DefaultValue("1000")
+    int performanceMixInitialTodos();
+
+    /**
+     * Todos preloaded for the hot-key contention simulation.
+     */
+    @Key("performance.hotkey.keys")
+    @DefaultValue("1000")
+    int performanceHotkeyKeys();
+
+    /**
+     * Key popularity of the hot-key simulation: zipfian, hotspot or uniform.
+     */
+    @Key("performance.hotkey.distribution")
+    @DefaultValue("zipfian")
+    String performanceHotkeyDistribution();
+
+    @Key("performance.hotkey.zipf.theta")
+    @DefaultValue("0.99")
+    double performanceHotkeyZipfTheta();
+
+    /**
+     * Share of the keys in the hot set of the hotspot distribution.
+     */
+    @Key("performance.hotkey.hot.set.fraction")
+    @DefaultValue("0.01")
+    double performanceHotkeyHotSetFraction();
+
+    /**
+     * Share of the requests that go to the hot set of the hotspot distribution.
+     */
+    @Key("performance.hotkey.hot.op.fraction")
+    @DefaultValue("0.9")
+    double performanceHotkeyHotOpFraction();
+
+    /**
+     * Share of hot-key requests that delete (and then recreate) the key instead of updating it.
+     */
+    @Key("performance.hotkey.delete.ratio")
+    @DefaultValue("0.05")
+    double performanceHotkeyDeleteRatio();
+
+    /**
+     * Most popular keys reported one by one; the other keys are reported together.
+     */
+    @Key("performance.hotkey.report.keys")
+    @DefaultValue("10")
+    int performanceHotkeyReportKeys();
+
+    /**
+     * Todo text sizes in bytes swept by the payload-size simulation, smallest first.
+     */
+    @Key("performance.payload.sizes")
+    @DefaultValue("16,256,4096,65536,1048576,4194304")
+    int[] performancePayloadSizes();
+
+    /**
+     * Request trace replayed by the trace replay simulation, see {@code TraceRecord} for the format.
+     */
+    @Key("performance.replay.trace")
+    String performanceReplayTrace();
+
+    /**
+     * Replay speed relative to the recorded timing: 2 replays twice as fast, 0 as fast as possible.
+     */
+    @Key("performance.replay.speed")
+    @DefaultValue("1.0")
+    double performanceReplaySpeed();
+
+    /**
+     * Virtual users sending the replayed requests; bounds how many requests can be in flight at once.
+     */
+    @Key("performance.replay.users")
+    @DefaultValue("100")
+    int performanceReplayUsers();
+
+    /**
+     * Root of the HDR histogram interval logs; every run writes one log per request name
+     * to {@code <dir>/<simulation>/<profile>/<run>}.
+     */
+    @Key("performance.hdr.dir")
+    @DefaultValue("build/reports/performance/hdr")
+    String performanceHdrDir();
+
+    @Key("performance.hdr.interval.seconds")
+    @DefaultValue("1")
+    int performanceHdrIntervalSeconds();
+
+    /**
+     * Baseline interval logs the regression gate compares against, as {@code <dir>/<simulation>/<profile>}.
+     */
+    @Key("performance.baseline.dir")
+    @DefaultValue("performance-baselines")
+    String performanceBaselineDir();
+
+    /**
+     * Relative percentile growth over the baseline that counts as a regression, e.g. 0.1 for 10%.
+     */
+    @Key("performance.regression.tolerance")
+    @DefaultValue("0.1")
+    double performanceRegressionTolerance();
+
+    /**
+     * Significance level of the test that a percentile grew across the logged intervals.
+     */
+    @Key("performance.regression.alpha")
+    @DefaultValue("0.05")
+    double performanceRegressionAlpha();
+
+    @Key("performance.regression.percentiles")
+    @DefaultValue("50,90,95,99")
+    double[] performanceRegressionPercentiles();
+
+    /**
+     * Injector JVMs the distributed run ({@code InjectorOrchestrator}) splits the load profile across.
+     */
+    @Key("performance.injectors")
+    @DefaultValue("2")
+    int performanceInjectors();
+
+    /**
+     * Index of this injector in a distributed run, set by {@code InjectorOrchestrator}. With {@code data.seed},
+     * every injector draws its own data and puts its index into the seed bits of its stream ids.
+     */
+    @Key("performance.injector.index")
+    @DefaultValue("0")
+    int performanceInjectorIndex();
+
+    /**
+     * Seconds between the live stats lines simulations log during a run; 0 turns the ticker off.
+     */
+    @Key("performance.live.ticker.seconds")
+    @DefaultValue("5")
+    int performanceLiveTickerSeconds();
+
+    /**
+     * Local port serving the live stats of a running simulation as JSON; 0 serves none.
+     */
+    @Key("performance.live.port")
+    @DefaultValue("0")
+    int performanceLivePort();
+
+    /**
+     * Rolling window of the live percentiles and error rate.
+     */
+    @Key("performance.live.window.seconds")
+    @DefaultValue("10")
+    int performanceLiveWindowSeconds();
+
+    /**
+     * Stops a run early when the live p95, p99 or error rate breaches the profile thresholds.
+     */
+    @Key("performance.live.abort")
+    @DefaultValue("false")
+    boolean performanceLiveAbort();
+
+    /**
+     * Consecutive seconds a threshold must stay breached before the run is stopped.
+     */
+    @Key("performance.live.abort.after.seconds")
+    @DefaultValue("10")
+    int performanceLiveAbortAfterSeconds();
+
+    /**
+     * Server process on this host whose CPU, memory and file descriptors are sampled from /proc during every run:
+     * a pid or a substring of its command line.
+     */
+    @Key("performance.server.process")
+    String performanceServerProcess();
+
+    @Key("performance.server.sample.seconds")
+    @DefaultValue("5")
+    int performanceServerSampleSeconds();
+
+    /**
+     * JMX connector of the server process, e.g. service:jmx:rmi:///jndi/rmi://localhost:9010/jmxrmi,
+     * to also sample its heap and GC time.
+     */
+    @Key("performance.server.jmx.url")
+    String performanceServerJmxUrl();
+
+    /**
+     * A/B mode: with both set, virtual users alternate between two builds of the service,
+     * e.g. http://localhost:8080 and http://localhost:8081, and the run ends with a per-request comparison.
+     */
+    @Key("performance.ab.base.url.a")
+    String performanceAbBaseUrlA();
+
+    @Key("performance.ab.base.url.b")
+    String performanceAbBaseUrlB();
+
+    /**
+     * Confidence level of the intervals of the A/B percentile deltas.
+     */
+    @Key("performance.ab.confidence")
+    @DefaultValue("0.95")
+    double performanceAbConfidence();
+
+    /**
+     * When set, functional tests append every request to this trace file.
+     */
+    @Key("trace.record.file")
+    String traceRecordFile();
+
+    /**
+     * Records Authorization and Cookie headers as sent instead of redacting them. Only for traces that stay private.
+     */
+    @Key("trace.record.credentials")
+    @DefaultValue("false")
+    boolean traceRecordCredentials();
+
+    /**
+     * Share of journeys that verify the created todo in the list, from 0 to 1.
+     */
+    @Key("performance.journey.verify.ratio")
+    @DefaultValue("1.0")
+    double performanceJourneyVerifyRatio();
+
+    /**
+     * Page size of the journey's verify request. 0 fetches the whole list in one request,
+     * a positive size pages through it with limit/offset until the todo is found.
+     */
+    @Key("performance.journey.verify.page.size")
+    @DefaultValue("0")
+    int performanceJourneyVerifyPageSize();
+
+    /**
+     * Most pages the journey's verify step reads before it gives up on finding the todo.
+     */
+    @Key("performance.journey.verify.max.pages")
     @DefaultValue("100")
-    int performanceTargetRps();
+    int performanceJourneyVerifyMaxPages();
+
+    /**
+     * Interval between the page reads of a paged verify step, a user scrolling at a steady pace.
+     * Pages are read on this schedule, so a stalled page shows in the response time of the pages after it.
+     */
+    @Key("performance.journey.verify.page.interval.millis")
+    @DefaultValue("100")
+    long performanceJourneyVerifyPageIntervalMillis();
+
+    /**
+     * Seed for test data generation. When set, generated data is reproducible
+     * per data stream (virtual user) and per thread. Unset means unseeded randomness.
+     * All injectors of a distributed run take the same seed, see {@link #performanceInjectorIndex()}.
+     */
+    @Key("data.seed")
+    Long dataSeed();
+
+    /**
+     * Node id of this JVM in generated ids. Must be unique among concurrently running
+     * injectors; defaults to host name and process id hashed into {@link #idsNodeBits()} bits,
+     * which can still collide between hosts. Set it explicitly when injectors run on several hosts.
+     */
+    @Key("ids.node.id")
+    Long idsNodeId();
+
+    @Key("ids.node.bits")
+    @DefaultValue("10")
+    int idsNodeBits();
+
+    @Key("ids.sequence.bits")
+    @DefaultValue("12")
+    int idsSequenceBits();
+
+    /**
+     * Custom epoch of the id timestamp part (2024-01-01T00:00:00Z by default).
+     */
+    @Key("ids.epoch.millis")
+    @DefaultValue("1704067200000")
+    long idsEpochMillis();
+
+    /**
+     * Lease file shared by injectors on the same host. When set, ids are leased
+     * in blocks from this file instead of being composed from node id and time.
+     */
+    @Key("ids.lease.file")
+    String idsLeaseFile();
+
+    @Key("ids.lease.block.size")
+    @DefaultValue("10000")
+    int idsLeaseBlockSize();
+
+    /**
+     * Starts the embedded Todo server (see {@code EmbeddedTodoServer}) on {@link #basePort()} and
+     * the {@link #websocketUri()} port before tests and simulations, instead of using a running service.
+     */
+    @Key("stub.enabled")
+    @DefaultValue("false")
+    boolean stubEnabled();
+
+    /**
+     * Service time of the embedded server: none, fixed:<ms>, uniform:<min>:<max>,
+     * exponential:<mean> or lognormal:<median>:<sigma>.
+     */
+    @Key("stub.latency")
+    @DefaultValue("none")
+    String stubLatency();
+
+    /**
+     * Share of requests the embedded server answers with {@link #stubErrorStatus()}, 0..1.
+     */
+    @Key("stub.error.rate")
+    @DefaultValue("0")
+    double stubErrorRate();
+
+    @Key("stub.error.status")
+    @DefaultValue("500")
+    int stubErrorStatus();
+
+    /**
+     * Throughput cap of the embedded server; excess requests queue. 0 means unlimited.
+     */
+    @Key("stub.max.rps")
+    @DefaultValue("0")
+    double stubMaxRps();
+
+    @Key("stub.threads")
+    @DefaultValue("64")
+    int stubThreads();
+
+    /**
+     * Number of closed-loop workers of {@code TodoLoadRunner}, each one virtual thread on Java 21+.
+     */
+    @Key("load.workers")
+    @DefaultValue("100")
+    int loadWorkers();
+
+    @Key("load.duration.seconds")
+    @DefaultValue("60")
+    int loadDurationSeconds();
+
+    @Key("load.ramp.seconds")
+    @DefaultValue("0")
+    int loadRampUpSeconds();
+
+    /**
+     * Pause of a worker after each step: none, fixed:<ms>, uniform:<min>:<max> or exponential:<mean>.
+     */
+    @Key("load.think.time")
+    @DefaultValue("none")
+    String loadThinkTime();
+
+    /**
+     * Interval between the requests of a worker. When set, workers send every step on this schedule instead of
+     * thinking, and latencies are measured from the schedule; 0 leaves workers unpaced and estimates the interval
+     * of the coordinated omission correction per step from the think time and the median latency.
+     */
+    @Key("load.expected.interval.millis")
+    @DefaultValue("0")
+    long loadExpectedIntervalMillis();
 }
@@ -0,0 +1,267 @@
+package ru.gordeev.core.data;
+
+import com.github.javafaker.Faker;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import org.aeonbits.owner.ConfigFactory;
+import ru.gordeev.core.config.AppConfig;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Per-thread source of randomness for test data generation.
+ * <p>
+ * Without {@code data.seed} every thread draws from its own unseeded generator.
+ * With a seed, all generated values come from a <i>data stream</i>: either one bound
+ * explicitly via {@link #withStream(long, Supplier)} (e.g. keyed by a Gatling virtual
+ * user id) or, if none is bound, an implicit stream keyed by the current thread name.
+ * An explicit stream's output depends only on the seed and its key, never on which thread
+ * runs it or in which order, so two runs with the same seed produce the same data.
+ * <p>
+ * The implicit stream is <b>not reproducible</b>: it is shared by everything the thread draws
+ * outside {@code withStream}, so its values depend on which work a pooled thread (a Gatling
+ * worker, a fork/join worker) happened to get, and thread names themselves differ between runs.
+ * Data that has to be the same on every run must be drawn on an explicit stream.
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class DataRandom {
+
+    private static final int STREAM_KEY_BITS = 36;
+    private static final int STREAM_SEQUENCE_BITS = 16;
+    private static final int SEED_BITS = 63 - STREAM_KEY_BITS - STREAM_SEQUENCE_BITS;
+
+    /**
+     * Most injectors of a seeded distributed run whose stream ids are guaranteed disjoint.
+     */
+    public static final int SEEDED_INJECTORS = 1 << SEED_BITS;
+
+    private static final AppConfig CONFIG = ConfigFactory.create(AppConfig.class);
+    private static final Long BASE_SEED = CONFIG.dataSeed();
+    private static final int INJECTOR = CONFIG.performanceInjectorIndex();
+    // injectors of a distributed run share the seed but must not share their data
+    private static final Long SEED = BASE_SEED == null ? null : BASE_SEED + INJECTOR;
+    private static final long ID_SEED_PART = BASE_SEED == null ? 0 : idSeedPart(BASE_SEED, INJECTOR);
+    // stream keys use the lower half of the key space, continuations of exhausted streams the upper half
+    private static final long CONTINUATION_KEY = 1L << (STREAM_KEY_BITS - 1);
+    private static final long PRIMARY_KEY_MASK = CONTINUATION_KEY - 1;
+
+    private static final Set<Long> CONTINUATION_KEYS = ConcurrentHashMap.newKeySet();
+
+    private static final ThreadLocal<Context> CONTEXT = ThreadLocal.withInitial(Context::new);
+
+    /**
+     * @return true if {@code data.seed} is configured
+     */
+    public static boolean isSeeded() {
+        return SEED != null;
+    }
+
+    /**
+     * @return the current thread's random generator, positioned on the active stream
+     */
+    public static Random random() {
+        return CONTEXT.get().random;
+    }
+
+    /**
+     * @return the current thread's Faker, backed by {@link #random()}
+     */
+    public static Faker faker() {
+        return CONTEXT.get().faker;
+    }
+
+    /**
+     * Runs the supplier on the data stream identified by {@code streamKey}.
+     * Every call with the same key starts the stream from the beginning, so the key
+     * must be unique per generated item (or per virtual user that generates once).
+     * A virtual user that draws several times uses {@link #stream(long)} instead.
+     * Without a seed the supplier is simply invoked.
+     */
+    public static <T> T withStream(long streamKey, Supplier<T> supplier) {
+        return withStream(stream(streamKey), supplier);
+    }
+
+    /**
+     * @return the data stream identified by {@code streamKey}, positioned at its beginning
+     */
+    public static Stream stream(long streamKey) {
+        Stream stream = new Stream();
+        stream.key = streamKey;
+        stream.state = isSeeded() ? mix(SEED ^ mix(streamKey)) : 0;
+        stream.idKey = streamKey & PRIMARY_KEY_MASK;
+        return stream;
+    }
+
+    /**
+     * Runs the supplier on the given data stream, continuing where its previous run left off.
+     * Without a seed the supplier is simply invoked.
+     */
+    public static <T> T withStream(Stream stream, Supplier<T> supplier) {
+        if (!isSeeded()) {
+            return supplier.get();
+        }
+
+        Context context = CONTEXT.get();
+        Stream previous = context.save(new Stream());
+        context.load(stream);
+        try {
+            return supplier.get();
+        } finally {
+            context.save(stream);
+            context.load(previous);
+        }
+    }
+
+    /**
+     * Returns a unique text for the active stream, or a thread-local unique text without a seed.
+     */
+    public static String uniqueText(String prefix) {
+        if (!isSeeded()) {
+            return UniqueTextGenerator.next(prefix);
+        }
+        Context context = CONTEXT.get();
+        return UniqueTextGenerator.next(prefix, mix(SEED), context.streamKey, context.textCounter++);
+    }
+
+    /**
+     * Returns the next id of the active stream. Ids are positive, unique per
+     * (seed, injector, stream key, sequence) and identical between runs with the same seed.
+     * The injector index is added to the seed bits, so the injectors of a distributed run, up to
+     * {@link #SEEDED_INJECTORS}, never share an id even though their stream keys overlap.
+     * Only the lower 35 bits of the stream key are used. A stream that exhausts its sequence
+     * continues under a key derived from its own in the upper half of the key space, which stream
+     * keys never reach; a derived key already taken in this JVM is derived again.
+     *
+     * @throws IllegalStateException if no seed is configured
+     */
+    public static long nextStreamId() {
+        if (!isSeeded()) {
+            throw new IllegalStateException("Stream ids require data.seed to be configured");
+        }
+        Context context = CONTEXT.get();
+        if (context.idCounter == 1L << STREAM_SEQUENCE_BITS) {
+            context.idKey = continuationKey(context.idKey);
+            context.idCounter = 0;
+        }
+        long keyPart = context.idKey & ((1L << STREAM_KEY_BITS) - 1);
+        return (ID_SEED_PART << (STREAM_KEY_BITS + STREAM_SEQUENCE_BITS))
+                | (keyPart << STREAM_SEQUENCE_BITS)
+                | context.idCounter++;
+    }
+
+    /**
+     * @return the seed bits of the stream ids of the injector, distinct for every index below {@link #SEEDED_INJECTORS}
+     */
+    public static long idSeedPart(long baseSeed, int injector) {
+        return (mix(baseSeed) + injector) & (SEEDED_INJECTORS - 1);
+    }
+
+    private static long continuationKey(long idKey) {
+        long key = idKey;
+        do {
+            key = CONTINUATION_KEY | (mix(key) & PRIMARY_KEY_MASK);
+        } while (!CONTINUATION_KEYS.add(key));
+        return key;
+    }
+
+    /**
+     * SplitMix64 finalizer; spreads neighbouring keys over the whole long range.
+     */
+    public static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class Context {
+        private final StreamRandom random = new StreamRandom();
+        private final Faker faker = new Faker(random);
+        private long streamKey;
+        private long textCounter;
+        private long idKey;
+        private long idCounter;
+
+        private Context() {
+            if (isSeeded()) {
+                // Implicit per-thread stream, keyed by name rather than creation order; see the class doc
+                // for why it is not reproducible
+                load(stream(mix(Thread.currentThread().getName().hashCode()) & Long.MAX_VALUE));
+            } else {
+                random.state = mix(System.nanoTime() ^ Thread.currentThread().getId());
+            }
+        }
+
+        private void load(Stream stream) {
+            streamKey = stream.key;
+            random.state = stream.state;
+            textCounter = stream.textCounter;
+            idKey = stream.idKey;
+            idCounter = stream.idCounter;
+        }
+
+        private Stream save(Stream stream) {
+            stream.key = streamKey;
+            stream.state = random.state;
+            stream.textCounter = textCounter;
+            stream.idKey = idKey;
+            stream.idCounter = idCounter;
+            return stream;
+        }
+    }
+
+    /**
+     * Position of a data stream between runs of {@link #withStream(Stream, Supplier)}.
+     * Like the stream itself, it is meant for one thread at a time, e.g. one virtual user.
+     */
+    public static final class Stream {
+        private long key;
+        private long state;
+        private long textCounter;
+        private long idKey;
+        private long idCounter;
+
+        private Stream() {
+        }
+    }
+
+    /**
+     * SplitMix64-based {@link Random} with a plain, restorable state field.
+     * Not thread-safe by design: each instance is confined to one thread.
+     */
+    private static final class StreamRandom extends Random {
+        private static final long serialVersionUID = 1L;
+
+        private long state;
+
+        @Override
+        public void setSeed(long seed) {
+            state = seed;
+        }
+
+        @Override
+        protected int next(int bits) {
+            return (int) (nextLong() >>> (64 - bits));
+        }
+
+        // Random caches every second gaussian outside of the state field, which would leak between streams
+        @Override
+        public double nextGaussian() {
+            double u1 = 1.0 - nextDouble();
+            double u2 = nextDouble();
+            return Math.sqrt(-2.0 * Math.log(u1)) * Math.cos(2.0 * Math.PI * u2);
+        }
+
+        @Override
+        public long nextLong() {
+            state += 0x9E3779B97F4A7C15L;
+            long z = state;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package ru.gordeev.core.data;
+
+import java.util.Random;
+
+/**
+ * Hotspot key popularity: a hot set of the first {@code hotSetFraction} of the keys receives
+ * {@code hotOpFraction} of the draws, the remaining keys share the rest uniformly.
+ * E.g. 1% of the keys receiving 90% of the traffic.
+ */
+public class HotspotKeySampler implements KeySampler {
+
+    private final int keyCount;
+    private final int hotKeys;
+    private final double hotOpFraction;
+
+    public HotspotKeySampler(int keyCount, double hotSetFraction, double hotOpFraction) {
+        if (keyCount < 1) {
+            throw new IllegalArgumentException("Key count must be positive, got " + keyCount);
+        }
+        if (!(hotSetFraction >= 0 && hotSetFraction <= 1 && hotOpFraction >= 0 && hotOpFraction <= 1)) {
+            throw new IllegalArgumentException("Hotspot fractions must be in [0, 1], got %s and %s"
+                    .formatted(hotSetFraction, hotOpFraction));
+        }
+        this.keyCount = keyCount;
+        this.hotKeys = Math.max(1, (int) Math.round(keyCount * hotSetFraction));
+        this.hotOpFraction = hotOpFraction;
+    }
+
+    @Override
+    public int sample(Random random) {
+        if (hotKeys == keyCount || random.nextDouble() < hotOpFraction) {
+            return random.nextInt(hotKeys);
+        }
+        return hotKeys + random.nextInt(keyCount - hotKeys);
+    }
+
+    @Override
+    public int keyCount() {
+        return keyCount;
+    }
+
+    public int hotKeys() {
+        return hotKeys;
+    }
+}
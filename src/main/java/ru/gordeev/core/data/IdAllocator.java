@@ -0,0 +1,10 @@
+package ru.gordeev.core.data;
+
+/**
+ * Source of unique, positive long ids for test entities.
+ * Implementations must be thread-safe.
+ */
+public interface IdAllocator {
+
+    long nextId();
+}
@@ -0,0 +1,104 @@
+package ru.gordeev.core.data;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aeonbits.owner.ConfigFactory;
+import ru.gordeev.core.config.AppConfig;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Factory and shared instance of the configured {@link IdAllocator}.
+ * <ul>
+ *   <li>{@code data.seed} set: ids come from the active {@link DataRandom} stream.</li>
+ *   <li>{@code ids.lease.file} set: ids are leased in blocks from the file.</li>
+ *   <li>otherwise: Snowflake ids with {@code ids.node.id}, or one derived from host name and pid.</li>
+ * </ul>
+ */
+@Slf4j
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class IdAllocators {
+
+    /**
+     * Returns the next id from the shared allocator.
+     */
+    public static long nextId() {
+        return DataRandom.isSeeded() ? DataRandom.nextStreamId() : Holder.SHARED.nextId();
+    }
+
+    /**
+     * @return the allocator shared by all threads of this JVM
+     */
+    public static IdAllocator shared() {
+        return Holder.SHARED;
+    }
+
+    /**
+     * Creates a new allocator from the id settings of the given config.
+     */
+    public static IdAllocator fromConfig(AppConfig config) {
+        int nodeBits = config.idsNodeBits();
+        long nodeId = config.idsNodeId() != null ? config.idsNodeId() : defaultNodeId(nodeBits);
+        SnowflakeIdAllocator snowflake = new SnowflakeIdAllocator(
+                nodeId, nodeBits, config.idsSequenceBits(), config.idsEpochMillis());
+
+        String leaseFile = config.idsLeaseFile();
+        if (leaseFile == null || leaseFile.isBlank()) {
+            log.debug("Using Snowflake ids with node id {}", nodeId);
+            return snowflake;
+        }
+
+        Path path = Path.of(leaseFile);
+        createParentDirectories(path);
+        log.debug("Leasing ids in blocks of {} from {}", config.idsLeaseBlockSize(), path);
+        // A fresh lease file starts at the current Snowflake position so ids stay above earlier runs
+        return new LeasedBlockIdAllocator(path, config.idsLeaseBlockSize(),
+                () -> snowflake.compose(snowflake.currentTimestamp(), 0));
+    }
+
+    /**
+     * Node id of this JVM when {@code ids.node.id} is not set: host name and pid hashed into {@code nodeBits} bits.
+     * Containers all run their JVM as the same pid, so the pid alone would give every host the same node id.
+     * Two hosts may still hash alike; distributed runs should set {@code ids.node.id} explicitly.
+     */
+    public static long defaultNodeId(int nodeBits) {
+        long hash = hostName().hashCode() * 0x9E3779B97F4A7C15L + ProcessHandle.current().pid();
+        hash ^= hash >>> 31;
+        hash *= 0xBF58476D1CE4E5B9L;
+        hash ^= hash >>> 29;
+        return hash & ((1L << nodeBits) - 1);
+    }
+
+    private static String hostName() {
+        String env = System.getenv("HOSTNAME");
+        if (env != null && !env.isBlank()) {
+            return env;
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "localhost";
+        }
+    }
+
+    private static void createParentDirectories(Path file) {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create directory for " + file, e);
+        }
+    }
+
+    private static final class Holder {
+        private static final IdAllocator SHARED = fromConfig(ConfigFactory.create(AppConfig.class));
+    }
+}
@@ -0,0 +1,16 @@
+package ru.gordeev.core.data;
+
+import java.util.Random;
+
+/**
+ * Picks key ranks {@code 0..keyCount()-1} from a popularity distribution; rank 0 is the most popular key.
+ * <p>
+ * Implementations keep no mutable state: the randomness comes from the caller, e.g. the
+ * {@link DataRandom} stream of a virtual user, so samplers are lock-free and can be shared by all threads.
+ */
+public interface KeySampler {
+
+    int sample(Random random);
+
+    int keyCount();
+}
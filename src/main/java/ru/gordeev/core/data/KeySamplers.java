@@ -0,0 +1,50 @@
+package ru.gordeev.core.data;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import ru.gordeev.core.config.AppConfig;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Factory of {@link KeySampler}s.
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class KeySamplers {
+
+    /**
+     * Every key is equally likely.
+     */
+    public static KeySampler uniform(int keyCount) {
+        if (keyCount < 1) {
+            throw new IllegalArgumentException("Key count must be positive, got " + keyCount);
+        }
+        return new KeySampler() {
+            @Override
+            public int sample(Random random) {
+                return random.nextInt(keyCount);
+            }
+
+            @Override
+            public int keyCount() {
+                return keyCount;
+            }
+        };
+    }
+
+    /**
+     * Creates the sampler selected by {@code performance.hotkey.distribution}.
+     */
+    public static KeySampler fromConfig(AppConfig config, int keyCount) {
+        String distribution = config.performanceHotkeyDistribution().toLowerCase(Locale.ROOT);
+        return switch (distribution) {
+            case "zipfian" -> new ZipfianKeySampler(keyCount, config.performanceHotkeyZipfTheta());
+            case "hotspot" -> new HotspotKeySampler(keyCount,
+                    config.performanceHotkeyHotSetFraction(), config.performanceHotkeyHotOpFraction());
+            case "uniform" -> uniform(keyCount);
+            default -> throw new IllegalArgumentException(
+                    "Unknown key distribution '%s', expected zipfian, hotspot or uniform".formatted(distribution));
+        };
+    }
+}
@@ -0,0 +1,89 @@
+package ru.gordeev.core.data;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Id allocator that leases contiguous id blocks from a file shared by all injector
+ * JVMs on the same host.
+ * <p>
+ * The lease file holds a single big-endian long: the next id nobody has leased yet.
+ * A lease takes an exclusive file lock, advances that value by the block size and
+ * releases the lock, so blocks handed to different threads or JVMs never overlap.
+ * Each thread then serves ids from its own block without any synchronisation.
+ */
+@Slf4j
+public class LeasedBlockIdAllocator implements IdAllocator {
+
+    // FileChannel locks are per JVM and a second lock on the same file throws, so allocators of
+    // one JVM sharing a lease file are serialised here first
+    private static final Map<Path, Object> LEASE_LOCKS = new ConcurrentHashMap<>();
+
+    private final Path leaseFile;
+    private final int blockSize;
+    private final LongSupplier initialValue;
+    private final Object leaseLock;
+
+    private final ThreadLocal<long[]> block = ThreadLocal.withInitial(() -> new long[]{0, 0});
+
+    /**
+     * @param leaseFile    shared lease file, created if missing
+     * @param blockSize    number of ids leased at once
+     * @param initialValue first id handed out when the lease file is new or empty
+     */
+    public LeasedBlockIdAllocator(Path leaseFile, int blockSize, LongSupplier initialValue) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Lease block size must be positive: " + blockSize);
+        }
+        this.leaseFile = leaseFile;
+        this.blockSize = blockSize;
+        this.initialValue = initialValue;
+        this.leaseLock = LEASE_LOCKS.computeIfAbsent(leaseFile.toAbsolutePath().normalize(), key -> new Object());
+    }
+
+    @Override
+    public long nextId() {
+        long[] range = block.get();
+        if (range[0] == range[1]) {
+            range[0] = lease(blockSize);
+            range[1] = range[0] + blockSize;
+        }
+        return range[0]++;
+    }
+
+    /**
+     * Leases {@code count} consecutive ids and returns the first one.
+     */
+    public long lease(long count) {
+        synchronized (leaseLock) {
+            try (FileChannel channel = FileChannel.open(leaseFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // closing the channel releases the lock as well
+                channel.lock();
+
+                ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+                long start = channel.read(buffer, 0) == Long.BYTES
+                        ? buffer.flip().getLong()
+                        : initialValue.getAsLong();
+
+                buffer.clear().putLong(start + count).flip();
+                channel.write(buffer, 0);
+                channel.force(false);
+
+                log.debug("Leased ids [{}, {}) from {}", start, start + count, leaseFile);
+                return start;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to lease ids from " + leaseFile, e);
+            }
+        }
+    }
+}
@@ -1,20 +1,38 @@
 package ru.gordeev.core.data;
 
-import com.github.javafaker.Faker;
-
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 import java.util.function.Supplier;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 /**
  * Generic builder for test data.
  * Provides fluent API for creating test entities.
+ * <p>
+ * Bulk methods ({@link #stream()}, {@link #parallelBuildList(int)}, {@link #buildInto})
+ * build element {@code i} on its own {@link DataRandom} stream, so with {@code data.seed}
+ * set their output is the same whether it is produced sequentially or in parallel.
+ * Every bulk call reserves a range of stream keys of its own, so two calls never repeat each other's
+ * elements; runs that make the same calls in the same order produce the same data.
  */
 public class ModelBuilder<T> {
 
-    private static final Faker FAKER = new Faker();
+    // Keeps bulk element streams clear of the small stream keys used by virtual users,
+    // within the 35 key bits of stream ids
+    private static final long BULK_STREAM_BASE = 1L << 34;
+    private static final long BULK_STREAM_END = 1L << 35;
+    // keys reserved by one call of stream(), which has no count to reserve by
+    static final long STREAM_KEYS = 1L << 24;
+    private static final int MIN_SPLIT_SIZE = 1024;
+    private static final AtomicLong NEXT_BULK_KEY = new AtomicLong(BULK_STREAM_BASE);
+
     private final Supplier<T> defaultSupplier;
 
     private ModelBuilder(Supplier<T> defaultSupplier) {
@@ -48,39 +66,139 @@ public class ModelBuilder<T> {
      * Builds multiple entities.
      */
     public List<T> buildList(int count) {
-        List<T> list = new ArrayList<>();
+        List<T> list = new ArrayList<>(count);
         for (int i = 0; i < count; i++) {
             list.add(build());
         }
         return list;
     }
 
+    /**
+     * Lazy stream of up to {@value #STREAM_KEYS} entities. Nothing is built until consumed,
+     * and the stream splits well when made parallel.
+     */
+    public Stream<T> stream() {
+        long base = reserveKeys(STREAM_KEYS);
+        return LongStream.range(0, STREAM_KEYS).mapToObj(i -> buildAt(base, i));
+    }
+
+    /**
+     * Builds multiple entities on all cores of the common fork/join pool.
+     *
+     * @return a fixed-size list backed by a presized array
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> parallelBuildList(int count) {
+        Object[] items = new Object[count];
+        long base = reserveKeys(count);
+        ForkJoinPool.commonPool().invoke(new BuildTask(0, count, splitSize(count),
+                i -> items[(int) i] = buildAt(base, i)));
+        return (List<T>) Arrays.asList(items);
+    }
+
+    /**
+     * Builds entities one by one and pushes each into the sink, so only the
+     * sink decides what is kept on the heap.
+     */
+    public void buildInto(long count, Consumer<? super T> sink) {
+        long base = reserveKeys(count);
+        for (long i = 0; i < count; i++) {
+            sink.accept(buildAt(base, i));
+        }
+    }
+
+    /**
+     * Parallel variant of {@link #buildInto}; the sink is called concurrently
+     * from fork/join workers and must be thread-safe.
+     */
+    public void parallelBuildInto(long count, Consumer<? super T> sink) {
+        parallelBuildInto(0, count, sink);
+    }
+
+    /**
+     * Builds the elements with indexes {@code [fromIndex, toIndex)} in parallel, e.g. to grow
+     * a data set built earlier. Like every bulk call, it does not repeat the elements of earlier calls.
+     */
+    public void parallelBuildInto(long fromIndex, long toIndex, Consumer<? super T> sink) {
+        long base = reserveKeys(toIndex - fromIndex) - fromIndex;
+        ForkJoinPool.commonPool().invoke(new BuildTask(fromIndex, toIndex, splitSize(toIndex - fromIndex),
+                i -> sink.accept(buildAt(base, i))));
+    }
+
+    private T buildAt(long base, long index) {
+        return DataRandom.withStream(base + index, defaultSupplier);
+    }
+
+    /**
+     * @return the first of {@code count} stream keys no other bulk call of this JVM uses
+     * @throws IllegalStateException once the bulk key range is used up
+     */
+    private static long reserveKeys(long count) {
+        long base = NEXT_BULK_KEY.getAndAdd(count);
+        if (base + count > BULK_STREAM_END || base + count < base) {
+            throw new IllegalStateException("Bulk builds used up all %d stream keys"
+                    .formatted(BULK_STREAM_END - BULK_STREAM_BASE));
+        }
+        return base;
+    }
+
+    private static long splitSize(long count) {
+        return Math.max(MIN_SPLIT_SIZE, count / (ForkJoinPool.getCommonPoolParallelism() * 8L));
+    }
+
+    /**
+     * Splits an index range in halves until it is small enough to build sequentially.
+     */
+    private static final class BuildTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;
+        private final long splitSize;
+        private final LongConsumer action;
+
+        private BuildTask(long from, long to, long splitSize, LongConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.splitSize = splitSize;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= splitSize) {
+                for (long i = from; i < to; i++) {
+                    action.accept(i);
+                }
+                return;
+            }
+            long middle = (from + to) >>> 1;
+            invokeAll(new BuildTask(from, middle, splitSize, action), new BuildTask(middle, to, splitSize, action));
+        }
+    }
+
     // Utility methods for common data generation
     public static String uniqueText(String prefix) {
-        return String.format("%s_%s_%d",
-                prefix,
-                UUID.randomUUID().toString().substring(0, 8),
-                System.currentTimeMillis()
-        );
+        return DataRandom.uniqueText(prefix);
     }
 
     public static String randomText() {
-        return FAKER.lorem().sentence();
+        return DataRandom.faker().lorem().sentence();
     }
 
     public static boolean randomBoolean() {
-        return FAKER.bool().bool();
+        return DataRandom.faker().bool().bool();
     }
 
     public static long randomLong(long min, long max) {
-        return FAKER.number().numberBetween(min, max);
+        return DataRandom.faker().number().numberBetween(min, max);
     }
 
     public static String randomEmail() {
-        return FAKER.internet().emailAddress();
+        return DataRandom.faker().internet().emailAddress();
     }
 
     public static String randomPhone() {
-        return FAKER.phoneNumber().phoneNumber();
+        return DataRandom.faker().phoneNumber().phoneNumber();
     }
 }
\ No newline at end of file
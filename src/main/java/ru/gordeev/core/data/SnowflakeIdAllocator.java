@@ -0,0 +1,77 @@
+package ru.gordeev.core.data;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style id allocator: {@code [timestamp | node id | sequence]} packed into 63 bits.
+ * <p>
+ * Ids are unique across JVMs as long as every concurrently running JVM has its own node id.
+ * The timestamp is a logical clock: it never goes backwards, and when the sequence of the
+ * current millisecond is exhausted it borrows the next millisecond instead of spinning.
+ * State is a single {@link AtomicLong} updated with CAS, so allocation is lock-free.
+ */
+public class SnowflakeIdAllocator implements IdAllocator {
+
+    private final long epochMillis;
+    private final int nodeBits;
+    private final int sequenceBits;
+    private final long nodeId;
+    private final long maxSequence;
+    private final long maxTimestamp;
+
+    // (timestamp << sequenceBits) | sequence of the last issued id
+    private final AtomicLong lastState = new AtomicLong(-1);
+
+    public SnowflakeIdAllocator(long nodeId, int nodeBits, int sequenceBits, long epochMillis) {
+        if (nodeBits < 0 || sequenceBits < 1 || nodeBits + sequenceBits > 24) {
+            throw new IllegalArgumentException(
+                    "Invalid id layout: %d node bits, %d sequence bits".formatted(nodeBits, sequenceBits));
+        }
+        if (nodeId < 0 || nodeId >= 1L << nodeBits) {
+            throw new IllegalArgumentException(
+                    "Node id %d does not fit into %d bits".formatted(nodeId, nodeBits));
+        }
+        this.epochMillis = epochMillis;
+        this.nodeBits = nodeBits;
+        this.sequenceBits = sequenceBits;
+        this.nodeId = nodeId;
+        this.maxSequence = (1L << sequenceBits) - 1;
+        this.maxTimestamp = (1L << (63 - nodeBits - sequenceBits)) - 1;
+    }
+
+    @Override
+    public long nextId() {
+        while (true) {
+            long last = lastState.get();
+            long now = currentTimestamp();
+            long lastTimestamp = last >>> sequenceBits;
+
+            long next;
+            if (last < 0 || now > lastTimestamp) {
+                next = now << sequenceBits;
+            } else if ((last & maxSequence) < maxSequence) {
+                next = last + 1;
+            } else {
+                next = (lastTimestamp + 1) << sequenceBits;
+            }
+
+            if (lastState.compareAndSet(last, next)) {
+                return compose(next >>> sequenceBits, next & maxSequence);
+            }
+        }
+    }
+
+    /**
+     * Composes an id from its parts. Exposed for lease initialisation.
+     */
+    public long compose(long timestamp, long sequence) {
+        if (timestamp > maxTimestamp) {
+            throw new IllegalStateException("Id timestamp overflow; move ids.epoch.millis forward");
+        }
+        return (timestamp << (nodeBits + sequenceBits)) | (nodeId << sequenceBits) | sequence;
+    }
+
+    public long currentTimestamp() {
+        return Math.max(0, System.currentTimeMillis() - epochMillis);
+    }
+}
@@ -0,0 +1,99 @@
+package ru.gordeev.core.data;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * One request of a replayable request trace.
+ * <p>
+ * A trace is a text file with one request per line and tab-separated fields:
+ * {@code <epoch millis> <method> <path with query> <body file> [<headers>]}. The body file is a name in the
+ * {@code <trace file>.bodies} directory next to the trace, or {@code -} for a request without body.
+ * The optional headers are URL-encoded {@code name=value} pairs joined by {@code &}, as in a query string.
+ * Empty lines and lines starting with {@code #} are ignored. Records must be ordered by timestamp.
+ * <p>
+ * Credential headers ({@link #isCredential}) hold {@value #REDACTED} unless the recorder was told to keep them;
+ * a replay sends its own credentials in their place.
+ */
+public record TraceRecord(long timestampMillis, String method, String path, String bodyRef, Map<String, String> headers) {
+
+    public static final String NO_BODY = "-";
+    public static final String BODIES_SUFFIX = ".bodies";
+
+    public static final String REDACTED = "redacted";
+
+    private static final String SEPARATOR = "\t";
+    private static final Set<String> CREDENTIAL_HEADERS = Set.of("authorization", "proxy-authorization", "cookie");
+
+    public TraceRecord {
+        headers = Collections.unmodifiableMap(new LinkedHashMap<>(headers));
+    }
+
+    public TraceRecord(long timestampMillis, String method, String path, String bodyRef) {
+        this(timestampMillis, method, path, bodyRef, Map.of());
+    }
+
+    /**
+     * @return the record of the line, or {@code null} for an empty or comment line
+     * @throws IllegalArgumentException if the line is not a valid record
+     */
+    public static TraceRecord parse(String line) {
+        if (line.isBlank() || line.startsWith("#")) {
+            return null;
+        }
+        String[] fields = line.split(SEPARATOR, -1);
+        if (fields.length != 4 && fields.length != 5) {
+            throw new IllegalArgumentException(
+                    "Invalid trace line '%s', expected <timestamp> <method> <path> <body> [<headers>] separated by tabs"
+                            .formatted(line));
+        }
+        try {
+            return new TraceRecord(Long.parseLong(fields[0].trim()), fields[1].trim(), fields[2].trim(), fields[3].trim(),
+                    fields.length == 5 ? parseHeaders(fields[4].trim()) : Map.of());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid timestamp in trace line '%s'".formatted(line), e);
+        }
+    }
+
+    private static Map<String, String> parseHeaders(String field) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        if (field.isEmpty()) {
+            return headers;
+        }
+        for (String pair : field.split("&")) {
+            String[] nameAndValue = pair.split("=", 2);
+            headers.put(URLDecoder.decode(nameAndValue[0], StandardCharsets.UTF_8),
+                    nameAndValue.length == 2 ? URLDecoder.decode(nameAndValue[1], StandardCharsets.UTF_8) : "");
+        }
+        return headers;
+    }
+
+    /**
+     * @return true for headers that carry credentials and are redacted by default
+     */
+    public static boolean isCredential(String headerName) {
+        return CREDENTIAL_HEADERS.contains(headerName.toLowerCase(Locale.ROOT));
+    }
+
+    public boolean hasBody() {
+        return !NO_BODY.equals(bodyRef);
+    }
+
+    public String format() {
+        String line = String.join(SEPARATOR, Long.toString(timestampMillis), method, path, bodyRef);
+        if (headers.isEmpty()) {
+            return line;
+        }
+        return line + SEPARATOR + headers.entrySet().stream()
+                .map(header -> URLEncoder.encode(header.getKey(), StandardCharsets.UTF_8)
+                        + "=" + URLEncoder.encode(header.getValue(), StandardCharsets.UTF_8))
+                .collect(Collectors.joining("&"));
+    }
+}
@@ -0,0 +1,111 @@
+package ru.gordeev.core.data;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contention-free generator of unique text suffixes.
+ * <p>
+ * Every suffix is composed of a per-JVM node salt, a per-thread index and a
+ * per-thread counter, all base-36 encoded into a reusable thread-local char buffer.
+ * The salt and thread index have a fixed width, so the variable-length counter
+ * at the end never makes two suffixes collide. No shared state is touched after
+ * a thread's first call. Past 36^4 threads the index wraps and the salt moves on by one,
+ * so a JVM that keeps creating threads never repeats a suffix either.
+ * <p>
+ * Seeded data streams use {@link #next(String, long, long, long)} instead, where the
+ * salt comes from the seed and the thread index is replaced by the stream key.
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class UniqueTextGenerator {
+
+    private static final char[] DIGITS = "0123456789abcdefghijklmnopqrstuvwxyz".toCharArray();
+    private static final int RADIX = 36;
+    private static final int SALT_WIDTH = 6;
+    private static final int THREAD_WIDTH = 4;
+    private static final int MAX_COUNTER_WIDTH = 13; // Long.MAX_VALUE in base 36
+    private static final long THREAD_SPACE = 36 * 36 * 36 * 36; // RADIX ^ THREAD_WIDTH
+
+    private static final long NODE_SALT = new SecureRandom().nextLong() & Long.MAX_VALUE;
+    private static final AtomicLong THREAD_INDEX = new AtomicLong();
+
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(() -> {
+        long index = THREAD_INDEX.getAndIncrement();
+        return new State(NODE_SALT + index / THREAD_SPACE, index % THREAD_SPACE);
+    });
+
+    /**
+     * Returns {@code prefix + "_" + suffix}, unique within this JVM and
+     * practically unique across JVMs.
+     */
+    public static String next(String prefix) {
+        return STATE.get().next(prefix);
+    }
+
+    /**
+     * Returns a reproducible unique text for the given seed, stream key and per-stream counter.
+     */
+    public static String next(String prefix, long seed, long streamKey, long counter) {
+        return STATE.get().next(prefix, seed, streamKey, counter);
+    }
+
+    private static final class State {
+        private final char[] salt = new char[SALT_WIDTH + THREAD_WIDTH];
+        private char[] buffer = new char[64];
+        private long counter;
+
+        private State(long nodeSalt, long threadIndex) {
+            writeFixed(salt, 0, SALT_WIDTH, nodeSalt & Long.MAX_VALUE);
+            writeFixed(salt, SALT_WIDTH, THREAD_WIDTH, threadIndex);
+        }
+
+        private String next(String prefix) {
+            int pos = writePrefix(prefix, salt.length + MAX_COUNTER_WIDTH);
+            System.arraycopy(salt, 0, buffer, pos, salt.length);
+            pos += salt.length;
+            pos = writeVariable(buffer, pos, counter++);
+            return new String(buffer, 0, pos);
+        }
+
+        private String next(String prefix, long seed, long streamKey, long streamCounter) {
+            int pos = writePrefix(prefix, SALT_WIDTH + 2 * MAX_COUNTER_WIDTH + 1);
+            writeFixed(buffer, pos, SALT_WIDTH, seed & Long.MAX_VALUE);
+            pos += SALT_WIDTH;
+            pos = writeVariable(buffer, pos, streamKey & Long.MAX_VALUE);
+            buffer[pos++] = '-';
+            pos = writeVariable(buffer, pos, streamCounter);
+            return new String(buffer, 0, pos);
+        }
+
+        private int writePrefix(String prefix, int suffixCapacity) {
+            int required = prefix.length() + 1 + suffixCapacity;
+            if (buffer.length < required) {
+                buffer = new char[required];
+            }
+            int pos = prefix.length();
+            prefix.getChars(0, pos, buffer, 0);
+            buffer[pos++] = '_';
+            return pos;
+        }
+    }
+
+    private static void writeFixed(char[] target, int offset, int width, long value) {
+        long remaining = value;
+        for (int i = offset + width - 1; i >= offset; i--) {
+            target[i] = DIGITS[(int) (remaining % RADIX)];
+            remaining /= RADIX;
+        }
+    }
+
+    private static int writeVariable(char[] target, int offset, long value) {
+        int width = 1;
+        for (long v = value / RADIX; v > 0; v /= RADIX) {
+            width++;
+        }
+        writeFixed(target, offset, width, value);
+        return offset + width;
+    }
+}
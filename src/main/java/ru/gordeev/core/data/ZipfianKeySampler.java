@@ -0,0 +1,66 @@
+package ru.gordeev.core.data;
+
+import java.util.Random;
+
+/**
+ * Zipfian key popularity: the key of rank {@code r} is drawn with probability proportional to
+ * {@code 1 / (r + 1)^theta}. With the usual {@code theta = 0.99} a few keys take most of the traffic.
+ * <p>
+ * Uses the constant-time method of Gray et al. ("Quickly generating billion-record synthetic databases"):
+ * the zeta constants are computed once, then every sample costs one random draw and one {@code pow}.
+ */
+public class ZipfianKeySampler implements KeySampler {
+
+    private final int keyCount;
+    private final double theta;
+    private final double zetaN;
+    private final double alpha;
+    private final double eta;
+    private final double secondKeyThreshold;
+
+    public ZipfianKeySampler(int keyCount, double theta) {
+        if (keyCount < 1) {
+            throw new IllegalArgumentException("Key count must be positive, got " + keyCount);
+        }
+        if (!(theta > 0 && theta < 1)) {
+            throw new IllegalArgumentException("Zipfian theta must be in (0, 1), got " + theta);
+        }
+        this.keyCount = keyCount;
+        this.theta = theta;
+        this.zetaN = zeta(keyCount, theta);
+        this.alpha = 1.0 / (1.0 - theta);
+        this.eta = (1 - Math.pow(2.0 / keyCount, 1 - theta)) / (1 - zeta(2, theta) / zetaN);
+        this.secondKeyThreshold = 1 + Math.pow(0.5, theta);
+    }
+
+    @Override
+    public int sample(Random random) {
+        double u = random.nextDouble();
+        double uz = u * zetaN;
+        if (uz < 1.0) {
+            return 0;
+        }
+        if (uz < secondKeyThreshold) {
+            return Math.min(1, keyCount - 1);
+        }
+        int rank = (int) (keyCount * Math.pow(eta * u - eta + 1, alpha));
+        return Math.min(rank, keyCount - 1);
+    }
+
+    @Override
+    public int keyCount() {
+        return keyCount;
+    }
+
+    public double theta() {
+        return theta;
+    }
+
+    private static double zeta(int n, double theta) {
+        double sum = 0;
+        for (int i = 1; i <= n; i++) {
+            sum += 1 / Math.pow(i, theta);
+        }
+        return sum;
+    }
+}
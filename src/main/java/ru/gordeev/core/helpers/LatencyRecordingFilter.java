@@ -0,0 +1,50 @@
+package ru.gordeev.core.helpers;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import ru.gordeev.core.latency.CoordinatedOmissionRecorder;
+import ru.gordeev.core.latency.IntendedStart;
+
+import java.net.URI;
+import java.util.regex.Pattern;
+
+/**
+ * REST Assured filter that records every request into a {@link CoordinatedOmissionRecorder}, measured from
+ * its {@link IntendedStart#forRequest intended start} under the caller's schedule, if any. Requests are named by method and path
+ * with numeric segments replaced, e.g. {@code PUT /todos/{id}}. A status of 400 or above counts as an error,
+ * and so does a request that gets no response at all.
+ */
+public class LatencyRecordingFilter implements Filter {
+
+    private static final Pattern NUMERIC_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    private final CoordinatedOmissionRecorder recorder;
+
+    public LatencyRecordingFilter(CoordinatedOmissionRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+                           FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        long start = System.nanoTime();
+        long intendedStart = IntendedStart.forRequest(start);
+        boolean ok = false;
+        try {
+            Response response = ctx.next(requestSpec, responseSpec);
+            ok = response.statusCode() < 400;
+            return response;
+        } finally {
+            recorder.record(name(requestSpec), intendedStart, start, System.nanoTime(), ok);
+        }
+    }
+
+    private static String name(FilterableRequestSpecification requestSpec) {
+        String path = URI.create(requestSpec.getURI()).getRawPath();
+        return requestSpec.getMethod() + " " + NUMERIC_SEGMENT.matcher(path).replaceAll("/{id}");
+    }
+}
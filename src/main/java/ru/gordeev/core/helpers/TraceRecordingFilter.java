@@ -0,0 +1,177 @@
+package ru.gordeev.core.helpers;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.http.Header;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import lombok.extern.slf4j.Slf4j;
+import ru.gordeev.core.data.TraceRecord;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * REST Assured filter that appends every request to a {@link TraceRecord} trace,
+ * so a functional test run can be replayed as load by the trace replay simulation.
+ * Request headers are recorded along with the request; bodies go to the trace's bodies directory.
+ * Credential headers are recorded as {@link TraceRecord#REDACTED} unless {@code recordCredentials} is set,
+ * as traces are plain files that get shared and committed.
+ * <p>
+ * Requests complete out of order, so a finished request is held back until every request started before it has
+ * finished too, which keeps the trace in timestamp order. {@link #close()} writes whatever is still held back.
+ */
+@Slf4j
+public class TraceRecordingFilter implements Filter, Closeable {
+
+    // set by the HTTP client from the request itself, replaying them would only get in the way
+    private static final Set<String> SKIPPED_HEADERS = Set.of("content-length", "host", "connection", "transfer-encoding");
+
+    private final Path bodiesDir;
+    private final boolean recordCredentials;
+    private final BufferedWriter writer;
+    // start timestamps of the requests still running, with the number of requests that started at each
+    private final TreeMap<Long, Integer> running = new TreeMap<>();
+    private final PriorityQueue<TraceRecord> finished = new PriorityQueue<>(Comparator.comparingLong(TraceRecord::timestampMillis));
+    private long bodies;
+    private boolean closed;
+
+    private TraceRecordingFilter(Path traceFile, boolean recordCredentials) throws IOException {
+        this.recordCredentials = recordCredentials;
+        Path absolute = traceFile.toAbsolutePath();
+        this.bodiesDir = absolute.resolveSibling(absolute.getFileName() + TraceRecord.BODIES_SUFFIX);
+        Files.createDirectories(bodiesDir);
+        this.writer = Files.newBufferedWriter(absolute, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Appends to the trace file, creating it and its bodies directory if needed.
+     *
+     * @param recordCredentials keep Authorization and Cookie values instead of redacting them
+     */
+    public static TraceRecordingFilter toFile(String traceFile, boolean recordCredentials) {
+        try {
+            log.info("Recording request trace to {}", traceFile);
+            if (recordCredentials) {
+                log.warn("The request trace {} records credentials, do not share or commit it", traceFile);
+            }
+            return new TraceRecordingFilter(Path.of(traceFile), recordCredentials);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open request trace " + traceFile, e);
+        }
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+                           FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        long timestamp = started();
+        try {
+            return ctx.next(requestSpec, responseSpec);
+        } finally {
+            try {
+                record(timestamp, requestSpec);
+            } catch (IOException e) {
+                log.warn("Failed to record {} {} to the trace: {}", requestSpec.getMethod(), requestSpec.getURI(), e.getMessage());
+            }
+        }
+    }
+
+    // the timestamp is taken under the lock, so no request can start earlier than a running one after it is seen
+    private synchronized long started() {
+        long timestamp = System.currentTimeMillis();
+        running.merge(timestamp, 1, Integer::sum);
+        return timestamp;
+    }
+
+    private synchronized void record(long timestamp, FilterableRequestSpecification requestSpec) throws IOException {
+        running.computeIfPresent(timestamp, (key, count) -> count == 1 ? null : count - 1);
+        if (closed) {
+            log.warn("Trace already closed, {} {} is not recorded", requestSpec.getMethod(), requestSpec.getURI());
+            return;
+        }
+        URI uri = URI.create(requestSpec.getURI());
+        String path = uri.getRawQuery() == null ? uri.getRawPath() : uri.getRawPath() + "?" + uri.getRawQuery();
+        finished.add(new TraceRecord(timestamp, requestSpec.getMethod(), path, writeBody(requestSpec.getBody()),
+                headers(requestSpec)));
+        writeFinished(running.isEmpty() ? Long.MAX_VALUE : running.firstKey());
+    }
+
+    private Map<String, String> headers(FilterableRequestSpecification requestSpec) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (Header header : requestSpec.getHeaders()) {
+            if (SKIPPED_HEADERS.contains(header.getName().toLowerCase(Locale.ROOT))) {
+                continue;
+            }
+            if (!recordCredentials && TraceRecord.isCredential(header.getName())) {
+                headers.put(header.getName(), TraceRecord.REDACTED);
+            } else {
+                headers.merge(header.getName(), header.getValue(), (first, next) -> first + ", " + next);
+            }
+        }
+        return headers;
+    }
+
+    /**
+     * Writes the finished records that started before the given timestamp, oldest first.
+     */
+    private void writeFinished(long before) throws IOException {
+        boolean written = false;
+        while (!finished.isEmpty() && finished.peek().timestampMillis() <= before) {
+            writer.write(finished.poll().format());
+            writer.newLine();
+            written = true;
+        }
+        if (written) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Writes the records still held back and closes the trace. Requests that finish afterwards are not recorded.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writeFinished(Long.MAX_VALUE);
+        } catch (IOException e) {
+            log.warn("Failed to write the end of the request trace: {}", e.getMessage());
+        }
+        try {
+            writer.close();
+            log.info("Request trace closed");
+        } catch (IOException e) {
+            log.warn("Failed to close the request trace: {}", e.getMessage());
+        }
+    }
+
+    private String writeBody(Object body) throws IOException {
+        if (body == null) {
+            return TraceRecord.NO_BODY;
+        }
+        String bodyRef = "%d-%d.json".formatted(ProcessHandle.current().pid(), ++bodies);
+        byte[] content = body instanceof byte[] bytes ? bytes : body.toString().getBytes(StandardCharsets.UTF_8);
+        Files.write(bodiesDir.resolve(bodyRef), content);
+        return bodyRef;
+    }
+}
@@ -0,0 +1,102 @@
+package ru.gordeev.core.latency;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records each request twice, keyed by request name: the service time from the actual send, and the
+ * response time from the intended send of its schedule (see {@link RequestSchedule}, {@link IntendedStart}).
+ * <p>
+ * When a response stalls, a load generator sends the next request late and the service time alone never
+ * shows the wait; the response time does, so its percentiles are the ones users experience.
+ * Recording is wait-free; latencies are kept in microseconds.
+ */
+public class CoordinatedOmissionRecorder {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<String, Stats> byName = new ConcurrentHashMap<>();
+
+    /**
+     * @param intendedStartNanos scheduled send time; {@code startNanos} if the request was not scheduled
+     */
+    public void record(String name, long intendedStartNanos, long startNanos, long endNanos, boolean ok) {
+        byName.computeIfAbsent(name, key -> new Stats()).record(
+                TimeUnit.NANOSECONDS.toMicros(endNanos - startNanos),
+                TimeUnit.NANOSECONDS.toMicros(endNanos - Math.min(intendedStartNanos, startNanos)),
+                ok);
+    }
+
+    /**
+     * Same as {@link #record} for epoch millisecond timestamps, as Gatling reports them.
+     */
+    public void recordMillis(String name, long intendedStartMillis, long startMillis, long endMillis, boolean ok) {
+        record(name, TimeUnit.MILLISECONDS.toNanos(intendedStartMillis), TimeUnit.MILLISECONDS.toNanos(startMillis),
+                TimeUnit.MILLISECONDS.toNanos(endMillis), ok);
+    }
+
+    public boolean isEmpty() {
+        return byName.isEmpty();
+    }
+
+    /**
+     * @return the latencies recorded so far per request name, sorted by name
+     */
+    public List<CorrectedLatency> summarize() {
+        return byName.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> entry.getValue().summarize(entry.getKey()))
+                .toList();
+    }
+
+    private static final class Stats {
+        private final Recorder service = new Recorder(MAX_LATENCY_MICROS, SIGNIFICANT_DIGITS);
+        private final Recorder response = new Recorder(MAX_LATENCY_MICROS, SIGNIFICANT_DIGITS);
+        private final Histogram serviceTotal = new Histogram(MAX_LATENCY_MICROS, SIGNIFICANT_DIGITS);
+        private final Histogram responseTotal = new Histogram(MAX_LATENCY_MICROS, SIGNIFICANT_DIGITS);
+        private final LongAdder errors = new LongAdder();
+
+        void record(long serviceMicros, long responseMicros, boolean ok) {
+            service.recordValue(clamp(serviceMicros));
+            response.recordValue(clamp(responseMicros));
+            if (!ok) {
+                errors.increment();
+            }
+        }
+
+        synchronized CorrectedLatency summarize(String name) {
+            serviceTotal.add(service.getIntervalHistogram());
+            responseTotal.add(response.getIntervalHistogram());
+            long requests = serviceTotal.getTotalCount();
+            return CorrectedLatency.builder()
+                    .name(name)
+                    .requests(requests)
+                    .errors(errors.sum())
+                    .meanQueueingMs(requests == 0 ? 0 : (responseTotal.getMean() - serviceTotal.getMean()) / 1000.0)
+                    .serviceP50Ms(millis(serviceTotal.getValueAtPercentile(50)))
+                    .serviceP90Ms(millis(serviceTotal.getValueAtPercentile(90)))
+                    .serviceP99Ms(millis(serviceTotal.getValueAtPercentile(99)))
+                    .serviceMaxMs(millis(serviceTotal.getMaxValue()))
+                    .responseP50Ms(millis(responseTotal.getValueAtPercentile(50)))
+                    .responseP90Ms(millis(responseTotal.getValueAtPercentile(90)))
+                    .responseP99Ms(millis(responseTotal.getValueAtPercentile(99)))
+                    .responseMaxMs(millis(responseTotal.getMaxValue()))
+                    .build();
+        }
+
+        private static long clamp(long micros) {
+            return Math.min(Math.max(micros, 0), MAX_LATENCY_MICROS);
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package ru.gordeev.core.latency;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Latency of one request name in milliseconds: {@code service} from the actual send, {@code response}
+ * from the intended send, i.e. including the time the request waited behind earlier ones.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CorrectedLatency {
+    private String name;
+    private long requests;
+    private long errors;
+    private double meanQueueingMs;
+    private double serviceP50Ms;
+    private double serviceP90Ms;
+    private double serviceP99Ms;
+    private double serviceMaxMs;
+    private double responseP50Ms;
+    private double responseP90Ms;
+    private double responseP99Ms;
+    private double responseMaxMs;
+}
@@ -0,0 +1,83 @@
+package ru.gordeev.core.latency;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * The time the current thread's next action was supposed to start, as planned by a schedule.
+ * <p>
+ * Binding it lets instrumentation deep in the call stack, such as {@code LatencyRecordingFilter},
+ * measure latency from the intended send time instead of from the moment the request actually left.
+ * An action may send several requests, e.g. a step that creates a todo and reads it back. Only the first
+ * one gets the bound slot. Every later one gets the time it would have been sent had the first been on
+ * time, so the time spent in the earlier requests does not add to its latency.
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class IntendedStart {
+
+    private static final long UNSET = Long.MIN_VALUE;
+    // intended start of the binding, actual start of its first request
+    private static final ThreadLocal<long[]> CURRENT = ThreadLocal.withInitial(() -> new long[]{UNSET, UNSET});
+
+    /**
+     * Runs the supplier with {@code intendedStartNanos} (a {@link System#nanoTime()} value) bound.
+     */
+    public static <T> T at(long intendedStartNanos, Supplier<T> supplier) {
+        long[] current = CURRENT.get();
+        long previous = current[0];
+        long previousFirstRequest = current[1];
+        current[0] = intendedStartNanos;
+        current[1] = UNSET;
+        try {
+            return supplier.get();
+        } finally {
+            current[0] = previous;
+            current[1] = previousFirstRequest;
+        }
+    }
+
+    /**
+     * Same as {@link #at(long, Supplier)} for an action that throws checked exceptions.
+     */
+    public static <T> T call(long intendedStartNanos, Callable<T> callable) throws Exception {
+        long[] current = CURRENT.get();
+        long previous = current[0];
+        long previousFirstRequest = current[1];
+        current[0] = intendedStartNanos;
+        current[1] = UNSET;
+        try {
+            return callable.call();
+        } finally {
+            current[0] = previous;
+            current[1] = previousFirstRequest;
+        }
+    }
+
+    public static void at(long intendedStartNanos, Runnable action) {
+        at(intendedStartNanos, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Claims the intended start of a request; call it once per request, as it is sent.
+     *
+     * @return the bound intended start for the first request of the binding, the bound one shifted by the time
+     * since the first request for every later one, or {@code actualStartNanos} when none is bound
+     */
+    public static long forRequest(long actualStartNanos) {
+        long[] current = CURRENT.get();
+        if (current[0] == UNSET) {
+            return actualStartNanos;
+        }
+        if (current[1] == UNSET) {
+            current[1] = actualStartNanos;
+            return current[0];
+        }
+        return current[0] + (actualStartNanos - current[1]);
+    }
+}
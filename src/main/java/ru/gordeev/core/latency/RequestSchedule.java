@@ -0,0 +1,57 @@
+package ru.gordeev.core.latency;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed-rate send times. Each slot is one interval after the previous slot, not after the previous
+ * response, so a stalled request pushes the following ones behind schedule and their latency from
+ * the intended start shows the wait their users would have seen.
+ */
+public class RequestSchedule {
+
+    private final long intervalNanos;
+    private final AtomicLong nextNanos;
+
+    private RequestSchedule(long intervalNanos, long firstNanos) {
+        if (intervalNanos <= 0) {
+            throw new IllegalArgumentException("Schedule interval must be positive, got " + intervalNanos + " ns");
+        }
+        this.intervalNanos = intervalNanos;
+        this.nextNanos = new AtomicLong(firstNanos);
+    }
+
+    /**
+     * A schedule whose first slot is now.
+     */
+    public static RequestSchedule every(Duration interval) {
+        return new RequestSchedule(interval.toNanos(), System.nanoTime());
+    }
+
+    public static RequestSchedule atRate(double requestsPerSecond) {
+        return new RequestSchedule((long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond), System.nanoTime());
+    }
+
+    /**
+     * Claims the next slot and waits for it; returns at once when the schedule is already behind.
+     * Safe to share between threads, each call gets its own slot.
+     *
+     * @return the intended start of the claimed slot, a {@link System#nanoTime()} value
+     */
+    public long awaitNext() throws InterruptedException {
+        long slot = nextNanos.getAndAdd(intervalNanos);
+        long wait = slot - System.nanoTime();
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+        return slot;
+    }
+
+    /**
+     * @return how far the next slot is behind now, zero when on schedule
+     */
+    public Duration lag() {
+        return Duration.ofNanos(Math.max(0, System.nanoTime() - nextNanos.get()));
+    }
+}
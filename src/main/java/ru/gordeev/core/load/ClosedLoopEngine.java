@@ -0,0 +1,329 @@
+package ru.gordeev.core.load;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import ru.gordeev.core.config.AppConfig;
+import ru.gordeev.core.data.DataRandom;
+import ru.gordeev.core.latency.CoordinatedOmissionRecorder;
+import ru.gordeev.core.latency.CorrectedLatency;
+import ru.gordeev.core.latency.IntendedStart;
+import ru.gordeev.core.latency.RequestSchedule;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Closed-loop load generator: a fixed number of workers, each running a {@link LoadScript} against its
+ * own client until the run ends. Unlike Gatling it drives the same service classes as the functional
+ * tests, so the load includes their auth, schema validation and lookups.
+ * <p>
+ * Workers run on virtual threads when the JVM provides them (Java 21+), otherwise on platform threads.
+ * <p>
+ * A closed-loop worker stuck in a slow request sends nothing else meanwhile, so raw latencies hide how
+ * long the requests it should have sent would have waited (coordinated omission). The result therefore
+ * also reports corrected percentiles. With an expected interval configured, every worker sends its steps
+ * on a {@link RequestSchedule} at that interval instead of thinking, each step runs with its slot bound as
+ * {@link IntendedStart}, and the corrected percentiles are the step latencies from the slots, as recorded by a
+ * {@link CoordinatedOmissionRecorder}. Clients recording their own requests measure each request of a step
+ * from its own intended start, see {@link IntendedStart#forRequest}. Without one, they are estimated by HdrHistogram's correction for an
+ * interval of the mean think time plus the step's median latency.
+ */
+@Slf4j
+public class ClosedLoopEngine {
+
+    // Keeps worker data streams clear of virtual user and bulk data streams, within the 35 key bits of stream ids
+    private static final long WORKER_STREAM_BASE = 1L << 33;
+    private static final int THINK_TIME_SAMPLES = 10_000;
+
+    @Data
+    @Builder
+    public static class Settings {
+        @Builder.Default
+        private int workers = 100;
+        @Builder.Default
+        private Duration duration = Duration.ofSeconds(60);
+        // workers start evenly spread over the ramp-up
+        @Builder.Default
+        private Duration rampUp = Duration.ZERO;
+        @Builder.Default
+        private ThinkTime thinkTime = ThinkTime.NONE;
+        // interval between the requests of a paced worker; zero leaves workers unpaced and estimates it per step
+        @Builder.Default
+        private Duration expectedInterval = Duration.ZERO;
+        // interval of the throughput readout; zero disables it
+        @Builder.Default
+        private Duration reportInterval = Duration.ofSeconds(1);
+
+        public static Settings fromConfig(AppConfig config) {
+            return Settings.builder()
+                    .workers(config.loadWorkers())
+                    .duration(Duration.ofSeconds(config.loadDurationSeconds()))
+                    .rampUp(Duration.ofSeconds(config.loadRampUpSeconds()))
+                    .thinkTime(ThinkTime.parse(config.loadThinkTime()))
+                    .expectedInterval(Duration.ofMillis(config.loadExpectedIntervalMillis()))
+                    .build();
+        }
+    }
+
+    private final Settings settings;
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private final LongAdder iterations = new LongAdder();
+    private final CoordinatedOmissionRecorder latencies = new CoordinatedOmissionRecorder();
+    private volatile boolean stopped;
+
+    public ClosedLoopEngine(Settings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Ends the run early; workers finish the {@link LoadScript#always} steps of their current iteration.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Runs the script until the configured duration has passed and returns the summary.
+     *
+     * @param clientFactory called once per worker, e.g. to give each worker its own service instance
+     */
+    public <C> LoadResult run(LoadScript<C> script, Supplier<C> clientFactory) throws InterruptedException {
+        LoadStats stats = new LoadStats(script.steps().stream().map(LoadScript.Step::name).toList());
+        WorkerThreads threads = WorkerThreads.create();
+        ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "load-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        log.info("Closed-loop run '{}': {} workers on {} threads for {}s, ramp-up {}s",
+                script.name(), settings.getWorkers(), threads.kind(),
+                settings.getDuration().toSeconds(), settings.getRampUp().toSeconds());
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + settings.getDuration().toNanos();
+        long reportMillis = settings.getReportInterval().toMillis();
+        if (reportMillis > 0) {
+            ticker.scheduleAtFixedRate(() -> report(stats, startNanos, reportMillis),
+                    reportMillis, reportMillis, TimeUnit.MILLISECONDS);
+        }
+        try (threads) {
+            for (int i = 0; i < settings.getWorkers(); i++) {
+                int workerId = i;
+                long startAtNanos = startNanos + settings.getRampUp().toNanos() * i / settings.getWorkers();
+                threads.executor().execute(() -> DataRandom.withStream(WORKER_STREAM_BASE + workerId, () -> {
+                    runWorker(workerId, script, clientFactory, stats, startAtNanos, deadlineNanos);
+                    return null;
+                }));
+            }
+            threads.executor().shutdown();
+            if (!threads.executor().awaitTermination(settings.getDuration().toMillis() + TimeUnit.MINUTES.toMillis(1),
+                    TimeUnit.MILLISECONDS)) {
+                log.warn("{} workers did not finish within a minute after the end of the run", activeWorkers.get());
+            }
+        } finally {
+            ticker.shutdownNow();
+        }
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+        LoadResult result = summarize(script, stats, threads.kind(), elapsedSeconds);
+        log.info("Closed-loop run '{}' finished: {} requests, {} errors, {} req/s",
+                script.name(), result.getRequests(), result.getErrors(), String.format("%.1f", result.getThroughput()));
+        return result;
+    }
+
+    private <C> void runWorker(int workerId, LoadScript<C> script, Supplier<C> clientFactory, LoadStats stats,
+                               long startAtNanos, long deadlineNanos) {
+        Thread.currentThread().setName("load-worker-" + workerId);
+        try {
+            sleepNanos(startAtNanos - System.nanoTime());
+            C client = clientFactory.get();
+            Random random = DataRandom.random();
+            WorkerContext context = new WorkerContext(workerId, random);
+            RequestSchedule schedule = isPaced() ? RequestSchedule.every(settings.getExpectedInterval()) : null;
+            activeWorkers.incrementAndGet();
+            try {
+                while (!isOver(deadlineNanos)) {
+                    runIteration(script, client, context, stats, schedule, deadlineNanos);
+                    iterations.increment();
+                    context.nextIteration();
+                }
+            } finally {
+                activeWorkers.decrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Worker {} stopped: {}", workerId, e.toString());
+        }
+    }
+
+    /**
+     * @param schedule slots of a paced worker, null for an unpaced one
+     */
+    private <C> void runIteration(LoadScript<C> script, C client, WorkerContext context, LoadStats stats,
+                                  RequestSchedule schedule, long deadlineNanos) throws InterruptedException {
+        boolean skipping = false;
+        for (LoadScript.Step<C> step : script.steps()) {
+            skipping |= isOver(deadlineNanos);
+            if (skipping && !step.always()) {
+                continue;
+            }
+            // the cleanup of a skipped iteration is not part of the paced traffic
+            long intended = schedule != null && !skipping ? schedule.awaitNext() : System.nanoTime();
+            long began = System.nanoTime();
+            boolean ok = true;
+            try {
+                IntendedStart.call(intended, () -> {
+                    step.action().execute(client, context);
+                    return null;
+                });
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception | AssertionError e) {
+                ok = false;
+                skipping = true;
+                log.debug("Worker {} failed step '{}': {}", context.getWorkerId(), step.name(), e.getMessage());
+            }
+            long ended = System.nanoTime();
+            stats.record(step.name(), TimeUnit.NANOSECONDS.toMicros(ended - began), ok);
+            if (schedule != null) {
+                latencies.record(step.name(), intended, began, ended, ok);
+            }
+            if (schedule == null && !skipping && !isOver(deadlineNanos)) {
+                TimeUnit.MILLISECONDS.sleep(settings.getThinkTime().nextMillis(context.getRandom()));
+            }
+        }
+    }
+
+    private boolean isPaced() {
+        return !settings.getExpectedInterval().isZero();
+    }
+
+    private boolean isOver(long deadlineNanos) {
+        return stopped || System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    private void report(LoadStats stats, long startNanos, long intervalMillis) {
+        Histogram interval = stats.sampleLive();
+        log.info("{}s: {} req/s, p50 {} ms, p99 {} ms, {} errors, {} workers active",
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos),
+                String.format("%.1f", interval.getTotalCount() * 1000.0 / intervalMillis),
+                millis(interval.getValueAtPercentile(50)),
+                millis(interval.getValueAtPercentile(99)),
+                stats.drainLiveErrors(),
+                activeWorkers.get());
+    }
+
+    private <C> LoadResult summarize(LoadScript<C> script, LoadStats stats, String threadKind, double elapsedSeconds) {
+        double meanThinkMicros = isPaced() ? 0 : meanThinkTimeMicros();
+        // only paced runs record from the schedule; a step without requests has no entry
+        Map<String, CorrectedLatency> scheduled = new HashMap<>();
+        latencies.summarize().forEach(latency -> scheduled.put(latency.getName(), latency));
+        List<LoadResult.StepResult> steps = new ArrayList<>();
+        long requests = 0;
+        long errors = 0;
+        for (Map.Entry<String, LoadStats.StepStats> entry : stats.steps().entrySet()) {
+            Histogram raw = entry.getValue().histogram();
+            long expectedMicros = isPaced()
+                    ? TimeUnit.NANOSECONDS.toMicros(settings.getExpectedInterval().toNanos())
+                    : Math.round(meanThinkMicros + raw.getValueAtPercentile(50));
+            CorrectedLatency corrected = scheduled.containsKey(entry.getKey())
+                    ? scheduled.get(entry.getKey()) : estimate(raw, expectedMicros);
+            long stepErrors = entry.getValue().errors();
+            requests += raw.getTotalCount();
+            errors += stepErrors;
+            steps.add(LoadResult.StepResult.builder()
+                    .name(entry.getKey())
+                    .count(raw.getTotalCount())
+                    .errors(stepErrors)
+                    .throughput(raw.getTotalCount() / elapsedSeconds)
+                    .expectedIntervalMillis(millis(expectedMicros))
+                    .meanMillis(raw.getTotalCount() > 0 ? raw.getMean() / 1000.0 : 0)
+                    .p50Millis(millis(raw.getValueAtPercentile(50)))
+                    .p90Millis(millis(raw.getValueAtPercentile(90)))
+                    .p99Millis(millis(raw.getValueAtPercentile(99)))
+                    .maxMillis(millis(raw.getMaxValue()))
+                    .correctedP50Millis(corrected.getResponseP50Ms())
+                    .correctedP90Millis(corrected.getResponseP90Ms())
+                    .correctedP99Millis(corrected.getResponseP99Ms())
+                    .correctedMaxMillis(corrected.getResponseMaxMs())
+                    .build());
+        }
+        return LoadResult.builder()
+                .script(script.name())
+                .workers(settings.getWorkers())
+                .threads(threadKind)
+                .durationSeconds(elapsedSeconds)
+                .iterations(iterations.sum())
+                .requests(requests)
+                .errors(errors)
+                .throughput(requests / elapsedSeconds)
+                .steps(steps)
+                .build();
+    }
+
+    /**
+     * @return the response percentiles of an unpaced step, as if its requests had been sent every expected interval
+     */
+    private static CorrectedLatency estimate(Histogram raw, long expectedMicros) {
+        Histogram corrected = expectedMicros > 0 ? raw.copyCorrectedForCoordinatedOmission(expectedMicros) : raw;
+        return CorrectedLatency.builder()
+                .responseP50Ms(millis(corrected.getValueAtPercentile(50)))
+                .responseP90Ms(millis(corrected.getValueAtPercentile(90)))
+                .responseP99Ms(millis(corrected.getValueAtPercentile(99)))
+                .responseMaxMs(millis(corrected.getMaxValue()))
+                .build();
+    }
+
+    private double meanThinkTimeMicros() {
+        Random random = new Random(0);
+        long total = 0;
+        for (int i = 0; i < THINK_TIME_SAMPLES; i++) {
+            total += settings.getThinkTime().nextMillis(random);
+        }
+        return total * 1000.0 / THINK_TIME_SAMPLES;
+    }
+
+    private static void sleepNanos(long nanos) throws InterruptedException {
+        if (nanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    /**
+     * Executor of the workers: one virtual thread per worker on Java 21+, platform threads before.
+     */
+    private record WorkerThreads(ExecutorService executor, String kind) implements AutoCloseable {
+
+        static WorkerThreads create() {
+            try {
+                ExecutorService virtual = (ExecutorService) Executors.class
+                        .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                return new WorkerThreads(virtual, "virtual");
+            } catch (ReflectiveOperationException e) {
+                return new WorkerThreads(Executors.newCachedThreadPool(), "platform");
+            }
+        }
+
+        @Override
+        public void close() {
+            executor.shutdownNow();
+        }
+    }
+}
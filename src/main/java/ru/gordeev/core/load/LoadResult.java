@@ -0,0 +1,53 @@
+package ru.gordeev.core.load;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.gordeev.core.latency.CorrectedLatency;
+
+import java.util.List;
+
+/**
+ * Summary of a closed-loop run. Latencies are in milliseconds; the {@code corrected} percentiles
+ * include the requests a worker could not send while it was stuck in a slow one.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoadResult {
+    private String script;
+    private int workers;
+    private String threads;
+    private double durationSeconds;
+    private long iterations;
+    private long requests;
+    private long errors;
+    private double throughput;
+    private List<StepResult> steps;
+    // per HTTP request of the steps, when the client records them, see BaseApiService.recordLatencies
+    private List<CorrectedLatency> requestLatencies;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StepResult {
+        private String name;
+        private long count;
+        private long errors;
+        private double throughput;
+        // interval between a worker's requests: the pace of a paced run, else the one the correction assumes
+        private double expectedIntervalMillis;
+        private double meanMillis;
+        private double p50Millis;
+        private double p90Millis;
+        private double p99Millis;
+        private double maxMillis;
+        private double correctedP50Millis;
+        private double correctedP90Millis;
+        private double correctedP99Millis;
+        private double correctedMaxMillis;
+    }
+}
@@ -0,0 +1,57 @@
+package ru.gordeev.core.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sequence of named steps a closed-loop worker runs against its client, over and over.
+ * <p>
+ * A step fails by throwing, e.g. the {@code AssertionError} of a REST Assured status check. The
+ * remaining regular steps of the iteration are skipped, while {@link #always} steps still run, so
+ * cleanup such as deleting the created entity is not lost.
+ *
+ * @param <C> client the steps call, e.g. a {@code CrudOperations} service
+ */
+public class LoadScript<C> {
+
+    @FunctionalInterface
+    public interface Action<C> {
+        void execute(C client, WorkerContext context) throws Exception;
+    }
+
+    public record Step<C>(String name, Action<C> action, boolean always) {
+    }
+
+    private final String name;
+    private final List<Step<C>> steps = new ArrayList<>();
+
+    private LoadScript(String name) {
+        this.name = name;
+    }
+
+    public static <C> LoadScript<C> named(String name) {
+        return new LoadScript<>(name);
+    }
+
+    public LoadScript<C> step(String stepName, Action<C> action) {
+        steps.add(new Step<>(stepName, action, false));
+        return this;
+    }
+
+    /**
+     * Adds a step that runs even when an earlier step of the iteration failed.
+     */
+    public LoadScript<C> always(String stepName, Action<C> action) {
+        steps.add(new Step<>(stepName, action, true));
+        return this;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public List<Step<C>> steps() {
+        return Collections.unmodifiableList(steps);
+    }
+}
@@ -0,0 +1,75 @@
+package ru.gordeev.core.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Step latencies of a closed-loop run, in microseconds: a cumulative recorder per step and one
+ * shared interval recorder for the per-second readout. Recording is wait-free.
+ */
+class LoadStats {
+
+    static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    static final class StepStats {
+        private final Recorder recorder = new Recorder(MAX_LATENCY_MICROS, SIGNIFICANT_DIGITS);
+        private final LongAdder errors = new LongAdder();
+
+        /**
+         * Drains everything recorded so far; called once, after the run.
+         */
+        Histogram histogram() {
+            return recorder.getIntervalHistogram();
+        }
+
+        long errors() {
+            return errors.sum();
+        }
+    }
+
+    private final Map<String, StepStats> steps;
+    private final Recorder live = new Recorder(MAX_LATENCY_MICROS, SIGNIFICANT_DIGITS);
+    private final LongAdder liveErrors = new LongAdder();
+    private Histogram recycledLive;
+
+    LoadStats(List<String> stepNames) {
+        Map<String, StepStats> byName = new LinkedHashMap<>();
+        stepNames.forEach(name -> byName.putIfAbsent(name, new StepStats()));
+        this.steps = Collections.unmodifiableMap(byName);
+    }
+
+    void record(String step, long latencyMicros, boolean ok) {
+        long value = Math.min(Math.max(latencyMicros, 0), MAX_LATENCY_MICROS);
+        StepStats stats = steps.get(step);
+        stats.recorder.recordValue(value);
+        live.recordValue(value);
+        if (!ok) {
+            stats.errors.increment();
+            liveErrors.increment();
+        }
+    }
+
+    Map<String, StepStats> steps() {
+        return steps;
+    }
+
+    /**
+     * Returns the latencies of all steps recorded since the previous call; valid until the next call.
+     */
+    synchronized Histogram sampleLive() {
+        recycledLive = live.getIntervalHistogram(recycledLive);
+        return recycledLive;
+    }
+
+    long drainLiveErrors() {
+        return liveErrors.sumThenReset();
+    }
+}
@@ -0,0 +1,53 @@
+package ru.gordeev.core.load;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Pause of a closed-loop worker after each step, as a user would take between actions.
+ */
+@FunctionalInterface
+public interface ThinkTime {
+
+    ThinkTime NONE = random -> 0;
+
+    /**
+     * @return the next pause in milliseconds
+     */
+    long nextMillis(Random random);
+
+    static ThinkTime fixed(long millis) {
+        return random -> millis;
+    }
+
+    static ThinkTime uniform(long minMillis, long maxMillis) {
+        long span = maxMillis - minMillis;
+        return random -> minMillis + (span <= 0 ? 0 : (long) (random.nextDouble() * span));
+    }
+
+    /**
+     * Memoryless pauses, so the requests of many workers arrive like a Poisson process.
+     */
+    static ThinkTime exponential(double meanMillis) {
+        return random -> Math.round(-meanMillis * Math.log(1 - random.nextDouble()));
+    }
+
+    /**
+     * Parses {@code none}, {@code fixed:<ms>}, {@code uniform:<min ms>:<max ms>} or {@code exponential:<mean ms>}.
+     */
+    static ThinkTime parse(String spec) {
+        String[] parts = spec.trim().toLowerCase(Locale.ROOT).split(":");
+        try {
+            return switch (parts[0]) {
+                case "none" -> NONE;
+                case "fixed" -> fixed(Long.parseLong(parts[1]));
+                case "uniform" -> uniform(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+                case "exponential" -> exponential(Double.parseDouble(parts[1]));
+                default -> throw new IllegalArgumentException("Unknown think time '%s'".formatted(parts[0]));
+            };
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException(("Invalid think time '%s', expected none, fixed:<ms>, uniform:<min>:<max> "
+                    + "or exponential:<mean>").formatted(spec), e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package ru.gordeev.core.load;
+
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * State of one closed-loop worker, passed to every step it runs; the counterpart of a Gatling session.
+ * Only the owning worker touches it, so it is not thread-safe.
+ */
+public class WorkerContext {
+
+    @Getter
+    private final int workerId;
+    @Getter
+    private final Random random;
+    @Getter
+    private long iteration;
+    private final Map<String, Object> attributes = new HashMap<>();
+
+    WorkerContext(int workerId, Random random) {
+        this.workerId = workerId;
+        this.random = random;
+    }
+
+    public void put(String key, Object value) {
+        attributes.put(key, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <V> V get(String key) {
+        return (V) attributes.get(key);
+    }
+
+    public void remove(String key) {
+        attributes.remove(key);
+    }
+
+    void nextIteration() {
+        iteration++;
+        attributes.clear();
+    }
+}
@@ -12,7 +12,6 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 
-import static io.restassured.RestAssured.given;
 import static ru.gordeev.core.helpers.AuthTools.encodeBasicAuth;
 
 @Slf4j
@@ -51,7 +50,7 @@ public class TodoApiService extends BaseCrudService<Todo, Long> {
     public Response updateRawWithAuth(Long id, Map<String, Object> body) {
         String auth = encodeBasicAuth(config.adminUsername(), config.adminPassword());
 
-        return given(spec)
+        return request()
                 .header("Authorization", auth)
                 .body(body)
                 .put(resourcePath + "/" + id);
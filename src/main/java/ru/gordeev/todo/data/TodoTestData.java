@@ -1,5 +1,6 @@
 package ru.gordeev.todo.data;
 
+import ru.gordeev.core.data.IdAllocators;
 import ru.gordeev.core.data.ModelBuilder;
 import ru.gordeev.core.data.PayloadBuilder;
 import ru.gordeev.core.data.TestDataRegistry;
@@ -23,7 +24,7 @@ public class TodoTestData {
      */
     private static Todo defaultTodo() {
         return Todo.builder()
-                .id(ModelBuilder.randomLong(1, Long.MAX_VALUE))
+                .id(IdAllocators.nextId())
                 .text(ModelBuilder.uniqueText("Todo"))
                 .completed(ModelBuilder.randomBoolean())
                 .build();
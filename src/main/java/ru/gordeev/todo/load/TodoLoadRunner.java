@@ -0,0 +1,99 @@
+package ru.gordeev.todo.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.http.ContentType;
+import io.restassured.specification.RequestSpecification;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aeonbits.owner.ConfigFactory;
+import ru.gordeev.core.config.AppConfig;
+import ru.gordeev.core.data.TestDataRegistry;
+import ru.gordeev.core.latency.CoordinatedOmissionRecorder;
+import ru.gordeev.core.load.ClosedLoopEngine;
+import ru.gordeev.core.load.LoadResult;
+import ru.gordeev.core.load.LoadScript;
+import ru.gordeev.todo.api.TodoApiService;
+import ru.gordeev.todo.data.TodoTestData;
+import ru.gordeev.todo.model.Todo;
+import ru.gordeev.todo.stub.EmbeddedTodoServer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+
+/**
+ * Runs closed-loop load through {@link TodoApiService}, i.e. the code paths of the functional tests:
+ * create (with the lookup in the full list), update, a validated page read and an authorized delete.
+ * Every HTTP request of the steps is recorded besides the steps themselves, from the step's slot in a paced run.
+ * Configured by the {@code load.*} keys; {@code stub.enabled} targets the embedded server.
+ */
+@Slf4j
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class TodoLoadRunner {
+
+    private static final DateTimeFormatter RUN_ID = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final String TODO = "todo";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            throw new IllegalArgumentException("Usage: TodoLoadRunner <output directory>");
+        }
+        AppConfig config = ConfigFactory.create(AppConfig.class);
+        EmbeddedTodoServer stub = config.stubEnabled() ? EmbeddedTodoServer.startFromConfig(config) : null;
+        try {
+            RequestSpecification spec = new RequestSpecBuilder()
+                    .setContentType(ContentType.JSON)
+                    .setBaseUri(config.baseUri())
+                    .setPort(config.basePort())
+                    .build();
+            ClosedLoopEngine engine = new ClosedLoopEngine(ClosedLoopEngine.Settings.fromConfig(config));
+            CoordinatedOmissionRecorder requestLatencies = new CoordinatedOmissionRecorder();
+            LoadResult result = engine.run(crudLifecycle(), () -> {
+                TodoApiService todos = new TodoApiService(spec, config);
+                todos.recordLatencies(requestLatencies);
+                return todos;
+            });
+            result.setRequestLatencies(requestLatencies.summarize());
+
+            Path report = Path.of(args[0], "closed-loop-%s.json".formatted(LocalDateTime.now().format(RUN_ID)));
+            Files.createDirectories(report.getParent());
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(report.toFile(), result);
+            log.info("Closed-loop report: {}", report);
+        } finally {
+            if (stub != null) {
+                stub.stop();
+            }
+        }
+    }
+
+    /**
+     * One todo per iteration, deleted at the end even when an earlier step failed.
+     */
+    public static LoadScript<TodoApiService> crudLifecycle() {
+        TestDataRegistry testData = new TestDataRegistry();
+        TodoTestData.register(testData);
+        return LoadScript.<TodoApiService>named("todo-crud-lifecycle")
+                .step("create", (todos, context) -> {
+                    Todo todo = testData.valid(Todo.class);
+                    context.put(TODO, todo);
+                    todos.create(todo);
+                })
+                .step("update", (todos, context) -> {
+                    Todo todo = context.get(TODO);
+                    todo.setCompleted(!todo.getCompleted());
+                    todos.update(todo.getId(), todo);
+                })
+                .step("list", (todos, context) -> todos.getAll(Map.of("limit", 10)))
+                .always("delete", (todos, context) -> {
+                    Todo todo = context.get(TODO);
+                    if (todo != null) {
+                        todos.delete(todo.getId());
+                    }
+                });
+    }
+}
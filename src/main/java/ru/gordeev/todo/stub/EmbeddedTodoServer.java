@@ -0,0 +1,349 @@
+package ru.gordeev.todo.stub;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import ru.gordeev.core.config.AppConfig;
+import ru.gordeev.core.errors.ErrorMessages;
+import ru.gordeev.core.helpers.AuthTools;
+import ru.gordeev.todo.model.Todo;
+import ru.gordeev.todo.model.TodoNotification;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process stand-in for the Todo service: {@code /todos} CRUD with Basic auth for DELETE and
+ * {@code new_todo} notifications on the WebSocket endpoint, backed by a concurrent map.
+ * <p>
+ * Lets functional tests and simulations run without the real service, and measures the client side
+ * (REST Assured, parsing, Gatling checks) in isolation. Every response can be delayed by a
+ * {@link LatencyModel}, replaced by an injected error, and held back by a throughput cap, so client
+ * behavior under slow or failing servers is reproducible.
+ */
+@Slf4j
+public class EmbeddedTodoServer implements AutoCloseable {
+
+    @Data
+    @Builder
+    public static class Settings {
+        @Builder.Default
+        private int port = 8080;
+        // 0 disables the WebSocket endpoint
+        @Builder.Default
+        private int webSocketPort = 4242;
+        @Builder.Default
+        private String adminUsername = "admin";
+        @Builder.Default
+        private String adminPassword = "admin";
+        @Builder.Default
+        private LatencyModel latency = LatencyModel.NONE;
+        // share of requests answered with errorStatus instead of being handled
+        @Builder.Default
+        private double errorRate = 0;
+        @Builder.Default
+        private int errorStatus = 500;
+        // requests beyond the cap queue up, like on a saturated server; 0 means no cap
+        @Builder.Default
+        private double maxRps = 0;
+        @Builder.Default
+        private int threads = 64;
+
+        public static Settings fromConfig(AppConfig config) {
+            return Settings.builder()
+                    .port(config.basePort())
+                    .webSocketPort(URI.create(config.websocketUri()).getPort())
+                    .adminUsername(config.adminUsername() != null ? config.adminUsername() : "admin")
+                    .adminPassword(config.adminPassword() != null ? config.adminPassword() : "admin")
+                    .latency(LatencyModel.parse(config.stubLatency()))
+                    .errorRate(config.stubErrorRate())
+                    .errorStatus(config.stubErrorStatus())
+                    .maxRps(config.stubMaxRps())
+                    .threads(config.stubThreads())
+                    .build();
+        }
+    }
+
+    private static final String TODOS_PATH = "/todos";
+
+    static {
+        // The JDK server writes headers and body separately; with Nagle's algorithm on, every keep-alive
+        // response waits for the client's delayed ACK (~40 ms). Read once, when the first server is created.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final Settings settings;
+    private final String authHeader;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Long, Todo> todos = new ConcurrentSkipListMap<>();
+    private final long capIntervalNanos;
+    private final AtomicLong nextSlotNanos = new AtomicLong(System.nanoTime());
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder injectedErrors = new LongAdder();
+    private HttpServer httpServer;
+    private ExecutorService executor;
+    private TodoNotificationServer notificationServer;
+
+    public EmbeddedTodoServer(Settings settings) {
+        this.settings = settings;
+        this.authHeader = AuthTools.encodeBasicAuth(settings.getAdminUsername(), settings.getAdminPassword());
+        this.capIntervalNanos = settings.getMaxRps() > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / settings.getMaxRps()) : 0;
+    }
+
+    /**
+     * Starts a server configured by the {@code stub.*} keys on the configured base and WebSocket ports.
+     */
+    public static EmbeddedTodoServer startFromConfig(AppConfig config) {
+        EmbeddedTodoServer server = new EmbeddedTodoServer(Settings.fromConfig(config));
+        try {
+            server.start();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to start the embedded Todo server on port " + config.basePort(), e);
+        }
+        return server;
+    }
+
+    public void start() throws IOException {
+        executor = Executors.newFixedThreadPool(settings.getThreads());
+        httpServer = HttpServer.create(new InetSocketAddress(settings.getPort()), 0);
+        httpServer.createContext(TODOS_PATH, this::handle);
+        httpServer.setExecutor(executor);
+        httpServer.start();
+        if (settings.getWebSocketPort() > 0) {
+            notificationServer = new TodoNotificationServer(settings.getWebSocketPort());
+            notificationServer.start();
+        }
+        log.info("Embedded Todo server listening on port {} (WebSocket {}), error rate {}, max RPS {}",
+                port(), settings.getWebSocketPort(), settings.getErrorRate(),
+                settings.getMaxRps() > 0 ? settings.getMaxRps() : "unlimited");
+    }
+
+    public void stop() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            executor.shutdownNow();
+        }
+        if (notificationServer != null) {
+            try {
+                notificationServer.stop(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.info("Embedded Todo server stopped after {} requests ({} injected errors)", requests(), injectedErrors());
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+
+    /**
+     * @return the bound HTTP port, useful when started on port 0
+     */
+    public int port() {
+        return httpServer.getAddress().getPort();
+    }
+
+    public long requests() {
+        return requests.sum();
+    }
+
+    public long injectedErrors() {
+        return injectedErrors.sum();
+    }
+
+    /**
+     * @return the number of stored todos
+     */
+    public int size() {
+        return todos.size();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.increment();
+            awaitCapacity();
+            delay();
+            if (settings.getErrorRate() > 0 && ThreadLocalRandom.current().nextDouble() < settings.getErrorRate()) {
+                injectedErrors.increment();
+                respond(exchange, settings.getErrorStatus(), "Injected fault");
+                return;
+            }
+            route(exchange);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Embedded Todo server failed to handle {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+            respond(exchange, 500, "Internal server error");
+        }
+    }
+
+    // Reserves the next free slot of the throughput cap and waits for it
+    private void awaitCapacity() throws InterruptedException {
+        if (capIntervalNanos == 0) {
+            return;
+        }
+        long slot = nextSlotNanos.getAndAccumulate(System.nanoTime(),
+                (next, now) -> Math.max(next, now) + capIntervalNanos);
+        long wait = Math.max(slot, System.nanoTime()) - System.nanoTime();
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    private void delay() throws InterruptedException {
+        long micros = settings.getLatency().sampleMicros(ThreadLocalRandom.current());
+        if (micros > 0) {
+            TimeUnit.MICROSECONDS.sleep(micros);
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String method = exchange.getRequestMethod();
+        if (path.equals(TODOS_PATH) || path.equals(TODOS_PATH + "/")) {
+            switch (method) {
+                case "GET" -> list(exchange);
+                case "POST" -> create(exchange);
+                default -> respond(exchange, 405, "HTTP method not allowed");
+            }
+            return;
+        }
+        Long id = parseId(path.substring(TODOS_PATH.length() + 1));
+        if (id == null) {
+            respond(exchange, 404, "");
+            return;
+        }
+        switch (method) {
+            case "PUT" -> update(exchange, id);
+            case "DELETE" -> delete(exchange, id);
+            default -> respond(exchange, 405, "HTTP method not allowed");
+        }
+    }
+
+    private void list(HttpExchange exchange) throws IOException {
+        long offset = 0;
+        long limit = Long.MAX_VALUE;
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null && !query.isEmpty()) {
+            for (String parameter : query.split("&")) {
+                String[] pair = parameter.split("=", 2);
+                Long value = pair.length == 2 ? parseId(pair[1]) : null;
+                if (value == null && (pair[0].equals("offset") || pair[0].equals("limit"))) {
+                    respond(exchange, 400, ErrorMessages.INVALID_QUERY_STRING);
+                    return;
+                }
+                if (pair[0].equals("offset")) {
+                    offset = value;
+                } else if (pair[0].equals("limit")) {
+                    limit = value;
+                }
+            }
+        }
+        List<Todo> page = new ArrayList<>();
+        todos.values().stream().skip(offset).limit(limit).forEach(page::add);
+        respondJson(exchange, 200, objectMapper.writeValueAsBytes(page));
+    }
+
+    private void create(HttpExchange exchange) throws IOException {
+        Todo todo;
+        try {
+            todo = TodoPayloadParser.parse(exchange.getRequestBody().readAllBytes());
+        } catch (TodoPayloadParser.InvalidPayloadException e) {
+            respond(exchange, 400, e.getMessage());
+            return;
+        }
+        if (todos.putIfAbsent(todo.getId(), todo) != null) {
+            respond(exchange, 400, "");
+            return;
+        }
+        respond(exchange, 201, "");
+        notifyCreated(todo);
+    }
+
+    private void update(HttpExchange exchange, long id) throws IOException {
+        Todo todo;
+        try {
+            todo = TodoPayloadParser.parse(exchange.getRequestBody().readAllBytes());
+        } catch (TodoPayloadParser.InvalidPayloadException e) {
+            respond(exchange, 400, e.getMessage());
+            return;
+        }
+        respond(exchange, todos.replace(id, todo) != null ? 200 : 404, "");
+    }
+
+    private void delete(HttpExchange exchange, long id) throws IOException {
+        if (!authHeader.equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+            respond(exchange, 401, "");
+            return;
+        }
+        respond(exchange, todos.remove(id) != null ? 204 : 404, "");
+    }
+
+    private void notifyCreated(Todo todo) throws JsonProcessingException {
+        if (notificationServer == null) {
+            return;
+        }
+        TodoNotification notification = TodoNotification.builder()
+                .type(TodoNotification.NotificationType.NEW_TODO)
+                .data(TodoNotification.TodoData.builder()
+                        .id(todo.getId())
+                        .text(todo.getText())
+                        .completed(todo.getCompleted())
+                        .build())
+                .build();
+        notificationServer.broadcast(objectMapper.writeValueAsString(notification));
+    }
+
+    // Ids and paging values are non-negative integers
+    private static Long parseId(String value) {
+        try {
+            long parsed = Long.parseLong(value);
+            return parsed < 0 ? null : parsed;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void respondJson(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        send(exchange, status, body);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String message) throws IOException {
+        if (!message.isEmpty()) {
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        }
+        send(exchange, status, message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        // 204 and empty responses must not announce a body
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package ru.gordeev.todo.stub;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Service time added by {@link EmbeddedTodoServer} to every response.
+ */
+@FunctionalInterface
+public interface LatencyModel {
+
+    LatencyModel NONE = random -> 0;
+
+    /**
+     * @return the delay of one response in microseconds
+     */
+    long sampleMicros(Random random);
+
+    static LatencyModel fixed(double millis) {
+        long micros = toMicros(millis);
+        return random -> micros;
+    }
+
+    static LatencyModel uniform(double minMillis, double maxMillis) {
+        long min = toMicros(minMillis);
+        long span = toMicros(maxMillis) - min;
+        return random -> min + (span <= 0 ? 0 : (long) (random.nextDouble() * span));
+    }
+
+    static LatencyModel exponential(double meanMillis) {
+        double mean = toMicros(meanMillis);
+        return random -> (long) (-mean * Math.log(1 - random.nextDouble()));
+    }
+
+    /**
+     * Right-skewed latency typical of real services: most responses near the median, a long tail.
+     *
+     * @param sigma standard deviation of the underlying normal distribution, e.g. 0.5
+     */
+    static LatencyModel logNormal(double medianMillis, double sigma) {
+        double mu = Math.log(toMicros(medianMillis));
+        return random -> (long) Math.exp(mu + sigma * random.nextGaussian());
+    }
+
+    /**
+     * Parses {@code none}, {@code fixed:<ms>}, {@code uniform:<min ms>:<max ms>},
+     * {@code exponential:<mean ms>} or {@code lognormal:<median ms>:<sigma>}.
+     */
+    static LatencyModel parse(String spec) {
+        String[] parts = spec.trim().toLowerCase(Locale.ROOT).split(":");
+        try {
+            return switch (parts[0]) {
+                case "none" -> NONE;
+                case "fixed" -> fixed(Double.parseDouble(parts[1]));
+                case "uniform" -> uniform(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+                case "exponential" -> exponential(Double.parseDouble(parts[1]));
+                case "lognormal" -> logNormal(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+                default -> throw new IllegalArgumentException("Unknown latency model '%s'".formatted(parts[0]));
+            };
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid latency model '%s', expected none, fixed:<ms>, uniform:<min>:<max>, "
+                    .formatted(spec) + "exponential:<mean> or lognormal:<median>:<sigma>", e);
+        }
+    }
+
+    private static long toMicros(double millis) {
+        return Math.round(millis * 1000);
+    }
+}
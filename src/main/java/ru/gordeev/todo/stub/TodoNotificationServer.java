@@ -0,0 +1,45 @@
+package ru.gordeev.todo.stub;
+
+import lombok.extern.slf4j.Slf4j;
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+
+import java.net.InetSocketAddress;
+
+/**
+ * WebSocket endpoint of {@link EmbeddedTodoServer}; every connected client receives all notifications.
+ */
+@Slf4j
+class TodoNotificationServer extends WebSocketServer {
+
+    TodoNotificationServer(int port) {
+        super(new InetSocketAddress(port));
+        setReuseAddr(true);
+    }
+
+    @Override
+    public void onOpen(WebSocket connection, ClientHandshake handshake) {
+        log.debug("WebSocket client connected to {}", handshake.getResourceDescriptor());
+    }
+
+    @Override
+    public void onClose(WebSocket connection, int code, String reason, boolean remote) {
+        log.debug("WebSocket client disconnected: {} {}", code, reason);
+    }
+
+    @Override
+    public void onMessage(WebSocket connection, String message) {
+        // clients only listen
+    }
+
+    @Override
+    public void onError(WebSocket connection, Exception e) {
+        log.warn("WebSocket error: {}", e.getMessage());
+    }
+
+    @Override
+    public void onStart() {
+        log.debug("WebSocket endpoint listening on {}", getPort());
+    }
+}
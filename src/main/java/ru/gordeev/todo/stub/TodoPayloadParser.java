@@ -0,0 +1,109 @@
+package ru.gordeev.todo.stub;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import ru.gordeev.core.errors.ErrorMessages;
+import ru.gordeev.todo.model.Todo;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Locale;
+
+/**
+ * Parses todo request bodies with the validation rules and error messages of the Todo service,
+ * as asserted by the functional tests through {@link ErrorMessages}.
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class TodoPayloadParser {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final BigInteger U64_MAX = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+    private static final String DESERIALIZE_ERROR = "Request body deserialize error: ";
+
+    public static final class InvalidPayloadException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        InvalidPayloadException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * @throws InvalidPayloadException with the message the service answers with 400
+     */
+    public static Todo parse(byte[] body) throws InvalidPayloadException {
+        JsonNode json;
+        try {
+            json = MAPPER.readTree(body);
+        } catch (JsonProcessingException e) {
+            throw new InvalidPayloadException(DESERIALIZE_ERROR + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new InvalidPayloadException(DESERIALIZE_ERROR + e.getMessage());
+        }
+        if (json == null || !json.isObject()) {
+            throw new InvalidPayloadException(ErrorMessages.invalidType(describe(json), "struct Todo"));
+        }
+        return new Todo(id(json.get("id")), text(json.get("text")), completed(json.get("completed")));
+    }
+
+    private static Long id(JsonNode id) throws InvalidPayloadException {
+        if (id == null) {
+            throw new InvalidPayloadException(ErrorMessages.missingField("id"));
+        }
+        // u64 ids above the long range are not supported by the stand-in
+        if (!id.isIntegralNumber() || id.bigIntegerValue().signum() < 0 || id.bigIntegerValue().compareTo(U64_MAX) > 0
+                || !id.canConvertToLong()) {
+            throw new InvalidPayloadException(ErrorMessages.invalidType(describe(id), "u64"));
+        }
+        return id.longValue();
+    }
+
+    private static String text(JsonNode text) throws InvalidPayloadException {
+        if (text == null) {
+            throw new InvalidPayloadException(ErrorMessages.missingField("text"));
+        }
+        if (text.isNull()) {
+            throw new InvalidPayloadException(ErrorMessages.NULL_NOT_A_STRING);
+        }
+        if (!text.isTextual()) {
+            throw new InvalidPayloadException(ErrorMessages.invalidType(describe(text), "a string"));
+        }
+        return text.textValue();
+    }
+
+    private static Boolean completed(JsonNode completed) throws InvalidPayloadException {
+        if (completed == null) {
+            throw new InvalidPayloadException(ErrorMessages.missingField("completed"));
+        }
+        if (!completed.isBoolean()) {
+            throw new InvalidPayloadException(ErrorMessages.invalidType(describe(completed), "a boolean"));
+        }
+        return completed.booleanValue();
+    }
+
+    // Describes a value the way serde does in its "invalid type" errors
+    private static String describe(JsonNode value) {
+        if (value == null || value.isNull()) {
+            return "null";
+        }
+        if (value.isTextual()) {
+            return "string " + value;
+        }
+        if (value.isBoolean()) {
+            return "boolean `%s`".formatted(value.booleanValue());
+        }
+        if (value.isIntegralNumber()) {
+            // integers beyond u64 are read as floating point by the service
+            return value.bigIntegerValue().compareTo(U64_MAX) > 0
+                    ? "floating point `%s`".formatted(Double.toString(value.doubleValue()).toLowerCase(Locale.ROOT))
+                    : "integer `%s`".formatted(value.bigIntegerValue());
+        }
+        if (value.isNumber()) {
+            return "floating point `%s`".formatted(value.doubleValue());
+        }
+        return value.isArray() ? "sequence" : "map";
+    }
+}
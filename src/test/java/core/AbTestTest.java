@@ -0,0 +1,96 @@
+package core;
+
+import io.gatling.http.client.uri.Uri;
+import org.testng.annotations.Test;
+
+import java.util.function.LongUnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@Test(groups = {"unit"})
+public class AbTestTest {
+
+    private static final String BASE_URL_A = "http://build-a:8080";
+    private static final String BASE_URL_B = "http://build-b:8080";
+
+    @Test
+    public void zScoreShouldMatchNormalQuantiles() {
+        assertThat(AbTest.zScore(0.95)).isCloseTo(1.959964, within(1e-4));
+        assertThat(AbTest.zScore(0.99)).isCloseTo(2.575829, within(1e-4));
+        assertThat(AbTest.zScore(0.90)).isCloseTo(1.644854, within(1e-4));
+    }
+
+    @Test
+    public void medianIntervalShouldCombineOrderStatisticRangesOfBothBuilds() {
+        // A: 1..1000 ms, B: 101..1100 ms. At 95% the median rank is off by 1.96 * sqrt(1000 * 0.25) = 31,
+        // so A's median of 500 ms ranges over 470..531 ms and B's 600 ms over 570..631 ms
+        AbTest abTest = abTest(latency -> latency, latency -> latency + 100);
+
+        AbReport.PercentileDelta median = percentile(abTest.compare("Sim", "smoke"), 50.0);
+
+        assertThat(median.getMsA()).isCloseTo(500, within(0.5));
+        assertThat(median.getMsB()).isCloseTo(600, within(0.5));
+        assertThat(median.getDeltaMs()).isCloseTo(100, within(0.5));
+        // 100 - hypot(600 - 570, 531 - 500) and 100 + hypot(631 - 600, 500 - 470)
+        assertThat(median.getCiLowMs()).isCloseTo(100 - Math.hypot(30, 31), within(1.0));
+        assertThat(median.getCiHighMs()).isCloseTo(100 + Math.hypot(31, 30), within(1.0));
+        assertThat(median.getVerdict()).isEqualTo(AbReport.Verdict.B_SLOWER);
+    }
+
+    @Test
+    public void sameLatenciesShouldShowNoDifference() {
+        AbTest abTest = abTest(latency -> latency, latency -> latency);
+
+        AbReport report = abTest.compare("Sim", "smoke");
+
+        assertThat(report.getRequests()).hasSize(1);
+        assertThat(report.getRequests().get(0).getPercentiles()).allSatisfy(delta -> {
+            assertThat(delta.getDeltaMs()).isZero();
+            assertThat(delta.getCiLowMs()).isNegative();
+            assertThat(delta.getCiHighMs()).isPositive();
+            assertThat(delta.getVerdict()).isEqualTo(AbReport.Verdict.NO_DIFFERENCE);
+        });
+    }
+
+    @Test
+    public void fasterBuildShouldBeReportedAtEveryPercentile() {
+        AbTest abTest = abTest(latency -> latency * 2, latency -> latency);
+
+        AbReport report = abTest.compare("Sim", "smoke");
+
+        assertThat(report.getRequests().get(0).getPercentiles())
+                .extracting(AbReport.PercentileDelta::getVerdict)
+                .containsOnly(AbReport.Verdict.B_FASTER);
+        assertThat(percentile(report, 50.0).getDeltaPercent()).isCloseTo(-50, within(0.5));
+    }
+
+    @Test
+    public void requestsSentToOneBuildOnlyShouldNotBeCompared() {
+        AbTest abTest = abTest(latency -> latency, latency -> latency);
+        abTest.record(Uri.create(BASE_URL_A + "/todos"), "A only", 0, 10, true, 0);
+
+        AbReport report = abTest.compare("Sim", "smoke");
+
+        assertThat(report.getRequests()).extracting(AbReport.RequestComparison::getName).containsExactly("GET /todos");
+        assertThat(report.getRequests().get(0).getRequestsA()).isEqualTo(1000);
+        assertThat(report.getRequests().get(0).getRequestsB()).isEqualTo(1000);
+    }
+
+    // 1000 requests per build with latencies 1..1000 ms mapped by the given functions
+    private static AbTest abTest(LongUnaryOperator latencyA, LongUnaryOperator latencyB) {
+        AbTest abTest = new AbTest(BASE_URL_A, BASE_URL_B, 0.95);
+        for (long latency = 1; latency <= 1000; latency++) {
+            abTest.record(Uri.create(BASE_URL_A + "/todos"), "GET /todos", 0, latencyA.applyAsLong(latency), true, 0);
+            abTest.record(Uri.create(BASE_URL_B + "/todos"), "GET /todos", 0, latencyB.applyAsLong(latency), true, 0);
+        }
+        return abTest;
+    }
+
+    private static AbReport.PercentileDelta percentile(AbReport report, double percentile) {
+        return report.getRequests().get(0).getPercentiles().stream()
+                .filter(delta -> delta.getPercentile() == percentile)
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -4,11 +4,13 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import io.restassured.RestAssured;
 import lombok.extern.slf4j.Slf4j;
 import org.aeonbits.owner.ConfigFactory;
+import org.testng.annotations.AfterSuite;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeSuite;
 import ru.gordeev.core.api.ApiProvider;
 import ru.gordeev.core.config.AppConfig;
 import ru.gordeev.core.data.TestDataRegistry;
+import ru.gordeev.todo.stub.EmbeddedTodoServer;
 
 /**
  * Base class for all tests.
@@ -18,6 +20,7 @@ import ru.gordeev.core.data.TestDataRegistry;
 public abstract class BaseTest {
 
     protected static AppConfig config;
+    private static EmbeddedTodoServer stubServer;
     protected ApiProvider api;
     protected TestDataRegistry testData;
     protected ObjectMapper objectMapper;
@@ -32,9 +35,21 @@ public abstract class BaseTest {
 
         objectMapper = new ObjectMapper();
 
+        if (config.stubEnabled()) {
+            stubServer = EmbeddedTodoServer.startFromConfig(config);
+        }
+
         log.info("Test suite initialized. Base URI: {}:{}", config.baseUri(), config.basePort());
     }
 
+    @AfterSuite(alwaysRun = true)
+    public void globalTeardown() {
+        if (stubServer != null) {
+            stubServer.stop();
+            stubServer = null;
+        }
+    }
+
     @BeforeClass(alwaysRun = true)
     public void setupApiClient() {
         api = new ApiProvider();
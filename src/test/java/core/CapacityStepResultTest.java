@@ -0,0 +1,61 @@
+package core;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+@Test(groups = {"unit"})
+public class CapacityStepResultTest {
+
+    private final LoadProfile profile = LoadProfile.builder()
+            .p95ResponseTimeMs(1000)
+            .p99ResponseTimeMs(1000)
+            .maxErrorRate(0.01)
+            .build();
+
+    @Test
+    public void achievedRateShouldCountIterationsNotRequests() {
+        RequestMetrics metrics = new RequestMetrics();
+        // 10 users per second over 10 s, each sending three requests
+        for (int user = 0; user <= 100; user++) {
+            long start = user * 100L;
+            for (int request = 0; request < 3; request++) {
+                metrics.record("step " + request, start + request * 10, start + request * 10 + 5, true, 0);
+            }
+            metrics.recordIteration(start + 30);
+        }
+
+        CapacityStepResult result = CapacityStepResult.evaluate(profile, 10, metrics);
+
+        assertThat(result.getAchievedRps()).isCloseTo(10, within(1e-9));
+        assertThat(result.getRequestRps()).isGreaterThan(29);
+        assertThat(result.isPassed()).isTrue();
+        assertThat(CapacityStepResult.evaluate(profile, 20, metrics).getViolations())
+                .containsExactly("completed 10.0 iterations/s of 20.0 target");
+    }
+
+    @Test
+    public void iterationsBeforeRecordingStartsShouldBeIgnored() {
+        RequestMetrics metrics = new RequestMetrics();
+        metrics.recordFrom(1000);
+        metrics.recordIteration(500);
+        metrics.recordIteration(1000);
+
+        assertThat(metrics.iterations()).isEqualTo(1);
+        assertThat(metrics.iterationThroughput()).isZero();
+    }
+
+    @Test
+    public void warmupAsLongAsTheStepShouldBeRejected() {
+        LoadProfile noMeasurement = LoadProfile.builder()
+                .capacityStepDurationSeconds(10)
+                .capacityStepWarmupSeconds(10)
+                .build();
+
+        assertThatThrownBy(() -> CapacityStepResult.requireMeasuredStep(noMeasurement))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("capacityStepWarmupSeconds");
+    }
+}
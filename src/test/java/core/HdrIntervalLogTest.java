@@ -0,0 +1,38 @@
+package core;
+
+import org.HdrHistogram.Histogram;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@Test(groups = {"unit"})
+public class HdrIntervalLogTest {
+
+    @Test
+    public void loggedLatenciesShouldReadBackInMicros() throws IOException {
+        Path runDir = Files.createTempDirectory("hdr-interval-log");
+        RequestMetrics metrics = new RequestMetrics();
+        for (int latencyMillis = 1; latencyMillis <= 100; latencyMillis++) {
+            metrics.record("GET /todos/{id}", 1_000, 1_000 + latencyMillis, true, 0);
+        }
+
+        HdrIntervalLog intervalLog = new HdrIntervalLog(metrics, runDir);
+        intervalLog.start(3600);
+        intervalLog.stop();
+
+        Path logFile = runDir.resolve(HdrIntervalLog.fileName("GET /todos/{id}"));
+        assertThat(logFile.getFileName()).hasToString("GET_todos_id_.hlog");
+        List<Histogram> intervals = RegressionGate.readIntervals(logFile);
+        assertThat(intervals).hasSize(1);
+        Histogram interval = intervals.get(0);
+        assertThat(interval.getTotalCount()).isEqualTo(100);
+        assertThat(interval.getValueAtPercentile(50) / 1000.0).isCloseTo(50, within(0.1));
+        assertThat(interval.getMaxValue() / 1000.0).isCloseTo(100, within(0.1));
+    }
+}
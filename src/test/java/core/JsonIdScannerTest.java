@@ -0,0 +1,97 @@
+package core;
+
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Test(groups = {"unit"})
+public class JsonIdScannerTest {
+
+    private static final int PAGE_SIZE = 10;
+    private static final int LAST_OFFSET = 20;
+    // ids 1..25: two full pages and a short last page of 5
+    private static final int TODOS = 25;
+
+    @Test
+    public void scanShouldStopAtTheMatchingElement() {
+        byte[] json = bytes("[{\"text\":\"a\",\"nested\":{\"id\":7},\"id\":3},{\"id\":7,\"tags\":[1,{\"id\":9}]},{\"id\":9}]");
+
+        assertThat(JsonIdScanner.indexOf(json, 7)).isEqualTo(1);
+        assertThat(JsonIdScanner.indexOf(json, 9)).isEqualTo(2);
+        assertThat(JsonIdScanner.indexOf(json, 42)).isEqualTo(-4);
+        assertThat(JsonIdScanner.indexOf(bytes("[]"), 42)).isEqualTo(-1);
+    }
+
+    @Test
+    public void idsBeyondTheLongRangeShouldNotMatch() {
+        byte[] json = bytes("[{\"id\":18446744073709551615},{\"id\":-9223372036854775809},{\"id\":9223372036854775807}]");
+
+        assertThat(JsonIdScanner.indexOf(json, Long.MAX_VALUE)).isEqualTo(2);
+        assertThat(JsonIdScanner.indexOf(json, -1)).isEqualTo(-4);
+    }
+
+    @Test
+    public void idOnAMiddlePageShouldBeFound() {
+        assertThat(verify(14)).isEqualTo(10);
+    }
+
+    @Test
+    public void idOnTheShortLastPageShouldBeFound() {
+        assertThat(verify(TODOS)).isEqualTo(20);
+    }
+
+    @Test
+    public void idMissingFromTheShortLastPageShouldFail() {
+        assertThatThrownBy(() -> verify(42))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Id 42 not found in the last page");
+    }
+
+    @Test
+    public void fullPageWithoutTheIdAtThePageLimitShouldFail() {
+        assertThatThrownBy(() -> verify(42, 30, LAST_OFFSET))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Id 42 not found in the first 30 elements");
+    }
+
+    @Test
+    public void malformedBodyShouldBeRejected() {
+        assertThatThrownBy(() -> JsonIdScanner.indexOf(bytes("[{\"id\":1},{\"id\":"), 2))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Malformed JSON response: ");
+        assertThatThrownBy(() -> JsonIdScanner.indexOf(bytes("{\"id\":1}"), 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Expected a JSON array, got START_OBJECT");
+    }
+
+    private static long verify(long id) {
+        return verify(id, TODOS, LAST_OFFSET);
+    }
+
+    /**
+     * Reads the pages of a list of todos with ids {@code 1..todos} as the paged verify of the user journey does
+     * and returns the offset of the page the id was found on.
+     */
+    private static long verify(long id, int todos, int lastOffset) {
+        int offset = 0;
+        while (true) {
+            String page = LongStream.rangeClosed(offset + 1, Math.min(todos, offset + PAGE_SIZE))
+                    .mapToObj(todoId -> "{\"id\":%d,\"text\":\"todo %d\",\"completed\":false}".formatted(todoId, todoId))
+                    .collect(Collectors.joining(",", "[", "]"));
+            long scan = JsonIdScanner.checkPage(JsonIdScanner.indexOf(bytes(page), id), id, PAGE_SIZE, offset, lastOffset);
+            if (!JsonIdScanner.onNextPage(scan, PAGE_SIZE)) {
+                return offset;
+            }
+            offset += PAGE_SIZE;
+        }
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
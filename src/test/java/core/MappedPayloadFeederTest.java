@@ -0,0 +1,100 @@
+package core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import ru.gordeev.todo.model.Todo;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Test(groups = {"unit"})
+public class MappedPayloadFeederTest {
+
+    private static final int RECORDS = 500;
+    // 1 KB segments: the file spans dozens of them and many records straddle a boundary
+    private static final int SEGMENT_BITS = 10;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Path directory;
+    private Path file;
+
+    @BeforeClass
+    public void generatePayloads() throws Exception {
+        directory = Files.createTempDirectory("payloads");
+        file = directory.resolve("todos.bin");
+        PayloadFileGenerator.main(new String[]{String.valueOf(RECORDS), file.toString()});
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void deletePayloads() throws Exception {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    public void recordsShouldRoundTripAcrossSegmentBoundaries() throws Exception {
+        ByteBuffer whole = ByteBuffer.wrap(Files.readAllBytes(file));
+        long indexOffset = whole.getLong(24);
+        int straddling = 0;
+        Set<Long> ids = new HashSet<>();
+
+        try (MappedPayloadFeeder feeder = MappedPayloadFeeder.open(file, false, SEGMENT_BITS)) {
+            assertThat(feeder.size()).isEqualTo(RECORDS);
+            for (int position = 0; position < RECORDS; position++) {
+                int entry = (int) (indexOffset + (long) position * MappedPayloadFeeder.INDEX_ENTRY_SIZE);
+                int start = (int) whole.getLong(entry);
+                int end = position + 1 < RECORDS ? (int) whole.getLong(entry + MappedPayloadFeeder.INDEX_ENTRY_SIZE)
+                        : (int) indexOffset;
+                byte[] expected = Arrays.copyOfRange(whole.array(), start, end);
+                if (start >>> SEGMENT_BITS != (end - 1) >>> SEGMENT_BITS) {
+                    straddling++;
+                }
+
+                Map<String, Object> record = feeder.next();
+                assertThat(record.get("todoId")).as("id of record %d", position).isEqualTo(whole.getLong(entry + 8));
+                assertThat((byte[]) record.get("todoPayload")).as("record %d", position).isEqualTo(expected);
+                Todo todo = objectMapper.readValue((byte[]) record.get("todoPayload"), Todo.class);
+                assertThat(todo.getId()).isEqualTo(record.get("todoId"));
+                ids.add(todo.getId());
+            }
+            assertThat(feeder.hasNext()).isFalse();
+            assertThatThrownBy(feeder::next).isInstanceOf(NoSuchElementException.class);
+        }
+        assertThat(straddling).isPositive();
+        assertThat(ids).hasSize(RECORDS);
+    }
+
+    @Test
+    public void smallSegmentsShouldReadLikeASingleMapping() throws Exception {
+        try (MappedPayloadFeeder segmented = MappedPayloadFeeder.open(file, false, SEGMENT_BITS);
+             MappedPayloadFeeder single = MappedPayloadFeeder.open(file)) {
+            for (long position = 0; position < RECORDS; position++) {
+                assertThat(segmented.id(position)).isEqualTo(single.id(position));
+                assertThat(segmented.payload(position)).isEqualTo(single.payload(position));
+            }
+        }
+    }
+
+    @Test
+    public void circularFeederShouldStartOver() throws Exception {
+        try (MappedPayloadFeeder feeder = MappedPayloadFeeder.open(file, true, SEGMENT_BITS)) {
+            Object first = feeder.next().get("todoId");
+            for (int i = 1; i < RECORDS; i++) {
+                feeder.next();
+            }
+            assertThat(feeder.hasNext()).isTrue();
+            assertThat(feeder.next().get("todoId")).isEqualTo(first);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package core;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.within;
+
+@Test(groups = {"unit"})
+public class OperationMixTest {
+
+    private static final int SAMPLES = 1_000_000;
+
+    private enum Operation { LIST, CREATE, DELETE }
+
+    @Test
+    public void mixShouldKeepTheListedWeights() {
+        OperationMix<Operation> mix = OperationMix.parse(" list:70, Create : 2.5 ,delete:0", Operation.class);
+
+        assertThat(mix.weights()).containsExactly(
+                entry(Operation.LIST, 70.0), entry(Operation.CREATE, 2.5), entry(Operation.DELETE, 0.0));
+    }
+
+    @Test
+    public void pickShouldFollowTheWeights() {
+        Map<Operation, Integer> counts = sample(OperationMix.parse("list:70,create:20,delete:10", Operation.class));
+
+        assertThat((double) counts.get(Operation.LIST) / SAMPLES).isCloseTo(0.7, within(0.005));
+        assertThat((double) counts.get(Operation.CREATE) / SAMPLES).isCloseTo(0.2, within(0.005));
+        assertThat((double) counts.get(Operation.DELETE) / SAMPLES).isCloseTo(0.1, within(0.005));
+    }
+
+    @Test
+    public void zeroWeightAndUnlistedOperationsShouldNeverBePicked() {
+        assertThat(sample(OperationMix.parse("list:1,delete:0", Operation.class))).containsOnlyKeys(Operation.LIST);
+        assertThat(sample(OperationMix.parse("create:0,delete:3", Operation.class))).containsOnlyKeys(Operation.DELETE);
+    }
+
+    @DataProvider
+    public Object[][] invalidMixes() {
+        return new Object[][]{
+                {"list", "Invalid mix entry 'list', expected <operation>:<weight>"},
+                {"list:1:2", "Invalid mix entry 'list:1:2', expected <operation>:<weight>"},
+                {"list:70,,create:5", "Invalid mix entry '', expected <operation>:<weight>"},
+                {"list:abc", "Invalid weight in mix entry 'list:abc'"},
+                {"list:-1,create:5", "Weight in mix entry 'list:-1' must be a non-negative number"},
+                {"list:NaN", "Weight in mix entry 'list:NaN' must be a non-negative number"},
+                {"list:Infinity", "Weight in mix entry 'list:Infinity' must be a non-negative number"},
+                {"list:1,upsert:1", "Unknown operation in mix entry 'upsert:1', expected one of list, create, delete"},
+                {"list:1,List:2", "Operation LIST is listed twice in mix 'list:1,List:2'"},
+                {"list:0,create:0", "Operation mix 'list:0,create:0' has no positive weight"},
+        };
+    }
+
+    @Test(dataProvider = "invalidMixes")
+    public void invalidMixShouldBeRejected(String mix, String message) {
+        assertThatThrownBy(() -> OperationMix.parse(mix, Operation.class))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage(message);
+    }
+
+    private static Map<Operation, Integer> sample(OperationMix<Operation> mix) {
+        Random random = new Random(7);
+        Map<Operation, Integer> counts = new EnumMap<>(Operation.class);
+        for (int i = 0; i < SAMPLES; i++) {
+            counts.merge(mix.pick(random), 1, Integer::sum);
+        }
+        return counts;
+    }
+}
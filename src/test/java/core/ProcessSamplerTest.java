@@ -0,0 +1,79 @@
+package core;
+
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Test(groups = {"unit"})
+public class ProcessSamplerTest {
+
+    // a command name with spaces and parentheses, utime 250 and stime 50 in fields 14 and 15
+    private static final String STAT = "4242 (java (worker) 1) S 1 4242 4242 0 -1 4194560 51234 0 12 0 250 50 0 0 20 0 "
+            + "31 0 123456 5000000000 120000 18446744073709551615 1 1 0 0 0 0 0 0 16800975 0 0 0 17 3 0 0 0 0 0";
+
+    @Test
+    public void cpuTicksShouldSkipCommandNameWithSpacesAndParentheses() {
+        assertThat(ProcessSampler.cpuTicks(STAT)).isEqualTo(300);
+    }
+
+    @Test
+    public void sampleShouldReadRssThreadsAndOpenFds() throws Exception {
+        Path proc = Files.createTempDirectory("proc");
+        Path dir = Files.createDirectories(proc.resolve("4242"));
+        Files.writeString(dir.resolve("stat"), STAT + "\n");
+        Files.write(dir.resolve("status"), List.of(
+                "Name:\tjava",
+                "VmPeak:\t 9999999 kB",
+                "VmRSS:\t  524288 kB",
+                "Threads:\t31"));
+        Path fds = Files.createDirectories(dir.resolve("fd"));
+        for (int fd = 0; fd < 5; fd++) {
+            Files.createFile(fds.resolve(String.valueOf(fd)));
+        }
+
+        try (ProcessSampler sampler = new ProcessSampler(4242, proc)) {
+            ProcessSample sample = sampler.sample().orElseThrow();
+
+            assertThat(sample.getRssBytes()).isEqualTo(512L * 1024 * 1024);
+            assertThat(sample.getThreads()).isEqualTo(31);
+            assertThat(sample.getOpenFds()).isEqualTo(5);
+            // no previous sample to take the CPU time difference from
+            assertThat(sample.getCpuPercent()).isZero();
+            assertThat(sample.getHeapUsedBytes()).isNull();
+            assertThat(sampler.samples()).containsExactly(sample);
+        }
+    }
+
+    @Test
+    public void cpuPercentShouldBeTicksSincePreviousSampleOverElapsedTime() throws Exception {
+        Path proc = Files.createTempDirectory("proc");
+        Path dir = Files.createDirectories(proc.resolve("4242"));
+        Files.writeString(dir.resolve("stat"), STAT);
+        Files.write(dir.resolve("status"), List.of("VmRSS:\t1024 kB", "Threads:\t1"));
+        Files.createDirectories(dir.resolve("fd"));
+
+        try (ProcessSampler sampler = new ProcessSampler(4242, proc)) {
+            sampler.sample();
+            long start = System.nanoTime();
+            // 100 more ticks: a second of CPU, spent within the elapsed time
+            Files.writeString(dir.resolve("stat"), STAT.replace(" 250 50 ", " 300 100 "));
+            Thread.sleep(200);
+            ProcessSample sample = sampler.sample().orElseThrow();
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+            assertThat(sample.getCpuPercent()).isBetween(100 / elapsedSeconds * 0.5, 100 / 0.2);
+        }
+    }
+
+    @Test
+    public void sampleOfMissingProcessShouldBeEmpty() throws Exception {
+        try (ProcessSampler sampler = new ProcessSampler(4242, Files.createTempDirectory("proc"))) {
+            assertThat(sampler.sample()).isEmpty();
+            assertThat(sampler.samples()).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package core;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@Test(groups = {"unit"})
+public class RegressionGateTest {
+
+    @Test
+    public void pValueShouldMatchNormalApproximationWithTies() {
+        // ranks of the run 4.5 + 6.5 + 8.5 + 10 + 11 + 12, U = 31.5, three pairs of ties
+        double pValue = RegressionGate.pValueGreater(new double[]{1, 2, 3, 4, 5, 6}, new double[]{4, 5, 6, 7, 8, 9});
+
+        assertThat(pValue).isCloseTo(0.01819, within(1e-4));
+    }
+
+    @Test
+    public void clearlySlowerRunShouldBeSignificant() {
+        double[] baseline = {10, 11, 12, 13, 14, 15, 16, 17, 18, 19};
+        double[] run = {20, 21, 22, 23, 24, 25, 26, 27, 28, 29};
+
+        assertThat(RegressionGate.pValueGreater(baseline, run)).isLessThan(0.001);
+        assertThat(RegressionGate.pValueGreater(run, baseline)).isGreaterThan(0.999);
+    }
+
+    @Test
+    public void sameValuesShouldNotBeSignificant() {
+        double[] values = {10, 12, 14, 16, 18};
+
+        assertThat(RegressionGate.pValueGreater(values, values.clone())).isGreaterThan(0.5);
+    }
+
+    @Test
+    public void allTiedValuesShouldNotBeSignificant() {
+        assertThat(RegressionGate.pValueGreater(new double[]{5, 5, 5}, new double[]{5, 5, 5})).isEqualTo(1.0);
+    }
+
+    @Test
+    public void normalCdfShouldMatchKnownQuantiles() {
+        assertThat(RegressionGate.normalCdf(0)).isCloseTo(0.5, within(1e-7));
+        assertThat(RegressionGate.normalCdf(1.959964)).isCloseTo(0.975, within(1e-6));
+        assertThat(RegressionGate.normalCdf(-1.959964)).isCloseTo(0.025, within(1e-6));
+    }
+}
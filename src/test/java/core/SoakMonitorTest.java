@@ -0,0 +1,118 @@
+package core;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@Test(groups = {"unit"})
+public class SoakMonitorTest {
+
+    private final LoadProfile profile = LoadProfile.builder()
+            .soakMaxLatencySlope(0.1)
+            .soakMaxResourceSlope(0.2)
+            .build();
+
+    @Test
+    public void slopeShouldBeGrowthPerHourRelativeToFirstCheckpoint() {
+        // p99 grows 10 ms per half hour from 100 ms: 20% of the first value per hour
+        List<SoakReport.Checkpoint> checkpoints = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            checkpoints.add(checkpoint(1800L * (i + 1), 50, 100 + 10 * i, 200));
+        }
+
+        Map<String, Double> slopes = SoakMonitor.slopes(checkpoints);
+
+        assertThat(slopes.get("p99")).isCloseTo(0.2, within(1e-9));
+        assertThat(slopes.get("p50")).isCloseTo(0.0, within(1e-9));
+        assertThat(slopes.get("rps")).isCloseTo(0.0, within(1e-9));
+        assertThat(slopes).doesNotContainKeys("cpu", "rss", "fds");
+        assertThat(SoakMonitor.violations(slopes, profile)).containsExactly("p99 grows 20.0%/h > 10.0%/h");
+    }
+
+    @Test
+    public void slopeShouldBeLeastSquaresFitOfNoisyCheckpoints() {
+        // relative p50 of 1.0, 1.2, 1.0, 1.2 at 1 h steps: fitted slope 0.04 per hour
+        List<SoakReport.Checkpoint> checkpoints = List.of(
+                checkpoint(3600, 10, 10, 100),
+                checkpoint(7200, 12, 10, 100),
+                checkpoint(10800, 10, 10, 100),
+                checkpoint(14400, 12, 10, 100));
+
+        Map<String, Double> slopes = SoakMonitor.slopes(checkpoints);
+
+        assertThat(slopes.get("p50")).isCloseTo(0.04, within(1e-9));
+        assertThat(SoakMonitor.violations(slopes, profile)).isEmpty();
+    }
+
+    @Test
+    public void resourcesShouldBeJudgedAgainstResourceSlope() {
+        // RSS doubles over two hours, CPU and fds stay flat
+        List<SoakReport.Checkpoint> checkpoints = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            SoakReport.Checkpoint checkpoint = checkpoint(3600L * (i + 1), 10, 20, 100);
+            checkpoint.setCpuPercent(40.0);
+            checkpoint.setRssMb(256.0 + 128 * i);
+            checkpoint.setOpenFds(80.0);
+            checkpoints.add(checkpoint);
+        }
+
+        Map<String, Double> slopes = SoakMonitor.slopes(checkpoints);
+
+        assertThat(slopes.get("rss")).isCloseTo(0.5, within(1e-9));
+        assertThat(slopes.get("cpu")).isCloseTo(0.0, within(1e-9));
+        assertThat(slopes.get("fds")).isCloseTo(0.0, within(1e-9));
+        assertThat(SoakMonitor.violations(slopes, profile)).containsExactly("rss grows 50.0%/h > 20.0%/h");
+    }
+
+    @Test
+    public void fallingThroughputShouldNotBeViolation() {
+        List<SoakReport.Checkpoint> checkpoints = List.of(
+                checkpoint(3600, 10, 20, 100),
+                checkpoint(7200, 10, 20, 50),
+                checkpoint(10800, 10, 20, 10));
+
+        Map<String, Double> slopes = SoakMonitor.slopes(checkpoints);
+
+        assertThat(slopes.get("rps")).isNegative();
+        assertThat(SoakMonitor.violations(slopes, profile)).isEmpty();
+    }
+
+    @Test
+    public void fewerThanThreeCheckpointsShouldGiveNoSlopes() {
+        assertThat(SoakMonitor.slopes(List.of(checkpoint(3600, 10, 20, 100), checkpoint(7200, 100, 200, 100))))
+                .isEmpty();
+    }
+
+    @Test
+    public void runWithoutEnoughCheckpointsShouldFailAsInconclusive() {
+        SoakReport report = new SoakMonitor(new RequestMetrics(), profile, null).stop("ShortSoak");
+
+        assertThat(report.isInconclusive()).isTrue();
+        assertThat(report.isPassed()).isFalse();
+        assertThat(report.getViolations()).containsExactly("only 0 checkpoints, at least 3 are needed to detect drift");
+    }
+
+    @Test
+    public void zeroFirstValueShouldGiveZeroSlope() {
+        List<SoakReport.Checkpoint> checkpoints = List.of(
+                checkpoint(3600, 0, 20, 100),
+                checkpoint(7200, 5, 20, 100),
+                checkpoint(10800, 10, 20, 100));
+
+        assertThat(SoakMonitor.slopes(checkpoints).get("p50")).isZero();
+    }
+
+    private static SoakReport.Checkpoint checkpoint(long endSeconds, double p50Ms, double p99Ms, double rps) {
+        return SoakReport.Checkpoint.builder()
+                .endSeconds(endSeconds)
+                .p50Ms(p50Ms)
+                .p99Ms(p99Ms)
+                .rps(rps)
+                .build();
+    }
+}
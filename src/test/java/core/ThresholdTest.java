@@ -0,0 +1,52 @@
+package core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Test(groups = {"unit"})
+public class ThresholdTest {
+
+    private static LatencySummary summary(long requests, double errorRate, double p95Ms) {
+        return LatencySummary.builder().requests(requests).errorRate(errorRate).p95Ms(p95Ms).maxMs(p95Ms).build();
+    }
+
+    @Test
+    public void limitShouldBeViolatedOnceReached() {
+        Threshold p95 = Threshold.global(Threshold.Metric.P95_MS, 100);
+
+        assertThat(p95.check(summary(10, 0, 99.9))).isNull();
+        assertThat(p95.check(summary(10, 0, 100))).isEqualTo("p95 100.0 ms >= 100 ms");
+    }
+
+    @Test
+    public void errorRateShouldNameTheRequest() {
+        Threshold errors = Threshold.request("create 1KB", Threshold.Metric.ERROR_RATE, 0.01);
+
+        assertThat(errors.check(summary(100, 0.005, 5000))).isNull();
+        assertThat(errors.check(summary(100, 0.02, 0))).isEqualTo("error rate of create 1KB 2.00% >= 1.00%");
+    }
+
+    @Test
+    public void missingRequestShouldBeAViolation() {
+        Threshold errors = Threshold.request("create 1KB", Threshold.Metric.ERROR_RATE, 0.01);
+
+        assertThat(errors.check(null)).isEqualTo("no requests recorded of create 1KB");
+        assertThat(errors.check(summary(0, 0, 0))).isEqualTo("no requests recorded of create 1KB");
+    }
+
+    @Test
+    public void thresholdsShouldSurviveTheInjectorResult() throws Exception {
+        List<Threshold> thresholds = List.of(Threshold.request("get", Threshold.Metric.ERROR_RATE, 0.05));
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        InjectorResult result = objectMapper.readValue(
+                objectMapper.writeValueAsString(InjectorResult.of(0, new RequestMetrics(), thresholds)),
+                InjectorResult.class);
+
+        assertThat(result.getThresholds()).isEqualTo(thresholds);
+    }
+}
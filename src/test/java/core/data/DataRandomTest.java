@@ -0,0 +1,29 @@
+package core.data;
+
+import org.testng.annotations.Test;
+import ru.gordeev.core.data.DataRandom;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Test(groups = {"unit"})
+public class DataRandomTest {
+
+    @Test
+    public void injectorsShouldGetDistinctIdSeedBits() {
+        Set<Long> seedParts = new HashSet<>();
+        for (int injector = 0; injector < DataRandom.SEEDED_INJECTORS; injector++) {
+            seedParts.add(DataRandom.idSeedPart(42, injector));
+        }
+
+        assertThat(seedParts).hasSize(DataRandom.SEEDED_INJECTORS)
+                .allMatch(part -> part >= 0 && part < DataRandom.SEEDED_INJECTORS);
+    }
+
+    @Test
+    public void singleInjectorShouldKeepTheSeedBitsOfTheSeed() {
+        assertThat(DataRandom.idSeedPart(42, 0)).isEqualTo(DataRandom.mix(42) & (DataRandom.SEEDED_INJECTORS - 1));
+    }
+}
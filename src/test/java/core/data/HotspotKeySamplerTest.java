@@ -0,0 +1,74 @@
+package core.data;
+
+import org.testng.annotations.Test;
+import ru.gordeev.core.data.HotspotKeySampler;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+@Test(groups = {"unit"})
+public class HotspotKeySamplerTest {
+
+    private static final int KEYS = 1_000;
+    private static final int SAMPLES = 1_000_000;
+
+    @Test
+    public void hotSetShouldGetItsShareOfTheDraws() {
+        HotspotKeySampler sampler = new HotspotKeySampler(KEYS, 0.01, 0.9);
+        long[] counts = sample(sampler);
+
+        long hot = 0;
+        for (int rank = 0; rank < sampler.hotKeys(); rank++) {
+            hot += counts[rank];
+        }
+        assertThat(sampler.hotKeys()).isEqualTo(10);
+        assertThat((double) hot / SAMPLES).isCloseTo(0.9, within(0.005));
+    }
+
+    @Test
+    public void keysShouldBeUniformWithinTheirSet() {
+        HotspotKeySampler sampler = new HotspotKeySampler(KEYS, 0.01, 0.9);
+        long[] counts = sample(sampler);
+
+        double hotPerKey = 0.9 * SAMPLES / 10;
+        double coldPerKey = 0.1 * SAMPLES / (KEYS - 10);
+        for (int rank = 0; rank < KEYS; rank++) {
+            double expected = rank < 10 ? hotPerKey : coldPerKey;
+            assertThat((double) counts[rank]).as("rank %d", rank).isCloseTo(expected, within(expected * 0.5));
+        }
+    }
+
+    @Test
+    public void hotSetShouldKeepAtLeastOneKey() {
+        HotspotKeySampler sampler = new HotspotKeySampler(KEYS, 0, 0.5);
+        long[] counts = sample(sampler);
+
+        assertThat(sampler.hotKeys()).isEqualTo(1);
+        assertThat((double) counts[0] / SAMPLES).isCloseTo(0.5, within(0.005));
+        assertThat(sample(new HotspotKeySampler(KEYS, 1, 0))).doesNotContain(0L);
+    }
+
+    @Test
+    public void invalidParametersShouldBeRejected() {
+        assertThatThrownBy(() -> new HotspotKeySampler(0, 0.01, 0.9))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Key count must be positive, got 0");
+        assertThatThrownBy(() -> new HotspotKeySampler(KEYS, 1.5, 0.9))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Hotspot fractions must be in [0, 1], got 1.5 and 0.9");
+        assertThatThrownBy(() -> new HotspotKeySampler(KEYS, 0.01, -0.1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HotspotKeySampler(KEYS, Double.NaN, 0.9)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static long[] sample(HotspotKeySampler sampler) {
+        Random random = new Random(7);
+        long[] counts = new long[sampler.keyCount()];
+        for (int i = 0; i < SAMPLES; i++) {
+            counts[sampler.sample(random)]++;
+        }
+        return counts;
+    }
+}
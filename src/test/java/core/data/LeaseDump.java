@@ -0,0 +1,34 @@
+package core.data;
+
+import ru.gordeev.core.data.LeasedBlockIdAllocator;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Leases blocks from a lease file and writes the first id of every block to an output file, for
+ * {@link LeasedBlockIdAllocatorTest}, which runs several of these JVMs on the same lease file at once.
+ * <p>
+ * Arguments: lease file, output file, number of leases, block size.
+ */
+public final class LeaseDump {
+
+    static final long INITIAL_ID = 1_000;
+
+    private LeaseDump() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int leases = Integer.parseInt(args[2]);
+        int blockSize = Integer.parseInt(args[3]);
+        LeasedBlockIdAllocator allocator = new LeasedBlockIdAllocator(Path.of(args[0]), blockSize, () -> INITIAL_ID);
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Path.of(args[1]), StandardCharsets.UTF_8))) {
+            for (int i = 0; i < leases; i++) {
+                out.println(allocator.lease(blockSize));
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package core.data;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import ru.gordeev.core.data.LeasedBlockIdAllocator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Test(groups = {"unit"})
+public class LeasedBlockIdAllocatorTest {
+
+    private static final int BLOCK_SIZE = 7;
+
+    private Path dir;
+    private Path leaseFile;
+
+    @BeforeMethod
+    public void createLeaseDir() throws IOException {
+        dir = Files.createTempDirectory("id-leases");
+        leaseFile = dir.resolve("ids.lease");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteLeaseDir() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void freshLeaseFileShouldStartAtTheInitialValue() {
+        LeasedBlockIdAllocator allocator = new LeasedBlockIdAllocator(leaseFile, BLOCK_SIZE, () -> 500);
+
+        assertThat(allocator.nextId()).isEqualTo(500);
+        assertThat(allocator.nextId()).isEqualTo(501);
+        assertThat(allocator.lease(3)).isEqualTo(500 + BLOCK_SIZE);
+        assertThat(new LeasedBlockIdAllocator(leaseFile, BLOCK_SIZE, () -> 0).lease(1)).isEqualTo(510);
+    }
+
+    @Test
+    public void allocatorsOfOneJvmShouldNeverShareAnId() throws Exception {
+        List<LeasedBlockIdAllocator> allocators = List.of(
+                new LeasedBlockIdAllocator(leaseFile, BLOCK_SIZE, () -> 0),
+                new LeasedBlockIdAllocator(leaseFile, BLOCK_SIZE, () -> 0));
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        int threads = 8;
+        int idsPerThread = 5_000;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                LeasedBlockIdAllocator allocator = allocators.get(thread % allocators.size());
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < idsPerThread; i++) {
+                        ids.add(allocator.nextId());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(ids).hasSize(threads * idsPerThread);
+    }
+
+    @Test
+    public void leasesOfTwoJvmsShouldNeverOverlap() throws Exception {
+        int leases = 300;
+        List<Process> processes = new ArrayList<>();
+        List<Path> outputs = new ArrayList<>();
+        for (int jvm = 0; jvm < 2; jvm++) {
+            Path output = dir.resolve("leases-" + jvm + ".txt");
+            outputs.add(output);
+            processes.add(new ProcessBuilder(
+                    Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-cp", System.getProperty("java.class.path"),
+                    LeaseDump.class.getName(), leaseFile.toString(), output.toString(),
+                    String.valueOf(leases), String.valueOf(BLOCK_SIZE))
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start());
+        }
+        for (Process process : processes) {
+            assertThat(process.waitFor(60, TimeUnit.SECONDS)).isTrue();
+            assertThat(process.exitValue()).as("exit code of the lease JVM").isZero();
+        }
+
+        List<Long> starts = new ArrayList<>();
+        for (Path output : outputs) {
+            List<String> lines = Files.readAllLines(output);
+            assertThat(lines).hasSize(leases);
+            lines.forEach(line -> starts.add(Long.parseLong(line)));
+        }
+        starts.sort(null);
+        // blocks of the same size that never overlap and leave no gaps start one block apart
+        for (int i = 0; i < starts.size(); i++) {
+            assertThat(starts.get(i)).isEqualTo(LeaseDump.INITIAL_ID + (long) i * BLOCK_SIZE);
+        }
+    }
+
+    @Test
+    public void blockSizeShouldBePositive() {
+        assertThatThrownBy(() -> new LeasedBlockIdAllocator(leaseFile, 0, () -> 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Lease block size must be positive: 0");
+    }
+}
@@ -0,0 +1,61 @@
+package core.data;
+
+import ru.gordeev.core.data.DataRandom;
+import ru.gordeev.core.data.ModelBuilder;
+import ru.gordeev.core.data.TestDataRegistry;
+import ru.gordeev.todo.data.TodoTestData;
+import ru.gordeev.todo.model.Todo;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Writes seeded test data, one value per line, to the file given as the second argument, for
+ * {@link SeededDataTest}. {@code data.seed} is read once per JVM, so the test runs this in a JVM of its own
+ * for every seed. A file rather than stdout keeps log output out of the dump.
+ */
+public final class SeededDataDump {
+
+    private SeededDataDump() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Path.of(args[1]), StandardCharsets.UTF_8))) {
+            switch (args[0]) {
+                case "streams" -> dumpStreams(out);
+                case "bulk" -> dumpBulkCalls(out);
+                default -> throw new IllegalArgumentException("Unknown dump " + args[0]);
+            }
+        }
+    }
+
+    // values a virtual user draws from its explicit stream
+    private static void dumpStreams(PrintWriter out) {
+        for (long key = 1; key <= 50; key++) {
+            DataRandom.withStream(key, () -> {
+                out.println(DataRandom.random().nextLong() + "\t" + DataRandom.random().nextGaussian()
+                        + "\t" + DataRandom.faker().name().fullName() + "\t" + DataRandom.uniqueText("Todo")
+                        + "\t" + DataRandom.nextStreamId());
+                return null;
+            });
+        }
+    }
+
+    // two bulk calls of the same size, separated by an empty line
+    private static void dumpBulkCalls(PrintWriter out) {
+        TestDataRegistry registry = new TestDataRegistry();
+        TodoTestData.register(registry);
+        ModelBuilder<Todo> builder = registry.getBuilderFor(Todo.class);
+        print(out, builder.parallelBuildList(200));
+        out.println();
+        print(out, builder.parallelBuildList(200));
+    }
+
+    private static void print(PrintWriter out, List<Todo> todos) {
+        todos.forEach(todo -> out.println(todo.getId() + "\t" + todo.getText() + "\t" + todo.getCompleted()));
+    }
+}
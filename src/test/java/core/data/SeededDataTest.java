@@ -0,0 +1,88 @@
+package core.data;
+
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Test(groups = {"unit"})
+public class SeededDataTest {
+
+    @Test
+    public void sameSeedShouldGiveIdenticalStreams() throws Exception {
+        String dump = dump(42, "streams");
+
+        assertThat(dump.lines()).hasSize(50);
+        assertThat(dump(42, "streams")).isEqualTo(dump);
+    }
+
+    @Test
+    public void differentSeedsShouldGiveDifferentStreams() throws Exception {
+        List<String> first = dump(42, "streams").lines().toList();
+        List<String> second = dump(43, "streams").lines().toList();
+
+        assertThat(second).hasSameSizeAs(first);
+        for (int i = 0; i < first.size(); i++) {
+            String[] values = first.get(i).split("\t");
+            String[] otherValues = second.get(i).split("\t");
+            // the name may repeat by chance, long, gaussian, text and id may not
+            for (int column : new int[]{0, 1, 3, 4}) {
+                assertThat(otherValues[column]).as("column %d of stream %d", column, i + 1)
+                        .isNotEqualTo(values[column]);
+            }
+        }
+    }
+
+    @Test
+    public void bulkCallsShouldNotRepeatEachOther() throws Exception {
+        String dump = dump(42, "bulk");
+        String[] calls = dump.split("\n\n");
+
+        assertThat(calls).hasSize(2);
+        List<String> first = calls[0].lines().toList();
+        List<String> second = calls[1].lines().toList();
+        assertThat(first).hasSize(200).doesNotHaveDuplicates();
+        assertThat(second).hasSize(200).doesNotHaveDuplicates();
+        assertThat(ids(first)).doesNotContainAnyElementsOf(ids(second));
+        assertThat(texts(first)).doesNotContainAnyElementsOf(texts(second));
+        // the same calls in the same order give the same data
+        assertThat(dump(42, "bulk")).isEqualTo(dump);
+    }
+
+    /**
+     * Runs {@link SeededDataDump} in a JVM of its own, as {@code data.seed} is read once per JVM.
+     */
+    static String dump(long seed, String what) throws IOException, InterruptedException {
+        Path file = Files.createTempFile("seeded-data", ".txt");
+        try {
+            List<String> command = List.of(
+                    Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-cp", System.getProperty("java.class.path"),
+                    "-Ddata.seed=" + seed,
+                    SeededDataDump.class.getName(), what, file.toString());
+            Process process = new ProcessBuilder(command)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            assertThat(process.waitFor(60, TimeUnit.SECONDS)).isTrue();
+            assertThat(process.exitValue()).as("exit code of the dump").isZero();
+            return Files.readString(file, StandardCharsets.UTF_8);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<String> ids(List<String> lines) {
+        return lines.stream().map(line -> line.split("\t")[0]).toList();
+    }
+
+    private static List<String> texts(List<String> lines) {
+        return lines.stream().map(line -> line.split("\t")[1]).toList();
+    }
+}
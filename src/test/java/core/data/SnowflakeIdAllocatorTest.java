@@ -0,0 +1,96 @@
+package core.data;
+
+import org.testng.annotations.Test;
+import ru.gordeev.core.data.SnowflakeIdAllocator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Test(groups = {"unit"})
+public class SnowflakeIdAllocatorTest {
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 20_000;
+
+    @Test
+    public void concurrentIdsShouldBeUniqueAndIncreasing() throws Exception {
+        assertUniqueAndIncreasing(new SnowflakeIdAllocator(5, 10, 12, 0), 12, 5);
+    }
+
+    @Test
+    public void idsShouldStayUniqueWhenTheSequenceOverflows() throws Exception {
+        // two ids per millisecond: the logical clock has to borrow milliseconds ahead of the wall clock
+        SnowflakeIdAllocator allocator = new SnowflakeIdAllocator(3, 4, 1, System.currentTimeMillis());
+
+        assertUniqueAndIncreasing(allocator, 1, 3);
+        assertThat(allocator.nextId() >>> 5).isGreaterThan(allocator.currentTimestamp());
+    }
+
+    @Test
+    public void nodeIdShouldFitIntoItsBits() {
+        assertThatThrownBy(() -> new SnowflakeIdAllocator(16, 4, 12, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Node id 16 does not fit into 4 bits");
+        assertThatThrownBy(() -> new SnowflakeIdAllocator(-1, 4, 12, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(new SnowflakeIdAllocator(15, 4, 12, 0).nextId() >>> 12 & 15).isEqualTo(15);
+    }
+
+    @Test
+    public void bitWidthsShouldBeValidated() {
+        assertThatThrownBy(() -> new SnowflakeIdAllocator(0, 12, 13, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid id layout: 12 node bits, 13 sequence bits");
+        assertThatThrownBy(() -> new SnowflakeIdAllocator(0, 4, 0, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SnowflakeIdAllocator(0, -1, 12, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void timestampBeyondItsBitsShouldBeRejected() {
+        SnowflakeIdAllocator allocator = new SnowflakeIdAllocator(0, 10, 12, 0);
+
+        assertThatThrownBy(() -> allocator.compose(1L << 41, 0))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("ids.epoch.millis");
+    }
+
+    private static void assertUniqueAndIncreasing(SnowflakeIdAllocator allocator, int sequenceBits, long nodeId)
+            throws Exception {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> threads = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                threads.add(executor.submit(() -> {
+                    start.await();
+                    long previous = -1;
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        long id = allocator.nextId();
+                        assertThat(id).isGreaterThan(previous);
+                        assertThat(id >>> sequenceBits & 15).isEqualTo(nodeId & 15);
+                        ids.add(id);
+                        previous = id;
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> thread : threads) {
+                thread.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(ids).hasSize(THREADS * IDS_PER_THREAD);
+    }
+}
@@ -0,0 +1,35 @@
+package core.data;
+
+import org.testng.annotations.Test;
+import ru.gordeev.core.data.TraceRecord;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Test(groups = {"unit"})
+public class TraceRecordTest {
+
+    @Test
+    public void recordWithHeadersShouldSurviveFormatAndParse() {
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Authorization", "Basic YWRtaW46YWRtaW4=");
+        headers.put("Accept", "application/json, text/plain; q=0.5");
+        TraceRecord record = new TraceRecord(1704067200000L, "PUT", "/todos/1?x=a%20b", "1-1.json", headers);
+
+        TraceRecord parsed = TraceRecord.parse(record.format());
+
+        assertThat(parsed).isEqualTo(record);
+        assertThat(parsed.headers()).containsExactlyEntriesOf(headers);
+    }
+
+    @Test
+    public void lineWithoutHeadersShouldParseWithNoHeaders() {
+        TraceRecord parsed = TraceRecord.parse("1704067200000\tGET\t/todos\t-");
+
+        assertThat(parsed.headers()).isEmpty();
+        assertThat(parsed.hasBody()).isFalse();
+        assertThat(parsed.format()).isEqualTo("1704067200000\tGET\t/todos\t-");
+    }
+}
@@ -0,0 +1,64 @@
+package core.data;
+
+import io.restassured.RestAssured;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.Filter;
+import org.testng.annotations.Test;
+import ru.gordeev.core.data.TraceRecord;
+import ru.gordeev.core.helpers.TraceRecordingFilter;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Test(groups = {"unit"})
+public class TraceRecordingFilterTest {
+
+    // answers every request without sending it
+    private static final Filter NO_SERVER = (request, response, context) ->
+            new ResponseBuilder().setStatusCode(204).setBody("").build();
+
+    @Test
+    public void credentialsShouldBeRedactedByDefault() throws Exception {
+        Map<String, String> headers = recordedHeaders(false);
+
+        assertThat(headers).containsEntry("Authorization", TraceRecord.REDACTED)
+                .containsEntry("Cookie", TraceRecord.REDACTED)
+                .containsEntry("X-Request-Source", "functional");
+    }
+
+    @Test
+    public void credentialsShouldBeRecordedOnlyWhenEnabled() throws Exception {
+        Map<String, String> headers = recordedHeaders(true);
+
+        assertThat(headers).containsEntry("Authorization", "Basic YWRtaW46YWRtaW4=")
+                .containsEntry("Cookie", "session=abc");
+    }
+
+    private static Map<String, String> recordedHeaders(boolean recordCredentials) throws Exception {
+        Path dir = Files.createTempDirectory("trace");
+        Path trace = dir.resolve("functional.trace");
+        try {
+            try (TraceRecordingFilter recorder = TraceRecordingFilter.toFile(trace.toString(), recordCredentials)) {
+                RestAssured.given()
+                        .filters(recorder, NO_SERVER)
+                        .header("Authorization", "Basic YWRtaW46YWRtaW4=")
+                        .header("Cookie", "session=abc")
+                        .header("X-Request-Source", "functional")
+                        .delete("http://localhost/todos/1");
+            }
+            List<String> lines = Files.readAllLines(trace);
+            assertThat(lines).hasSize(1);
+            return TraceRecord.parse(lines.get(0)).headers();
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+}
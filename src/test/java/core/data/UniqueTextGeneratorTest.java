@@ -0,0 +1,72 @@
+package core.data;
+
+import org.testng.annotations.Test;
+import ru.gordeev.core.data.ModelBuilder;
+import ru.gordeev.core.data.UniqueTextGenerator;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Test(groups = {"unit"})
+public class UniqueTextGeneratorTest {
+
+    @Test
+    public void suffixesOfOneThreadShouldBeUnique() {
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            seen.add(UniqueTextGenerator.next("Todo"));
+        }
+
+        assertThat(seen).hasSize(100_000).allMatch(text -> text.startsWith("Todo_"));
+    }
+
+    @Test
+    public void textsShouldBeUniqueAcrossThreads() throws Exception {
+        int threads = 8;
+        int textsPerThread = 10_000;
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < textsPerThread; i++) {
+                        seen.add(ModelBuilder.uniqueText("Todo"));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(seen).hasSize(threads * textsPerThread);
+    }
+
+    @Test
+    public void seededTextShouldDependOnSeedStreamAndCounterOnly() {
+        String text = UniqueTextGenerator.next("Todo", 42, 7, 3);
+
+        assertThat(UniqueTextGenerator.next("Todo", 42, 7, 3)).isEqualTo(text);
+        assertThat(UniqueTextGenerator.next("Todo", 43, 7, 3)).isNotEqualTo(text);
+        assertThat(UniqueTextGenerator.next("Todo", 42, 8, 3)).isNotEqualTo(text);
+        assertThat(UniqueTextGenerator.next("Todo", 42, 7, 4)).isNotEqualTo(text);
+    }
+
+    @Test
+    public void streamKeyAndCounterShouldNotRunTogether() {
+        // "1" + "23" and "12" + "3" would collide without the separator
+        assertThat(UniqueTextGenerator.next("Todo", 42, 1, 23))
+                .isNotEqualTo(UniqueTextGenerator.next("Todo", 42, 12, 3));
+    }
+}
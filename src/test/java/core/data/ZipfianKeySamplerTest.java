@@ -0,0 +1,82 @@
+package core.data;
+
+import org.testng.annotations.Test;
+import ru.gordeev.core.data.ZipfianKeySampler;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+@Test(groups = {"unit"})
+public class ZipfianKeySamplerTest {
+
+    private static final int KEYS = 1_000;
+    private static final double THETA = 0.99;
+    private static final int SAMPLES = 1_000_000;
+
+    @Test
+    public void topKeyShouldGetItsZipfianShare() {
+        long[] counts = sample(new ZipfianKeySampler(KEYS, THETA));
+
+        double zeta = 0;
+        for (int i = 1; i <= KEYS; i++) {
+            zeta += 1 / Math.pow(i, THETA);
+        }
+        assertThat((double) counts[0] / SAMPLES).isCloseTo(1 / zeta, within(0.005));
+        assertThat((double) counts[1] / SAMPLES).isCloseTo(Math.pow(0.5, THETA) / zeta, within(0.005));
+    }
+
+    @Test
+    public void popularityShouldFallWithTheRank() {
+        long[] counts = sample(new ZipfianKeySampler(KEYS, THETA));
+
+        // neighbouring tail ranks differ by less than the sampling noise, compare them in growing buckets
+        double previous = Double.MAX_VALUE;
+        for (int from = 0, to = 1; from < KEYS; from = to, to = Math.min(KEYS, to * 2)) {
+            long bucket = 0;
+            for (int rank = from; rank < to; rank++) {
+                bucket += counts[rank];
+            }
+            double perKey = (double) bucket / (to - from);
+            assertThat(perKey).as("keys %d..%d", from, to - 1).isLessThan(previous);
+            previous = perKey;
+        }
+        for (int rank = 1; rank < 10; rank++) {
+            assertThat(counts[rank]).as("rank %d", rank).isLessThan(counts[rank - 1]);
+        }
+    }
+
+    @Test
+    public void samplesShouldStayWithinTheKeys() {
+        long[] counts = sample(new ZipfianKeySampler(3, 0.5));
+
+        assertThat(counts[0]).isGreaterThan(counts[1]);
+        assertThat(counts[1]).isGreaterThan(counts[2]);
+        assertThat(counts[2]).isPositive();
+        assertThat(sample(new ZipfianKeySampler(1, THETA))[0]).isEqualTo(SAMPLES);
+    }
+
+    @Test
+    public void invalidParametersShouldBeRejected() {
+        assertThatThrownBy(() -> new ZipfianKeySampler(0, THETA))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Key count must be positive, got 0");
+        assertThatThrownBy(() -> new ZipfianKeySampler(KEYS, 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Zipfian theta must be in (0, 1), got 1.0");
+        assertThatThrownBy(() -> new ZipfianKeySampler(KEYS, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ZipfianKeySampler(KEYS, -0.5)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ZipfianKeySampler(KEYS, Double.NaN)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static long[] sample(ZipfianKeySampler sampler) {
+        Random random = new Random(7);
+        long[] counts = new long[sampler.keyCount()];
+        for (int i = 0; i < SAMPLES; i++) {
+            counts[sampler.sample(random)]++;
+        }
+        return counts;
+    }
+}
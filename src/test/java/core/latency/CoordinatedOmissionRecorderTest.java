@@ -0,0 +1,95 @@
+package core.latency;
+
+import org.testng.annotations.Test;
+import ru.gordeev.core.latency.CoordinatedOmissionRecorder;
+import ru.gordeev.core.latency.CorrectedLatency;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.assertj.core.api.Assertions.within;
+
+@Test(groups = {"unit"})
+public class CoordinatedOmissionRecorderTest {
+
+    @Test
+    public void lateSendShouldCountFromIntendedStart() {
+        CoordinatedOmissionRecorder recorder = new CoordinatedOmissionRecorder();
+        recorder.record("GET /todos", millis(0), millis(100), millis(150), true);
+
+        CorrectedLatency latency = only(recorder);
+
+        assertThat(latency.getServiceMaxMs()).isCloseTo(50, within(0.1));
+        assertThat(latency.getResponseMaxMs()).isCloseTo(150, within(0.1));
+        assertThat(latency.getMeanQueueingMs()).isCloseTo(100, within(0.1));
+    }
+
+    @Test
+    public void earlySendShouldCountFromActualStart() {
+        CoordinatedOmissionRecorder recorder = new CoordinatedOmissionRecorder();
+        recorder.record("GET /todos", millis(200), millis(100), millis(150), true);
+
+        CorrectedLatency latency = only(recorder);
+
+        assertThat(latency.getResponseMaxMs()).isEqualTo(latency.getServiceMaxMs());
+        assertThat(latency.getMeanQueueingMs()).isZero();
+    }
+
+    @Test
+    public void stallShouldShowInResponseTimesOfQueuedRequests() {
+        CoordinatedOmissionRecorder recorder = new CoordinatedOmissionRecorder();
+        // slots every 10 ms; the first request stalls for 100 ms, the other nine follow back to back in 1 ms each
+        recorder.recordMillis("PUT /todos/{id}", 0, 0, 100, true);
+        for (int k = 1; k <= 9; k++) {
+            long start = 100 + (k - 1);
+            recorder.recordMillis("PUT /todos/{id}", 10L * k, start, start + 1, true);
+        }
+
+        CorrectedLatency latency = only(recorder);
+
+        assertThat(latency.getRequests()).isEqualTo(10);
+        assertThat(latency.getServiceP50Ms()).isCloseTo(1, within(0.01));
+        // from the slots: 100, then 91, 82, ..., 19 ms
+        assertThat(latency.getResponseP50Ms()).isCloseTo(55, within(0.1));
+        assertThat(latency.getResponseP90Ms()).isCloseTo(91, within(0.1));
+        assertThat(latency.getResponseMaxMs()).isCloseTo(100, within(0.1));
+    }
+
+    @Test
+    public void failedRequestsShouldBeRecordedAndCounted() {
+        CoordinatedOmissionRecorder recorder = new CoordinatedOmissionRecorder();
+        recorder.record("DELETE /todos/{id}", millis(0), millis(0), millis(30), false);
+        recorder.record("DELETE /todos/{id}", millis(10), millis(30), millis(40), true);
+
+        CorrectedLatency latency = only(recorder);
+
+        assertThat(latency.getRequests()).isEqualTo(2);
+        assertThat(latency.getErrors()).isEqualTo(1);
+        assertThat(latency.getResponseMaxMs()).isCloseTo(30, within(0.1));
+    }
+
+    @Test
+    public void summariesShouldBeCumulativeAndSortedByName() {
+        CoordinatedOmissionRecorder recorder = new CoordinatedOmissionRecorder();
+        recorder.record("b", 0, 0, millis(1), true);
+        recorder.record("a", 0, 0, millis(1), true);
+        recorder.summarize();
+        recorder.record("a", 0, 0, millis(1), true);
+
+        assertThat(recorder.summarize())
+                .extracting(CorrectedLatency::getName, CorrectedLatency::getRequests)
+                .containsExactly(
+                        tuple("a", 2L),
+                        tuple("b", 1L));
+    }
+
+    private static CorrectedLatency only(CoordinatedOmissionRecorder recorder) {
+        assertThat(recorder.summarize()).hasSize(1);
+        return recorder.summarize().get(0);
+    }
+
+    private static long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
@@ -0,0 +1,76 @@
+package core.latency;
+
+import org.testng.annotations.Test;
+import ru.gordeev.core.latency.IntendedStart;
+import ru.gordeev.core.latency.RequestSchedule;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Test(groups = {"unit"})
+public class RequestScheduleTest {
+
+    @Test
+    public void slotsShouldBeOneIntervalApartRegardlessOfLateness() throws InterruptedException {
+        RequestSchedule schedule = RequestSchedule.every(Duration.ofMillis(20));
+
+        long first = schedule.awaitNext();
+        TimeUnit.MILLISECONDS.sleep(100);
+        long second = schedule.awaitNext();
+        long third = schedule.awaitNext();
+
+        assertThat(second - first).isEqualTo(TimeUnit.MILLISECONDS.toNanos(20));
+        assertThat(third - second).isEqualTo(TimeUnit.MILLISECONDS.toNanos(20));
+        // behind schedule: the slots are handed out without waiting and the lag shows it
+        assertThat(System.nanoTime() - third).isGreaterThan(TimeUnit.MILLISECONDS.toNanos(50));
+        assertThat(schedule.lag()).isGreaterThan(Duration.ofMillis(30));
+    }
+
+    @Test
+    public void awaitNextShouldWaitForAFutureSlot() throws InterruptedException {
+        Duration interval = Duration.ofMillis(200);
+        RequestSchedule schedule = RequestSchedule.every(interval);
+
+        schedule.awaitNext();
+        long slot = schedule.awaitNext();
+
+        // never returns before its slot, and once there the next slot is at most one interval behind
+        assertThat(System.nanoTime()).isGreaterThanOrEqualTo(slot);
+        assertThat(schedule.lag()).isLessThan(interval);
+    }
+
+    @Test
+    public void nonPositiveIntervalShouldBeRejected() {
+        assertThatThrownBy(() -> RequestSchedule.every(Duration.ZERO)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void intendedStartShouldBeBoundOnlyWhileRunning() throws Exception {
+        assertThat(IntendedStart.forRequest(42)).isEqualTo(42);
+
+        long inner = IntendedStart.call(1, () -> IntendedStart.call(2, () -> IntendedStart.forRequest(42)));
+        long outer = IntendedStart.at(1, () -> {
+            IntendedStart.at(2, () -> { });
+            return IntendedStart.forRequest(42);
+        });
+
+        assertThat(inner).isEqualTo(2);
+        assertThat(outer).isEqualTo(1);
+        assertThat(IntendedStart.forRequest(42)).isEqualTo(42);
+    }
+
+    @Test
+    public void laterRequestsOfABindingShouldGetTheirOwnIntendedStart() throws Exception {
+        // slot at 100, first request sent at 130, second at 180 after the first took 50
+        long[] starts = IntendedStart.call(100, () -> new long[]{
+                IntendedStart.forRequest(130),
+                IntendedStart.forRequest(180),
+                IntendedStart.call(500, () -> IntendedStart.forRequest(520)),
+                IntendedStart.forRequest(600)});
+
+        assertThat(starts).containsExactly(100, 150, 500, 570);
+    }
+}
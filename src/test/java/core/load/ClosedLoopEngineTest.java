@@ -0,0 +1,60 @@
+package core.load;
+
+import org.testng.annotations.Test;
+import ru.gordeev.core.load.ClosedLoopEngine;
+import ru.gordeev.core.load.LoadResult;
+import ru.gordeev.core.load.LoadScript;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Test(groups = {"unit"})
+public class ClosedLoopEngineTest {
+
+    @Test
+    public void stallShouldShowInCorrectedPercentilesOnly() throws InterruptedException {
+        LoadResult.StepResult step = runStallingWorker(Duration.ofMillis(10));
+
+        assertThat(step.getExpectedIntervalMillis()).isEqualTo(10.0);
+        // the one 500 ms request is under 1% of the raw samples
+        assertThat(step.getP90Millis()).isLessThan(50);
+        assertThat(step.getMaxMillis()).isGreaterThanOrEqualTo(500);
+        // the requests the stall held back, one per 10 ms waiting 490, 480, ... ms, make up over 10% once added
+        assertThat(step.getCorrectedP90Millis()).isGreaterThan(200);
+        assertThat(step.getCorrectedMaxMillis()).isGreaterThanOrEqualTo(step.getMaxMillis());
+    }
+
+    @Test
+    public void expectedIntervalShouldDefaultToThinkTimePlusMedian() throws InterruptedException {
+        LoadResult.StepResult step = runStallingWorker(Duration.ZERO);
+
+        // estimated from the 5 ms requests, not from the stall
+        assertThat(step.getExpectedIntervalMillis()).isPositive().isLessThan(100);
+        assertThat(step.getCorrectedP90Millis()).isGreaterThan(step.getP90Millis());
+        assertThat(step.getCorrectedMaxMillis()).isGreaterThanOrEqualTo(step.getMaxMillis());
+    }
+
+    /**
+     * One worker whose requests take 5 ms, except the first one, which stalls for 500 ms.
+     */
+    private static LoadResult.StepResult runStallingWorker(Duration expectedInterval) throws InterruptedException {
+        AtomicBoolean stalled = new AtomicBoolean();
+        LoadScript<Object> script = LoadScript.named("stall").step("request", (client, context) ->
+                TimeUnit.MILLISECONDS.sleep(stalled.getAndSet(true) ? 5 : 500));
+        ClosedLoopEngine engine = new ClosedLoopEngine(ClosedLoopEngine.Settings.builder()
+                .workers(1)
+                .duration(Duration.ofMillis(1_500))
+                .expectedInterval(expectedInterval)
+                .reportInterval(Duration.ZERO)
+                .build());
+
+        LoadResult result = engine.run(script, Object::new);
+
+        assertThat(result.getErrors()).isZero();
+        assertThat(result.getSteps()).hasSize(1);
+        return result.getSteps().get(0);
+    }
+}
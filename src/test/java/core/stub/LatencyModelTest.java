@@ -0,0 +1,74 @@
+package core.stub;
+
+import org.testng.annotations.Test;
+import ru.gordeev.todo.stub.LatencyModel;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+@Test(groups = {"unit"})
+public class LatencyModelTest {
+
+    private static final int SAMPLES = 100_000;
+
+    @Test
+    public void fixedAndNoneShouldNotVary() {
+        Random random = new Random(1);
+
+        assertThat(LatencyModel.parse("none").sampleMicros(random)).isZero();
+        assertThat(LatencyModel.parse("fixed:2.5").sampleMicros(random)).isEqualTo(2_500);
+    }
+
+    @Test
+    public void uniformShouldStayWithinBounds() {
+        long[] samples = sample(LatencyModel.parse("uniform:5:15"));
+
+        assertThat(Arrays.stream(samples).min().orElseThrow()).isGreaterThanOrEqualTo(5_000);
+        assertThat(Arrays.stream(samples).max().orElseThrow()).isLessThan(15_000);
+        assertThat(mean(samples)).isCloseTo(10_000, within(100.0));
+    }
+
+    @Test
+    public void exponentialShouldHaveConfiguredMean() {
+        long[] samples = sample(LatencyModel.parse("exponential:10"));
+
+        assertThat(Arrays.stream(samples).min().orElseThrow()).isNotNegative();
+        assertThat(mean(samples)).isCloseTo(10_000, within(200.0));
+    }
+
+    @Test
+    public void logNormalShouldHaveConfiguredMedianAndLongTail() {
+        long[] samples = sample(LatencyModel.parse("LogNormal:10:0.5"));
+        Arrays.sort(samples);
+
+        assertThat((double) samples[SAMPLES / 2]).isCloseTo(10_000, within(200.0));
+        // p99 of a log-normal is the median times exp(2.326 * sigma)
+        assertThat((double) samples[SAMPLES * 99 / 100]).isCloseTo(10_000 * Math.exp(2.326 * 0.5), within(1_000.0));
+    }
+
+    @Test
+    public void invalidSpecsShouldBeRejected() {
+        assertThatThrownBy(() -> LatencyModel.parse("gamma:1")).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unknown latency model 'gamma'");
+        assertThatThrownBy(() -> LatencyModel.parse("uniform:1")).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid latency model 'uniform:1'");
+        assertThatThrownBy(() -> LatencyModel.parse("fixed:ms")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static long[] sample(LatencyModel model) {
+        Random random = new Random(42);
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            samples[i] = model.sampleMicros(random);
+        }
+        return samples;
+    }
+
+    private static double mean(long[] samples) {
+        return Arrays.stream(samples).average().orElseThrow();
+    }
+}
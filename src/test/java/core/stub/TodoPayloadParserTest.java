@@ -0,0 +1,59 @@
+package core.stub;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import ru.gordeev.core.errors.ErrorMessages;
+import ru.gordeev.todo.model.Todo;
+import ru.gordeev.todo.stub.TodoPayloadParser;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Test(groups = {"unit"})
+public class TodoPayloadParserTest {
+
+    @Test
+    public void validPayloadShouldParse() throws TodoPayloadParser.InvalidPayloadException {
+        Todo todo = TodoPayloadParser.parse(bytes("{\"id\":9223372036854775807,\"text\":\"Buy milk\",\"completed\":true}"));
+
+        assertThat(todo).isEqualTo(new Todo(Long.MAX_VALUE, "Buy milk", true));
+    }
+
+    @DataProvider
+    public Object[][] invalidPayloads() {
+        return new Object[][]{
+                {"[]", ErrorMessages.invalidType("sequence", "struct Todo")},
+                {"{\"text\":\"a\",\"completed\":false}", ErrorMessages.missingField("id")},
+                {"{\"id\":-1,\"text\":\"a\",\"completed\":false}", ErrorMessages.invalidType("integer `-1`", "u64")},
+                {"{\"id\":1.5,\"text\":\"a\",\"completed\":false}", ErrorMessages.invalidType("floating point `1.5`", "u64")},
+                {"{\"id\":\"1\",\"text\":\"a\",\"completed\":false}", ErrorMessages.invalidType("string \"1\"", "u64")},
+                {"{\"id\":18446744073709551616,\"text\":\"a\",\"completed\":false}",
+                        ErrorMessages.invalidType("floating point `1.8446744073709552e19`", "u64")},
+                {"{\"id\":1,\"completed\":false}", ErrorMessages.missingField("text")},
+                {"{\"id\":1,\"text\":null,\"completed\":false}", ErrorMessages.NULL_NOT_A_STRING},
+                {"{\"id\":1,\"text\":5,\"completed\":false}", ErrorMessages.invalidType("integer `5`", "a string")},
+                {"{\"id\":1,\"text\":\"a\"}", ErrorMessages.missingField("completed")},
+                {"{\"id\":1,\"text\":\"a\",\"completed\":\"yes\"}", ErrorMessages.invalidType("string \"yes\"", "a boolean")},
+        };
+    }
+
+    @Test(dataProvider = "invalidPayloads")
+    public void invalidPayloadShouldBeRejectedWithServiceMessage(String body, String message) {
+        assertThatThrownBy(() -> TodoPayloadParser.parse(bytes(body)))
+                .isInstanceOf(TodoPayloadParser.InvalidPayloadException.class)
+                .hasMessage(message);
+    }
+
+    @Test
+    public void malformedJsonShouldBeADeserializeError() {
+        assertThatThrownBy(() -> TodoPayloadParser.parse(bytes("{\"id\":")))
+                .isInstanceOf(TodoPayloadParser.InvalidPayloadException.class)
+                .hasMessageStartingWith("Request body deserialize error: ");
+    }
+
+    private static byte[] bytes(String body) {
+        return body.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -7,7 +7,9 @@ import io.restassured.filter.log.ResponseLoggingFilter;
 import io.restassured.http.ContentType;
 import lombok.extern.slf4j.Slf4j;
 import org.testng.annotations.AfterMethod;
+import org.testng.annotations.AfterSuite;
 import org.testng.annotations.BeforeClass;
+import ru.gordeev.core.helpers.TraceRecordingFilter;
 import ru.gordeev.todo.api.TodoApiService;
 import ru.gordeev.todo.api.TodoWebSocketService;
 import ru.gordeev.todo.data.TodoTestData;
@@ -27,16 +29,21 @@ public abstract class BaseTodoTest extends BaseTest {
     protected TodoApiService todoApi;
     protected TodoWebSocketService todoWebSocket;
     private final Queue<Long> todosToCleanup = new ConcurrentLinkedQueue<>();
+    // one recorder for all test classes, so they append to the same trace
+    private static TraceRecordingFilter traceRecorder;
 
     @Override
     protected void configureServices() {
-        var requestSpec = new RequestSpecBuilder()
+        var specBuilder = new RequestSpecBuilder()
                 .setContentType(ContentType.JSON)
                 .setAccept(ContentType.JSON)
                 .addFilter(new RequestLoggingFilter())
                 .addFilter(new ResponseLoggingFilter())
-                .addFilter(withCustomTemplates())
-                .build();
+                .addFilter(withCustomTemplates());
+        if (config.traceRecordFile() != null) {
+            specBuilder.addFilter(traceRecorder());
+        }
+        var requestSpec = specBuilder.build();
 
         var todoService = new TodoApiService(requestSpec, config);
         var webSocketService = new TodoWebSocketService(config);
@@ -45,6 +52,25 @@ public abstract class BaseTodoTest extends BaseTest {
         api.register(TodoWebSocketService.class, webSocketService);
     }
 
+    private TraceRecordingFilter traceRecorder() {
+        synchronized (BaseTodoTest.class) {
+            if (traceRecorder == null) {
+                traceRecorder = TraceRecordingFilter.toFile(config.traceRecordFile(), config.traceRecordCredentials());
+            }
+            return traceRecorder;
+        }
+    }
+
+    @AfterSuite(alwaysRun = true)
+    public void closeTraceRecorder() {
+        synchronized (BaseTodoTest.class) {
+            if (traceRecorder != null) {
+                traceRecorder.close();
+                traceRecorder = null;
+            }
+        }
+    }
+
     @Override
     protected void configureTestData() {
         TodoTestData.register(testData);